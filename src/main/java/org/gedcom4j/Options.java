@@ -27,42 +27,81 @@
 package org.gedcom4j;
 
 /**
+ * <p>
  * A utility class to hold a variety of options for gedcom4j processing.
+ * </p>
+ * <p>
+ * Each option has a global value, and can be overridden for the current thread, so that loads with different settings can run at
+ * the same time in one JVM. A {@link org.gedcom4j.parser.GedcomParser} applies the value in effect on the thread that starts a
+ * load (for {@link org.gedcom4j.parser.GedcomParser#loadAsync(java.nio.file.Path, java.util.concurrent.Executor)}, the thread that
+ * calls it) to every thread it uses for that load.
+ * </p>
  * 
  * @author frizbog
  * @since 3.0.0
  */
 public final class Options {
 
-    /** Should collections in the object model be pre-initialized? NOT THREADSAFE. */
-    private static boolean collectionInitializationEnabled = false;
+    /** Should collections in the object model be pre-initialized, unless overridden for the current thread? */
+    private static volatile boolean collectionInitializationEnabled = false;
+
+    /** Whether collections in the object model should be pre-initialized on the current thread, or null to use the global value */
+    private static final ThreadLocal<Boolean> THREAD_COLLECTION_INITIALIZATION_ENABLED = new ThreadLocal<>();
+
+    /**
+     * Get the value set for the current thread of whether collections in the object model should be pre-initialized
+     * 
+     * @return whether collections in the object model should be pre-initialized on the current thread, or null if the global
+     *         value is used
+     */
+    public static Boolean getThreadCollectionInitializationEnabled() {
+        return THREAD_COLLECTION_INITIALIZATION_ENABLED.get();
+    }
 
     /**
-     * Get whether collections in the object model should be pre-initialized. NOT THREADSAFE.
+     * Get whether collections in the object model should be pre-initialized on the current thread - the value set for the current
+     * thread if there is one, otherwise the global value
      * 
-     * @return whether collections in the object model should be pre-initialized. NOT THREADSAFE.
+     * @return whether collections in the object model should be pre-initialized
      */
     public static boolean isCollectionInitializationEnabled() {
-        return collectionInitializationEnabled;
+        Boolean b = THREAD_COLLECTION_INITIALIZATION_ENABLED.get();
+        return b == null ? collectionInitializationEnabled : b;
     }
 
     /**
-     * Reset all options to defaults
+     * Reset all options to defaults, globally and for the current thread
      */
     public static void resetToDefaults() {
         collectionInitializationEnabled = false;
+        THREAD_COLLECTION_INITIALIZATION_ENABLED.remove();
     }
 
     /**
-     * Set whether collections in the object model should be pre-initialized. NOT THREADSAFE.
+     * Set whether collections in the object model should be pre-initialized, on every thread that has not overridden it
      * 
      * @param collectionInitializationEnabled
-     *            whether collections in the object model should be pre-initialized. NOT THREADSAFE.
+     *            whether collections in the object model should be pre-initialized
      */
     public static void setCollectionInitializationEnabled(boolean collectionInitializationEnabled) {
         Options.collectionInitializationEnabled = collectionInitializationEnabled;
     }
 
+    /**
+     * Set whether collections in the object model should be pre-initialized on the current thread, overriding the global value
+     * 
+     * @param collectionInitializationEnabled
+     *            whether collections in the object model should be pre-initialized on the current thread, or null to go back to
+     *            using the global value
+     */
+    public static void setThreadCollectionInitializationEnabled(Boolean collectionInitializationEnabled) {
+        if (collectionInitializationEnabled == null) {
+            THREAD_COLLECTION_INITIALIZATION_ENABLED.remove();
+        } else {
+            THREAD_COLLECTION_INITIALIZATION_ENABLED.set(collectionInitializationEnabled);
+        }
+    }
+
     /**
      * Private constructor prevents instantiation and subclassing.
      */
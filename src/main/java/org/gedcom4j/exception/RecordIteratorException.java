@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.exception;
+
+/**
+ * Exception indicating that a {@link org.gedcom4j.parser.RecordIterator} could not read or parse the next record. Since
+ * {@link java.util.Iterator} methods cannot throw checked exceptions, the underlying {@link java.io.IOException} or
+ * {@link GedcomParserException} is wrapped in this one, and is available as its cause.
+ * 
+ * @author frizbog
+ */
+public class RecordIteratorException extends RuntimeException {
+
+    /**
+     * Serial version uid
+     */
+    private static final long serialVersionUID = 4127503318694421187L;
+
+    /**
+     * No-arg constructor
+     */
+    public RecordIteratorException() {
+        super();
+    }
+
+    /**
+     * Constructor that takes just a message
+     * 
+     * @param message
+     *            the message
+     */
+    public RecordIteratorException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructor that takes a message and a cause
+     * 
+     * @param message
+     *            the message
+     * @param cause
+     *            the cause
+     */
+    public RecordIteratorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    /**
+     * Constructor that takes just a cause
+     * 
+     * @param cause
+     *            the cause
+     */
+    public RecordIteratorException(Throwable cause) {
+        super(cause);
+    }
+
+}
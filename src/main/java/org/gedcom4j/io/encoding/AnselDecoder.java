@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.encoding;
+
+/**
+ * <p>
+ * A table-driven decoder that turns a block of ANSEL characters into UTF-16 in a single pass. This does the same job as
+ * {@link AnselHandler#toUtf16(String)} (which delegates to it), but without going through the big switch statements in
+ * {@link AnselMapping#decode(int)} and {@link AnselHandler#getCombinedGlyph(char, char, char)} for every character.
+ * </p>
+ * <p>
+ * Two tables are built once, when the class is loaded, and are read-only after that, so they can be shared by any number of readers
+ * on any number of threads:
+ * </p>
+ * <ul>
+ * <li>A 256-entry table of the UTF-16 character for each ANSEL byte</li>
+ * <li>A table of the pre-combined UTF-16 glyphs for each combination of one or two combining diacritics and a base character. Only
+ * the combinations of diacritics that actually have pre-combined glyphs take up any room.</li>
+ * </ul>
+ * <p>
+ * As with {@link AnselHandler#toUtf16(String)}, ANSEL puts combining diacritics <em>before</em> the base character, and this class
+ * either replaces the diacritics and base character with a pre-combined glyph, or reorders them so the diacritics follow the base
+ * character as UTF-16 requires.
+ * </p>
+ * 
+ * @author frizbog
+ */
+public final class AnselDecoder {
+
+    /**
+     * The byte value at which combining diacritics begin in ANSEL encoding
+     */
+    private static final char ANSEL_DIACRITICS_BEGIN_AT = 0x00E0;
+
+    /**
+     * The number of different combining diacritic values (0xE0 through 0xFF)
+     */
+    private static final int NUM_DIACRITICS = 0x0100 - ANSEL_DIACRITICS_BEGIN_AT;
+
+    /**
+     * Base characters for pre-combined glyphs are all below this value
+     */
+    private static final int COMBINABLE_BASE_CHARS = 0x0080;
+
+    /**
+     * The UTF-16 character for each ANSEL byte
+     */
+    private static final char[] DECODED = new char[256];
+
+    /**
+     * The pre-combined glyphs. The first index is for the pair of diacritics - see {@link #diacriticPairIndex(char, char)}. The
+     * second index is the base character. Rows for diacritic pairs that never combine with anything are null.
+     */
+    private static final char[][] COMBINED = new char[NUM_DIACRITICS * (NUM_DIACRITICS + 1)][];
+
+    static {
+        for (int b = 0; b < DECODED.length; b++) {
+            DECODED[b] = AnselMapping.decode(b);
+        }
+        AnselHandler handler = new AnselHandler();
+        for (int d1 = 0; d1 < NUM_DIACRITICS; d1++) {
+            char diacritic1 = (char) (ANSEL_DIACRITICS_BEGIN_AT + d1);
+            for (int d2 = 0; d2 <= NUM_DIACRITICS; d2++) {
+                char diacritic2 = d2 == 0 ? 0 : (char) (ANSEL_DIACRITICS_BEGIN_AT + d2 - 1);
+                char[] row = null;
+                for (char base = 0; base < COMBINABLE_BASE_CHARS; base++) {
+                    char combined = handler.getCombinedGlyph(base, diacritic1, diacritic2);
+                    if (combined != 0) {
+                        if (row == null) {
+                            row = new char[COMBINABLE_BASE_CHARS];
+                        }
+                        row[base] = combined;
+                    }
+                }
+                COMBINED[diacriticPairIndex(diacritic1, diacritic2)] = row;
+            }
+        }
+    }
+
+    /**
+     * Decode a block of ANSEL characters into UTF-16
+     * 
+     * @param ansel
+     *            the ANSEL data, one byte per character, unconverted and in the original order
+     * @param start
+     *            the index of the first character to decode
+     * @param end
+     *            the index after the last character to decode
+     * @param utf16
+     *            the array to put the decoded characters into. Must have room for at least <code>end - start</code> characters
+     *            after <code>utf16Start</code>, since decoding never produces more characters than it consumes.
+     * @param utf16Start
+     *            the index in <code>utf16</code> at which to put the first decoded character
+     * @return the number of UTF-16 characters produced
+     */
+    public static int decode(char[] ansel, int start, int end, char[] utf16, int utf16Start) {
+        int anselIdx = start;
+        int utfIdx = utf16Start;
+        while (anselIdx < end) {
+            char c = ansel[anselIdx++];
+            // If the character isn't a diacritical character, or there's nothing after it to modify, just map it
+            if (c < ANSEL_DIACRITICS_BEGIN_AT || anselIdx >= end) {
+                utf16[utfIdx++] = decode(c);
+                continue;
+            }
+
+            // It's a diacritic, but there might be two diacritics before the actual character
+            char diacritic1 = c;
+            char diacritic2 = 0;
+            c = ansel[anselIdx++];
+            if (c >= ANSEL_DIACRITICS_BEGIN_AT) {
+                diacritic2 = c;
+                if (anselIdx >= end) {
+                    // Two diacritics with nothing after them to modify
+                    utf16[utfIdx++] = decode(diacritic1);
+                    utf16[utfIdx++] = decode(diacritic2);
+                    continue;
+                }
+                c = ansel[anselIdx++];
+            }
+
+            char combined = getCombinedGlyph(c, diacritic1, diacritic2);
+            if (combined == 0) {
+                // No combined glyph available - base character first, then the combining diacritics
+                utf16[utfIdx++] = decode(c);
+                utf16[utfIdx++] = decode(diacritic1);
+                if (diacritic2 != 0) {
+                    utf16[utfIdx++] = decode(diacritic2);
+                }
+            } else {
+                utf16[utfIdx++] = combined;
+            }
+        }
+        return utfIdx - utf16Start;
+    }
+
+    /**
+     * Decode a single ANSEL character, without regard to any combining diacritics
+     * 
+     * @param c
+     *            the ANSEL character
+     * @return the UTF-16 character
+     */
+    static char decode(char c) {
+        if (c < DECODED.length) {
+            return DECODED[c];
+        }
+        return AnselMapping.decode(c);
+    }
+
+    /**
+     * Get the pre-combined glyph for a base character and its combining diacritics
+     * 
+     * @param baseChar
+     *            the base character, in ANSEL
+     * @param diacritic1
+     *            the first combining diacritic, in ANSEL
+     * @param diacritic2
+     *            the second combining diacritic, in ANSEL, or zero if there is only one
+     * @return the pre-combined glyph, or zero if there isn't one
+     */
+    static char getCombinedGlyph(char baseChar, char diacritic1, char diacritic2) {
+        if (baseChar >= COMBINABLE_BASE_CHARS || diacritic1 < ANSEL_DIACRITICS_BEGIN_AT || diacritic1 > 0x00FF
+                || diacritic2 != 0 && (diacritic2 < ANSEL_DIACRITICS_BEGIN_AT || diacritic2 > 0x00FF)) {
+            return 0;
+        }
+        char[] row = COMBINED[diacriticPairIndex(diacritic1, diacritic2)];
+        return row == null ? 0 : row[baseChar];
+    }
+
+    /**
+     * Get the index into {@link #COMBINED} for a pair of diacritics
+     * 
+     * @param diacritic1
+     *            the first combining diacritic, in ANSEL (0xE0 to 0xFF)
+     * @param diacritic2
+     *            the second combining diacritic, in ANSEL (0xE0 to 0xFF), or zero if there is only one
+     * @return the index into {@link #COMBINED}
+     */
+    private static int diacriticPairIndex(char diacritic1, char diacritic2) {
+        int second = diacritic2 == 0 ? 0 : diacritic2 - ANSEL_DIACRITICS_BEGIN_AT + 1;
+        return (diacritic1 - ANSEL_DIACRITICS_BEGIN_AT) * (NUM_DIACRITICS + 1) + second;
+    }
+
+    /**
+     * Private constructor prevents instantiation and subclassing
+     */
+    private AnselDecoder() {
+        // Nothing to do
+    }
+
+}
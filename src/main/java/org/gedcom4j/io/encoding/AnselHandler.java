@@ -170,61 +170,13 @@ public class AnselHandler {
      *            A string of ANSEL data. Each byte of ANSEL data should be represented as a single character in the string,
      *            unconverted to any unicode and without changing the order of characters.
      * @return the UTF16 string representation of the ANSEL data, after translation
+     * @see AnselDecoder#decode(char[], int, int, char[], int)
      */
     public String toUtf16(String ansel) {
-        char[] utf16 = new char[512];
-        int anselIndex = 0;
-        int utfIdx = 0;
-        char c;
-        int len = ansel.length();
-        while (anselIndex < len) {
-            // Get a character to examine
-            c = ansel.charAt(anselIndex++);
-            // If the character isn't a diacritical character, we can just process it as normal
-            if (c < ANSEL_DIACRITICS_BEGIN_AT || anselIndex >= len) {
-                utf16[utfIdx++] = AnselMapping.decode(c);
-                continue;
-            }
-
-            // It's a diacritic, but there might be two diacritics before the actual character
-            char diacritic2 = 0; // 0 means no second diacritic
-            char diacritic1 = c; // this character is actually a diacritic, so save it, and get another character
-            if (anselIndex >= len) {
-                // wraps in middle of diacritic+character combination
-                utf16[utfIdx++] = AnselMapping.decode(c);
-                continue;
-            }
-            c = ansel.charAt(anselIndex++);
-
-            // If the next character we got is also a diacritic, we need to do the same sort of thing
-            if (c >= ANSEL_DIACRITICS_BEGIN_AT) {
-                // This character is ALSO a diacritic - save it and read another character
-                diacritic2 = c;
-                if (anselIndex >= len) {
-                    // wraps in middle of diacritic+character combination
-                    utf16[utfIdx++] = AnselMapping.decode(c);
-                    continue;
-                }
-                // Get the base character
-                c = ansel.charAt(anselIndex++);
-            }
-            // Otherwise the character we just read was the base character
-
-            // See if there's a combined glyph for the base+the diacritics
-            char combined = getCombinedGlyph(c, diacritic1, diacritic2);
-            if (combined == 0) {
-                // no combined glyph available - continue to use a composite
-                utf16[utfIdx++] = AnselMapping.decode(c);
-                utf16[utfIdx++] = AnselMapping.decode(diacritic1);
-                if (diacritic2 != 0) {
-                    utf16[utfIdx++] = AnselMapping.decode(diacritic1);
-                }
-            } else {
-                // A combined glyph was available!
-                utf16[utfIdx++] = combined;
-            }
-        }
-        return new String(utf16).substring(0, utfIdx);
+        char[] anselChars = ansel.toCharArray();
+        char[] utf16 = new char[anselChars.length];
+        int utfLen = AnselDecoder.decode(anselChars, 0, anselChars.length, utf16, 0);
+        return new String(utf16, 0, utfLen);
     }
 
     /**
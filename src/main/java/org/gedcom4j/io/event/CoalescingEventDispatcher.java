@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.event;
+
+import java.util.EventObject;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * Delivers progress events to listeners on a thread of its own, so that the thread doing the work being reported on never waits
+ * for a listener. Each kind of event is posted to a {@link Mailbox} that holds just one event: posting replaces any event that has
+ * not been delivered yet, so a slow listener is given the latest progress whenever it is ready for more, rather than falling
+ * further and further behind. Since the last event posted to a mailbox is always delivered, a listener still sees the event that
+ * says the work is complete.
+ * </p>
+ * <p>
+ * The dispatcher must be closed when the work is done. Closing delivers whatever is still waiting and stops the thread, and then
+ * throws anything a listener threw while it was running, so that a listener's failure is not lost. Close it in a finally block (or
+ * with try-with-resources).
+ * </p>
+ * 
+ * @author frizbog
+ */
+public final class CoalescingEventDispatcher implements AutoCloseable {
+
+    /**
+     * Something that is delivered events from a {@link Mailbox} - typically by passing them to each of a list of listeners
+     * 
+     * @param <E>
+     *            the type of event delivered
+     */
+    public interface Recipient<E extends EventObject> {
+        /**
+         * Deliver an event. Called on the dispatcher's thread.
+         * 
+         * @param e
+         *            the event
+         */
+        void deliver(E e);
+    }
+
+    /**
+     * Holds the latest event of one kind until the dispatcher's thread delivers it
+     * 
+     * @param <E>
+     *            the type of event held
+     */
+    public final class Mailbox<E extends EventObject> {
+
+        /**
+         * The event waiting to be delivered, or null if there is none
+         */
+        private final AtomicReference<E> slot = new AtomicReference<>();
+
+        /**
+         * Who the events are delivered to
+         */
+        private final Recipient<E> recipient;
+
+        /**
+         * Constructor
+         * 
+         * @param recipient
+         *            who the events are delivered to
+         */
+        Mailbox(Recipient<E> recipient) {
+            this.recipient = recipient;
+        }
+
+        /**
+         * Post an event to be delivered, replacing any that has not been delivered yet. Never waits for the event to be delivered -
+         * unless the dispatcher has been closed, in which case the event is delivered straight away on the calling thread. This is
+         * so even if the dispatcher closes while the event is being posted.
+         * 
+         * @param e
+         *            the event
+         */
+        public void post(E e) {
+            if (closed) {
+                recipient.deliver(e);
+                return;
+            }
+            if (slot.getAndSet(e) == null) {
+                LockSupport.unpark(thread);
+            }
+            if (closed) {
+                // The dispatcher closed after the check above, and may already have delivered what was waiting - so deliver the
+                // event here, unless the dispatcher got to it first
+                E waiting = slot.getAndSet(null);
+                if (waiting != null) {
+                    recipient.deliver(waiting);
+                }
+            }
+        }
+
+        /**
+         * Deliver the waiting event, if there is one
+         * 
+         * @return true if an event was delivered
+         */
+        boolean deliverWaiting() {
+            E e = slot.getAndSet(null);
+            if (e == null) {
+                return false;
+            }
+            try {
+                recipient.deliver(e);
+            } catch (RuntimeException | Error t) {
+                if (failure == null) {
+                    failure = t;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The mailboxes whose events this dispatcher delivers
+     */
+    private final List<Mailbox<?>> mailboxes = new CopyOnWriteArrayList<>();
+
+    /**
+     * The thread that delivers the events
+     */
+    private final Thread thread;
+
+    /**
+     * Has this dispatcher been asked to close?
+     */
+    private volatile boolean closing;
+
+    /**
+     * Has this dispatcher closed, so that events are now delivered on the thread posting them?
+     */
+    private volatile boolean closed;
+
+    /**
+     * The first exception or error a recipient threw, if any did
+     */
+    private volatile Throwable failure;
+
+    /**
+     * Constructor. Starts the thread that delivers the events.
+     * 
+     * @param threadName
+     *            the name to give the thread
+     */
+    public CoalescingEventDispatcher(String threadName) {
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                dispatch();
+            }
+        }, threadName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Deliver any events still waiting, stop the thread that delivers them, and throw whatever a recipient threw, if anything. Any
+     * events posted after this are delivered on the thread that posts them.
+     * 
+     * @throws RuntimeException
+     *             the first runtime exception a recipient threw, if any did
+     * @throws Error
+     *             the first error a recipient threw, if any did
+     */
+    @Override
+    public void close() {
+        if (!closing) {
+            closing = true;
+            LockSupport.unpark(thread);
+            boolean interrupted = false;
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (@SuppressWarnings("unused") InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            closed = true;
+            // Anything posted while the thread was finishing up
+            deliverAllWaiting();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Throwable t = failure;
+        failure = null;
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        if (t != null) {
+            throw (RuntimeException) t;
+        }
+    }
+
+    /**
+     * Create a mailbox for one kind of event, to be delivered by this dispatcher
+     * 
+     * @param recipient
+     *            who the events are to be delivered to
+     * @return the mailbox to post the events to
+     * @param <E>
+     *            the type of event
+     */
+    public <E extends EventObject> Mailbox<E> createMailbox(Recipient<E> recipient) {
+        Mailbox<E> m = new Mailbox<>(recipient);
+        mailboxes.add(m);
+        return m;
+    }
+
+    /**
+     * Deliver whatever is waiting in each mailbox
+     * 
+     * @return true if anything was delivered
+     */
+    private boolean deliverAllWaiting() {
+        boolean delivered = false;
+        for (Mailbox<?> m : mailboxes) {
+            delivered |= m.deliverWaiting();
+        }
+        return delivered;
+    }
+
+    /**
+     * The dispatcher's thread. Delivers events as they are posted until the dispatcher is closed, and then delivers whatever is
+     * left.
+     */
+    private void dispatch() {
+        while (!closing) {
+            if (!deliverAllWaiting()) {
+                LockSupport.park(this);
+            }
+        }
+        while (deliverAllWaiting()) {
+            // Keep going until nothing is left
+        }
+    }
+
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.reader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.parser.GedcomParser;
+
+/**
+ * <p>
+ * A base class for readers of two-byte Unicode (UTF-16) data. The bytes are read from the stream a block at a time and decoded in
+ * bulk by a {@link CharsetDecoder} into a reusable {@link CharBuffer}, and line breaks are found by scanning the decoded characters
+ * directly, so whole runs of characters are copied into the line at once.
+ * </p>
+ * <p>
+ * Surrogate pairs are decoded properly, even when they are split across blocks. Unpaired surrogates are replaced with U+FFFD. A
+ * byte order marker at the very beginning of the data is discarded, and a dangling odd byte at the very end of the data is ignored.
+ * </p>
+ * 
+ * @author frizbog
+ */
+abstract class AbstractUnicodeReader extends AbstractEncodingSpecificReader {
+
+    /**
+     * The size of the blocks of bytes read from the stream at a time
+     */
+    private static final int BLOCK_SIZE = 8192;
+
+    /**
+     * The byte order marker, as decoded
+     */
+    private static final char BYTE_ORDER_MARKER = '\uFEFF';
+
+    /**
+     * Are we at the end of file yet?
+     */
+    private boolean eof = false;
+
+    /**
+     * Have we hit the end of the stream of bytes?
+     */
+    private boolean endOfInput = false;
+
+    /**
+     * Has the decoder been given (and flushed) all the data there is?
+     */
+    private boolean decoderFinished = false;
+
+    /**
+     * Are we still at the beginning of the file, where a byte order marker might be?
+     */
+    private boolean beginningOfFile = true;
+
+    /**
+     * The decoder for the encoding being read
+     */
+    private final CharsetDecoder decoder;
+
+    /**
+     * The bytes read from the stream but not yet decoded. Kept ready for writing (i.e., filling from the stream) between calls.
+     */
+    private final ByteBuffer bytes = ByteBuffer.allocate(BLOCK_SIZE);
+
+    /**
+     * The characters decoded but not yet put into a line. Kept ready for reading between calls. Decoding a block of bytes never
+     * produces more characters than there were bytes, so this never overflows.
+     */
+    private final CharBuffer chars = CharBuffer.allocate(BLOCK_SIZE);
+
+    /**
+     * The line buffer for the current line
+     */
+    @SuppressWarnings("PMD.AvoidStringBufferField")
+    private final StringBuilder lineBuffer = new StringBuilder();
+
+    /**
+     * Constructor
+     * 
+     * @param parser
+     *            the {@link GedcomParser} which is using this object to read files
+     * @param byteStream
+     *            the stream of data to read from
+     * @param charset
+     *            the charset the data is encoded in
+     */
+    AbstractUnicodeReader(GedcomParser parser, InputStream byteStream, Charset charset) {
+        super(parser, byteStream);
+        decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(
+                CodingErrorAction.REPLACE);
+        chars.flip();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String nextLine() throws IOException, GedcomParserException {
+        String result = null;
+        while (!eof) {
+            if (!chars.hasRemaining() && !decodeMore()) {
+                // hit EOF - add final line buffer (last line) and get out
+                if (lineBuffer.length() > 0) {
+                    result = lineBuffer.toString();
+                    lineBuffer.setLength(0);
+                }
+                eof = true;
+                break;
+            }
+
+            char[] c = chars.array();
+            int pos = chars.position();
+            int limit = chars.limit();
+
+            // Ignore leading whitespace
+            if (lineBuffer.length() == 0) {
+                while (pos < limit && Character.isWhitespace(c[pos])) {
+                    pos++;
+                }
+            }
+
+            // Look for carriage returns or line feeds - signify EOL
+            int start = pos;
+            while (pos < limit && c[pos] != 0x0D && c[pos] != 0x0A) {
+                pos++;
+            }
+            lineBuffer.append(c, start, pos - start);
+
+            if (pos < limit) {
+                /*
+                 * Found the end of the line. Any leading whitespace has been skipped, and line breaks are whitespace, so there is
+                 * always something in the line buffer by now.
+                 */
+                pos++;
+                result = lineBuffer.toString();
+                lineBuffer.setLength(0);
+            }
+            bytesRead += 2 * (pos - chars.position());
+            chars.position(pos);
+            if (result != null) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void cleanUp() throws IOException {
+        // do nothing
+    }
+
+    /**
+     * Decode some more characters from the stream into {@link #chars}, which must be empty
+     * 
+     * @return true if there may be more characters to process, false if we have reached the end of the data
+     * @throws IOException
+     *             if the stream can't be read
+     */
+    private boolean decodeMore() throws IOException {
+        chars.clear();
+        while (chars.position() == 0 && !decoderFinished) {
+            if (!endOfInput) {
+                int n = byteStream.read(bytes.array(), bytes.position(), bytes.remaining());
+                if (n < 0) {
+                    endOfInput = true;
+                } else {
+                    bytes.position(bytes.position() + n);
+                }
+            }
+            bytes.flip();
+            if (endOfInput && bytes.remaining() % 2 != 0) {
+                // Dangling odd byte at the end of the data - count it, but it's not a character
+                bytesRead++;
+                bytes.limit(bytes.limit() - 1);
+            }
+            decoder.decode(bytes, chars, endOfInput);
+            if (endOfInput) {
+                decoder.flush(chars);
+                decoderFinished = true;
+            }
+            bytes.compact();
+        }
+        chars.flip();
+
+        if (beginningOfFile && chars.hasRemaining()) {
+            beginningOfFile = false;
+            if (chars.get(chars.position()) == BYTE_ORDER_MARKER) {
+                // Byte order marker at the beginning of the file - discard it
+                chars.get();
+                bytesRead += 2;
+            }
+        }
+        return chars.hasRemaining() || !decoderFinished;
+    }
+
+}
@@ -28,15 +28,16 @@ package org.gedcom4j.io.reader;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Arrays;
 
 import org.gedcom4j.exception.GedcomParserException;
-import org.gedcom4j.io.encoding.AnselHandler;
+import org.gedcom4j.io.encoding.AnselDecoder;
+import org.gedcom4j.parser.DiagnosticCode;
 import org.gedcom4j.parser.GedcomParser;
 
 /**
  * A reader that reads a single line from an ANSEL-encoded file. This implementation handles ANSEL encoding (1 byte per character,
- * some extended character support).
+ * some extended character support). Bytes are read from the stream a block at a time, and each completed line is decoded to UTF-16 in
+ * a single pass with an {@link AnselDecoder}.
  * 
  * @author frizbog
  */
@@ -48,9 +49,9 @@ final class AnselReader extends AbstractEncodingSpecificReader {
     private static final char ANSEL_DIACRITICS_BEGIN_AT = 0x00E0;
 
     /**
-     * Helper class
+     * The size of the blocks of bytes read from the stream at a time
      */
-    private final AnselHandler anselHandler = new AnselHandler();
+    private static final int BLOCK_SIZE = 8192;
 
     /**
      * Index into the line buffer
@@ -72,6 +73,27 @@ final class AnselReader extends AbstractEncodingSpecificReader {
      */
     private final char[] lineBuffer = new char[256];
 
+    /**
+     * The buffer that the line buffer's contents are decoded into. Decoding never produces more characters than it consumes, so
+     * this never needs to be bigger than {@link #lineBuffer}.
+     */
+    private final char[] decodedLine = new char[lineBuffer.length];
+
+    /**
+     * The block of bytes most recently read from the stream
+     */
+    private final byte[] block = new byte[BLOCK_SIZE];
+
+    /**
+     * The number of bytes in {@link #block} that hold data
+     */
+    private int blockLen = 0;
+
+    /**
+     * Index into {@link #block} of the next byte to be processed
+     */
+    private int blockIdx = 0;
+
     /**
      * Prior character read
      */
@@ -114,7 +136,7 @@ final class AnselReader extends AbstractEncodingSpecificReader {
         while (!eof) {
             int twoCharsBack = oneCharBack;
             oneCharBack = currChar;
-            currChar = byteStream.read();
+            currChar = readByte();
             if (currChar >= 0) {
                 bytesRead++;
             }
@@ -254,11 +276,10 @@ final class AnselReader extends AbstractEncodingSpecificReader {
     private String getThisLine() {
         String result = null;
         if (lineBufferIdx > 0) {
-            String s = new String(lineBuffer).substring(0, lineBufferIdx - holdingBinIdx);
-            result = anselHandler.toUtf16(s);
+            int decodedLen = AnselDecoder.decode(lineBuffer, 0, lineBufferIdx - holdingBinIdx, decodedLine, 0);
+            result = new String(decodedLine, 0, decodedLen);
         }
         linesRead++;
-        Arrays.fill(lineBuffer, ' ');
         lineBufferIdx = 0;
         return result;
     }
@@ -275,7 +296,7 @@ final class AnselReader extends AbstractEncodingSpecificReader {
     private void insertSyntheticConcTag(String previousLine) throws GedcomParserException {
         int level = getLevelFromLine(previousLine);
 
-        parser.getWarnings().add("Line " + linesRead + " exceeds max length - introducing synthetic CONC tag to split line");
+        parser.getDiagnostics().add(DiagnosticCode.LINE_TOO_LONG, linesRead);
         level++;
         if (level > 9) {
             lineBuffer[lineBufferIdx++] = Character.forDigit(level / 10, 10);
@@ -304,4 +325,23 @@ final class AnselReader extends AbstractEncodingSpecificReader {
                         - 3] == 'N' && lineBuffer[lineBufferIdx - 2] == 'C' && lineBuffer[lineBufferIdx - 1] == ' ';
     }
 
+    /**
+     * Read the next byte, refilling the block from the stream as needed
+     * 
+     * @return the next byte (0-255), or -1 at end of stream
+     * @throws IOException
+     *             if the stream can't be read
+     */
+    private int readByte() throws IOException {
+        while (blockIdx >= blockLen) {
+            blockLen = byteStream.read(block);
+            blockIdx = 0;
+            if (blockLen < 0) {
+                blockLen = 0;
+                return -1;
+            }
+        }
+        return block[blockIdx++] & 0xFF;
+    }
+
 }
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.reader;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.io.encoding.Encoding;
+import org.gedcom4j.parser.GedcomParser;
+
+/**
+ * <p>
+ * Reads a UTF-8 or ASCII file in chunks that can be decoded independently of each other, and so at the same time on different
+ * threads. In both encodings, a line break byte can only ever be a line break, so the places where root-level (level 0) records
+ * begin - a line break followed by <code>0 </code> - can be found by looking at the raw bytes, without decoding everything before
+ * them. {@link #findChunkBoundaries(long)} cuts the file at some of those places, and {@link #readLines(long, long)} reads the
+ * lines of one chunk, exactly as {@link GedcomFileReader} would have read them as part of the whole file.
+ * </p>
+ * <p>
+ * Reading a chunk memory-maps just that part of the file, so this class is safe to use from several threads at once.
+ * </p>
+ * 
+ * @author frizbog
+ */
+public final class ChunkedFileReader {
+
+    /**
+     * How many bytes to map at a time while looking for a chunk boundary
+     */
+    private static final int SCAN_WINDOW_SIZE = 64 * 1024;
+
+    /**
+     * Can files with the supplied encoding be read in chunks?
+     * 
+     * @param encoding
+     *            the encoding
+     * @return true if and only if files in that encoding can be read in chunks
+     */
+    public static boolean supports(Encoding encoding) {
+        return encoding == Encoding.UTF_8 || encoding == Encoding.ASCII;
+    }
+
+    /**
+     * The {@link GedcomParser} which is using this object to read files
+     */
+    private final GedcomParser parser;
+
+    /**
+     * The channel for the file to read
+     */
+    private final FileChannel channel;
+
+    /**
+     * Is the file ASCII (as opposed to UTF-8)?
+     */
+    private final boolean ascii;
+
+    /**
+     * The size of the file, in bytes
+     */
+    private final long fileSize;
+
+    /**
+     * Constructor
+     * 
+     * @param parser
+     *            the {@link GedcomParser} which is using this object to read files
+     * @param channel
+     *            the channel for the file to read. Not closed by this class.
+     * @param encoding
+     *            the encoding of the file. Must be one that is {@link #supports(Encoding) supported}.
+     * @throws IOException
+     *             if the size of the file can't be determined
+     */
+    public ChunkedFileReader(GedcomParser parser, FileChannel channel, Encoding encoding) throws IOException {
+        if (!supports(encoding)) {
+            throw new IllegalArgumentException("Files encoded in " + encoding + " can't be read in chunks");
+        }
+        this.parser = parser;
+        this.channel = channel;
+        ascii = encoding == Encoding.ASCII;
+        fileSize = channel.size();
+    }
+
+    /**
+     * Find where to cut the file into chunks. Each cut is at the beginning of a line that starts with <code>0 </code>, at or after
+     * the next multiple of the target chunk size, so chunks are at least the target size (except the last one), and are larger if
+     * there are no suitable places to cut.
+     * 
+     * @param targetChunkSize
+     *            the size to aim for each chunk to be, in bytes. Must be at least 1.
+     * @return the offsets in the file where each chunk begins, followed by the size of the file. So chunk <i>n</i> runs from
+     *         element <i>n</i> (inclusive) to element <i>n+1</i> (exclusive). The first element is always zero.
+     * @throws IOException
+     *             if the file can't be read
+     */
+    public long[] findChunkBoundaries(long targetChunkSize) throws IOException {
+        if (targetChunkSize < 1) {
+            throw new IllegalArgumentException("Target chunk size must be at least 1");
+        }
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        long boundary = 0;
+        while (boundary + targetChunkSize < fileSize) {
+            boundary = findRecordStart(boundary + targetChunkSize);
+            if (boundary >= fileSize) {
+                break;
+            }
+            boundaries.add(boundary);
+        }
+        long[] result = new long[boundaries.size() + 1];
+        for (int i = 0; i < boundaries.size(); i++) {
+            result[i] = boundaries.get(i);
+        }
+        result[boundaries.size()] = fileSize;
+        return result;
+    }
+
+    /**
+     * Get the size of the file
+     * 
+     * @return the size of the file, in bytes
+     */
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * Read all the lines in one chunk of the file
+     * 
+     * @param start
+     *            the offset in the file where the chunk begins - one of the values from {@link #findChunkBoundaries(long)}
+     * @param end
+     *            the offset in the file where the chunk ends - the next value from {@link #findChunkBoundaries(long)}
+     * @return the lines in the chunk, left-trimmed and with blank lines skipped, as {@link GedcomFileReader#nextLine()} would give
+     *         them back
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the data in the chunk is malformed
+     */
+    public List<String> readLines(long start, long end) throws IOException, GedcomParserException {
+        MemoryMappedReader reader = new MemoryMappedReader(parser, channel, ascii, start, end,
+                MemoryMappedReader.DEFAULT_REGION_SIZE);
+        try {
+            List<String> lines = new ArrayList<>();
+            String line = reader.nextLine();
+            while (line != null) {
+                lines.add(line);
+                line = reader.nextLine();
+            }
+            return lines;
+        } finally {
+            reader.cleanUp();
+        }
+    }
+
+    /**
+     * Find the first place at or after the supplied offset where a line starting with <code>0 </code> begins
+     * 
+     * @param from
+     *            the offset to start looking from
+     * @return the offset of the <code>0</code> at the beginning of the line, or the size of the file if there isn't one
+     * @throws IOException
+     *             if the file can't be read
+     */
+    private long findRecordStart(long from) throws IOException {
+        // Start one byte back, so we can see the line break before a record that starts right at the offset
+        long windowStart = from - 1;
+        while (windowStart + 2 < fileSize) {
+            int windowLength = (int) Math.min(SCAN_WINDOW_SIZE, fileSize - windowStart);
+            MappedByteBuffer window = channel.map(MapMode.READ_ONLY, windowStart, windowLength);
+            for (int i = 0; i + 2 < windowLength; i++) {
+                byte b = window.get(i);
+                if ((b == 0x0A || b == 0x0D) && window.get(i + 1) == '0' && window.get(i + 2) == ' ') {
+                    return windowStart + i + 1;
+                }
+            }
+            // Overlap the windows so a line break and "0 " split across them isn't missed
+            windowStart += windowLength - 2;
+        }
+        return fileSize;
+    }
+
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.reader;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * <p>
+ * An input stream over the decompressed contents of a gzip file, or of the GEDCOM file in a zip archive. The decompression is done
+ * on a thread of its own, which hands over blocks of decompressed bytes through a bounded queue, so that inflating the file
+ * overlaps with parsing it, and no more than a few blocks are ever waiting to be read.
+ * </p>
+ * <p>
+ * The entry read from a zip archive is the first one whose name ends with <code>.ged</code> (ignoring case) or, if there are none,
+ * the only file in the archive. It is read straight out of the archive, without extracting anything to disk.
+ * </p>
+ * <p>
+ * The stream must be closed once it is no longer needed, which stops the decompression thread if it is still running. This class is
+ * not thread-safe - it is meant to be read by one thread.
+ * </p>
+ * 
+ * @author frizbog
+ */
+public final class DecompressingInputStream extends InputStream {
+
+    /**
+     * The size of the blocks handed over by the decompression thread
+     */
+    static final int BLOCK_SIZE = 64 * 1024;
+
+    /**
+     * The number of blocks that can be waiting to be read before the decompression thread waits for them to be
+     */
+    static final int QUEUE_CAPACITY = 16;
+
+    /**
+     * The first two bytes of a gzip file
+     */
+    private static final int GZIP_MAGIC = 0x1F8B;
+
+    /**
+     * The first four bytes of a zip archive with at least one entry
+     */
+    private static final int ZIP_MAGIC = 0x504B0304;
+
+    /**
+     * The block that marks the end of the decompressed bytes, whether because they have all been handed over or because
+     * decompression failed
+     */
+    private static final byte[] END = new byte[0];
+
+    /**
+     * Does the file open on the supplied channel start out as a gzip file or a zip archive would?
+     * 
+     * @param channel
+     *            the channel. Its position is not changed.
+     * @return true if the file looks like a gzip file or a zip archive
+     * @throws IOException
+     *             if the start of the file can't be read
+     */
+    public static boolean isCompressed(FileChannel channel) throws IOException {
+        int magic = readMagic(channel);
+        return magic >>> 16 == GZIP_MAGIC || magic == ZIP_MAGIC;
+    }
+
+    /**
+     * Find the GEDCOM file in a zip archive
+     * 
+     * @param zipFile
+     *            the archive
+     * @return the first entry whose name ends with <code>.ged</code>, or the only file if there is no such entry
+     * @throws IOException
+     *             if there is no such entry, and more than one file in the archive
+     */
+    private static ZipEntry findGedcomEntry(ZipFile zipFile) throws IOException {
+        ZipEntry onlyFile = null;
+        int files = 0;
+        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry e = entries.nextElement();
+            if (e.isDirectory()) {
+                continue;
+            }
+            if (e.getName().toLowerCase(Locale.ROOT).endsWith(".ged")) {
+                return e;
+            }
+            onlyFile = e;
+            files++;
+        }
+        if (files != 1) {
+            throw new IOException("Zip archive " + zipFile.getName() + " has no .ged file in it, and " + files
+                    + " other files, so there is no telling which one to read");
+        }
+        return onlyFile;
+    }
+
+    /**
+     * Read the first four bytes of a file
+     * 
+     * @param channel
+     *            the channel over the file. Its position is not changed.
+     * @return the first four bytes of the file, big-endian, with zeroes for any that are past the end of the file
+     * @throws IOException
+     *             if the file can't be read
+     */
+    private static int readMagic(FileChannel channel) throws IOException {
+        ByteBuffer magic = ByteBuffer.allocate(4);
+        while (magic.hasRemaining() && channel.read(magic, magic.position()) > 0) {
+            // Keep reading until the buffer is full or the file ends
+        }
+        return magic.getInt(0);
+    }
+
+    /**
+     * The blocks of decompressed bytes waiting to be read
+     */
+    private final BlockingQueue<byte[]> blocks = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    /**
+     * The stream of decompressed bytes that the decompression thread reads from
+     */
+    private final InputStream decompressed;
+
+    /**
+     * The zip archive being read, or null if the file is a gzip file
+     */
+    private final ZipFile zipFile;
+
+    /**
+     * The decompression thread
+     */
+    private final Thread decompressor;
+
+    /**
+     * What went wrong decompressing the file, if anything did
+     */
+    private volatile Exception failure;
+
+    /**
+     * Has this stream been closed?
+     */
+    private boolean closed;
+
+    /**
+     * The block being read
+     */
+    private byte[] block = END;
+
+    /**
+     * How far through {@link #block} has been read
+     */
+    private int pos;
+
+    /**
+     * Has the end of the decompressed bytes been reached?
+     */
+    private boolean ended;
+
+    /**
+     * Constructor. Starts decompressing the file straight away.
+     * 
+     * @param file
+     *            the gzip file, or the zip archive with the GEDCOM file in it
+     * @throws IOException
+     *             if the file can't be read, isn't a gzip file or zip archive, or is a zip archive with no GEDCOM file in it
+     */
+    public DecompressingInputStream(Path file) throws IOException {
+        int magic;
+        try (FileInputStream fis = new FileInputStream(file.toFile()); FileChannel channel = fis.getChannel()) {
+            magic = readMagic(channel);
+        }
+        if (magic >>> 16 == GZIP_MAGIC) {
+            zipFile = null;
+            decompressed = new GZIPInputStream(new FileInputStream(file.toFile()), BLOCK_SIZE);
+        } else if (magic == ZIP_MAGIC) {
+            zipFile = new ZipFile(file.toFile());
+            try {
+                decompressed = zipFile.getInputStream(findGedcomEntry(zipFile));
+            } catch (IOException e) {
+                zipFile.close();
+                throw e;
+            }
+        } else {
+            throw new IOException(file + " is neither a gzip file nor a zip archive");
+        }
+        decompressor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                decompress();
+            }
+        }, "gedcom4j-decompressor");
+        decompressor.setDaemon(true);
+        decompressor.start();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        decompressor.interrupt();
+        blocks.clear();
+        try {
+            decompressor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            decompressed.close();
+        } finally {
+            if (zipFile != null) {
+                zipFile.close();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read() throws IOException {
+        if (!nextBlock()) {
+            return -1;
+        }
+        return block[pos++] & 0xFF;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextBlock()) {
+            return -1;
+        }
+        int n = Math.min(len, block.length - pos);
+        System.arraycopy(block, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    /**
+     * The decompression thread. Reads the decompressed bytes in blocks and hands them over until they run out, decompression
+     * fails, or the stream is closed.
+     */
+    private void decompress() {
+        try {
+            try {
+                int n = BLOCK_SIZE;
+                while (n == BLOCK_SIZE) {
+                    byte[] b = new byte[BLOCK_SIZE];
+                    n = 0;
+                    int r = decompressed.read(b, 0, BLOCK_SIZE);
+                    while (r > 0) {
+                        n += r;
+                        r = n < BLOCK_SIZE ? decompressed.read(b, n, BLOCK_SIZE - n) : 0;
+                    }
+                    if (n > 0) {
+                        blocks.put(n == BLOCK_SIZE ? b : Arrays.copyOf(b, n));
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                failure = e;
+            }
+            blocks.put(END);
+        } catch (@SuppressWarnings("unused") InterruptedException e) {
+            // The stream has been closed, so nothing more is wanted
+        }
+    }
+
+    /**
+     * Make sure there's something left in the current block to read, taking the next one if need be
+     * 
+     * @return true if there's something left to read, false if the end of the decompressed bytes has been reached
+     * @throws IOException
+     *             if the stream has been closed, decompression failed, or the thread was interrupted while waiting for a block
+     */
+    private boolean nextBlock() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        while (pos == block.length) {
+            if (ended) {
+                return false;
+            }
+            try {
+                block = blocks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the file to be decompressed");
+            }
+            pos = 0;
+            if (block == END) {
+                ended = true;
+                Exception e = failure;
+                if (e != null) {
+                    throw new IOException("Unable to decompress the file", e);
+                }
+            }
+        }
+        return true;
+    }
+
+}
@@ -31,10 +31,14 @@ import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 
 import org.gedcom4j.exception.GedcomParserException;
 import org.gedcom4j.exception.ParserCancelledException;
 import org.gedcom4j.exception.UnsupportedGedcomCharsetException;
+import org.gedcom4j.io.encoding.Encoding;
 import org.gedcom4j.io.event.FileProgressEvent;
 import org.gedcom4j.parser.GedcomParser;
 
@@ -43,6 +47,9 @@ import org.gedcom4j.parser.GedcomParser;
  * is to turn the bytes from the file into a buffer (a {@link java.util.List} of Strings) that the
  * {@link org.gedcom4j.parser.GedcomParser} can work with. This class is needed because the built-in character encodings in Java
  * don't support ANSEL encoding, which is the default encoding for gedcom files in v5.5 standard.
+ * <p>
+ * When constructed over a {@link FileChannel}, UTF-8 and ASCII files are read by memory-mapping the file (see
+ * {@link MemoryMappedReader}) rather than through a stream. Other encodings are read through a stream over the channel.
  * 
  * @author frizbog1
  */
@@ -81,7 +88,17 @@ public final class GedcomFileReader {
     /**
      * Number of lines processed
      */
-    private int linesProcessed = 0;
+    private long linesProcessed = 0;
+
+    /**
+     * The encoding detected for the data
+     */
+    private Encoding encoding;
+
+    /**
+     * Was a UTF-8 byte order marker found at the beginning of the data?
+     */
+    private boolean utf8ByteOrderMarkerFound;
 
     /**
      * Constructor
@@ -101,9 +118,68 @@ public final class GedcomFileReader {
         this.parser = parser;
         byteStream = bufferedInputStream;
         saveFirstChunk();
+        detectEncoding();
         encodingSpecificReader = getEncodingSpecificReader();
     }
 
+    /**
+     * Constructor that reads a file through its {@link FileChannel}. UTF-8 and ASCII data is read by memory-mapping the file;
+     * other encodings are read through a stream over the channel. The channel is not closed by this class.
+     * 
+     * @param parser
+     *            the {@link GedcomParser} which is using this object to read files
+     * @param channel
+     *            the channel for the file to read, positioned at the beginning of the file
+     * @throws IOException
+     *             if there is a problem reading the data
+     * @throws UnsupportedGedcomCharsetException
+     *             if the file is using an unsupported character encoding
+     */
+    public GedcomFileReader(GedcomParser parser, FileChannel channel) throws IOException, UnsupportedGedcomCharsetException {
+        this.parser = parser;
+        int read = channel.read(ByteBuffer.wrap(firstChunk));
+        if (read < 0) {
+            throw new IOException("Unable to read bytes off stream");
+        }
+        channel.position(0);
+        byteStream = new BufferedInputStream(Channels.newInputStream(channel));
+        detectEncoding();
+        if (encoding == Encoding.UTF_8 || encoding == Encoding.ASCII) {
+            encodingSpecificReader = new MemoryMappedReader(parser, channel, encoding == Encoding.ASCII);
+        } else {
+            encodingSpecificReader = getEncodingSpecificReader();
+        }
+    }
+
+    /**
+     * Release whatever the reader for the detected encoding is holding on to (readers, buffers, or a memory mapping of the file),
+     * once no more lines are to be read. Closing the stream or channel the data comes from is still up to whoever opened it.
+     * 
+     * @throws IOException
+     *             if the resources cannot be released
+     */
+    public void cleanUp() throws IOException {
+        encodingSpecificReader.cleanUp();
+    }
+
+    /**
+     * Get the number of bytes of the file read so far
+     * 
+     * @return the number of bytes of the file read so far
+     */
+    public long getBytesRead() {
+        return encodingSpecificReader.bytesRead;
+    }
+
+    /**
+     * Get the encoding that was detected for the data
+     * 
+     * @return the encoding that was detected for the data
+     */
+    public Encoding getEncoding() {
+        return encoding;
+    }
+
     /**
      * Get the next line of the file.
      * 
@@ -157,7 +233,7 @@ public final class GedcomFileReader {
      *             <li>No CHAR tag was found within the first 2k or so of the file</li>
      *             </ul>
      */
-    private AbstractEncodingSpecificReader anselAsciiOrUtf8() throws IOException, UnsupportedGedcomCharsetException {
+    private Encoding anselAsciiOrUtf8() throws IOException, UnsupportedGedcomCharsetException {
         /*
          * Try reading as UTF-8. Most likely to successfully read and be useful for figuring out what the encoding really is
          */
@@ -171,17 +247,17 @@ public final class GedcomFileReader {
                 if (s.startsWith("1 CHAR ")) {
                     String e = s.substring("1 CHAR ".length());
                     if ("ANSEL".equalsIgnoreCase(e)) {
-                        return new AnselReader(parser, byteStream);
+                        return Encoding.ANSEL;
                     } else if ("UTF-8".equalsIgnoreCase(e)) {
-                        return new Utf8Reader(parser, byteStream);
+                        return Encoding.UTF_8;
                     } else if ("ASCII".equalsIgnoreCase(e)) {
-                        return new AsciiReader(parser, byteStream);
+                        return Encoding.ASCII;
                     } else if ("ANSI".equalsIgnoreCase(e)) {
                         /*
                          * Technically, this is illegal, but UTF_8 is the most-likely-to-work scenario, so let's try it and be a bit
                          * forgiving
                          */
-                        return new Utf8Reader(parser, byteStream);
+                        return Encoding.UTF_8;
                     } else {
                         throw new UnsupportedGedcomCharsetException("Specified charset " + e
                                 + " is not a supported charset encoding for GEDCOMs");
@@ -196,42 +272,39 @@ public final class GedcomFileReader {
             }
         }
         // All other avenues exhausted, go with an ANSEL reader since that's the default encoding in GEDCOM 5.5
-        return new AnselReader(parser, byteStream);
+        return Encoding.ANSEL;
     }
 
     /**
      * <p>
-     * Inspect the first few bytes of the file to determine which encoding is in play, and return an encoding-specific reader to
-     * read that data.
+     * Inspect the first few bytes of the file to determine which encoding is in play, and store it in {@link #encoding}.
      * </p>
      * 
-     * @return an {@link AbstractEncodingSpecificReader} that should work with the data in the byte stream
-     * 
      * @throws IOException
      *             if there is a problem reading the byte stream
      * @throws UnsupportedGedcomCharsetException
      *             if a suitable charset encoding is not found.
      */
-    private AbstractEncodingSpecificReader getEncodingSpecificReader() throws IOException, UnsupportedGedcomCharsetException {
+    private void detectEncoding() throws IOException, UnsupportedGedcomCharsetException {
 
         if (firstNBytes(3) == UTF8_BYTE_ORDER_MARKER) {
             /*
              * Special byte order marker to indicate UTF-8 encoding. Not every program does this, but if it does, we KNOW it's UTF-8
              * and should discard the BOM
              */
-            AbstractEncodingSpecificReader result = new Utf8Reader(parser, byteStream);
-            ((Utf8Reader) result).setByteOrderMarkerRead(true);
-            return result;
+            utf8ByteOrderMarkerFound = true;
+            encoding = Encoding.UTF_8;
+            return;
         }
 
         if (firstNBytes(2) == 0xFFFE || firstNBytes(2) == 0x3000 || firstNBytes(2) == 0x0D00 || firstNBytes(2) == 0x0A00) {
             // If the first two firstChunk make up a single zero character, a single line feed character, or a single
             // carriage return character, using the bytes shown, it's unicode little-endian
-            return new UnicodeLittleEndianReader(parser, byteStream);
+            encoding = Encoding.UNICODE_LITTLE_ENDIAN;
         } else if (firstNBytes(2) == 0xFEFF || firstNBytes(2) == 0x0030 || firstNBytes(2) == 0x000D || firstNBytes(2) == 0x000A) {
             // If the first two firstChunk make up a single zero character, a single line feed character, or a single
             // carriage return character, using the bytes shown, it's unicode big-endian
-            return new UnicodeBigEndianReader(parser, byteStream);
+            encoding = Encoding.UNICODE_BIG_ENDIAN;
         } else {
             boolean zeroFollowedBySpace = firstNBytes(2) == 0x3020;
             boolean blankLineFollowedByZero = firstNBytes(2) == 0x0A30 || firstNBytes(2) == 0x0D30;
@@ -242,7 +315,8 @@ public final class GedcomFileReader {
                 /*
                  * Could be ANSEL, ASCII, or UTF-8. Figure out which
                  */
-                return anselAsciiOrUtf8();
+                encoding = anselAsciiOrUtf8();
+                return;
             }
             throw new IOException("Does not appear to be a valid gedcom file - "
                     + "doesn't begin with a zero or newline in any supported encoding, "
@@ -251,6 +325,32 @@ public final class GedcomFileReader {
 
     }
 
+    /**
+     * Get an encoding-specific reader to read the byte stream, based on the encoding that was detected
+     * 
+     * @return an {@link AbstractEncodingSpecificReader} that should work with the data in the byte stream
+     * 
+     * @throws IOException
+     *             if there is a problem reading the byte stream
+     */
+    private AbstractEncodingSpecificReader getEncodingSpecificReader() throws IOException {
+        switch (encoding) {
+            case UNICODE_LITTLE_ENDIAN:
+                return new UnicodeLittleEndianReader(parser, byteStream);
+            case UNICODE_BIG_ENDIAN:
+                return new UnicodeBigEndianReader(parser, byteStream);
+            case UTF_8:
+                Utf8Reader result = new Utf8Reader(parser, byteStream);
+                result.setByteOrderMarkerRead(utf8ByteOrderMarkerFound);
+                return result;
+            case ASCII:
+                return new AsciiReader(parser, byteStream);
+            case ANSEL:
+            default:
+                return new AnselReader(parser, byteStream);
+        }
+    }
+
     /**
      * Save off a chunk of the beginning of the input stream to memory for easy inspection. The data is loaded into the field
      * 
@@ -0,0 +1,376 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.reader;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.parser.GedcomParser;
+
+/**
+ * <p>
+ * A reader for UTF-8 and ASCII files that memory-maps the file through its {@link FileChannel} and finds the line boundaries
+ * directly in the mapped bytes, rather than pulling the bytes one at a time through a stream or through a
+ * {@link java.io.InputStreamReader}/{@link java.io.BufferedReader} stack. Only the bytes of each non-blank line are copied off the
+ * mapped buffer, and each line is decoded in a single bulk operation.
+ * </p>
+ * <p>
+ * The file is mapped in regions rather than all at once, so files larger than 2GB can be read. A line that straddles the end of a
+ * region is assembled from the bytes of both regions.
+ * </p>
+ * <p>
+ * Lines are returned with the same rules as {@link Utf8Reader} and {@link AsciiReader}: leading whitespace is trimmed, blank lines
+ * are skipped, a UTF-8 byte order marker at the very beginning of a line is discarded (unless the line follows a blank line, which
+ * {@link Utf8Reader} has already skipped over by then), and (for ASCII) extended characters are an error.
+ * </p>
+ * 
+ * @author frizbog
+ */
+final class MemoryMappedReader extends AbstractEncodingSpecificReader {
+
+    /**
+     * The default size of each mapped region of the file. 64MB.
+     */
+    static final int DEFAULT_REGION_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * The channel for the file being read
+     */
+    private final FileChannel channel;
+
+    /**
+     * The offset in the file just past the last byte to read - the size of the file, unless only part of the file is being read
+     */
+    private final long end;
+
+    /**
+     * The maximum number of bytes to map at once
+     */
+    private final int regionSize;
+
+    /**
+     * Are we reading ASCII data (as opposed to UTF-8)?
+     */
+    private final boolean ascii;
+
+    /**
+     * The character set used to turn the bytes of each line into a string
+     */
+    private final Charset charset;
+
+    /**
+     * The currently mapped region of the file
+     */
+    private MappedByteBuffer region;
+
+    /**
+     * The offset in the file where the currently mapped region begins
+     */
+    private long regionStart = 0;
+
+    /**
+     * The number of bytes in the currently mapped region
+     */
+    private int regionLength = 0;
+
+    /**
+     * The offset in the file of the next byte to examine
+     */
+    private long position = 0;
+
+    /**
+     * Scratch buffer that the bytes of each line are copied into before being decoded. Grows as needed.
+     */
+    private byte[] lineBytes = new byte[256];
+
+    /**
+     * Has a line been returned yet? If so, the position is at the line terminator that ended it.
+     */
+    private boolean lineReturned;
+
+    /**
+     * Constructor
+     * 
+     * @param parser
+     *            the {@link GedcomParser} which is using this object to read files
+     * @param channel
+     *            the channel for the file to read
+     * @param ascii
+     *            true if the file is ASCII encoded, false if it is UTF-8 encoded
+     * @throws IOException
+     *             if the size of the file cannot be determined
+     */
+    MemoryMappedReader(GedcomParser parser, FileChannel channel, boolean ascii) throws IOException {
+        this(parser, channel, ascii, DEFAULT_REGION_SIZE);
+    }
+
+    /**
+     * Constructor that allows specifying the size of the regions that get mapped
+     * 
+     * @param parser
+     *            the {@link GedcomParser} which is using this object to read files
+     * @param channel
+     *            the channel for the file to read
+     * @param ascii
+     *            true if the file is ASCII encoded, false if it is UTF-8 encoded
+     * @param regionSize
+     *            the maximum number of bytes to map at a time. Must be at least 1.
+     * @throws IOException
+     *             if the size of the file cannot be determined
+     */
+    MemoryMappedReader(GedcomParser parser, FileChannel channel, boolean ascii, int regionSize) throws IOException {
+        this(parser, channel, ascii, 0, channel.size(), regionSize);
+    }
+
+    /**
+     * Constructor that reads only a range of bytes in the file. The range must begin at the beginning of a line.
+     * 
+     * @param parser
+     *            the {@link GedcomParser} which is using this object to read files
+     * @param channel
+     *            the channel for the file to read
+     * @param ascii
+     *            true if the file is ASCII encoded, false if it is UTF-8 encoded
+     * @param start
+     *            the offset in the file of the first byte to read
+     * @param end
+     *            the offset in the file just past the last byte to read
+     * @param regionSize
+     *            the maximum number of bytes to map at a time. Must be at least 1.
+     */
+    MemoryMappedReader(GedcomParser parser, FileChannel channel, boolean ascii, long start, long end, int regionSize) {
+        // There's no stream of bytes - everything comes off the mapped regions of the channel
+        super(parser, null);
+        if (regionSize < 1) {
+            throw new IllegalArgumentException("Region size must be at least 1");
+        }
+        this.channel = channel;
+        this.ascii = ascii;
+        this.regionSize = regionSize;
+        this.end = end;
+        position = start;
+        charset = ascii ? StandardCharsets.US_ASCII : StandardCharsets.UTF_8;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String nextLine() throws IOException, GedcomParserException {
+        String result = null;
+        if (lineReturned) {
+            skipLineTerminator();
+        }
+        // Like Utf8Reader, only the first line examined on each call can have a byte order marker stripped off
+        if (!ascii && isByteOrderMarkerAt(position)) {
+            position += 3;
+        }
+        while (result == null && skipLeadingWhitespace()) {
+            long lineStart = position;
+            int len = scanToEndOfLine();
+            result = new String(lineBytes, 0, len, charset);
+            position = lineStart + len;
+            if (Character.isWhitespace(result.charAt(0))) {
+                // Non-ASCII leading whitespace, which can only be seen once the line is decoded
+                result = leftTrim(result);
+            }
+        }
+        if (result == null) {
+            bytesRead = end;
+        } else {
+            linesRead++;
+            bytesRead = position;
+            lineReturned = true;
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    void cleanUp() throws IOException {
+        // Let go of the mapping so it can be unmapped when collected. Closing the channel is up to the caller that opened it.
+        region = null;
+    }
+
+    /**
+     * Get the byte at the supplied offset in the file, mapping a new region if needed
+     * 
+     * @param offset
+     *            the offset in the file. Must be less than {@link #end}.
+     * @return the byte at that offset
+     * @throws IOException
+     *             if the file cannot be mapped
+     */
+    private byte byteAt(long offset) throws IOException {
+        ensureMapped(offset);
+        return region.get((int) (offset - regionStart));
+    }
+
+    /**
+     * Make sure the region of the file containing the supplied offset is the one currently mapped
+     * 
+     * @param offset
+     *            the offset in the file. Must be less than {@link #end}.
+     * @throws IOException
+     *             if the file cannot be mapped
+     */
+    private void ensureMapped(long offset) throws IOException {
+        if (region == null || offset < regionStart || offset >= regionStart + regionLength) {
+            mapRegion(offset);
+        }
+    }
+
+    /**
+     * Is there a UTF-8 byte order marker (0xEF 0xBB 0xBF) at the supplied offset in the file?
+     * 
+     * @param offset
+     *            the offset in the file
+     * @return true if and only if there is a UTF-8 byte order marker at that offset
+     * @throws IOException
+     *             if the file cannot be mapped
+     */
+    private boolean isByteOrderMarkerAt(long offset) throws IOException {
+        return offset + 2 < end && byteAt(offset) == (byte) 0xEF && byteAt(offset + 1) == (byte) 0xBB && byteAt(offset
+                + 2) == (byte) 0xBF;
+    }
+
+    /**
+     * Trim all whitespace off the left side (only) of the supplied string.
+     * 
+     * @param line
+     *            the string to trim left leading whitespace from
+     * @return the line passed in with the leading whitespace removed, or null if there was nothing left
+     */
+    private String leftTrim(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            if (!Character.isWhitespace(line.charAt(i))) {
+                return line.substring(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Map the region of the file that begins at the supplied offset
+     * 
+     * @param offset
+     *            the offset into the file where the region should begin
+     * @throws IOException
+     *             if the file cannot be mapped
+     */
+    private void mapRegion(long offset) throws IOException {
+        regionStart = offset;
+        regionLength = (int) Math.min(regionSize, end - offset);
+        region = channel.map(MapMode.READ_ONLY, regionStart, regionLength);
+    }
+
+    /**
+     * Starting at the current position, scan forward to the next carriage return or line feed (or end of file), copying the bytes
+     * of the line into {@link #lineBytes}. The position is not changed.
+     * 
+     * @return the number of bytes in the line, not counting the line terminator
+     * @throws IOException
+     *             if the file cannot be mapped, or if an extended character is found in an ASCII file
+     */
+    private int scanToEndOfLine() throws IOException {
+        int len = 0;
+        long offset = position;
+        while (offset < end) {
+            ensureMapped(offset);
+            int start = (int) (offset - regionStart);
+            int i = start;
+            while (i < regionLength) {
+                byte b = region.get(i);
+                if (b == 0x0D || b == 0x0A) {
+                    break;
+                }
+                if (ascii && b < 0) {
+                    throw new IOException("Extended characters not supported in ASCII: 0x" + Integer.toHexString(b & 0xFF));
+                }
+                i++;
+            }
+            int n = i - start;
+            if (len + n > lineBytes.length) {
+                byte[] bigger = new byte[Math.max(lineBytes.length * 2, len + n)];
+                System.arraycopy(lineBytes, 0, bigger, 0, len);
+                lineBytes = bigger;
+            }
+            region.position(start);
+            region.get(lineBytes, len, n);
+            len += n;
+            offset += n;
+            if (i < regionLength) {
+                // Found the line terminator in this region
+                break;
+            }
+        }
+        return len;
+    }
+
+    /**
+     * Advance the position past any whitespace and line terminators
+     * 
+     * @return true if there is a line left to read, false if the end of the file has been reached
+     * @throws IOException
+     *             if the file cannot be mapped
+     */
+    private boolean skipLeadingWhitespace() throws IOException {
+        while (position < end) {
+            byte b = byteAt(position);
+            if (b >= 0 && Character.isWhitespace(b)) {
+                position++;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Advance the position past the line terminator at the current position, if there is one - a carriage return, a line feed, or
+     * a carriage return followed by a line feed
+     * 
+     * @throws IOException
+     *             if the file cannot be mapped
+     */
+    private void skipLineTerminator() throws IOException {
+        if (position < end && byteAt(position) == 0x0D) {
+            position++;
+        }
+        if (position < end && byteAt(position) == 0x0A) {
+            position++;
+        }
+    }
+
+}
@@ -26,10 +26,9 @@
  */
 package org.gedcom4j.io.reader;
 
-import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
-import org.gedcom4j.exception.GedcomParserException;
 import org.gedcom4j.parser.GedcomParser;
 
 /**
@@ -37,97 +36,19 @@ import org.gedcom4j.parser.GedcomParser;
  * 
  * @author frizbog
  */
-final class UnicodeBigEndianReader extends AbstractEncodingSpecificReader {
-
-    /**
-     * Are we at the end of file yet?
-     */
-    private boolean eof = false;
-
-    /**
-     * The line buffer for the current line
-     */
-    @SuppressWarnings("PMD.AvoidStringBufferField")
-    private final StringBuilder lineBuffer = new StringBuilder();
+final class UnicodeBigEndianReader extends AbstractUnicodeReader {
 
     /**
      * Constructor
      * 
      * @param parser
      *            the {@link GedcomParser} which is using this object to read files
+     * 
      * @param byteStream
      *            the stream of data to read from
      */
-    protected UnicodeBigEndianReader(GedcomParser parser, InputStream byteStream) {
-        super(parser, byteStream);
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public String nextLine() throws IOException, GedcomParserException {
-        String result = null;
-
-        boolean beginningOfFile = true;
-
-        while (!eof) {
-            int currChar1 = byteStream.read();
-            if (currChar1 >= 0) {
-                bytesRead++;
-            }
-            int currChar2 = byteStream.read();
-            if (currChar2 >= 0) {
-                bytesRead++;
-            }
-
-            // Check for EOF
-            if (currChar1 < 0 || currChar2 < 0) {
-                // hit EOF - add final line buffer (last line) and get out
-                if (lineBuffer.length() > 0) {
-                    result = lineBuffer.toString();
-                }
-                eof = true;
-                break;
-            }
-
-            // If it's a byte order marker at the beginning of the file, discard it
-            if (beginningOfFile && currChar1 == 0xFE && currChar2 == 0xFF) {
-                beginningOfFile = false;
-                lineBuffer.setLength(0);
-                continue;
-            }
-
-            beginningOfFile = false;
-
-            // Do bit shifting stuff to make the character from the bytes
-            int unicodeChar = currChar1 << 8 | currChar2;
-            Character unicode = Character.valueOf((char) unicodeChar);
-            if (Character.isWhitespace(unicode) && lineBuffer.length() == 0) {
-                continue;
-            }
-
-            // Check for carriage returns or line feeds after some data - signify EOL
-            if ((currChar1 == 0x00 && currChar2 == 0x0D || currChar1 == 0x00 && currChar2 == 0x0A) && lineBuffer.length() > 0) {
-                if (lineBuffer.length() > 0) {
-                    result = lineBuffer.toString();
-                    lineBuffer.setLength(0);
-                    break;
-                }
-                continue;
-            }
-
-            lineBuffer.append(Character.valueOf((char) unicodeChar));
-        }
-        return result;
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    void cleanUp() throws IOException {
-        // do nothing
+    UnicodeBigEndianReader(GedcomParser parser, InputStream byteStream) {
+        super(parser, byteStream, StandardCharsets.UTF_16BE);
     }
 
 }
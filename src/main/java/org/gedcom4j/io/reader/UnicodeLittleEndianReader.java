@@ -26,30 +26,17 @@
  */
 package org.gedcom4j.io.reader;
 
-import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
-import org.gedcom4j.exception.GedcomParserException;
 import org.gedcom4j.parser.GedcomParser;
 
 /**
- * A reader that loads from an input stream and gives back a collection of strings representing the data therein. This
- * implementation handles little-endian Unicode data.
+ * A reader that reads a single line from a little-endian Unicode-encoded file. Two bytes per character.
  * 
  * @author frizbog
  */
-final class UnicodeLittleEndianReader extends AbstractEncodingSpecificReader {
-
-    /**
-     * Are we at the end of file yet?
-     */
-    private boolean eof = false;
-
-    /**
-     * The line buffer for the current line
-     */
-    @SuppressWarnings("PMD.AvoidStringBufferField")
-    private final StringBuilder lineBuffer = new StringBuilder();
+final class UnicodeLittleEndianReader extends AbstractUnicodeReader {
 
     /**
      * Constructor
@@ -58,78 +45,10 @@ final class UnicodeLittleEndianReader extends AbstractEncodingSpecificReader {
      *            the {@link GedcomParser} which is using this object to read files
      * 
      * @param byteStream
-     *            the stream of data to be read
+     *            the stream of data to read from
      */
     UnicodeLittleEndianReader(GedcomParser parser, InputStream byteStream) {
-        super(parser, byteStream);
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public String nextLine() throws IOException, GedcomParserException {
-        String result = null;
-
-        boolean beginningOfFile = true;
-
-        while (!eof) {
-            int currChar1 = byteStream.read();
-            if (currChar1 >= 0) {
-                bytesRead++;
-            }
-            int currChar2 = byteStream.read();
-            if (currChar2 >= 0) {
-                bytesRead++;
-            }
-
-            // Check for EOF
-            if (currChar1 < 0 || currChar2 < 0) {
-                // hit EOF - add final line buffer (last line) and get out
-                if (lineBuffer.length() > 0) {
-                    result = lineBuffer.toString();
-                }
-                eof = true;
-                break;
-            }
-
-            // If it's a byte order marker at the beginning of the file, discard it
-            if (beginningOfFile && currChar1 == 0xFF && currChar2 == 0xFE) {
-                beginningOfFile = false;
-                lineBuffer.setLength(0);
-                break;
-            }
-
-            beginningOfFile = false;
-
-            // Do bit shifting stuff to make the character from the bytes
-            int unicodeChar = currChar2 << 8 | currChar1;
-            Character unicode = Character.valueOf((char) unicodeChar);
-            if (Character.isWhitespace(unicode) && lineBuffer.length() == 0) {
-                continue;
-            }
-
-            // Check for carriage returns or line feeds - signify EOL
-            if (lineBuffer.length() > 0 && (currChar1 == 0x0D && currChar2 == 0x00 || currChar1 == 0x0A && currChar2 == 0x00)) {
-                if (lineBuffer.length() > 0) {
-                    result = lineBuffer.toString();
-                    lineBuffer.setLength(0);
-                    break;
-                }
-                continue;
-            }
-
-            lineBuffer.append(Character.valueOf((char) unicodeChar));
-        }
-        return result;
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    void cleanUp() throws IOException {
-        // do nothing
+        super(parser, byteStream, StandardCharsets.UTF_16LE);
     }
 
 }
@@ -59,12 +59,12 @@ abstract class AbstractEncodingSpecificWriter {
     /**
      * The number of bytes written
      */
-    protected int bytesWritten;
+    protected long bytesWritten;
 
     /**
      * When we've exceeded this many line written, notify the listeners and update this value based on the rate
      */
-    protected int notifyAfterThisManyLines = 0;
+    protected long notifyAfterThisManyLines = 0;
 
     /**
      * Constructor
@@ -87,7 +87,7 @@ abstract class AbstractEncodingSpecificWriter {
      *             if the write operation was cancelled
      */
     public void write(OutputStream out) throws IOException, WriterCancelledException {
-        int lineCount = 0;
+        long lineCount = 0;
         for (String line : gedcomLines) {
             if (lineCount >= notifyAfterThisManyLines) {
                 writer.notifyFileObservers(new FileProgressEvent(this, lineCount, bytesWritten, false));
@@ -45,7 +45,7 @@ class Utf8Writer extends AbstractEncodingSpecificWriter {
     /**
      * The number of lines written
      */
-    private int lineCount;
+    private long lineCount;
 
     /**
      * Constructor
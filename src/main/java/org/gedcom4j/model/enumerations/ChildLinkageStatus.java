@@ -26,6 +26,9 @@
  */
 package org.gedcom4j.model.enumerations;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.gedcom4j.model.FamilyChild;
 
 /**
@@ -44,6 +47,17 @@ public enum ChildLinkageStatus {
     /** Proven. */
     PROVEN("proven", "there has been a challenge but linkage was proven");
 
+    /**
+     * The constants, by code, so they can be looked up without going through all of them
+     */
+    private static final Map<String, ChildLinkageStatus> BY_CODE = new HashMap<>();
+
+    static {
+        for (ChildLinkageStatus e : values()) {
+            BY_CODE.put(e.code, e);
+        }
+    }
+
     /**
      * Gets the value by its code
      *
@@ -52,12 +66,7 @@ public enum ChildLinkageStatus {
      * @return the code, or null if no matching value can be found
      */
     public static ChildLinkageStatus getForCode(String code) {
-        for (ChildLinkageStatus e : values()) {
-            if (e.code.equals(code)) {
-                return e;
-            }
-        }
-        return null;
+        return BY_CODE.get(code);
     }
 
     /**
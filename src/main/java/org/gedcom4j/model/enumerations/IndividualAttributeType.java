@@ -26,6 +26,9 @@
  */
 package org.gedcom4j.model.enumerations;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * <p>
  * The types of attributes that can be recorded for an individual. This enum covers the valid tags for an individual attribute.
@@ -93,6 +96,17 @@ public enum IndividualAttributeType {
      */
     SOCIAL_SECURITY_NUMBER("SSN", "Social Security Number");
 
+    /**
+     * The constants, by tag, so they can be looked up without going through all of them
+     */
+    private static final Map<String, IndividualAttributeType> BY_TAG = new HashMap<>();
+
+    static {
+        for (IndividualAttributeType t : values()) {
+            BY_TAG.put(t.tag, t);
+        }
+    }
+
     /**
      * Get an enum constant from its tag value
      * 
@@ -101,12 +115,7 @@ public enum IndividualAttributeType {
      * @return the enum constant that matches the supplied tag, or null if no match was found
      */
     public static IndividualAttributeType getFromTag(String tag) {
-        for (IndividualAttributeType t : values()) {
-            if (t.tag.equals(tag)) {
-                return t;
-            }
-        }
-        return null;
+        return BY_TAG.get(tag);
     }
 
     /**
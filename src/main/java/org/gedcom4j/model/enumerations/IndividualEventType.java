@@ -26,6 +26,9 @@
  */
 package org.gedcom4j.model.enumerations;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * An event type that occurs for an individual. This enum lists the valid tags for individual events,
  * 
@@ -130,6 +133,17 @@ public enum IndividualEventType {
      */
     WILL("WILL", "Will");
 
+    /**
+     * The constants, by tag, so they can be looked up without going through all of them
+     */
+    private static final Map<String, IndividualEventType> BY_TAG = new HashMap<>();
+
+    static {
+        for (IndividualEventType t : values()) {
+            BY_TAG.put(t.tag, t);
+        }
+    }
+
     /**
      * Get an individual event type enum constant from its tag
      * 
@@ -138,12 +152,7 @@ public enum IndividualEventType {
      * @return the individual event enum constant that corresponds to the tag
      */
     public static IndividualEventType getFromTag(String tag) {
-        for (IndividualEventType t : values()) {
-            if (t.tag.equals(tag)) {
-                return t;
-            }
-        }
-        return null;
+        return BY_TAG.get(tag);
     }
 
     /**
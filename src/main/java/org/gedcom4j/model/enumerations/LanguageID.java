@@ -26,6 +26,9 @@
  */
 package org.gedcom4j.model.enumerations;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Language ID's supported in GEDCOM 5.5.1 standard
  * 
@@ -207,6 +210,17 @@ public enum LanguageID {
     /** Yiddish */
     YIDDISH("Yiddish", "Yiddish");
 
+    /**
+     * The constants, by code, so they can be looked up without going through all of them
+     */
+    private static final Map<String, LanguageID> BY_CODE = new HashMap<>();
+
+    static {
+        for (LanguageID e : values()) {
+            BY_CODE.put(e.code, e);
+        }
+    }
+
     /**
      * Gets the value by its code
      *
@@ -215,12 +229,7 @@ public enum LanguageID {
      * @return the code, or null if no matching value can be found
      */
     public static LanguageID getForCode(String code) {
-        for (LanguageID e : values()) {
-            if (e.code.equals(code)) {
-                return e;
-            }
-        }
-        return null;
+        return BY_CODE.get(code);
     }
 
     /**
@@ -26,6 +26,9 @@
  */
 package org.gedcom4j.model.enumerations;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Allowed statuses for LDS Baptisms and Confirmations
  * 
@@ -54,6 +57,17 @@ public enum LdsBaptismDateStatus {
     /** uncleared */
     UNCLEARED("UNCLEARED", "Data for clearing ordinance request was insufficient.");
 
+    /**
+     * The constants, by code, so they can be looked up without going through all of them
+     */
+    private static final Map<String, LdsBaptismDateStatus> BY_CODE = new HashMap<>();
+
+    static {
+        for (LdsBaptismDateStatus e : values()) {
+            BY_CODE.put(e.code, e);
+        }
+    }
+
     /**
      * Gets the value by its code
      *
@@ -62,12 +76,7 @@ public enum LdsBaptismDateStatus {
      * @return the code, or null if no matching value can be found
      */
     public static LdsBaptismDateStatus getForCode(String code) {
-        for (LdsBaptismDateStatus e : values()) {
-            if (e.code.equals(code)) {
-                return e;
-            }
-        }
-        return null;
+        return BY_CODE.get(code);
     }
 
     /**
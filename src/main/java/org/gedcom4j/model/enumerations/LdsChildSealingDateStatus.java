@@ -26,6 +26,9 @@
  */
 package org.gedcom4j.model.enumerations;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Allowed statuses for LDS Endowments
  * 
@@ -57,6 +60,17 @@ public enum LdsChildSealingDateStatus {
     /** uncleared */
     UNCLEARED("UNCLEARED", "Data for clearing ordinance request was insufficient.");
 
+    /**
+     * The constants, by code, so they can be looked up without going through all of them
+     */
+    private static final Map<String, LdsChildSealingDateStatus> BY_CODE = new HashMap<>();
+
+    static {
+        for (LdsChildSealingDateStatus e : values()) {
+            BY_CODE.put(e.code, e);
+        }
+    }
+
     /**
      * Gets the value by its code
      *
@@ -65,12 +79,7 @@ public enum LdsChildSealingDateStatus {
      * @return the code, or null if no matching value can be found
      */
     public static LdsChildSealingDateStatus getForCode(String code) {
-        for (LdsChildSealingDateStatus e : values()) {
-            if (e.code.equals(code)) {
-                return e;
-            }
-        }
-        return null;
+        return BY_CODE.get(code);
     }
 
     /**
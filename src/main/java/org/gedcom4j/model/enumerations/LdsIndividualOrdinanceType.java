@@ -26,6 +26,9 @@
  */
 package org.gedcom4j.model.enumerations;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * An enumeration of the known LDS Individual Ordinance types.
  * 
@@ -50,6 +53,17 @@ public enum LdsIndividualOrdinanceType {
      */
     ENDOWMENT("ENDL", "LDS Endowment");
 
+    /**
+     * The constants, by tag, so they can be looked up without going through all of them
+     */
+    private static final Map<String, LdsIndividualOrdinanceType> BY_TAG = new HashMap<>();
+
+    static {
+        for (LdsIndividualOrdinanceType t : values()) {
+            BY_TAG.put(t.tag, t);
+        }
+    }
+
     /**
      * Get an enum constant from the tag it corresponds to
      * 
@@ -58,12 +72,7 @@ public enum LdsIndividualOrdinanceType {
      * @return the corresponding enum constant for the supplied tag (if any)
      */
     public static LdsIndividualOrdinanceType getFromTag(String tag) {
-        for (LdsIndividualOrdinanceType t : values()) {
-            if (t.tag.equals(tag)) {
-                return t;
-            }
-        }
-        return null;
+        return BY_TAG.get(tag);
     }
 
     /**
@@ -26,6 +26,9 @@
  */
 package org.gedcom4j.model.enumerations;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.gedcom4j.model.LdsSpouseSealing;
 
 /**
@@ -51,6 +54,17 @@ public enum LdsSpouseSealingDateStatus {
     /** Not cleared (insufficient data) */
     UNCLEARED("UNCLEARED", "Data for clearing ordinance request was insufficient.");
 
+    /**
+     * The constants, by code, so they can be looked up without going through all of them
+     */
+    private static final Map<String, LdsSpouseSealingDateStatus> BY_CODE = new HashMap<>();
+
+    static {
+        for (LdsSpouseSealingDateStatus e : values()) {
+            BY_CODE.put(e.code, e);
+        }
+    }
+
     /**
      * Gets the value by its code
      *
@@ -59,12 +73,7 @@ public enum LdsSpouseSealingDateStatus {
      * @return the code, or null if no matching value can be found
      */
     public static LdsSpouseSealingDateStatus getForCode(String code) {
-        for (LdsSpouseSealingDateStatus e : values()) {
-            if (e.code.equals(code)) {
-                return e;
-            }
-        }
-        return null;
+        return BY_CODE.get(code);
     }
 
     /**
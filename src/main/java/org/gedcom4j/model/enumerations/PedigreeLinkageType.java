@@ -26,6 +26,9 @@
  */
 package org.gedcom4j.model.enumerations;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * @author frizbog
  *
@@ -41,6 +44,17 @@ public enum PedigreeLinkageType {
     /** Sealing */
     SEALING("sealing", "indicates child was sealed to parents other than birth parents");
 
+    /**
+     * The constants, by code, so they can be looked up without going through all of them
+     */
+    private static final Map<String, PedigreeLinkageType> BY_CODE = new HashMap<>();
+
+    static {
+        for (PedigreeLinkageType v : values()) {
+            BY_CODE.put(v.code, v);
+        }
+    }
+
     /**
      * Gets the value by its code
      *
@@ -49,12 +63,7 @@ public enum PedigreeLinkageType {
      * @return the code, or null if no matching value can be found
      */
     public static PedigreeLinkageType getForCode(String code) {
-        for (PedigreeLinkageType v : values()) {
-            if (v.code.equals(code)) {
-                return v;
-            }
-        }
-        return null;
+        return BY_CODE.get(code);
     }
 
     /**
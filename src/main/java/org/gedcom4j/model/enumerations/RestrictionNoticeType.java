@@ -26,6 +26,9 @@
  */
 package org.gedcom4j.model.enumerations;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Allowable values for Restriction Notices.
  * 
@@ -39,6 +42,17 @@ public enum RestrictionNoticeType {
     /** Redacted for privacy */
     PRIVACY("privacy", "Information not disclosed to protect privacy");
 
+    /**
+     * The constants, by code, so they can be looked up without going through all of them
+     */
+    private static final Map<String, RestrictionNoticeType> BY_CODE = new HashMap<>();
+
+    static {
+        for (RestrictionNoticeType e : values()) {
+            BY_CODE.put(e.code, e);
+        }
+    }
+
     /**
      * Gets the value by its code
      *
@@ -47,12 +61,7 @@ public enum RestrictionNoticeType {
      * @return the code, or null if no matching value can be found
      */
     public static RestrictionNoticeType getForCode(String code) {
-        for (RestrictionNoticeType e : values()) {
-            if (e.code.equals(code)) {
-                return e;
-            }
-        }
-        return null;
+        return BY_CODE.get(code);
     }
 
     /**
@@ -66,7 +66,7 @@ public abstract class AbstractEventParser<T extends AbstractEvent> extends Abstr
         } else {
             loadInto.setYNull(null);
             loadInto.setDescription(new StringWithCustomFacts(stringTree.getValue()));
-            addWarning(stringTree.getTag() + " tag had description rather than [Y|<NULL>] - violates standard");
+            addDiagnostic(DiagnosticCode.EVENT_DESCRIPTION, stringTree.getLineNum(), stringTree.getTag());
         }
     }
 
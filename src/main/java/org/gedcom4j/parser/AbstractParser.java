@@ -79,23 +79,17 @@ abstract class AbstractParser<T> {
     }
 
     /**
-     * Add an error to the errors collection on the root parser
+     * Report an error or warning to the root parser
      * 
-     * @param string
-     *            the text of the error
+     * @param code
+     *            what kind of error or warning it is
+     * @param lineNum
+     *            the line number it is for
+     * @param args
+     *            the arguments its message is formatted from, after the line number
      */
-    protected void addError(String string) {
-        gedcomParser.getErrors().add(string);
-    }
-
-    /**
-     * Add a warning to the warnings collection on the root parser
-     * 
-     * @param string
-     *            the text of the error
-     */
-    protected void addWarning(String string) {
-        gedcomParser.getWarnings().add(string);
+    protected void addDiagnostic(DiagnosticCode code, long lineNum, Object... args) {
+        gedcomParser.getDiagnostics().add(code, lineNum, args);
     }
 
     /**
@@ -118,6 +112,10 @@ abstract class AbstractParser<T> {
      * @return the family with the specified xref
      */
     protected Family getFamily(String xref) {
+        XrefRegistry registry = gedcomParser.getXrefRegistry();
+        if (registry != null) {
+            return registry.getFamily(xref);
+        }
         Family f = gedcomParser.getGedcom().getFamilies().get(xref);
         if (f == null) {
             f = new Family();
@@ -135,6 +133,10 @@ abstract class AbstractParser<T> {
      * @return the individual with the specified xref
      */
     protected Individual getIndividual(String xref) {
+        XrefRegistry registry = gedcomParser.getXrefRegistry();
+        if (registry != null) {
+            return registry.getIndividual(xref);
+        }
         Individual i;
         i = gedcomParser.getGedcom().getIndividuals().get(xref);
         if (i == null) {
@@ -153,6 +155,10 @@ abstract class AbstractParser<T> {
      * @return the multimedia item with the specified xref
      */
     protected Multimedia getMultimedia(String xref) {
+        XrefRegistry registry = gedcomParser.getXrefRegistry();
+        if (registry != null) {
+            return registry.getMultimedia(xref);
+        }
         Multimedia m;
         m = gedcomParser.getGedcom().getMultimedia().get(xref);
         if (m == null) {
@@ -171,6 +177,10 @@ abstract class AbstractParser<T> {
      * @return the note record with the specified xref
      */
     protected NoteRecord getNoteRecord(String xref) {
+        XrefRegistry registry = gedcomParser.getXrefRegistry();
+        if (registry != null) {
+            return registry.getNoteRecord(xref);
+        }
         NoteRecord nr;
         nr = gedcomParser.getGedcom().getNotes().get(xref);
         if (nr == null) {
@@ -188,6 +198,10 @@ abstract class AbstractParser<T> {
      * @return the repository with the specified xref
      */
     protected Repository getRepository(String xref) {
+        XrefRegistry registry = gedcomParser.getXrefRegistry();
+        if (registry != null) {
+            return registry.getRepository(xref);
+        }
         Repository r = gedcomParser.getGedcom().getRepositories().get(xref);
         if (r == null) {
             r = new Repository();
@@ -206,6 +220,10 @@ abstract class AbstractParser<T> {
      * @return the source with the specified xref
      */
     protected Source getSource(String xref) {
+        XrefRegistry registry = gedcomParser.getXrefRegistry();
+        if (registry != null) {
+            return registry.getSource(xref);
+        }
         Source src = gedcomParser.getGedcom().getSources().get(xref);
         if (src == null) {
             src = new Source(xref);
@@ -222,6 +240,10 @@ abstract class AbstractParser<T> {
      * @return the submitter with the specified xref
      */
     protected Submitter getSubmitter(String xref) {
+        XrefRegistry registry = gedcomParser.getXrefRegistry();
+        if (registry != null) {
+            return registry.getSubmitter(xref);
+        }
         Submitter s;
         s = gedcomParser.getGedcom().getSubmitters().get(xref);
         if (s == null) {
@@ -406,9 +428,12 @@ abstract class AbstractParser<T> {
             return;
         }
 
+        if (!gedcomParser.getDiagnostics().isKept(DiagnosticCode.UNKNOWN_TAG)) {
+            // Only counted, so don't bother describing where the tag was
+            addDiagnostic(DiagnosticCode.UNKNOWN_TAG, node.getLineNum(), node.getTag(), null);
+            return;
+        }
         StringBuilder sb = new StringBuilder(64); // Min size = 64
-        sb.append("Line ").append(node.getLineNum()).append(": Cannot handle tag ");
-        sb.append(node.getTag());
         StringTree st = node;
         while (st.getParent() != null) {
             st = st.getParent();
@@ -418,7 +443,7 @@ abstract class AbstractParser<T> {
             }
             sb.append(" on line ").append(st.getLineNum());
         }
-        addError(sb.toString());
+        addDiagnostic(DiagnosticCode.UNKNOWN_TAG, node.getLineNum(), node.getTag(), sb.toString());
     }
 
     /**
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.nio.file.Path;
+
+/**
+ * Interface for receiving the results of each file loaded by a {@link BulkLoader}, as soon as it has been loaded. Methods are called
+ * on the loader's worker threads, several at a time, so implementations must be thread-safe.
+ * 
+ * @author frizbog
+ */
+public interface BulkLoadHandler {
+
+    /**
+     * A file could not be loaded
+     * 
+     * @param file
+     *            the file
+     * @param e
+     *            what went wrong - typically an {@link java.io.IOException} or a
+     *            {@link org.gedcom4j.exception.GedcomParserException}
+     */
+    void fileFailed(Path file, Exception e);
+
+    /**
+     * A file has been loaded
+     * 
+     * @param file
+     *            the file
+     * @param parser
+     *            the parser that loaded it, from which to get the {@link org.gedcom4j.model.Gedcom}, errors and warnings. It is not
+     *            used again once this returns.
+     */
+    void fileLoaded(Path file, GedcomParser parser);
+}
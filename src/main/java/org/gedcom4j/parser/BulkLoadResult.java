@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The totals for a run of a {@link BulkLoader}: how many files were loaded, which ones failed and why, and how fast it all went.
+ * 
+ * @author frizbog
+ */
+public final class BulkLoadResult {
+
+    /**
+     * The number of files loaded
+     */
+    private final AtomicInteger filesLoaded = new AtomicInteger();
+
+    /**
+     * The files that could not be loaded, and what went wrong with each
+     */
+    private final Map<Path, Exception> failures = new ConcurrentSkipListMap<>();
+
+    /**
+     * The total number of bytes read from the files loaded
+     */
+    private final AtomicLong bytesRead = new AtomicLong();
+
+    /**
+     * The total number of lines in the files loaded
+     */
+    private final AtomicLong linesRead = new AtomicLong();
+
+    /**
+     * The number of strings the canonicalizers were asked about
+     */
+    private final AtomicLong canonicalizerRequests = new AtomicLong();
+
+    /**
+     * The number of strings the canonicalizers already had a canonical instance for
+     */
+    private final AtomicLong canonicalizerHits = new AtomicLong();
+
+    /**
+     * Roughly how many bytes the canonicalizers saved
+     */
+    private final AtomicLong canonicalizerBytesSaved = new AtomicLong();
+
+    /**
+     * How long the run took, in nanoseconds
+     */
+    private volatile long elapsedNanos;
+
+    /**
+     * Get the number of bytes loaded per second
+     * 
+     * @return the number of bytes loaded per second, or zero if no time was taken
+     */
+    public double getBytesPerSecond() {
+        return perSecond(bytesRead.get());
+    }
+
+    /**
+     * Get the total number of bytes read from the files loaded - after decompression, for compressed files, so this matches the
+     * total of {@link LoadMetrics#getBytesRead()} for the same files
+     * 
+     * @return the total number of bytes read from the files loaded
+     */
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    /**
+     * Get roughly how many bytes were saved by sharing repeated values
+     * 
+     * @return roughly how many bytes were saved by sharing repeated values
+     */
+    public long getCanonicalizerBytesSaved() {
+        return canonicalizerBytesSaved.get();
+    }
+
+    /**
+     * Get the proportion of values that were already in a canonicalizer
+     * 
+     * @return the proportion of values that were already in a canonicalizer, or zero if there were none
+     */
+    public double getCanonicalizerHitRate() {
+        long requests = canonicalizerRequests.get();
+        return requests == 0 ? 0 : (double) canonicalizerHits.get() / requests;
+    }
+
+    /**
+     * Get how long the run took
+     * 
+     * @return how long the run took, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Get the files that could not be loaded, and what went wrong with each
+     * 
+     * @return the files that could not be loaded, in order, and what went wrong with each
+     */
+    public Map<Path, Exception> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * Get the number of files that could not be loaded
+     * 
+     * @return the number of files that could not be loaded
+     */
+    public int getFilesFailed() {
+        return failures.size();
+    }
+
+    /**
+     * Get the number of files loaded
+     * 
+     * @return the number of files loaded
+     */
+    public int getFilesLoaded() {
+        return filesLoaded.get();
+    }
+
+    /**
+     * Get the number of files loaded per second
+     * 
+     * @return the number of files loaded per second, or zero if no time was taken
+     */
+    public double getFilesPerSecond() {
+        return perSecond(filesLoaded.get());
+    }
+
+    /**
+     * Get the total number of lines in the files loaded
+     * 
+     * @return the total number of lines in the files loaded
+     */
+    public long getLinesRead() {
+        return linesRead.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "BulkLoadResult [filesLoaded=%d, filesFailed=%d, bytesRead=%d, linesRead=%d, canonicalizerHitRate=%.3f, "
+                        + "elapsed=%.1fms, files/s=%.1f, MB/s=%.1f]", filesLoaded.get(), failures.size(), bytesRead.get(),
+                linesRead.get(), getCanonicalizerHitRate(), elapsedNanos / 1e6, getFilesPerSecond(), getBytesPerSecond() / 1e6);
+    }
+
+    /**
+     * Add the statistics of a canonicalizer that is finished with
+     * 
+     * @param canonicalizer
+     *            the canonicalizer
+     */
+    void addCanonicalizer(StringCanonicalizer canonicalizer) {
+        canonicalizerRequests.addAndGet(canonicalizer.getRequestCount());
+        canonicalizerHits.addAndGet(canonicalizer.getHitCount());
+        canonicalizerBytesSaved.addAndGet(canonicalizer.getBytesSaved());
+    }
+
+    /**
+     * Record a file that could not be loaded
+     * 
+     * @param file
+     *            the file
+     * @param e
+     *            what went wrong
+     */
+    void addFailure(Path file, Exception e) {
+        failures.put(file, e);
+    }
+
+    /**
+     * Record a file that was loaded
+     * 
+     * @param bytes
+     *            the number of bytes read from the file
+     * @param lines
+     *            the number of lines in the file
+     */
+    void addLoaded(long bytes, long lines) {
+        filesLoaded.incrementAndGet();
+        bytesRead.addAndGet(bytes);
+        linesRead.addAndGet(lines);
+    }
+
+    /**
+     * Set how long the run took
+     * 
+     * @param elapsedNanos
+     *            how long the run took, in nanoseconds
+     */
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Work out a rate per second over the whole run
+     * 
+     * @param count
+     *            the number of things done in the run
+     * @return the number of things done per second, or zero if no time was taken
+     */
+    private double perSecond(long count) {
+        return elapsedNanos == 0 ? 0 : count * 1e9 / elapsedNanos;
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.gedcom4j.Options;
+import org.gedcom4j.exception.GedcomParserException;
+
+/**
+ * <p>
+ * Loads many GEDCOM files at once, each on its own {@link GedcomParser}, on a pool of worker threads. Meant for ingesting
+ * directories full of small files, where loading one file at a time leaves most of the processors idle. Each file is loaded with
+ * {@link GedcomParser#load(Path)}, so gzip files and zip archives are loaded too.
+ * </p>
+ * <p>
+ * As each file is loaded, the {@link BulkLoadHandler} is given the parser that loaded it, or what went wrong; a failure doesn't
+ * stop the other files from being loaded. The totals for the run, including throughput, come back as a {@link BulkLoadResult}.
+ * </p>
+ * <p>
+ * The tag table and the ANSEL decoding tables are built once and shared by every parser in the JVM already. On top of that, each
+ * worker thread keeps one string canonicalizer for all the files it loads (unless {@link #setCanonicalizerShared(boolean)} is
+ * turned off), so values that are repeated from one file to the next - place names, source titles, dates - share one instance
+ * instead of one per file. Whether collections in the object model are pre-initialized is set for the loader's worker threads
+ * alone (see {@link #setCollectionInitializationEnabled(boolean)}), without touching the global value in {@link Options}, so
+ * loaders with different settings can run in the same JVM.
+ * </p>
+ * <p>
+ * To configure the parsers - custom tag handling, notification listeners, and so on - override {@link #createParser()}. A loader
+ * can be used for more than one run, but not for two at the same time.
+ * </p>
+ * 
+ * @author frizbog
+ */
+public class BulkLoader {
+
+    /**
+     * The number of worker threads
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Whether collections in the object model are pre-initialized in the files loaded
+     */
+    private boolean collectionInitializationEnabled = Options.isCollectionInitializationEnabled();
+
+    /**
+     * Whether each worker thread keeps one canonicalizer for all the files it loads
+     */
+    private boolean canonicalizerShared = true;
+
+    /**
+     * The maximum number of strings each canonicalizer keeps
+     */
+    private int canonicalizerSize = StringCanonicalizer.DEFAULT_MAXIMUM_SIZE;
+
+    /**
+     * Get the maximum number of strings each canonicalizer keeps
+     * 
+     * @return the maximum number of strings each canonicalizer keeps
+     */
+    public int getCanonicalizerSize() {
+        return canonicalizerSize;
+    }
+
+    /**
+     * Get the number of worker threads
+     * 
+     * @return the number of worker threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Does each worker thread keep one canonicalizer for all the files it loads?
+     * 
+     * @return true if each worker thread keeps one canonicalizer for all the files it loads
+     */
+    public boolean isCanonicalizerShared() {
+        return canonicalizerShared;
+    }
+
+    /**
+     * Are collections in the object model pre-initialized in the files loaded?
+     * 
+     * @return true if collections in the object model are pre-initialized in the files loaded
+     */
+    public boolean isCollectionInitializationEnabled() {
+        return collectionInitializationEnabled;
+    }
+
+    /**
+     * Load the supplied files, handing the results for each over to the supplied handler as soon as it is loaded, and wait for them
+     * all to be done
+     * 
+     * @param files
+     *            the files to load
+     * @param handler
+     *            the handler to give the results for each file to. Required.
+     * @return the totals for the run
+     * @throws InterruptedException
+     *             if the calling thread is interrupted while waiting. The files not loaded yet are not loaded, and the worker
+     *             threads are interrupted.
+     * @throws RuntimeException
+     *             the first runtime exception the handler threw, if any did, once all the files are done
+     * @throws Error
+     *             the first error the handler threw, if any did, once all the files are done
+     */
+    public BulkLoadResult load(Collection<Path> files, final BulkLoadHandler handler) throws InterruptedException {
+        if (handler == null) {
+            throw new IllegalArgumentException("A bulk load handler is required");
+        }
+        final BulkLoadResult result = new BulkLoadResult();
+        final List<StringCanonicalizer> sharedCanonicalizers = Collections.synchronizedList(new ArrayList<StringCanonicalizer>());
+        final ThreadLocal<StringCanonicalizer> threadCanonicalizer = new ThreadLocal<StringCanonicalizer>() {
+            @Override
+            protected StringCanonicalizer initialValue() {
+                StringCanonicalizer c = new StringCanonicalizer(canonicalizerSize);
+                sharedCanonicalizers.add(c);
+                return c;
+            }
+        };
+        ExecutorService workers = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "gedcom4j-bulk-loader");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        long start = System.nanoTime();
+        try {
+            List<Future<Void>> loads = new ArrayList<>(files.size());
+            for (final Path file : files) {
+                loads.add(workers.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        Options.setThreadCollectionInitializationEnabled(collectionInitializationEnabled);
+                        if (canonicalizerShared) {
+                            loadFile(file, threadCanonicalizer.get(), handler, result);
+                        } else {
+                            StringCanonicalizer c = new StringCanonicalizer(canonicalizerSize);
+                            loadFile(file, c, handler, result);
+                            result.addCanonicalizer(c);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            Throwable handlerFailure = null;
+            for (Future<Void> f : loads) {
+                try {
+                    f.get();
+                } catch (ExecutionException e) {
+                    if (handlerFailure == null) {
+                        handlerFailure = e.getCause();
+                    }
+                }
+            }
+            if (handlerFailure instanceof Error) {
+                throw (Error) handlerFailure;
+            }
+            if (handlerFailure != null) {
+                throw (RuntimeException) handlerFailure;
+            }
+        } finally {
+            workers.shutdownNow();
+            result.setElapsedNanos(System.nanoTime() - start);
+        }
+        synchronized (sharedCanonicalizers) {
+            for (StringCanonicalizer c : sharedCanonicalizers) {
+                result.addCanonicalizer(c);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Set whether each worker thread keeps one canonicalizer for all the files it loads, so that values repeated from one file to
+     * the next share one instance. When false, each file gets a canonicalizer of its own. Defaults to true.
+     * 
+     * @param canonicalizerShared
+     *            true if each worker thread should keep one canonicalizer for all the files it loads
+     */
+    public void setCanonicalizerShared(boolean canonicalizerShared) {
+        this.canonicalizerShared = canonicalizerShared;
+    }
+
+    /**
+     * Set the maximum number of strings each canonicalizer keeps
+     * 
+     * @param canonicalizerSize
+     *            the maximum number of strings each canonicalizer keeps. Must be at least 1.
+     */
+    public void setCanonicalizerSize(int canonicalizerSize) {
+        if (canonicalizerSize < 1) {
+            throw new IllegalArgumentException("Canonicalizer size must be at least 1");
+        }
+        this.canonicalizerSize = canonicalizerSize;
+    }
+
+    /**
+     * Set whether collections in the object model are pre-initialized in the files loaded. Applies to this loader's worker threads
+     * only; the global value in {@link Options} is not changed. Defaults to the value of
+     * {@link Options#isCollectionInitializationEnabled()} when the loader was created.
+     * 
+     * @param collectionInitializationEnabled
+     *            true if collections in the object model should be pre-initialized in the files loaded
+     */
+    public void setCollectionInitializationEnabled(boolean collectionInitializationEnabled) {
+        this.collectionInitializationEnabled = collectionInitializationEnabled;
+    }
+
+    /**
+     * Set the number of worker threads
+     * 
+     * @param threads
+     *            the number of worker threads. Must be at least 1. Defaults to the number of processors.
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be at least 1");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Make the parser to load one file with. Called on a worker thread, once for each file. Override this to configure the parsers
+     * - but don't turn on {@link GedcomParser#setParallelDecoding(boolean)}, which would keep the file from using the worker
+     * thread's canonicalizer, and whose threads would compete with the other workers anyway.
+     * 
+     * @return a new parser
+     */
+    protected GedcomParser createParser() {
+        return new GedcomParser();
+    }
+
+    /**
+     * Load a file, record the result, and hand it over
+     * 
+     * @param file
+     *            the file
+     * @param canonicalizer
+     *            the canonicalizer to use for the file
+     * @param handler
+     *            the handler to give the results for the file to
+     * @param result
+     *            the totals for the run
+     */
+    private void loadFile(Path file, StringCanonicalizer canonicalizer, BulkLoadHandler handler, BulkLoadResult result) {
+        GedcomParser parser = createParser();
+        parser.setSharedCanonicalizer(canonicalizer);
+        try {
+            parser.load(file);
+        } catch (IOException | GedcomParserException | RuntimeException e) {
+            result.addFailure(file, e);
+            handler.fileFailed(file, e);
+            return;
+        }
+        result.addLoaded(parser.getBytesRead(), parser.getLineNum());
+        handler.fileLoaded(file, parser);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+/**
+ * An error or warning reported by the parser: what kind it is, the line it was reported for, and the arguments its message is
+ * formatted from. The message is only formatted when it is asked for, so reporting a diagnostic costs little more than allocating
+ * this object.
+ * 
+ * @author frizbog
+ */
+public final class Diagnostic {
+
+    /**
+     * What kind of diagnostic this is
+     */
+    private final DiagnosticCode code;
+
+    /**
+     * The line number the diagnostic was reported for
+     */
+    private final long lineNum;
+
+    /**
+     * The arguments the message is formatted from, after the line number
+     */
+    private final Object[] args;
+
+    /**
+     * Constructor
+     * 
+     * @param code
+     *            what kind of diagnostic this is
+     * @param lineNum
+     *            the line number the diagnostic was reported for
+     * @param args
+     *            the arguments the message is formatted from, after the line number
+     */
+    Diagnostic(DiagnosticCode code, long lineNum, Object[] args) {
+        this.code = code;
+        this.lineNum = lineNum;
+        this.args = args;
+    }
+
+    /**
+     * Get the arguments the message is formatted from, after the line number
+     * 
+     * @return a copy of the arguments
+     */
+    public Object[] getArgs() {
+        return args.clone();
+    }
+
+    /**
+     * Get what kind of diagnostic this is
+     * 
+     * @return what kind of diagnostic this is
+     */
+    public DiagnosticCode getCode() {
+        return code;
+    }
+
+    /**
+     * Get the line number the diagnostic was reported for
+     * 
+     * @return the line number the diagnostic was reported for
+     */
+    public long getLineNum() {
+        return lineNum;
+    }
+
+    /**
+     * Get the message, formatting it from the code's pattern and the arguments
+     * 
+     * @return the message
+     */
+    public String getMessage() {
+        return code.format(lineNum, args);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return getMessage();
+    }
+}
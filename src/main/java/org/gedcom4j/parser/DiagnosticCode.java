@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.util.Locale;
+
+/**
+ * <p>
+ * The kinds of errors and warnings the parser can report, each with the pattern its message is formatted from. The first argument
+ * to every pattern (<code>%1$d</code>) is the line number the {@link Diagnostic} was reported for; the rest are the arguments the
+ * diagnostic was reported with.
+ * </p>
+ * <p>
+ * Messages are only formatted when they are asked for (see {@link Diagnostic#getMessage()}), and {@link Diagnostics} limits how
+ * many diagnostics of each code are kept.
+ * </p>
+ * 
+ * @author frizbog
+ */
+public enum DiagnosticCode {
+
+    /**
+     * A BLOB tag in a 5.5.1 file
+     */
+    BLOB_IN_G551(false, "GEDCOM version is 5.5.1, but a BLOB tag was found at line %1$d. "
+            + "Data will be loaded but will not be writeable unless GEDCOM version is changed to 5.5.1"),
+
+    /**
+     * A chained OBJE tag in a 5.5.1 file
+     */
+    CHAINED_OBJE_IN_G551(false, "GEDCOM version is 5.5.1, but a chained OBJE tag was found at line %1$d. "
+            + "Data will be loaded but will not be writeable unless GEDCOM version is changed to 5.5.1"),
+
+    /**
+     * An event tag with a description, where only Y or nothing is allowed. Argument: the tag.
+     */
+    EVENT_DESCRIPTION(false, "%2$s tag had description rather than [Y|<NULL>] - violates standard"),
+
+    /**
+     * A FACT tag in a 5.5 file
+     */
+    FACT_IN_G55(false, "FACT tag specified on a GEDCOM 5.5 file at line %1$d, but FACT was not added until 5.5.1."
+            + "  Data loaded but cannot be re-written unless GEDCOM version changes."),
+
+    /**
+     * A FILE reference without the FORM tag the spec requires
+     */
+    FORM_MISSING(false, "FORM tag not found under FILE reference on line %1$d - technically required by spec"),
+
+    /**
+     * A 5.5.1 feature in a 5.5 file. Arguments: what was specified, and three pieces of text (any of which can be empty) that
+     * together say where.
+     */
+    G551_FEATURE_IN_G55(false, "GEDCOM version is 5.5 but %2$s was specified %3$s%4$s%5$s on line %1$d, which is a GEDCOM 5.5.1 "
+            + "feature.  Data loaded but cannot be re-written unless GEDCOM version changes."),
+
+    /**
+     * A 5.5.1-style multimedia record in a 5.5 file
+     */
+    G551_MULTIMEDIA_IN_G55(false, "GEDCOM version was 5.5, but a 5.5.1-style multimedia record was found at line %1$d. "
+            + "Data will be loaded, but might have problems being written until the version is for the data is changed to 5.5.1"),
+
+    /**
+     * A 5.5-style multimedia record in a 5.5.1 file
+     */
+    G55_MULTIMEDIA_IN_G551(false, "GEDCOM version is 5.5.1, but a 5.5-style multimedia record was found at line %1$d. "
+            + "Data will be loaded, but might have problems being written until the version is for the data is changed to 5.5.1"),
+
+    /**
+     * A line that was too long, and was split with a synthetic CONC tag
+     */
+    LINE_TOO_LONG(false, "Line %1$d exceeds max length - introducing synthetic CONC tag to split line"),
+
+    /**
+     * A line without a level and tag, treated as a continuation of the line before
+     */
+    LINE_WITHOUT_TAG_CONTINUED(false, "Line %1$d did not begin with a level and tag, so it was treated as a "
+            + "non-standard continuation of the previous line."),
+
+    /**
+     * A line without a level and tag that could not be treated as a continuation, and was discarded
+     */
+    LINE_WITHOUT_TAG_DISCARDED(false, "Line %1$d did not begin with a level and tag, so it was discarded."),
+
+    /**
+     * A root-level multimedia record without any children
+     */
+    MULTIMEDIA_WITHOUT_CHILDREN(true, "Root level multimedia record at line %1$d had no child records"),
+
+    /**
+     * Multiple lines of copyright data in a 5.5 file
+     */
+    MULTIPLE_COPYRIGHT_LINES_IN_G55(false, "GEDCOM version is 5.5, but multiple lines of copyright data were specified, "
+            + "which is only allowed in GEDCOM 5.5.1.  Data loaded but cannot be re-written unless GEDCOM version changes."),
+
+    /**
+     * Multiple files in a multimedia reference in a 5.5 file
+     */
+    MULTIPLE_FILES_IN_G55(false, "GEDCOM version is 5.5, but multiple files referenced in multimedia reference on line %1$d"
+            + ", which is only allowed in 5.5.1. "
+            + "Data will be loaded, but cannot be written back out unless the GEDCOM version is changed to 5.5.1"),
+
+    /**
+     * More than one FORM tag for a multimedia file reference
+     */
+    MULTIPLE_FORM_TAGS(true, "Multiple FORM tags were found for a multimedia file reference at line %1$d"
+            + " - this is not compliant with any GEDCOM standard - data not loaded"),
+
+    /**
+     * More than one media type for a FORM tag
+     */
+    MULTIPLE_MEDIA_TYPES(true, "Media type was specified more than once for the FORM tag on line %1$d"),
+
+    /**
+     * A NOTE on a multimedia link in a 5.5.1 file
+     */
+    NOTE_ON_MULTIMEDIA_LINK_IN_G551(false, "Gedcom version was 5.5.1, but a NOTE was found on a multimedia link on line %1$d"
+            + ", which is no longer supported. "
+            + "Data will be loaded, but cannot be written back out unless the GEDCOM version is changed to 5.5"),
+
+    /**
+     * A NOTE record with both an xref and a value between @ signs. Arguments: the xref and the value.
+     */
+    NOTE_XREF_AND_TEXT(false, "NOTE line has both an XREF_ID (%2$s) and SUBMITTER_TEXT (%3$s) value between @ signs - "
+            + "treating SUBMITTER_TEXT as string, not a cross-reference"),
+
+    /**
+     * A multimedia link without a FORM tag in a 5.5 file
+     */
+    NO_FORM_IN_G55(false, "GEDCOM version is 5.5, but there is not a FORM tag in the multimedia link on line %1$d"
+            + ", a scenario which is only allowed in 5.5.1. "
+            + "Data will be loaded, but cannot be written back out unless the GEDCOM version is changed to 5.5.1"),
+
+    /**
+     * A line whose level is too deep for the lines before it. Arguments: the tag and the level of the missing parent.
+     */
+    ORPHANED_LINE(true, "%2$s tag at line %1$d: Unable to find suitable parent node at level %3$d"),
+
+    /**
+     * An error with a message of its own, added directly to {@link GedcomParser#getErrors()}. Argument: the message.
+     */
+    OTHER_ERROR(true, "%2$s"),
+
+    /**
+     * A warning with a message of its own, added directly to {@link GedcomParser#getWarnings()}. Argument: the message.
+     */
+    OTHER_WARNING(false, "%2$s"),
+
+    /**
+     * A tag that could not be handled. Arguments: the tag, and where it was (its ancestors).
+     */
+    UNKNOWN_TAG(true, "Line %1$d: Cannot handle tag %2$s%3$s"),
+
+    /**
+     * A version of GEDCOM that isn't supported. Argument: the message explaining why.
+     */
+    UNSUPPORTED_VERSION(true, "%2$s");
+
+    /**
+     * Whether this is an error, rather than a warning
+     */
+    private final boolean error;
+
+    /**
+     * The pattern the message is formatted from
+     */
+    private final String pattern;
+
+    /**
+     * Constructor
+     * 
+     * @param error
+     *            whether this is an error, rather than a warning
+     * @param pattern
+     *            the pattern the message is formatted from
+     */
+    DiagnosticCode(boolean error, String pattern) {
+        this.error = error;
+        this.pattern = pattern;
+    }
+
+    /**
+     * Get the pattern the message is formatted from
+     * 
+     * @return the pattern the message is formatted from
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Is this an error, rather than a warning?
+     * 
+     * @return true if this is an error, false if it is a warning
+     */
+    public boolean isError() {
+        return error;
+    }
+
+    /**
+     * Format a message
+     * 
+     * @param lineNum
+     *            the line number
+     * @param args
+     *            the other arguments
+     * @return the message
+     */
+    String format(long lineNum, Object[] args) {
+        Object[] all = new Object[args.length + 1];
+        all[0] = Long.valueOf(lineNum);
+        System.arraycopy(args, 0, all, 1, args.length);
+        return String.format(Locale.ROOT, pattern, all);
+    }
+}
@@ -0,0 +1,395 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * Collects the errors and warnings reported while a file is parsed, as {@link Diagnostic}s whose messages are only formatted when
+ * they are asked for. By default every diagnostic is kept, just as every message used to be. A cap can be set for all codes, or for
+ * one {@link DiagnosticCode} at a time, so that only that many diagnostics of each code are kept and any more are counted but
+ * otherwise discarded - that way a badly malformed file that draws a warning on nearly every line doesn't fill the heap with them.
+ * </p>
+ * <p>
+ * {@link GedcomParser#getErrors()} and {@link GedcomParser#getWarnings()} are views of the errors and warnings kept here, as
+ * formatted messages.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ * 
+ * @author frizbog
+ */
+public class Diagnostics {
+
+    /**
+     * The default maximum number of diagnostics of each code that are kept, which is no limit at all
+     */
+    public static final int DEFAULT_CAP = Integer.MAX_VALUE;
+
+    /**
+     * The number of diagnostics of each code that have been reported, by ordinal
+     */
+    private final int[] counts = new int[DiagnosticCode.values().length];
+
+    /**
+     * The cap for each code, by ordinal, or -1 to use the default cap
+     */
+    private final int[] caps = new int[DiagnosticCode.values().length];
+
+    /**
+     * The maximum number of diagnostics of each code that are kept, for codes without a cap of their own
+     */
+    private int defaultCap = DEFAULT_CAP;
+
+    /**
+     * The errors kept, in the order they were reported
+     */
+    private final List<Diagnostic> errors = new ArrayList<>();
+
+    /**
+     * The warnings kept, in the order they were reported
+     */
+    private final List<Diagnostic> warnings = new ArrayList<>();
+
+    /**
+     * A view of the errors kept, as formatted messages
+     */
+    private final List<String> errorMessages = new Messages(true);
+
+    /**
+     * A view of the warnings kept, as formatted messages
+     */
+    private final List<String> warningMessages = new Messages(false);
+
+    /**
+     * A view of the errors or warnings kept, as formatted messages, which can be changed like any other list. Messages added to the
+     * view (or set in it) become diagnostics with the code {@link DiagnosticCode#OTHER_ERROR} or
+     * {@link DiagnosticCode#OTHER_WARNING}. Adding a message is reporting a diagnostic, so if that code is over its cap the message
+     * is only counted, and {@link #add(String)} returns false.
+     */
+    private final class Messages extends AbstractList<String> {
+
+        /**
+         * Whether this is a view of the errors, rather than the warnings
+         */
+        private final boolean error;
+
+        /**
+         * Constructor
+         * 
+         * @param error
+         *            whether this is a view of the errors, rather than the warnings
+         */
+        Messages(boolean error) {
+            this.error = error;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void add(int index, String element) {
+            synchronized (Diagnostics.this) {
+                List<Diagnostic> list = error ? errors : warnings;
+                if (index < 0 || index > list.size()) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + list.size());
+                }
+                if (Diagnostics.this.add(getCode(), 0, element)) {
+                    // Kept, so it's now at the end - move it to where it belongs
+                    list.add(index, list.remove(list.size() - 1));
+                    modCount++;
+                }
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         * 
+         * @return true if the message was kept, false if it was only counted because its code is over its cap
+         */
+        @Override
+        public boolean add(String element) {
+            synchronized (Diagnostics.this) {
+                boolean kept = Diagnostics.this.add(getCode(), 0, element);
+                if (kept) {
+                    modCount++;
+                }
+                return kept;
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void clear() {
+            synchronized (Diagnostics.this) {
+                Diagnostics.this.clear(error);
+                modCount++;
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String get(int index) {
+            Diagnostic d;
+            synchronized (Diagnostics.this) {
+                d = (error ? errors : warnings).get(index);
+            }
+            return d.getMessage();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String remove(int index) {
+            Diagnostic d;
+            synchronized (Diagnostics.this) {
+                d = (error ? errors : warnings).remove(index);
+                modCount++;
+            }
+            return d.getMessage();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String set(int index, String element) {
+            Diagnostic d;
+            synchronized (Diagnostics.this) {
+                d = (error ? errors : warnings).set(index, new Diagnostic(getCode(), 0, new Object[] { element }));
+            }
+            return d.getMessage();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size() {
+            synchronized (Diagnostics.this) {
+                return (error ? errors : warnings).size();
+            }
+        }
+
+        /**
+         * Get the code that messages added to this view are reported with
+         * 
+         * @return the code that messages added to this view are reported with
+         */
+        private DiagnosticCode getCode() {
+            return error ? DiagnosticCode.OTHER_ERROR : DiagnosticCode.OTHER_WARNING;
+        }
+    }
+
+    /**
+     * Constructor
+     */
+    public Diagnostics() {
+        Arrays.fill(caps, -1);
+    }
+
+    /**
+     * Report a diagnostic. It is kept if fewer than the cap for its code have been reported so far, and just counted otherwise.
+     * 
+     * @param code
+     *            what kind of diagnostic it is
+     * @param lineNum
+     *            the line number it is reported for, or 0 if it isn't for a particular line
+     * @param args
+     *            the arguments its message is formatted from, after the line number. Should be values that are cheap to hold
+     *            on to, like strings and numbers, since the message is formatted later.
+     * @return true if the diagnostic was kept, false if it was only counted
+     */
+    public synchronized boolean add(DiagnosticCode code, long lineNum, Object... args) {
+        int count = ++counts[code.ordinal()];
+        if (count > getCap(code)) {
+            return false;
+        }
+        (code.isError() ? errors : warnings).add(new Diagnostic(code, lineNum, args));
+        return true;
+    }
+
+    /**
+     * Discard all the diagnostics and counts, ready for another file. Caps are left as they are.
+     */
+    public synchronized void clear() {
+        Arrays.fill(counts, 0);
+        errors.clear();
+        warnings.clear();
+    }
+
+    /**
+     * Get the maximum number of diagnostics of a code that are kept
+     * 
+     * @param code
+     *            the code
+     * @return the maximum number of diagnostics of that code that are kept
+     */
+    public synchronized int getCap(DiagnosticCode code) {
+        int cap = caps[code.ordinal()];
+        return cap < 0 ? defaultCap : cap;
+    }
+
+    /**
+     * Get the number of diagnostics of a code that have been reported, including any that weren't kept
+     * 
+     * @param code
+     *            the code
+     * @return the number of diagnostics of that code that have been reported
+     */
+    public synchronized int getCount(DiagnosticCode code) {
+        return counts[code.ordinal()];
+    }
+
+    /**
+     * Get the maximum number of diagnostics of each code that are kept, for codes without a cap of their own
+     * 
+     * @return the default cap
+     */
+    public synchronized int getDefaultCap() {
+        return defaultCap;
+    }
+
+    /**
+     * Get the errors that have been kept
+     * 
+     * @return the errors that have been kept, in the order they were reported. A copy, which can't be modified.
+     */
+    public synchronized List<Diagnostic> getErrors() {
+        return Collections.unmodifiableList(new ArrayList<>(errors));
+    }
+
+    /**
+     * Get the number of diagnostics that were reported but not kept, because there were already as many of their code as the
+     * cap allows
+     * 
+     * @return the number of diagnostics that were reported but not kept
+     */
+    public synchronized int getSuppressedCount() {
+        int result = 0;
+        for (DiagnosticCode code : DiagnosticCode.values()) {
+            result += Math.max(0, counts[code.ordinal()] - getCap(code));
+        }
+        return result;
+    }
+
+    /**
+     * Get the warnings that have been kept
+     * 
+     * @return the warnings that have been kept, in the order they were reported. A copy, which can't be modified.
+     */
+    public synchronized List<Diagnostic> getWarnings() {
+        return Collections.unmodifiableList(new ArrayList<>(warnings));
+    }
+
+    /**
+     * Would a diagnostic with a code be kept if it were reported now? Lets callers skip building arguments that are expensive to
+     * compute when they would only be counted.
+     * 
+     * @param code
+     *            the code
+     * @return true if a diagnostic with that code would be kept
+     */
+    public synchronized boolean isKept(DiagnosticCode code) {
+        return counts[code.ordinal()] < getCap(code);
+    }
+
+    /**
+     * Set the maximum number of diagnostics of a code that are kept. Only affects diagnostics reported from now on.
+     * 
+     * @param code
+     *            the code
+     * @param cap
+     *            the maximum number of diagnostics of that code to keep. Zero keeps none (they are only counted);
+     *            {@link Integer#MAX_VALUE} keeps them all.
+     */
+    public synchronized void setCap(DiagnosticCode code, int cap) {
+        if (cap < 0) {
+            throw new IllegalArgumentException("Cap cannot be negative");
+        }
+        caps[code.ordinal()] = cap;
+    }
+
+    /**
+     * Set the maximum number of diagnostics of each code that are kept, for codes without a cap of their own. Only affects
+     * diagnostics reported from now on.
+     * 
+     * @param defaultCap
+     *            the maximum number of diagnostics of each code to keep. Zero keeps none (they are only counted);
+     *            {@link Integer#MAX_VALUE} keeps them all.
+     */
+    public synchronized void setDefaultCap(int defaultCap) {
+        if (defaultCap < 0) {
+            throw new IllegalArgumentException("Cap cannot be negative");
+        }
+        this.defaultCap = defaultCap;
+    }
+
+    /**
+     * Get a view of the errors that have been kept, as formatted messages
+     * 
+     * @return a view of the errors that have been kept, as formatted messages
+     */
+    List<String> getErrorMessages() {
+        return errorMessages;
+    }
+
+    /**
+     * Get a view of the warnings that have been kept, as formatted messages
+     * 
+     * @return a view of the warnings that have been kept, as formatted messages
+     */
+    List<String> getWarningMessages() {
+        return warningMessages;
+    }
+
+    /**
+     * Discard the errors or the warnings, and the counts for their codes
+     * 
+     * @param error
+     *            true to discard the errors, false to discard the warnings
+     */
+    private synchronized void clear(boolean error) {
+        (error ? errors : warnings).clear();
+        for (DiagnosticCode code : DiagnosticCode.values()) {
+            if (code.isError() == error) {
+                counts[code.ordinal()] = 0;
+            }
+        }
+    }
+}
@@ -71,9 +71,7 @@ class FamilyChildParser extends AbstractParser<FamilyChild> {
                 } else if (Tag.STATUS.equalsText(ch.getTag())) {
                     loadInto.setStatus(parseStringWithCustomFacts(ch));
                     if (g55()) {
-                        addWarning("GEDCOM version is 5.5 but status was specified for child-to-family link on line " + ch
-                                .getLineNum() + ", which is a GEDCOM 5.5.1 feature."
-                                + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        addDiagnostic(DiagnosticCode.G551_FEATURE_IN_G55, ch.getLineNum(), "status", "for child-to-family link", "", "");
                     }
                 } else {
                     unknownTag(ch, loadInto);
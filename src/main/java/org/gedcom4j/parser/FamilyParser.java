@@ -67,81 +67,111 @@ class FamilyParser extends AbstractParser<Family> {
     void parse() {
         if (stringTree.getChildren() != null) {
             for (StringTree ch : stringTree.getChildren()) {
-                if (Tag.HUSBAND.equalsText(ch.getTag())) {
-                    IndividualReference husband = new IndividualReference(getIndividual(ch.getValue()));
-                    loadInto.setHusband(husband);
-                    if (ch.getChildren() != null) {
-                        for (StringTree gch : ch.getChildren()) {
-                            CustomFact cf = new CustomFact(gch.getTag());
-                            husband.getCustomFacts(true).add(cf);
-                            new CustomFactParser(gedcomParser, gch, cf).parse();
-                        }
-                    }
-                } else if (Tag.WIFE.equalsText(ch.getTag())) {
-                    IndividualReference wife = new IndividualReference(getIndividual(ch.getValue()));
-                    loadInto.setWife(wife);
-                    if (ch.getChildren() != null) {
-                        for (StringTree gch : ch.getChildren()) {
-                            CustomFact cf = new CustomFact(gch.getTag());
-                            wife.getCustomFacts(true).add(cf);
-                            new CustomFactParser(gedcomParser, gch, cf).parse();
-                        }
-                    }
-                } else if (Tag.CHILD.equalsText(ch.getTag())) {
-                    IndividualReference child = new IndividualReference(getIndividual(ch.getValue()));
-                    loadInto.getChildren(true).add(child);
-                    if (ch.getChildren() != null) {
-                        for (StringTree gch : ch.getChildren()) {
-                            CustomFact cf = new CustomFact(gch.getTag());
-                            child.getCustomFacts(true).add(cf);
-                            new CustomFactParser(gedcomParser, gch, cf).parse();
-                        }
-                    }
-                } else if (Tag.NUM_CHILDREN.equalsText(ch.getTag())) {
-                    loadInto.setNumChildren(parseStringWithCustomFacts(ch));
-                } else if (Tag.SOURCE.equalsText(ch.getTag())) {
-                    List<AbstractCitation> citations = loadInto.getCitations(true);
-                    new CitationListParser(gedcomParser, ch, citations).parse();
-                } else if (Tag.OBJECT_MULTIMEDIA.equalsText(ch.getTag())) {
-                    List<MultimediaReference> multimedia = loadInto.getMultimedia(true);
-                    new MultimediaLinkParser(gedcomParser, ch, multimedia).parse();
-                } else if (Tag.RECORD_ID_NUMBER.equalsText(ch.getTag())) {
-                    loadInto.setAutomatedRecordId(parseStringWithCustomFacts(ch));
-                } else if (Tag.CHANGED_DATETIME.equalsText(ch.getTag())) {
-                    ChangeDate changeDate = new ChangeDate();
-                    loadInto.setChangeDate(changeDate);
-                    new ChangeDateParser(gedcomParser, ch, changeDate).parse();
-                } else if (Tag.NOTE.equalsText(ch.getTag())) {
-                    List<NoteStructure> notes = loadInto.getNoteStructures(true);
-                    new NoteStructureListParser(gedcomParser, ch, notes).parse();
-                } else if (Tag.RESTRICTION.equalsText(ch.getTag())) {
-                    loadInto.setRestrictionNotice(parseStringWithCustomFacts(ch));
-                    if (g55()) {
-                        addWarning("GEDCOM version is 5.5 but restriction notice was specified for family on line " + ch
-                                .getLineNum() + " , which is a GEDCOM 5.5.1 feature."
-                                + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
-                    }
-                } else if (Tag.REGISTRATION_FILE_NUMBER.equalsText(ch.getTag())) {
-                    loadInto.setRecFileNumber(parseStringWithCustomFacts(ch));
-                } else if (FamilyEventType.isValidTag(ch.getTag())) {
-                    FamilyEvent event = new FamilyEvent();
-                    loadInto.getEvents(true).add(event);
-                    new FamilyEventParser(gedcomParser, ch, event).parse();
-                } else if (Tag.SEALING_SPOUSE.equalsText(ch.getTag())) {
-                    LdsSpouseSealing ldsss = new LdsSpouseSealing();
-                    loadInto.getLdsSpouseSealings(true).add(ldsss);
-                    new LdsSpouseSealingParser(gedcomParser, ch, ldsss).parse();
-                } else if (Tag.SUBMITTER.equalsText(ch.getTag())) {
-                    loadInto.getSubmitters(true).add(new SubmitterReference(getSubmitter(ch.getValue())));
-                } else if (Tag.REFERENCE.equalsText(ch.getTag())) {
-                    UserReference u = new UserReference();
-                    loadInto.getUserReferences(true).add(u);
-                    new UserReferenceParser(gedcomParser, ch, u).parse();
+                Tag tag = Tag.forText(ch.getTag());
+                if (tag == null) {
+                    parseOtherChild(ch);
                 } else {
-                    unknownTag(ch, loadInto);
+                    switch (tag) {
+                        case HUSBAND:
+                            IndividualReference husband = new IndividualReference(getIndividual(ch.getValue()));
+                            loadInto.setHusband(husband);
+                            if (ch.getChildren() != null) {
+                                for (StringTree gch : ch.getChildren()) {
+                                    CustomFact cf = new CustomFact(gch.getTag());
+                                    husband.getCustomFacts(true).add(cf);
+                                    new CustomFactParser(gedcomParser, gch, cf).parse();
+                                }
+                            }
+                            break;
+                        case WIFE:
+                            IndividualReference wife = new IndividualReference(getIndividual(ch.getValue()));
+                            loadInto.setWife(wife);
+                            if (ch.getChildren() != null) {
+                                for (StringTree gch : ch.getChildren()) {
+                                    CustomFact cf = new CustomFact(gch.getTag());
+                                    wife.getCustomFacts(true).add(cf);
+                                    new CustomFactParser(gedcomParser, gch, cf).parse();
+                                }
+                            }
+                            break;
+                        case CHILD:
+                            IndividualReference child = new IndividualReference(getIndividual(ch.getValue()));
+                            loadInto.getChildren(true).add(child);
+                            if (ch.getChildren() != null) {
+                                for (StringTree gch : ch.getChildren()) {
+                                    CustomFact cf = new CustomFact(gch.getTag());
+                                    child.getCustomFacts(true).add(cf);
+                                    new CustomFactParser(gedcomParser, gch, cf).parse();
+                                }
+                            }
+                            break;
+                        case NUM_CHILDREN:
+                            loadInto.setNumChildren(parseStringWithCustomFacts(ch));
+                            break;
+                        case SOURCE:
+                            List<AbstractCitation> citations = loadInto.getCitations(true);
+                            new CitationListParser(gedcomParser, ch, citations).parse();
+                            break;
+                        case OBJECT_MULTIMEDIA:
+                            List<MultimediaReference> multimedia = loadInto.getMultimedia(true);
+                            new MultimediaLinkParser(gedcomParser, ch, multimedia).parse();
+                            break;
+                        case RECORD_ID_NUMBER:
+                            loadInto.setAutomatedRecordId(parseStringWithCustomFacts(ch));
+                            break;
+                        case CHANGED_DATETIME:
+                            ChangeDate changeDate = new ChangeDate();
+                            loadInto.setChangeDate(changeDate);
+                            new ChangeDateParser(gedcomParser, ch, changeDate).parse();
+                            break;
+                        case NOTE:
+                            List<NoteStructure> notes = loadInto.getNoteStructures(true);
+                            new NoteStructureListParser(gedcomParser, ch, notes).parse();
+                            break;
+                        case RESTRICTION:
+                            loadInto.setRestrictionNotice(parseStringWithCustomFacts(ch));
+                            if (g55()) {
+                                addDiagnostic(DiagnosticCode.G551_FEATURE_IN_G55, ch.getLineNum(), "restriction notice", "for family", "", "");
+                            }
+                            break;
+                        case REGISTRATION_FILE_NUMBER:
+                            loadInto.setRecFileNumber(parseStringWithCustomFacts(ch));
+                            break;
+                        case SEALING_SPOUSE:
+                            LdsSpouseSealing ldsss = new LdsSpouseSealing();
+                            loadInto.getLdsSpouseSealings(true).add(ldsss);
+                            new LdsSpouseSealingParser(gedcomParser, ch, ldsss).parse();
+                            break;
+                        case SUBMITTER:
+                            loadInto.getSubmitters(true).add(new SubmitterReference(getSubmitter(ch.getValue())));
+                            break;
+                        case REFERENCE:
+                            UserReference u = new UserReference();
+                            loadInto.getUserReferences(true).add(u);
+                            new UserReferenceParser(gedcomParser, ch, u).parse();
+                            break;
+                        default:
+                            parseOtherChild(ch);
+                    }
                 }
             }
         }
     }
 
+    /**
+     * Parse a child node whose tag is not dispatched by the switch in {@link #parse()} - family events, which are recognized by
+     * their enumeration, and anything unknown.
+     * 
+     * @param ch
+     *            the child node being parsed
+     */
+    private void parseOtherChild(StringTree ch) {
+        if (FamilyEventType.isValidTag(ch.getTag())) {
+            FamilyEvent event = new FamilyEvent();
+            loadInto.getEvents(true).add(event);
+            new FamilyEventParser(gedcomParser, ch, event).parse();
+        } else {
+            unknownTag(ch, loadInto);
+        }
+    }
 }
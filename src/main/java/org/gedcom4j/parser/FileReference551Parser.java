@@ -73,8 +73,7 @@ class FileReference551Parser extends AbstractParser<FileReference> {
         }
         if (loadInto.getFormat() == null) {
             // Issue 117 - relaxing this
-            addWarning("FORM tag not found under FILE reference on line " + stringTree.getParent().getLineNum()
-                    + " - technically required by spec");
+            addDiagnostic(DiagnosticCode.FORM_MISSING, stringTree.getParent().getLineNum());
         }
     }
 
@@ -101,7 +100,7 @@ class FileReference551Parser extends AbstractParser<FileReference> {
                 }
             }
             if (typeCount > 1) {
-                addError("Media type was specified more than once for the FORM tag on line " + form.getLineNum());
+                addDiagnostic(DiagnosticCode.MULTIPLE_MEDIA_TYPES, form.getLineNum());
             }
         }
     }
@@ -27,22 +27,38 @@
 package org.gedcom4j.parser;
 
 import java.io.BufferedInputStream;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
+import org.gedcom4j.Options;
 import org.gedcom4j.exception.GedcomParserException;
 import org.gedcom4j.exception.ParserCancelledException;
+import org.gedcom4j.io.event.CoalescingEventDispatcher;
+import org.gedcom4j.io.event.CoalescingEventDispatcher.Mailbox;
+import org.gedcom4j.io.event.CoalescingEventDispatcher.Recipient;
 import org.gedcom4j.io.event.FileProgressEvent;
 import org.gedcom4j.io.event.FileProgressListener;
+import org.gedcom4j.io.reader.ChunkedFileReader;
+import org.gedcom4j.io.reader.DecompressingInputStream;
 import org.gedcom4j.io.reader.GedcomFileReader;
 import org.gedcom4j.model.Family;
 import org.gedcom4j.model.Gedcom;
 import org.gedcom4j.model.Header;
 import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.ModelElement;
 import org.gedcom4j.model.Multimedia;
 import org.gedcom4j.model.NoteRecord;
 import org.gedcom4j.model.Repository;
@@ -52,6 +68,8 @@ import org.gedcom4j.model.Submission;
 import org.gedcom4j.model.SubmissionReference;
 import org.gedcom4j.model.Submitter;
 import org.gedcom4j.model.Trailer;
+import org.gedcom4j.parser.event.LoadMetricsEvent;
+import org.gedcom4j.parser.event.LoadMetricsListener;
 import org.gedcom4j.parser.event.ParseProgressEvent;
 import org.gedcom4j.parser.event.ParseProgressListener;
 
@@ -68,6 +86,10 @@ import org.gedcom4j.parser.event.ParseProgressListener;
  * <li>Access the parser's <code>gedcom</code> property to access the parsed data</li>
  * </ol>
  * <p>
+ * To process a file one record at a time instead, without building the whole {@link Gedcom}, call
+ * <code>GedcomParser.stream()</code> with a {@link RecordHandler}.
+ * </p>
+ * <p>
  * It is <b>highly recommended</b> that after calling the <code>GedcomParser.load()</code> method, the user check the
  * {@link GedcomParser#errors} and {@link GedcomParser#warnings} collections to see if anything problematic was encountered in the
  * data while parsing. Most commonly, the <code>warnings</code> collection will have information about tags from GEDCOM 5.5.1 that
@@ -82,6 +104,17 @@ import org.gedcom4j.parser.event.ParseProgressListener;
  * collections. Most of these messages indicate that the data was loaded, even though it was incorrect, and the data will need to be
  * corrected before it can be written.
  * </p>
+ * <p>
+ * Errors and warnings are kept as {@link Diagnostic}s in {@link #getDiagnostics()}, whose messages are only formatted when they are
+ * read. All of them are kept unless a cap is set with {@link Diagnostics#setDefaultCap(int)} or
+ * {@link Diagnostics#setCap(DiagnosticCode, int)}, after which the rest are only counted, so a file with a problem on nearly every
+ * line doesn't spend its time and heap on messages nobody will read.
+ * </p>
+ * <p>
+ * To find out where the time goes when loading a file, register a {@link LoadMetricsListener}, which is given the
+ * {@link LoadMetrics} for each load once it finishes. To keep slow progress listeners from holding up a load, see
+ * {@link #setAsyncNotification(boolean)}.
+ * </p>
  * 
  * <p>
  * The parser makes the assumption that if the version of GEDCOM used is explicitly specified in the file header, that the rest of
@@ -102,9 +135,14 @@ import org.gedcom4j.parser.event.ParseProgressListener;
 public class GedcomParser extends AbstractParser<Gedcom> {
 
     /**
-     * The things that went wrong while parsing the gedcom file
+     * The errors and warnings issued during the parsing of the gedcom file
+     */
+    private final Diagnostics diagnostics = new Diagnostics();
+
+    /**
+     * The things that went wrong while parsing the gedcom file, as a view of the errors in {@link #diagnostics}
      */
-    private final List<String> errors = new ArrayList<>();
+    private final List<String> errors = diagnostics.getErrorMessages();
 
     /**
      * The content of the gedcom file
@@ -129,14 +167,24 @@ public class GedcomParser extends AbstractParser<Gedcom> {
     private boolean strictLineBreaks = true;
 
     /**
-     * The warnings issued during the parsing of the gedcom file
+     * The warnings issued during the parsing of the gedcom file, as a view of the warnings in {@link #diagnostics}
      */
-    private final List<String> warnings = new ArrayList<>();
+    private final List<String> warnings = diagnostics.getWarningMessages();
 
     /**
      * Is the load/parse process being cancelled
      */
-    private boolean cancelled;
+    private volatile boolean cancelled;
+
+    /**
+     * Should UTF-8 and ASCII files loaded by name be split into chunks that are decoded in parallel (see {@link SplitFileLoader})?
+     */
+    private boolean parallelDecoding = false;
+
+    /**
+     * Should files be loaded with a multi-threaded pipeline (see {@link PipelinedLoader}) rather than all on the calling thread?
+     */
+    private boolean pipelined = false;
 
     /**
      * Send a notification to listeners every time this many lines (or more) are read
@@ -169,9 +217,137 @@ public class GedcomParser extends AbstractParser<Gedcom> {
     private int lineNum;
 
     /**
-     * Are we currently parsing somewhere inside a custom tag?
+     * Are we currently parsing somewhere inside a custom tag? Kept per thread, since records can be parsed on several threads at
+     * once.
+     */
+    private final ThreadLocal<Boolean> insideCustomTag = new ThreadLocal<Boolean>() {
+        @Override
+        protected Boolean initialValue() {
+            return Boolean.FALSE;
+        }
+    };
+
+    /**
+     * Should root-level records be parsed in parallel (see {@link ParallelRecordParser}) rather than one at a time?
+     */
+    private boolean parallelParsing = false;
+
+    /**
+     * The {@link ParallelRecordParser} for the load in progress, if records are being parsed in parallel
+     */
+    private ParallelRecordParser parallelRecordParser;
+
+    /**
+     * Canonical instances of the tags and xrefs in the file being loaded. Replaced for each load so nothing is held onto between
+     * files, and kept to a maximum size while records are being streamed, since only one record is held at a time.
+     */
+    private SymbolTable symbolTable = new SymbolTable();
+
+    /**
+     * The maximum number of strings each canonicalizer used while building trees will keep
+     */
+    private int canonicalizerSize = StringCanonicalizer.DEFAULT_MAXIMUM_SIZE;
+
+    /**
+     * The canonicalizers used while building trees for the current (or most recent) load, for their statistics
+     */
+    private final List<StringCanonicalizer> canonicalizers = Collections.synchronizedList(new ArrayList<StringCanonicalizer>());
+
+    /**
+     * The filter saying which parts of the file to load, or null to load everything
+     */
+    private ParseFilter parseFilter;
+
+    /**
+     * The handler to give each record to, if records are being streamed (see {@link #stream(String, RecordHandler)}) rather than
+     * loaded into the {@link Gedcom}
+     */
+    private RecordHandler recordHandler;
+
+    /**
+     * The registry that the references in a record being parsed on its own (streamed, or read by a {@link RecordIterator}) are
+     * looked up in. Replaced for every record, so the objects for the records it refers to only ever hold their xrefs, and nothing
+     * is kept from one record to the next.
+     */
+    private XrefRegistry recordRegistry;
+
+    /**
+     * The observers to tell about the metrics of each load
+     */
+    private final List<WeakReference<LoadMetricsListener>> loadMetricsObservers = new CopyOnWriteArrayList<>();
+
+    /**
+     * The metrics being collected for the current load, or for the most recent one if it has finished. Null if no metrics are
+     * being collected.
+     */
+    private LoadMetrics loadMetrics;
+
+    /**
+     * The timer that records parsed on the current thread are timed with, if the thread is timing other phases of the load too
+     */
+    private final ThreadLocal<PhaseTimer> threadPhaseTimer = new ThreadLocal<>();
+
+    /**
+     * Are file and parse progress notifications delivered on a thread of their own during a load?
+     */
+    private boolean asyncNotification = false;
+
+    /**
+     * Where file progress events are posted during a load when {@link #asyncNotification} is on, or null if they are delivered
+     * straight away
+     */
+    private volatile Mailbox<FileProgressEvent> fileMailbox;
+
+    /**
+     * Where parse progress events are posted during a load when {@link #asyncNotification} is on, or null if they are delivered
+     * straight away
+     */
+    private volatile Mailbox<ParseProgressEvent> parseMailbox;
+
+    /**
+     * Whether collections in the object model are pre-initialized during the current load - the value of
+     * {@link Options#isCollectionInitializationEnabled()} on the thread that started it, which applies to every thread the load
+     * uses
+     */
+    private boolean collectionInitializationEnabled;
+
+    /**
+     * A canonicalizer kept from one load to the next, to be used for all the trees built instead of a new one for each load - or
+     * null if there isn't one
      */
-    private boolean insideCustomTag;
+    private StringCanonicalizer sharedCanonicalizer;
+
+    /**
+     * Has the shared canonicalizer been used for the current (or most recent) load?
+     */
+    private volatile boolean sharedCanonicalizerUsed;
+
+    /**
+     * The shared canonicalizer's request count when the current load started, so only the requests made during the load are
+     * included in its statistics
+     */
+    private long sharedRequestsBefore;
+
+    /**
+     * The shared canonicalizer's hit count when the current load started
+     */
+    private long sharedHitsBefore;
+
+    /**
+     * The approximate number of bytes the shared canonicalizer had saved when the current load started
+     */
+    private long sharedBytesSavedBefore;
+
+    /**
+     * The number of bytes read by the most recent load that finished - of decompressed data, if the file was compressed
+     */
+    private long bytesRead;
+
+    /**
+     * The future of the load running through {@link #loadAsync(Path, Executor)}, if any, so that the load can see a cancel that
+     * came before it reset the parser
+     */
+    private volatile Future<Gedcom> asyncLoad;
 
     /**
      * Default constructor
@@ -191,7 +367,62 @@ public class GedcomParser extends AbstractParser<Gedcom> {
     }
 
     /**
-     * Get the errors
+     * Get the approximate number of bytes of memory saved during the most recent load, by sharing a single instance of repeated
+     * values (such as place names, source titles, and dates) instead of keeping a copy for every line they appear on
+     * 
+     * @return the approximate number of bytes saved
+     * @see #setCanonicalizerSize(int)
+     */
+    public long getCanonicalizerBytesSaved() {
+        long result = 0;
+        synchronized (canonicalizers) {
+            for (StringCanonicalizer c : canonicalizers) {
+                result += c.getBytesSaved();
+            }
+        }
+        if (sharedCanonicalizerUsed) {
+            result += sharedCanonicalizer.getBytesSaved() - sharedBytesSavedBefore;
+        }
+        return result;
+    }
+
+    /**
+     * Get the proportion of values during the most recent load for which a shared instance was already available
+     * 
+     * @return the proportion of values for which a shared instance was already available, between 0 and 1
+     * @see #setCanonicalizerSize(int)
+     */
+    public double getCanonicalizerHitRate() {
+        long requests = getCanonicalizerRequestCount();
+        return requests == 0 ? 0 : (double) getCanonicalizerHitCount() / requests;
+    }
+
+    /**
+     * Get the maximum number of distinct values kept for sharing between lines while loading
+     * 
+     * @return the maximum number of distinct values kept for sharing between lines while loading
+     * @see #setCanonicalizerSize(int)
+     */
+    public int getCanonicalizerSize() {
+        return canonicalizerSize;
+    }
+
+    /**
+     * Get the errors and warnings, with counts of each kind and limits on how many of each kind are kept
+     * 
+     * @return the errors and warnings
+     */
+    public Diagnostics getDiagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * Get the errors, as formatted messages.
+     * <p>
+     * <b>Note:</b> this list is a live view of the errors kept in {@link #getDiagnostics()}. It can still be changed like any
+     * other list, but if a cap is set on the diagnostics, errors past the cap are counted there but don't appear in this list - and
+     * adding a message past the cap returns false and leaves the list as it was.
+     * </p>
      * 
      * @return the errors
      */
@@ -217,6 +448,34 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         return gedcom;
     }
 
+    /**
+     * Get the metrics for the most recent load. Metrics are only collected when a {@link LoadMetricsListener} is registered.
+     * 
+     * @return the metrics for the most recent load, or null if none were collected
+     * @see #registerLoadMetricsObserver(LoadMetricsListener)
+     */
+    public LoadMetrics getLoadMetrics() {
+        return loadMetrics;
+    }
+
+    /**
+     * Get the loadMetricsObservers
+     * 
+     * @return the loadMetricsObservers
+     */
+    public List<WeakReference<LoadMetricsListener>> getLoadMetricsObservers() {
+        return loadMetricsObservers;
+    }
+
+    /**
+     * Get the filter saying which parts of the file to load
+     * 
+     * @return the filter saying which parts of the file to load, or null if everything is loaded
+     */
+    public ParseFilter getParseFilter() {
+        return parseFilter;
+    }
+
     /**
      * Get the parse notification rate (the number of items that get parsed between each notification, if listening)
      * 
@@ -245,7 +504,12 @@ public class GedcomParser extends AbstractParser<Gedcom> {
     }
 
     /**
-     * Get the warnings
+     * Get the warnings, as formatted messages.
+     * <p>
+     * <b>Note:</b> this list is a live view of the warnings kept in {@link #getDiagnostics()}. It can still be changed like any
+     * other list, but if a cap is set on the diagnostics, warnings past the cap are counted there but don't appear in this list -
+     * and adding a message past the cap returns false and leaves the list as it was.
+     * </p>
      * 
      * @return the warnings
      */
@@ -253,6 +517,16 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         return warnings;
     }
 
+    /**
+     * Are file and parse progress notifications delivered on a thread of their own during a load?
+     * 
+     * @return true if file and parse progress notifications are delivered on a thread of their own during a load
+     * @see #setAsyncNotification(boolean)
+     */
+    public boolean isAsyncNotification() {
+        return asyncNotification;
+    }
+
     /**
      * Is the load and parse operation cancelled?
      * 
@@ -271,6 +545,36 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         return ignoreCustomTags;
     }
 
+    /**
+     * Are UTF-8 and ASCII files loaded by name split into chunks that are decoded in parallel?
+     * 
+     * @return true if UTF-8 and ASCII files loaded by name are split into chunks that are decoded in parallel
+     * @see #setParallelDecoding(boolean)
+     */
+    public boolean isParallelDecoding() {
+        return parallelDecoding;
+    }
+
+    /**
+     * Are root-level records parsed in parallel?
+     * 
+     * @return true if root-level records are parsed in parallel
+     * @see #setParallelParsing(boolean)
+     */
+    public boolean isParallelParsing() {
+        return parallelParsing;
+    }
+
+    /**
+     * Are files loaded with a multi-threaded pipeline?
+     * 
+     * @return true if files are loaded with a multi-threaded pipeline
+     * @see #setPipelined(boolean)
+     */
+    public boolean isPipelined() {
+        return pipelined;
+    }
+
     /**
      * Get the strictCustomTags
      * 
@@ -300,42 +604,45 @@ public class GedcomParser extends AbstractParser<Gedcom> {
      *             if there is an error with parsing the data from the stream
      */
     public void load(BufferedInputStream bytes) throws IOException, GedcomParserException {
-        // Reset counters and stuff
-        gedcom = new Gedcom();
-        lineNum = 0;
-        errors.clear();
-        warnings.clear();
-        cancelled = false;
-
-        if (cancelled) {
-            throw new ParserCancelledException("File load/parse cancelled");
-        }
-        GedcomFileReader gfr = new GedcomFileReader(this, bytes);
-        stringTreeBuilder = new StringTreeBuilder(this);
-        String line = gfr.nextLine();
-        while (line != null) {
-
-            if (line.charAt(0) == '0') {
-                // We've hit the start of the next root node
-                parseAndLoadPreviousStringTree();
-            }
+        resetForLoad();
+        load(new GedcomFileReader(this, bytes), null);
+    }
 
-            lineNum++;
-            stringTreeBuilder.appendLine(line);
-            line = gfr.nextLine();
-            if (cancelled) {
-                throw new ParserCancelledException("File load/parse is cancelled");
-            }
-            if (lineNum % parseNotificationRate == 0) {
-                notifyParseObservers(new ParseProgressEvent(this, gedcom, false, lineNum));
+    /**
+     * Load the supplied gedcom file. An uncompressed file is read through its {@link FileChannel}, so UTF-8 and ASCII files are
+     * memory-mapped rather than streamed. A gzip file, or a zip archive with the gedcom file in it, is recognized by its first few
+     * bytes and decompressed on a thread of its own as it is parsed (see {@link DecompressingInputStream}); the byte counts in
+     * {@link FileProgressEvent}s and {@link LoadMetrics} are then of decompressed bytes, and {@link #isParallelDecoding()} has no
+     * effect.
+     * 
+     * @param file
+     *            the file to load
+     * @throws IOException
+     *             if the file cannot be read, or is a zip archive with no gedcom file in it
+     * @throws GedcomParserException
+     *             if the file cannot be parsed
+     */
+    public void load(Path file) throws IOException, GedcomParserException {
+        try (FileInputStream fis = new FileInputStream(file.toFile()); FileChannel channel = fis.getChannel()) {
+            if (!DecompressingInputStream.isCompressed(channel)) {
+                resetForLoad();
+                GedcomFileReader gfr = new GedcomFileReader(this, channel);
+                if (parallelDecoding && ChunkedFileReader.supports(gfr.getEncoding())) {
+                    load(gfr, new ChunkedFileReader(this, channel, gfr.getEncoding()));
+                } else {
+                    load(gfr, null);
+                }
+                return;
             }
-
         }
-        parseAndLoadPreviousStringTree();
+        try (DecompressingInputStream in = new DecompressingInputStream(file)) {
+            load(new BufferedInputStream(in));
+        }
     }
 
     /**
-     * Load a gedcom file with the supplied name
+     * Load a gedcom file with the supplied name. See {@link #load(Path)}, which this delegates to, for how compressed files are
+     * handled.
      * 
      * @param filename
      *            the name of the file to load
@@ -345,10 +652,60 @@ public class GedcomParser extends AbstractParser<Gedcom> {
      *             if the file cannot be parsed
      */
     public void load(String filename) throws IOException, GedcomParserException {
+        load(new File(filename).toPath());
+    }
 
-        try (FileInputStream fis = new FileInputStream(filename); BufferedInputStream bis = new BufferedInputStream(fis);) {
-            load(bis);
-        }
+    /**
+     * Load the supplied gedcom file (see {@link #load(Path)}) on a thread of the supplied executor, rather than on the calling
+     * thread. Cancelling the returned future cancels the load, the same as {@link #cancel()} does: if the load has started, it
+     * stops at the next check with a {@link ParserCancelledException}, which the future swallows. If the load fails,
+     * {@link Future#get()} throws an {@link java.util.concurrent.ExecutionException} whose cause is the {@link IOException} or
+     * {@link GedcomParserException}. This parser must not be used for anything else until the future is done - to run several loads
+     * at once, use a parser for each. The load uses the value of {@link Options#isCollectionInitializationEnabled()} on the calling
+     * thread, not on the executor's.
+     * 
+     * @param file
+     *            the file to load
+     * @param executor
+     *            the executor to load the file on
+     * @return the future {@link Gedcom} loaded from the file
+     */
+    public Future<Gedcom> loadAsync(final Path file, Executor executor) {
+        final boolean collectionInitialization = Options.isCollectionInitializationEnabled();
+        FutureTask<Gedcom> task = new FutureTask<Gedcom>(new Callable<Gedcom>() {
+            @Override
+            public Gedcom call() throws IOException, GedcomParserException {
+                Boolean previous = Options.getThreadCollectionInitializationEnabled();
+                Options.setThreadCollectionInitializationEnabled(collectionInitialization);
+                try {
+                    load(file);
+                    return gedcom;
+                } finally {
+                    Options.setThreadCollectionInitializationEnabled(previous);
+                }
+            }
+        }) {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                boolean result = super.cancel(mayInterruptIfRunning);
+                if (result) {
+                    GedcomParser.this.cancel();
+                }
+                return result;
+            }
+
+            @Override
+            public void run() {
+                asyncLoad = this;
+                try {
+                    super.run();
+                } finally {
+                    asyncLoad = null;
+                }
+            }
+        };
+        executor.execute(task);
+        return task;
     }
 
     /**
@@ -358,18 +715,11 @@ public class GedcomParser extends AbstractParser<Gedcom> {
      *            the change event to tell the observers
      */
     public void notifyFileObservers(FileProgressEvent e) {
-        int i = 0;
-        while (i < fileObservers.size()) {
-            WeakReference<FileProgressListener> observerRef = fileObservers.get(i);
-            if (observerRef == null) {
-                fileObservers.remove(i);
-            } else {
-                FileProgressListener l = observerRef.get();
-                if (l != null) {
-                    l.progressNotification(e);
-                }
-                i++;
-            }
+        Mailbox<FileProgressEvent> m = fileMailbox;
+        if (m != null) {
+            m.post(e);
+        } else {
+            deliverFileEvent(e);
         }
     }
 
@@ -383,6 +733,17 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         fileObservers.add(new WeakReference<>(observer));
     }
 
+    /**
+     * Register a observer (listener) to be given the {@link LoadMetrics} for each load once it finishes. Metrics are collected for
+     * every load that starts while at least one of these observers is registered.
+     * 
+     * @param observer
+     *            the observer you want notified
+     */
+    public void registerLoadMetricsObserver(LoadMetricsListener observer) {
+        loadMetricsObservers.add(new WeakReference<>(observer));
+    }
+
     /**
      * Register a observer (listener) to be informed about progress and completion.
      * 
@@ -393,6 +754,41 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         parseObservers.add(new WeakReference<>(observer));
     }
 
+    /**
+     * Set whether file and parse progress notifications are delivered on a thread of their own during a load, so that loading never
+     * waits for a slow listener. Each kind of notification is held in a one-event mailbox until the listeners are ready for it; a
+     * newer notification replaces one that has not been delivered yet, so listeners may not see every notification, but they
+     * always see the last one of each kind, and all have been delivered by the time the load returns. If a listener cancels the
+     * load, the load stops at the next check after the listener has run rather than straight away. Anything a listener throws is
+     * thrown from the load once it finishes. Notifications while streaming records with a {@link RecordIterator} are always
+     * delivered straight away. Defaults to false.
+     * 
+     * @param asyncNotification
+     *            true if file and parse progress notifications should be delivered on a thread of their own during a load
+     */
+    public void setAsyncNotification(boolean asyncNotification) {
+        this.asyncNotification = asyncNotification;
+    }
+
+    /**
+     * Set the maximum number of distinct values kept for sharing between lines while loading. Values that are repeated often
+     * (such as place names, source titles, and dates) are shared by all the lines they appear on, rather than each line keeping
+     * its own copy. Once that many values are being kept, a new value only takes the place of one of them if it has been seen more
+     * often recently. Larger sizes can save more memory for big files with many distinct repeated values, at the cost of a little
+     * more memory for the pool itself. Takes effect for the next load. Defaults to 4096.
+     * 
+     * @param canonicalizerSize
+     *            the maximum number of distinct values kept for sharing. Must be at least 1.
+     * @see #getCanonicalizerBytesSaved()
+     * @see #getCanonicalizerHitRate()
+     */
+    public void setCanonicalizerSize(int canonicalizerSize) {
+        if (canonicalizerSize < 1) {
+            throw new IllegalArgumentException("Canonicalizer size must be at least 1");
+        }
+        this.canonicalizerSize = canonicalizerSize;
+    }
+
     /**
      * Set whether the parser is ignoring custom tgs
      * 
@@ -403,6 +799,46 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         this.ignoreCustomTags = ignoreCustomTags;
     }
 
+    /**
+     * Set whether UTF-8 and ASCII files loaded by name (with {@link #load(String)}) are split into chunks at root-level record
+     * boundaries, which are decoded and built into trees on several threads at once. The lines keep their line numbers in the file
+     * as a whole, and the resulting {@link Gedcom} is the same as when loading on a single thread. Files in other encodings, and
+     * files loaded from streams, are loaded as usual. When a file is split, this takes the place of
+     * {@link #setPipelined(boolean)}, but it can be combined with {@link #setParallelParsing(boolean)}. Defaults to false.
+     * 
+     * @param parallelDecoding
+     *            true if UTF-8 and ASCII files loaded by name should be split into chunks that are decoded in parallel
+     */
+    public void setParallelDecoding(boolean parallelDecoding) {
+        this.parallelDecoding = parallelDecoding;
+    }
+
+    /**
+     * Set whether root-level records are parsed in parallel. When true, individuals, families, sources, and the other
+     * cross-referenceable records are parsed at the same time on a {@link ForkJoinPool} with one thread per processor, and
+     * cross-references between them are resolved once they're all parsed. The resulting {@link Gedcom} is the same as when parsing
+     * them one at a time, but the collections of records in the {@link Gedcom} are not filled in until the load is finished, so
+     * the record counts in parse progress events stay at zero until then, and the messages in the errors and warnings collections
+     * may be in a different order. Can be combined with {@link #setPipelined(boolean)}. Defaults to false.
+     * 
+     * @param parallelParsing
+     *            true if root-level records should be parsed in parallel
+     */
+    public void setParallelParsing(boolean parallelParsing) {
+        this.parallelParsing = parallelParsing;
+    }
+
+    /**
+     * Set the filter saying which parts of the file to load. Lines that are filtered out are skipped as they are read, so no
+     * objects are created for them.
+     * 
+     * @param parseFilter
+     *            the filter saying which parts of the file to load, or null to load everything
+     */
+    public void setParseFilter(ParseFilter parseFilter) {
+        this.parseFilter = parseFilter;
+    }
+
     /**
      * Set the parse notification rate (the number of items that get parsed between each notification, if listening)
      * 
@@ -417,6 +853,21 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         this.parseNotificationRate = parseNotificationRate;
     }
 
+    /**
+     * Set whether files are loaded with a multi-threaded pipeline. When true, lines are decoded on one background thread, built
+     * into trees for each root-level record on another, and parsed into the object model on the thread that called
+     * <code>load()</code>, all at the same time. The resulting {@link Gedcom} is the same as when loading on a single thread, and
+     * cancellation and progress notifications still work, but file progress listeners are notified from a background thread, and
+     * the messages in the errors and warnings collections from different stages may be interleaved in a different order. Defaults
+     * to false.
+     * 
+     * @param pipelined
+     *            true if files should be loaded with a multi-threaded pipeline
+     */
+    public void setPipelined(boolean pipelined) {
+        this.pipelined = pipelined;
+    }
+
     /**
      * Set the read notification rate.
      * 
@@ -450,6 +901,65 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         this.strictLineBreaks = strictLineBreaks;
     }
 
+    /**
+     * <p>
+     * Parse a GEDCOM from an {@link java.io.InputStream} one record at a time, giving each record to the supplied handler as soon as
+     * it is parsed instead of loading them all into the {@link Gedcom}. Only one record is held in memory at a time, so this can
+     * process files too big for their object model to fit in the heap.
+     * </p>
+     * <p>
+     * The records that each record refers to are not resolved - see {@link RecordHandler}. The header, submission and trailer are
+     * still kept in {@link #getGedcom()} (and the header is used to decide which version of GEDCOM the file is in, just as for
+     * {@link #load(BufferedInputStream)}), but nothing else is. Errors, warnings and progress notifications work as they do for a
+     * load. Records are handed over one at a time, in the order they are in the file, even if {@link #isParallelParsing()} is set.
+     * </p>
+     * 
+     * @param bytes
+     *            the input stream over the bytes of the file
+     * @param handler
+     *            the handler to give each record to. Required.
+     * @throws IOException
+     *             if there is a problem reading the data from the reader
+     * @throws GedcomParserException
+     *             if there is an error with parsing the data from the stream
+     */
+    public void stream(BufferedInputStream bytes, RecordHandler handler) throws IOException, GedcomParserException {
+        if (handler == null) {
+            throw new IllegalArgumentException("A record handler is required");
+        }
+        recordHandler = handler;
+        try {
+            load(bytes);
+        } finally {
+            recordHandler = null;
+        }
+    }
+
+    /**
+     * Parse the gedcom file with the supplied name one record at a time, giving each record to the supplied handler as soon as it
+     * is parsed instead of loading them all into the {@link Gedcom}. See {@link #stream(BufferedInputStream, RecordHandler)}.
+     * 
+     * @param filename
+     *            the name of the file to parse
+     * @param handler
+     *            the handler to give each record to. Required.
+     * @throws IOException
+     *             if the file cannot be read
+     * @throws GedcomParserException
+     *             if the file cannot be parsed
+     */
+    public void stream(String filename, RecordHandler handler) throws IOException, GedcomParserException {
+        if (handler == null) {
+            throw new IllegalArgumentException("A record handler is required");
+        }
+        recordHandler = handler;
+        try {
+            load(filename);
+        } finally {
+            recordHandler = null;
+        }
+    }
+
     /**
      * Unregister a observer (listener) to be informed about progress and completion.
      * 
@@ -470,15 +980,33 @@ public class GedcomParser extends AbstractParser<Gedcom> {
     }
 
     /**
-     * Unregister a observer (listener) to be informed about progress and completion.
+     * Unregister a observer (listener) to be given the {@link LoadMetrics} for each load.
      * 
      * @param observer
-     *            the observer you want notified
+     *            the observer you no longer want notified
      */
-    public void unregisterParseObserver(ParseProgressListener observer) {
+    public void unregisterLoadMetricsObserver(LoadMetricsListener observer) {
         int i = 0;
-        while (i < parseObservers.size()) {
-            WeakReference<ParseProgressListener> observerRef = parseObservers.get(i);
+        while (i < loadMetricsObservers.size()) {
+            WeakReference<LoadMetricsListener> observerRef = loadMetricsObservers.get(i);
+            if (observerRef == null || observerRef.get() == observer) {
+                loadMetricsObservers.remove(observerRef);
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Unregister a observer (listener) to be informed about progress and completion.
+     * 
+     * @param observer
+     *            the observer you want notified
+     */
+    public void unregisterParseObserver(ParseProgressListener observer) {
+        int i = 0;
+        while (i < parseObservers.size()) {
+            WeakReference<ParseProgressListener> observerRef = parseObservers.get(i);
             if (observerRef == null || observerRef.get() == observer) {
                 parseObservers.remove(observerRef);
             } else {
@@ -488,6 +1016,54 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         parseObservers.add(new WeakReference<>(observer));
     }
 
+    /**
+     * Make the current thread pre-initialize collections in the object model, or not, the same as the thread that started the
+     * current load. Called on each thread that builds trees or parses records for a load, other than the thread that started it.
+     * 
+     * @return the value the current thread had before, to be restored with
+     *         {@link Options#setThreadCollectionInitializationEnabled(Boolean)} when it is done with the load
+     */
+    Boolean bindCollectionInitialization() {
+        Boolean previous = Options.getThreadCollectionInitializationEnabled();
+        Options.setThreadCollectionInitializationEnabled(collectionInitializationEnabled);
+        return previous;
+    }
+
+    /**
+     * Make a new timer for the phases of the current load worked on by the calling thread
+     * 
+     * @return a new timer, which does nothing if no metrics are being collected
+     */
+    PhaseTimer createPhaseTimer() {
+        return new PhaseTimer(loadMetrics);
+    }
+
+    /**
+     * Make a new canonicalizer for sharing repeated values while building trees, whose statistics will be included in those for
+     * the current load - or, if there is a shared canonicalizer and the file is not being split into chunks, hand back the shared
+     * one, whose statistics are included from the start of the load onwards
+     * 
+     * @return a new canonicalizer, with the configured size, or the shared one
+     */
+    StringCanonicalizer createStringCanonicalizer() {
+        if (sharedCanonicalizer != null && !parallelDecoding) {
+            sharedCanonicalizerUsed = true;
+            return sharedCanonicalizer;
+        }
+        StringCanonicalizer result = new StringCanonicalizer(canonicalizerSize);
+        canonicalizers.add(result);
+        return result;
+    }
+
+    /**
+     * Get the number of bytes read by the most recent load that finished
+     * 
+     * @return the number of bytes read by the most recent load that finished - of decompressed data, if the file was compressed
+     */
+    long getBytesRead() {
+        return bytesRead;
+    }
+
     /**
      * Get the line number we're reading
      * 
@@ -497,13 +1073,82 @@ public class GedcomParser extends AbstractParser<Gedcom> {
         return lineNum;
     }
 
+    /**
+     * Get the root-level item that a {@link StringTreeBuilder} has built, if it has one
+     * 
+     * @param builder
+     *            the {@link StringTreeBuilder}
+     * @return the root-level item, or null if the builder hasn't built one
+     * @throws GedcomParserException
+     *             if the item the builder has built isn't a root-level item
+     */
+    StringTree getRootLevelItem(StringTreeBuilder builder) throws GedcomParserException {
+        StringTree tree = builder.getTree();
+        if (tree != null && tree.getLevel() == -1 && tree.getChildren() != null && tree.getChildren().size() == 1) {
+            StringTree rootLevelItem = tree.getChildren().get(0);
+            if (rootLevelItem.getLevel() != 0) {
+                throw new GedcomParserException("Expected a root level item in the buffer, but found " + rootLevelItem.getLevel()
+                        + " " + rootLevelItem.getTag() + " from line " + builder.getLineNum());
+            }
+            LoadMetrics metrics = loadMetrics;
+            if (metrics != null) {
+                metrics.addNodesBuilt(builder.getNodeCount());
+            }
+            return rootLevelItem;
+        }
+        return null;
+    }
+
+    /**
+     * Get the table of canonical tags and xrefs for the file being loaded
+     * 
+     * @return the table of canonical tags and xrefs for the file being loaded
+     */
+    SymbolTable getSymbolTable() {
+        return symbolTable;
+    }
+
+    /**
+     * Get the registry that records are looked up in by xref while records are being parsed in parallel (where it is thread-safe)
+     * or streamed (where it only lasts for one record)
+     * 
+     * @return the registry, or null if records are not being parsed in parallel or streamed, in which case records are looked up
+     *         directly in the {@link Gedcom}
+     */
+    XrefRegistry getXrefRegistry() {
+        if (recordRegistry != null) {
+            return recordRegistry;
+        }
+        ParallelRecordParser p = parallelRecordParser;
+        return p == null ? null : p.getRegistry();
+    }
+
+    /**
+     * Parse a root-level item into the object model - right away, by handing it to the {@link ParallelRecordParser} if records
+     * are being parsed in parallel, or parsed on its own and given to the {@link RecordHandler} if records are being streamed
+     * 
+     * @param rootLevelItem
+     *            the string tree for the root level item
+     * @throws GedcomParserException
+     *             if the data cannot be parsed because it's not in the format expected
+     */
+    void handleRootItem(StringTree rootLevelItem) throws GedcomParserException {
+        if (recordHandler != null) {
+            streamRootItem(rootLevelItem);
+        } else if (parallelRecordParser == null) {
+            loadRootItem(rootLevelItem);
+        } else {
+            parallelRecordParser.add(rootLevelItem);
+        }
+    }
+
     /**
      * Are we currently inside a custom tag?
      * 
      * @return the insideCustomTag
      */
     boolean isInsideCustomTag() {
-        return insideCustomTag;
+        return insideCustomTag.get();
     }
 
     /**
@@ -524,7 +1169,122 @@ public class GedcomParser extends AbstractParser<Gedcom> {
      *            the insideCustomTag to set
      */
     void setInsideCustomTag(boolean insideCustomTag) {
-        this.insideCustomTag = insideCustomTag;
+        this.insideCustomTag.set(insideCustomTag);
+    }
+
+    /**
+     * Read all the lines from the supplied {@link GedcomFileReader}, build {@link StringTree}s out of them, and parse those into the
+     * object model
+     * 
+     * @param gfr
+     *            the reader to get the lines of the file from
+     * @param chunkedReader
+     *            the reader to get the lines of the file from in chunks, if the file is to be split - otherwise null
+     * @throws IOException
+     *             if there is a problem reading the data from the reader
+     * @throws GedcomParserException
+     *             if there is an error with parsing the data from the stream
+     */
+    private void load(GedcomFileReader gfr, ChunkedFileReader chunkedReader) throws IOException, GedcomParserException {
+        if (cancelled) {
+            throw new ParserCancelledException("File load/parse cancelled");
+        }
+        LoadMetrics metrics = hasLoadMetricsObservers() ? new LoadMetrics() : null;
+        loadMetrics = metrics;
+        CoalescingEventDispatcher dispatcher = openDispatcher();
+        try {
+            if (!parallelParsing || recordHandler != null) {
+                loadLines(gfr, chunkedReader);
+            } else {
+                ForkJoinPool pool = new ForkJoinPool();
+                parallelRecordParser = new ParallelRecordParser(this, pool);
+                boolean finished = false;
+                try {
+                    loadLines(gfr, chunkedReader);
+                    parallelRecordParser.finish();
+                    finished = true;
+                } finally {
+                    if (!finished) {
+                        parallelRecordParser.abandon();
+                    }
+                    parallelRecordParser = null;
+                    pool.shutdown();
+                }
+            }
+        } finally {
+            try {
+                if (dispatcher != null) {
+                    dispatcher.close();
+                }
+            } finally {
+                fileMailbox = null;
+                parseMailbox = null;
+            }
+        }
+        bytesRead = chunkedReader == null ? gfr.getBytesRead() : chunkedReader.getFileSize();
+        if (metrics != null) {
+            metrics.finish(bytesRead, lineNum, getCanonicalizerRequestCount(), getCanonicalizerHitCount());
+            notifyLoadMetricsObservers(new LoadMetricsEvent(this, metrics));
+        }
+    }
+
+    /**
+     * Read all the lines from the supplied {@link GedcomFileReader} and build {@link StringTree}s out of them, and hand each
+     * root-level item over to be parsed - either on this thread, split into chunks if there's a chunked reader, or with a
+     * multi-threaded pipeline if {@link #isPipelined()}
+     * 
+     * @param gfr
+     *            the reader to get the lines of the file from
+     * @param chunkedReader
+     *            the reader to get the lines of the file from in chunks, if the file is to be split - otherwise null
+     * @throws IOException
+     *             if there is a problem reading the data from the reader
+     * @throws GedcomParserException
+     *             if there is an error with parsing the data from the stream
+     */
+    private void loadLines(GedcomFileReader gfr, ChunkedFileReader chunkedReader) throws IOException, GedcomParserException {
+        if (chunkedReader != null) {
+            new SplitFileLoader(this, chunkedReader, SplitFileLoader.TARGET_CHUNK_SIZE, Runtime.getRuntime().availableProcessors())
+                    .load();
+            return;
+        }
+        if (pipelined) {
+            new PipelinedLoader(this, gfr).load();
+            return;
+        }
+        stringTreeBuilder = new StringTreeBuilder(this);
+        PhaseTimer timer = createPhaseTimer();
+        setThreadPhaseTimer(timer);
+        try {
+            timer.start();
+            String line = gfr.nextLine();
+            timer.stop(LoadPhase.DECODE);
+            while (line != null) {
+
+                if (line.charAt(0) == '0') {
+                    // We've hit the start of the next root node
+                    parseAndLoadPreviousStringTree(timer);
+                }
+
+                lineNum++;
+                stringTreeBuilder.appendLine(line);
+                timer.stop(LoadPhase.TREE_BUILDING);
+                line = gfr.nextLine();
+                timer.stop(LoadPhase.DECODE);
+                if (cancelled) {
+                    throw new ParserCancelledException("File load/parse is cancelled");
+                }
+                if (lineNum % parseNotificationRate == 0) {
+                    notifyParseObservers(new ParseProgressEvent(this, gedcom, false, lineNum));
+                    timer.start();
+                }
+
+            }
+            parseAndLoadPreviousStringTree(timer);
+        } finally {
+            setThreadPhaseTimer(null);
+            timer.flush();
+        }
     }
 
     /**
@@ -532,10 +1292,240 @@ public class GedcomParser extends AbstractParser<Gedcom> {
      * 
      * @param rootLevelItem
      *            the string tree for the root level item
+     * @return the record that was loaded, or null if the item was not loaded (an unrecognized tag that was ignored, for example)
+     * @throws GedcomParserException
+     *             if the data cannot be parsed because it's not in the format expected
+     */
+    ModelElement loadRootItem(StringTree rootLevelItem) throws GedcomParserException {
+        LoadMetrics metrics = loadMetrics;
+        if (metrics == null) {
+            return loadRecord(rootLevelItem);
+        }
+        PhaseTimer threadTimer = threadPhaseTimer.get();
+        PhaseTimer timer = threadTimer == null ? new PhaseTimer(metrics) : threadTimer;
+        timer.start();
+        try {
+            ModelElement result = loadRecord(rootLevelItem);
+            metrics.addRecord(rootLevelItem.getTag());
+            return result;
+        } finally {
+            timer.stop(LoadPhase.RECORD_PARSING);
+            if (threadTimer == null) {
+                timer.flush();
+            }
+        }
+    }
+
+    /**
+     * Notify all listeners about the change
+     * 
+     * @param e
+     *            the change event to tell the observers
+     */
+    void notifyParseObservers(ParseProgressEvent e) {
+        Mailbox<ParseProgressEvent> m = parseMailbox;
+        if (m != null) {
+            m.post(e);
+        } else {
+            deliverParseEvent(e);
+        }
+    }
+
+    /**
+     * Parse a root-level item on its own, as a record to be handed over rather than loaded into the {@link Gedcom}. The records it
+     * refers to are looked up in a registry that only lasts for this record, so they are left unresolved, holding nothing but
+     * their xrefs.
+     * 
+     * @param rootLevelItem
+     *            the string tree for the root level item
+     * @return the record, or null if the item was not loaded (an unrecognized tag that was ignored, for example)
      * @throws GedcomParserException
      *             if the data cannot be parsed because it's not in the format expected
      */
-    private void loadRootItem(StringTree rootLevelItem) throws GedcomParserException {
+    ModelElement parseRecord(StringTree rootLevelItem) throws GedcomParserException {
+        recordRegistry = new XrefRegistry();
+        try {
+            return loadRootItem(rootLevelItem);
+        } finally {
+            recordRegistry = null;
+        }
+    }
+
+    /**
+     * Reset counters and stuff prior to loading a new file
+     */
+    void resetForLoad() {
+        resetForLoad(new Gedcom());
+    }
+
+    /**
+     * Reset counters and stuff prior to loading records into an existing {@link Gedcom}
+     * 
+     * @param loadInto
+     *            the {@link Gedcom} that records will be loaded into
+     */
+    void resetForLoad(Gedcom loadInto) {
+        gedcom = loadInto;
+        lineNum = 0;
+        diagnostics.clear();
+        // A cancel of the future from loadAsync may have come in before the load got this far
+        Future<Gedcom> f = asyncLoad;
+        cancelled = f != null && f.isCancelled();
+        symbolTable = recordHandler == null ? new SymbolTable() : new SymbolTable(SymbolTable.DEFAULT_MAXIMUM_SIZE);
+        canonicalizers.clear();
+        sharedCanonicalizerUsed = false;
+        if (sharedCanonicalizer != null) {
+            sharedRequestsBefore = sharedCanonicalizer.getRequestCount();
+            sharedHitsBefore = sharedCanonicalizer.getHitCount();
+            sharedBytesSavedBefore = sharedCanonicalizer.getBytesSaved();
+        }
+        bytesRead = 0;
+        loadMetrics = null;
+        collectionInitializationEnabled = Options.isCollectionInitializationEnabled();
+    }
+
+    /**
+     * Set the line number we're reading
+     * 
+     * @param lineNum
+     *            the line number we're reading
+     */
+    void setLineNum(int lineNum) {
+        this.lineNum = lineNum;
+    }
+
+    /**
+     * Set a canonicalizer to be used for all the trees built from now on, instead of a new one for each load, so that values
+     * repeated from one file to the next share one instance. It is not used for files split into chunks (see
+     * {@link #setParallelDecoding(boolean)}), which are built into trees on several threads at once.
+     * 
+     * @param sharedCanonicalizer
+     *            the canonicalizer, which must not be used by anything else at the same time - or null to go back to a new one for
+     *            each load
+     */
+    void setSharedCanonicalizer(StringCanonicalizer sharedCanonicalizer) {
+        this.sharedCanonicalizer = sharedCanonicalizer;
+    }
+
+    /**
+     * Set the timer that records parsed on the current thread are timed with, for a thread that is timing other phases of the load
+     * too. Whoever sets it flushes it.
+     * 
+     * @param timer
+     *            the timer, or null if records parsed on the current thread are to be timed on their own
+     */
+    void setThreadPhaseTimer(PhaseTimer timer) {
+        if (timer == null) {
+            threadPhaseTimer.remove();
+        } else {
+            threadPhaseTimer.set(timer);
+        }
+    }
+
+    /**
+     * Tell all the file observers about a change, on the current thread
+     * 
+     * @param e
+     *            the change event to tell the observers
+     */
+    private void deliverFileEvent(FileProgressEvent e) {
+        int i = 0;
+        while (i < fileObservers.size()) {
+            WeakReference<FileProgressListener> observerRef = fileObservers.get(i);
+            if (observerRef == null) {
+                fileObservers.remove(i);
+            } else {
+                FileProgressListener l = observerRef.get();
+                if (l != null) {
+                    l.progressNotification(e);
+                }
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Tell all the parse observers about a change, on the current thread
+     * 
+     * @param e
+     *            the change event to tell the observers
+     */
+    private void deliverParseEvent(ParseProgressEvent e) {
+        int i = 0;
+        while (i < parseObservers.size()) {
+            WeakReference<ParseProgressListener> observerRef = parseObservers.get(i);
+            if (observerRef == null) {
+                parseObservers.remove(i);
+            } else {
+                ParseProgressListener l = observerRef.get();
+                if (l != null) {
+                    l.progressNotification(e);
+                }
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Get the number of values during the current (or most recent) load for which a shared instance was already available
+     * 
+     * @return the number of values for which a shared instance was already available
+     */
+    private long getCanonicalizerHitCount() {
+        long result = 0;
+        synchronized (canonicalizers) {
+            for (StringCanonicalizer c : canonicalizers) {
+                result += c.getHitCount();
+            }
+        }
+        if (sharedCanonicalizerUsed) {
+            result += sharedCanonicalizer.getHitCount() - sharedHitsBefore;
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of values during the current (or most recent) load that a shared instance was looked for
+     * 
+     * @return the number of values that a shared instance was looked for
+     */
+    private long getCanonicalizerRequestCount() {
+        long result = 0;
+        synchronized (canonicalizers) {
+            for (StringCanonicalizer c : canonicalizers) {
+                result += c.getRequestCount();
+            }
+        }
+        if (sharedCanonicalizerUsed) {
+            result += sharedCanonicalizer.getRequestCount() - sharedRequestsBefore;
+        }
+        return result;
+    }
+
+    /**
+     * Whether there are any observers to tell about the metrics of a load
+     * 
+     * @return true if there are any observers to tell about the metrics of a load
+     */
+    private boolean hasLoadMetricsObservers() {
+        for (WeakReference<LoadMetricsListener> observerRef : loadMetricsObservers) {
+            if (observerRef != null && observerRef.get() != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Load a single root-level item, without keeping any metrics
+     * 
+     * @param rootLevelItem
+     *            the string tree for the root level item
+     * @return the record that was loaded, or null if the item was not loaded
+     * @throws GedcomParserException
+     *             if the data cannot be parsed because it's not in the format expected
+     */
+    private ModelElement loadRecord(StringTree rootLevelItem) throws GedcomParserException {
         if (Tag.HEADER.equalsText(rootLevelItem.getTag())) {
             Header header = gedcom.getHeader();
             if (header == null) {
@@ -543,12 +1533,15 @@ public class GedcomParser extends AbstractParser<Gedcom> {
                 gedcom.setHeader(header);
             }
             new HeaderParser(this, rootLevelItem, header).parse();
+            return header;
         } else if (Tag.SUBMITTER.equalsText(rootLevelItem.getTag())) {
             Submitter submitter = getSubmitter(rootLevelItem.getXref());
             new SubmitterParser(this, rootLevelItem, submitter).parse();
+            return submitter;
         } else if (Tag.INDIVIDUAL.equalsText(rootLevelItem.getTag())) {
             Individual i = getIndividual(rootLevelItem.getXref());
             new IndividualParser(this, rootLevelItem, i).parse();
+            return i;
         } else if (Tag.SUBMISSION.equalsText(rootLevelItem.getTag())) {
             Submission s = new Submission(rootLevelItem.getXref());
             gedcom.setSubmission(s);
@@ -563,69 +1556,127 @@ public class GedcomParser extends AbstractParser<Gedcom> {
                 gedcom.getHeader().setSubmissionReference(new SubmissionReference(s));
             }
             new SubmissionParser(this, rootLevelItem, s).parse();
+            return s;
         } else if (Tag.NOTE.equalsText(rootLevelItem.getTag())) {
             NoteRecord nr = getNoteRecord(rootLevelItem.getXref());
             new NoteRecordParser(this, rootLevelItem, nr).parse();
+            return nr;
         } else if (Tag.FAMILY.equalsText(rootLevelItem.getTag())) {
             Family f = getFamily(rootLevelItem.getXref());
             new FamilyParser(this, rootLevelItem, f).parse();
+            return f;
         } else if (Tag.TRAILER.equalsText(rootLevelItem.getTag())) {
-            gedcom.setTrailer(new Trailer());
+            Trailer t = new Trailer();
+            gedcom.setTrailer(t);
+            return t;
         } else if (Tag.SOURCE.equalsText(rootLevelItem.getTag())) {
             Source s = getSource(rootLevelItem.getXref());
             new SourceParser(this, rootLevelItem, s).parse();
+            return s;
         } else if (Tag.REPOSITORY.equalsText(rootLevelItem.getTag())) {
             Repository r = getRepository(rootLevelItem.getXref());
             new RepositoryParser(this, rootLevelItem, r).parse();
+            return r;
         } else if (Tag.OBJECT_MULTIMEDIA.equalsText(rootLevelItem.getTag())) {
             Multimedia multimedia = getMultimedia(rootLevelItem.getXref());
             new MultimediaParser(this, rootLevelItem, multimedia).parse();
-        } else {
+            return multimedia;
+        } else if (recordRegistry == null) {
             unknownTag(rootLevelItem, gedcom);
+        } else {
+            // Parsing a record on its own, so a custom root-level tag is handed over like any other record rather than kept in the
+            // gedcom
+            Gedcom holder = new Gedcom();
+            unknownTag(rootLevelItem, holder);
+            if (holder.getCustomFacts() != null) {
+                return holder.getCustomFacts().get(0);
+            }
         }
+        return null;
     }
 
     /**
-     * Notify all listeners about the change
+     * Notify all listeners about the metrics for a load
      * 
      * @param e
-     *            the change event to tell the observers
+     *            the event to tell the observers
      */
-    private void notifyParseObservers(ParseProgressEvent e) {
+    private void notifyLoadMetricsObservers(LoadMetricsEvent e) {
         int i = 0;
-        while (i < parseObservers.size()) {
-            WeakReference<ParseProgressListener> observerRef = parseObservers.get(i);
+        while (i < loadMetricsObservers.size()) {
+            WeakReference<LoadMetricsListener> observerRef = loadMetricsObservers.get(i);
             if (observerRef == null) {
-                parseObservers.remove(i);
+                loadMetricsObservers.remove(i);
             } else {
-                ParseProgressListener l = observerRef.get();
+                LoadMetricsListener l = observerRef.get();
                 if (l != null) {
-                    l.progressNotification(e);
+                    l.loadMetricsNotification(e);
                 }
                 i++;
             }
         }
     }
 
+    /**
+     * Start delivering file and parse progress notifications on a thread of their own for the load about to start, if
+     * {@link #asyncNotification} is on and there is anyone to deliver them to
+     * 
+     * @return the dispatcher that delivers the notifications, to be closed when the load finishes, or null if they are to be
+     *         delivered straight away
+     */
+    private CoalescingEventDispatcher openDispatcher() {
+        if (!asyncNotification || fileObservers.isEmpty() && parseObservers.isEmpty()) {
+            return null;
+        }
+        CoalescingEventDispatcher dispatcher = new CoalescingEventDispatcher("gedcom4j-parser-progress");
+        fileMailbox = dispatcher.createMailbox(new Recipient<FileProgressEvent>() {
+            @Override
+            public void deliver(FileProgressEvent e) {
+                deliverFileEvent(e);
+            }
+        });
+        parseMailbox = dispatcher.createMailbox(new Recipient<ParseProgressEvent>() {
+            @Override
+            public void deliver(ParseProgressEvent e) {
+                deliverParseEvent(e);
+            }
+        });
+        return dispatcher;
+    }
+
     /**
      * Parse the {@link StringTreeBuilder}'s string tree in memory, load it into the object model, then discard that string tree
      * buffer
      * 
+     * @param timer
+     *            the timer for the phases worked on by this thread, which has been started
      * @throws GedcomParserException
      *             if the string tree contents cannot be parsed, or parsing was cancelled
      */
-    private void parseAndLoadPreviousStringTree() throws GedcomParserException {
-        StringTree tree = stringTreeBuilder.getTree();
-        if (tree != null && tree.getLevel() == -1 && tree.getChildren() != null && tree.getChildren().size() == 1) {
+    private void parseAndLoadPreviousStringTree(PhaseTimer timer) throws GedcomParserException {
+        StringTree rootLevelItem = getRootLevelItem(stringTreeBuilder);
+        timer.stop(LoadPhase.TREE_BUILDING);
+        if (rootLevelItem != null) {
             // We've still got the prior root node in memory - parse it and add to object model
-            StringTree rootLevelItem = stringTreeBuilder.getTree().getChildren().get(0);
-            if (rootLevelItem.getLevel() != 0) {
-                throw new GedcomParserException("Expected a root level item in the buffer, but found " + rootLevelItem.getLevel()
-                        + " " + rootLevelItem.getTag() + " from line " + lineNum);
-            }
-            loadRootItem(rootLevelItem);
+            handleRootItem(rootLevelItem);
             // And discard it, now that it's loaded
-            stringTreeBuilder = new StringTreeBuilder(this);
+            timer.start();
+            stringTreeBuilder.reset();
+        }
+    }
+
+    /**
+     * Parse a root-level item on its own, with the records it refers to left unresolved, and give it to the {@link RecordHandler}
+     * 
+     * @param rootLevelItem
+     *            the string tree for the root level item
+     * @throws GedcomParserException
+     *             if the data cannot be parsed because it's not in the format expected
+     */
+    private void streamRootItem(StringTree rootLevelItem) throws GedcomParserException {
+        ModelElement record = parseRecord(rootLevelItem);
+        if (record != null) {
+            recordHandler.handleRecord(record);
         }
     }
 
@@ -64,7 +64,7 @@ class GedcomVersionParser extends AbstractParser<GedcomVersion> {
                     try {
                         vn = SupportedVersion.forString(ch.getValue());
                     } catch (UnsupportedVersionException e) {
-                        addError(e.getMessage());
+                        addDiagnostic(DiagnosticCode.UNSUPPORTED_VERSION, ch.getLineNum(), e.getMessage());
                     }
                     loadInto.setVersionNumber(vn);
                     remainingChildrenAreCustomTags(ch, loadInto.getVersionNumber());
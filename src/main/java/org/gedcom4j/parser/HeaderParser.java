@@ -107,9 +107,7 @@ class HeaderParser extends AbstractParser<Header> {
                 } else if (Tag.COPYRIGHT.equalsText(ch.getTag())) {
                     loadMultiLinesOfText(ch, loadInto.getCopyrightData(true), loadInto);
                     if (g55() && loadInto.getCopyrightData().size() > 1) {
-                        gedcomParser.getWarnings().add(
-                                "GEDCOM version is 5.5, but multiple lines of copyright data were specified, which is only allowed in GEDCOM 5.5.1. "
-                                        + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        addDiagnostic(DiagnosticCode.MULTIPLE_COPYRIGHT_LINES_IN_G55, ch.getLineNum());
                     }
                 } else if (Tag.SUBMISSION.equalsText(ch.getTag())) {
                     if (loadInto.getSubmissionReference() == null) {
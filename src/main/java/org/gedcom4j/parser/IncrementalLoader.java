@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.io.reader.ChunkedFileReader;
+import org.gedcom4j.io.reader.GedcomFileReader;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.HasXref;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.model.Multimedia;
+import org.gedcom4j.model.NoteRecord;
+import org.gedcom4j.model.Repository;
+import org.gedcom4j.model.Source;
+import org.gedcom4j.model.StringTree;
+
+/**
+ * <p>
+ * Reloads a GEDCOM file that has been edited since it was last loaded, reparsing only the records that have changed. The bytes of
+ * the file are scanned to compute a {@link RecordHashes}, which is compared with the hashes from the previous load; each added or
+ * changed record is then parsed into the previous {@link Gedcom}. A changed record is cleared and reparsed in place, so the
+ * references other records hold to it stay valid, and references it makes to other records are linked to the existing objects
+ * just as they would be by a full load.
+ * </p>
+ * <p>
+ * The whole file is reloaded instead when there is nothing to compare with, when the file is not UTF-8 or ASCII, or when the changes
+ * can't be applied record by record - because a record was removed or changed type, or the header, submission, trailer or a
+ * custom root-level record changed (see {@link RecordHashes}). Either way, the parser's {@link GedcomParser#getGedcom()} holds the
+ * result afterwards; if only some records were reparsed, it is the previous {@link Gedcom}, updated, and the parser's errors and
+ * warnings are just those from the reparsed records.
+ * </p>
+ * <p>
+ * Usage:
+ * </p>
+ * 
+ * <pre>
+ * GedcomParser gp = new GedcomParser();
+ * IncrementalLoader loader = new IncrementalLoader(gp);
+ * RecordHashes hashes = loader.load(&quot;mytree.ged&quot;, null, null); // Full load the first time
+ * Gedcom g = gp.getGedcom();
+ * 
+ * // ...the file is edited...
+ * 
+ * hashes = loader.load(&quot;mytree.ged&quot;, g, hashes); // Only changed records are reparsed
+ * g = gp.getGedcom();
+ * </pre>
+ * <p>
+ * A record that was only ever created as a placeholder for a reference to an xref that isn't in the file stays in the
+ * {@link Gedcom} even if the changed records no longer make that reference.
+ * </p>
+ * 
+ * @author frizbog
+ */
+public class IncrementalLoader {
+
+    /**
+     * The parser whose settings are used, and which holds the result and collects the errors and warnings
+     */
+    private final GedcomParser parser;
+
+    /**
+     * The xrefs of the records reparsed by the last load, or null if the whole file was loaded
+     */
+    private List<String> reparsedXrefs;
+
+    /**
+     * Constructor
+     * 
+     * @param parser
+     *            the parser whose settings are used, and which holds the result and collects the errors and warnings. Required.
+     */
+    public IncrementalLoader(GedcomParser parser) {
+        if (parser == null) {
+            throw new IllegalArgumentException("A parser is required");
+        }
+        this.parser = parser;
+    }
+
+    /**
+     * Get the xrefs of the records reparsed by the last load
+     * 
+     * @return the xrefs of the records reparsed by the last load, or null if the whole file was loaded (or nothing has been loaded
+     *         yet). Not modifiable.
+     */
+    public List<String> getReparsedXrefs() {
+        return reparsedXrefs;
+    }
+
+    /**
+     * Load a file, reparsing only the records that have changed since it was last loaded if possible. The result is in the parser's
+     * {@link GedcomParser#getGedcom()}.
+     * 
+     * @param filename
+     *            the name of the file to load
+     * @param previous
+     *            the {@link Gedcom} from the last time the file was loaded, which is updated in place if only some records need to
+     *            be reparsed. Null to load the whole file.
+     * @param previousHashes
+     *            the hashes from the last time the file was loaded. Null to load the whole file.
+     * @return the hashes of the records in the file as loaded, to pass to the next load
+     * @throws IOException
+     *             if the file cannot be read
+     * @throws GedcomParserException
+     *             if the file cannot be parsed
+     */
+    public RecordHashes load(String filename, Gedcom previous, RecordHashes previousHashes) throws IOException,
+            GedcomParserException {
+        reparsedXrefs = null;
+        RecordHashes hashes;
+        try (FileInputStream fis = new FileInputStream(filename); FileChannel channel = fis.getChannel()) {
+            RecordIndex index = RecordIndex.scan(channel);
+            hashes = RecordHashes.compute(channel, index);
+            List<String> changed = previous == null || previousHashes == null ? null : hashes.changedSince(previousHashes);
+            if (changed != null) {
+                parser.resetForLoad(previous);
+                GedcomFileReader gfr = new GedcomFileReader(parser, channel);
+                if (ChunkedFileReader.supports(gfr.getEncoding())) {
+                    ChunkedFileReader reader = new ChunkedFileReader(parser, channel, gfr.getEncoding());
+                    StringTreeBuilder builder = new StringTreeBuilder(parser);
+                    for (String xref : changed) {
+                        reparse(reader, builder, index, index.find(xref));
+                    }
+                    reparsedXrefs = Collections.unmodifiableList(changed);
+                }
+            }
+        }
+        if (reparsedXrefs == null) {
+            parser.load(filename);
+        }
+        return hashes;
+    }
+
+    /**
+     * Reset a record to the state of a newly created one, in place
+     * 
+     * @param record
+     *            the record to reset
+     */
+    private static void clear(ModelElement record) {
+        ModelElement blank = createBlank(record);
+        try {
+            for (Class<?> c = record.getClass(); c != Object.class; c = c.getSuperclass()) {
+                for (Field f : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(f.getModifiers())) {
+                        f.setAccessible(true);
+                        f.set(record, f.get(blank));
+                    }
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to clear " + record.getClass().getName(), e);
+        }
+    }
+
+    /**
+     * Create a blank record of the same type and with the same xref as an existing one, the way the parser would when it first
+     * saw the xref
+     * 
+     * @param record
+     *            the existing record
+     * @return the blank record
+     */
+    private static ModelElement createBlank(ModelElement record) {
+        XrefRegistry registry = new XrefRegistry();
+        String xref = ((HasXref) record).getXref();
+        if (record instanceof Family) {
+            return registry.getFamily(xref);
+        } else if (record instanceof Individual) {
+            return registry.getIndividual(xref);
+        } else if (record instanceof Multimedia) {
+            return registry.getMultimedia(xref);
+        } else if (record instanceof NoteRecord) {
+            return registry.getNoteRecord(xref);
+        } else if (record instanceof Repository) {
+            return registry.getRepository(xref);
+        } else if (record instanceof Source) {
+            return registry.getSource(xref);
+        }
+        return registry.getSubmitter(xref);
+    }
+
+    /**
+     * Find the record with an xref among those of the type a root-level item would load
+     * 
+     * @param gedcom
+     *            the gedcom to look in
+     * @param rootLevelItem
+     *            the root-level item
+     * @return the record already in the gedcom that the item would be loaded into, or null if there isn't one
+     */
+    private static ModelElement findExisting(Gedcom gedcom, StringTree rootLevelItem) {
+        Map<String, ? extends ModelElement> records;
+        switch (Tag.forText(rootLevelItem.getTag())) {
+            case FAMILY:
+                records = gedcom.getFamilies();
+                break;
+            case INDIVIDUAL:
+                records = gedcom.getIndividuals();
+                break;
+            case OBJECT_MULTIMEDIA:
+                records = gedcom.getMultimedia();
+                break;
+            case NOTE:
+                records = gedcom.getNotes();
+                break;
+            case REPOSITORY:
+                records = gedcom.getRepositories();
+                break;
+            case SOURCE:
+                records = gedcom.getSources();
+                break;
+            default:
+                records = gedcom.getSubmitters();
+                break;
+        }
+        return records.get(rootLevelItem.getXref());
+    }
+
+    /**
+     * Reparse a record into the gedcom being updated
+     * 
+     * @param reader
+     *            reads the lines of the record from the file
+     * @param builder
+     *            builds the string tree for the record
+     * @param index
+     *            the index of the file
+     * @param record
+     *            the number of the record in the index
+     * @throws IOException
+     *             if the file cannot be read
+     * @throws GedcomParserException
+     *             if the record cannot be parsed
+     */
+    private void reparse(ChunkedFileReader reader, StringTreeBuilder builder, RecordIndex index, int record) throws IOException,
+            GedcomParserException {
+        builder.reset();
+        builder.setLineNum(index.getLineNum(record));
+        for (String line : reader.readLines(index.getStart(record), index.getEnd(record))) {
+            builder.appendLine(line);
+        }
+        try {
+            StringTree rootLevelItem = parser.getRootLevelItem(builder);
+            if (rootLevelItem == null) {
+                // Filtered out
+                return;
+            }
+            ModelElement existing = findExisting(parser.getGedcom(), rootLevelItem);
+            if (existing != null) {
+                clear(existing);
+            }
+            parser.loadRootItem(rootLevelItem);
+        } finally {
+            builder.reset();
+        }
+    }
+}
@@ -0,0 +1,383 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.exception.UnsupportedGedcomCharsetException;
+import org.gedcom4j.io.reader.ChunkedFileReader;
+import org.gedcom4j.io.reader.GedcomFileReader;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.Header;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.model.Source;
+import org.gedcom4j.model.StringTree;
+
+/**
+ * <p>
+ * Random access to the records in a GEDCOM file by xref, without loading the whole file. Opening the file only scans it for where
+ * each root-level record begins (see {@link RecordIndex}) and parses the header and submission; each record is then read and parsed
+ * from its place in the file the first time it is asked for, and kept in a cache of the most recently used records, so opening a
+ * huge file to look at a handful of records takes a fraction of the time and memory that loading it would.
+ * </p>
+ * <p>
+ * Records come back the same way {@link GedcomParser#stream(String, RecordHandler)} hands them over - fully parsed, but with the
+ * records they refer to left unresolved, holding nothing but their xrefs. Look those up in turn with {@link #getRecord(String)} (or
+ * {@link #getIndividual(String)} and so on) as needed. A record that has been evicted from the cache is parsed again if it is asked
+ * for again, so changes made to the objects handed out are not kept.
+ * </p>
+ * <p>
+ * The {@link GedcomParser} supplied provides the settings (including any {@link ParseFilter}), collects the errors and warnings for
+ * the records that have been parsed, and keeps the header and submission; it should not be used for anything else while this object
+ * is open. Only UTF-8 and ASCII files can be read this way, since records can only be found by their byte offsets in those
+ * encodings.
+ * </p>
+ * <p>
+ * The index can also be saved in a sidecar file next to the GEDCOM file (its name with {@value #INDEX_FILE_SUFFIX} added), so
+ * reopening the file skips the scan as long as the file hasn't changed - see
+ * {@link #IndexedGedcomFile(GedcomParser, String, int, boolean)}.
+ * </p>
+ * <p>
+ * The methods of this class are synchronized, so it can be shared between threads, but records are parsed one at a time.
+ * </p>
+ * 
+ * @author frizbog
+ */
+public class IndexedGedcomFile implements Closeable {
+
+    /**
+     * The default maximum number of parsed records to keep in the cache
+     */
+    public static final int DEFAULT_CACHE_SIZE = 1000;
+
+    /**
+     * The suffix added to the name of a GEDCOM file to get the name of the sidecar file its index is saved in
+     */
+    public static final String INDEX_FILE_SUFFIX = ".g4jidx";
+
+    /**
+     * The parser whose settings are used, and which collects the errors and warnings
+     */
+    private final GedcomParser parser;
+
+    /**
+     * The stream the file is read through
+     */
+    private final FileInputStream file;
+
+    /**
+     * Reads the lines of each record from the file
+     */
+    private final ChunkedFileReader reader;
+
+    /**
+     * Where each record is in the file
+     */
+    private final RecordIndex index;
+
+    /**
+     * Builds the string tree for each record as it is parsed
+     */
+    private final StringTreeBuilder builder;
+
+    /**
+     * The maximum number of parsed records to keep in the cache
+     */
+    private final int cacheSize;
+
+    /**
+     * The most recently used records, by record number, least recently used first
+     */
+    private final Map<Integer, ModelElement> cache;
+
+    /**
+     * Constructor, using the default cache size
+     * 
+     * @param parser
+     *            the parser whose settings are used, and which collects the errors and warnings. Required.
+     * @param filename
+     *            the name of the file to read
+     * @throws IOException
+     *             if the file cannot be read
+     * @throws GedcomParserException
+     *             if the file is not UTF-8 or ASCII, or its header or submission cannot be parsed
+     */
+    public IndexedGedcomFile(GedcomParser parser, String filename) throws IOException, GedcomParserException {
+        this(parser, filename, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param parser
+     *            the parser whose settings are used, and which collects the errors and warnings. Required.
+     * @param filename
+     *            the name of the file to read
+     * @param cacheSize
+     *            the maximum number of parsed records to keep in the cache. Must be at least 1.
+     * @throws IOException
+     *             if the file cannot be read
+     * @throws GedcomParserException
+     *             if the file is not UTF-8 or ASCII, or its header or submission cannot be parsed
+     */
+    public IndexedGedcomFile(GedcomParser parser, String filename, int cacheSize) throws IOException, GedcomParserException {
+        this(parser, filename, cacheSize, false);
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param parser
+     *            the parser whose settings are used, and which collects the errors and warnings. Required.
+     * @param filename
+     *            the name of the file to read
+     * @param cacheSize
+     *            the maximum number of parsed records to keep in the cache. Must be at least 1.
+     * @param useIndexFile
+     *            true if the index of the file should be read from its sidecar file when that is up to date, and saved in the
+     *            sidecar file when it isn't (or doesn't exist); false to scan the file every time it is opened, and not write any
+     *            other files
+     * @throws IOException
+     *             if the file cannot be read
+     * @throws GedcomParserException
+     *             if the file is not UTF-8 or ASCII, or its header or submission cannot be parsed
+     */
+    @SuppressWarnings("serial")
+    public IndexedGedcomFile(GedcomParser parser, String filename, final int cacheSize, boolean useIndexFile) throws IOException,
+            GedcomParserException {
+        if (parser == null) {
+            throw new IllegalArgumentException("A parser is required");
+        }
+        if (cacheSize < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1");
+        }
+        this.parser = parser;
+        this.cacheSize = cacheSize;
+        cache = new LinkedHashMap<Integer, ModelElement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Entry<Integer, ModelElement> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        file = new FileInputStream(filename);
+        boolean ok = false;
+        try {
+            parser.resetForLoad();
+            FileChannel channel = file.getChannel();
+            GedcomFileReader gfr = new GedcomFileReader(parser, channel);
+            if (!ChunkedFileReader.supports(gfr.getEncoding())) {
+                throw new UnsupportedGedcomCharsetException("Only UTF-8 and ASCII files can be read by record, but " + filename
+                        + " is " + gfr.getEncoding());
+            }
+            reader = new ChunkedFileReader(parser, channel, gfr.getEncoding());
+            index = useIndexFile ? RecordIndex.forFile(new File(filename), channel) : RecordIndex.scan(channel);
+            // Only the cached records are held, so the symbol table mustn't grow with the file
+            builder = new StringTreeBuilder(parser, new SymbolTable(SymbolTable.DEFAULT_MAXIMUM_SIZE), parser.getLineNum());
+            for (int r = 0; r < index.size(); r++) {
+                if (Tag.HEADER.equalsText(index.getTag(r)) || Tag.SUBMISSION.equalsText(index.getTag(r))) {
+                    parse(r);
+                }
+            }
+            ok = true;
+        } finally {
+            if (!ok) {
+                file.close();
+            }
+        }
+    }
+
+    /**
+     * Close the file
+     * 
+     * @throws IOException
+     *             if the file cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        cache.clear();
+        file.close();
+    }
+
+    /**
+     * Get the maximum number of parsed records kept in the cache
+     * 
+     * @return the maximum number of parsed records kept in the cache
+     */
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * Get the family with the supplied xref
+     * 
+     * @param xref
+     *            the xref of the family
+     * @return the family, or null if there is no family with that xref in the file
+     * @throws IOException
+     *             if the file cannot be read
+     * @throws GedcomParserException
+     *             if the family cannot be parsed
+     */
+    public Family getFamily(String xref) throws IOException, GedcomParserException {
+        ModelElement result = getRecord(xref);
+        return result instanceof Family ? (Family) result : null;
+    }
+
+    /**
+     * Get the header, which is parsed when the file is opened
+     * 
+     * @return the header, or null if the file doesn't have one
+     */
+    public Header getHeader() {
+        return parser.getGedcom().getHeader();
+    }
+
+    /**
+     * Get the individual with the supplied xref
+     * 
+     * @param xref
+     *            the xref of the individual
+     * @return the individual, or null if there is no individual with that xref in the file
+     * @throws IOException
+     *             if the file cannot be read
+     * @throws GedcomParserException
+     *             if the individual cannot be parsed
+     */
+    public Individual getIndividual(String xref) throws IOException, GedcomParserException {
+        ModelElement result = getRecord(xref);
+        return result instanceof Individual ? (Individual) result : null;
+    }
+
+    /**
+     * Get the number of root-level records in the file, including the header and trailer
+     * 
+     * @return the number of root-level records in the file
+     */
+    public int getRecordCount() {
+        return index.size();
+    }
+
+    /**
+     * Get the record with the supplied xref, whatever type it is
+     * 
+     * @param xref
+     *            the xref of the record
+     * @return the record, or null if there is no record with that xref in the file (or it was filtered out by the parser's
+     *         {@link ParseFilter})
+     * @throws IOException
+     *             if the file cannot be read
+     * @throws GedcomParserException
+     *             if the record cannot be parsed
+     */
+    public synchronized ModelElement getRecord(String xref) throws IOException, GedcomParserException {
+        int r = index.find(xref);
+        if (r < 0) {
+            return null;
+        }
+        ModelElement result = cache.get(r);
+        if (result == null) {
+            result = parse(r);
+            if (result != null) {
+                cache.put(r, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the source with the supplied xref
+     * 
+     * @param xref
+     *            the xref of the source
+     * @return the source, or null if there is no source with that xref in the file
+     * @throws IOException
+     *             if the file cannot be read
+     * @throws GedcomParserException
+     *             if the source cannot be parsed
+     */
+    public Source getSource(String xref) throws IOException, GedcomParserException {
+        ModelElement result = getRecord(xref);
+        return result instanceof Source ? (Source) result : null;
+    }
+
+    /**
+     * Get the xrefs of the root-level records with the supplied tag, in the order they are in the file. No records are parsed.
+     * 
+     * @param tag
+     *            the tag of the records - for example, <code>"INDI"</code>
+     * @return the xrefs of the records with that tag. Not modifiable.
+     */
+    public List<String> getXrefs(String tag) {
+        List<String> result = new ArrayList<>();
+        for (int r = 0; r < index.size(); r++) {
+            if (index.getXref(r) != null && index.getTag(r).equals(tag)) {
+                result.add(index.getXref(r));
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Read and parse a record from the file
+     * 
+     * @param record
+     *            the number of the record
+     * @return the record, or null if it was not loaded (filtered out, for example)
+     * @throws IOException
+     *             if the file cannot be read
+     * @throws GedcomParserException
+     *             if the record cannot be parsed
+     */
+    private ModelElement parse(int record) throws IOException, GedcomParserException {
+        builder.reset();
+        builder.setLineNum(index.getLineNum(record));
+        for (String line : reader.readLines(index.getStart(record), index.getEnd(record))) {
+            builder.appendLine(line);
+        }
+        StringTree rootLevelItem = parser.getRootLevelItem(builder);
+        if (rootLevelItem == null) {
+            return null;
+        }
+        try {
+            return parser.parseRecord(rootLevelItem);
+        } finally {
+            builder.reset();
+        }
+    }
+}
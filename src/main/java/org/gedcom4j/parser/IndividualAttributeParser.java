@@ -63,9 +63,7 @@ class IndividualAttributeParser extends AbstractParser<IndividualAttribute> {
     void parse() {
         loadInto.setType(IndividualAttributeType.getFromTag(stringTree.getTag()));
         if (IndividualAttributeType.FACT.equals(loadInto.getType()) && g55()) {
-            addWarning("FACT tag specified on a GEDCOM 5.5 file at line " + stringTree.getLineNum()
-                    + ", but FACT was not added until 5.5.1."
-                    + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+            addDiagnostic(DiagnosticCode.FACT_IN_G55, stringTree.getLineNum());
         }
         loadInto.setDescription(new StringWithCustomFacts(stringTree.getValue()));
         if (stringTree.getChildren() != null) {
@@ -92,23 +90,17 @@ class IndividualAttributeParser extends AbstractParser<IndividualAttribute> {
                 } else if (Tag.WEB_ADDRESS.equalsText(ch.getTag())) {
                     loadInto.getWwwUrls(true).add(parseStringWithCustomFacts(ch));
                     if (g55()) {
-                        addWarning("GEDCOM version is 5.5 but WWW URL was specified for " + loadInto.getType()
-                                + " attribute on line " + ch.getLineNum() + ", which is a GEDCOM 5.5.1 feature."
-                                + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        addDiagnostic(DiagnosticCode.G551_FEATURE_IN_G55, ch.getLineNum(), "WWW URL", "for ", loadInto.getType(), " attribute");
                     }
                 } else if (Tag.FAX.equalsText(ch.getTag())) {
                     loadInto.getFaxNumbers(true).add(parseStringWithCustomFacts(ch));
                     if (g55()) {
-                        addWarning("GEDCOM version is 5.5 but fax was specified for " + loadInto.getType() + " attribute on line "
-                                + ch.getLineNum() + ", which is a GEDCOM 5.5.1 feature."
-                                + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        addDiagnostic(DiagnosticCode.G551_FEATURE_IN_G55, ch.getLineNum(), "fax", "for ", loadInto.getType(), " attribute");
                     }
                 } else if (Tag.EMAIL.equalsText(ch.getTag())) {
                     loadInto.getEmails(true).add(parseStringWithCustomFacts(ch));
                     if (g55()) {
-                        addWarning("GEDCOM version is 5.5 but email was specified for " + loadInto.getType() + " attribute on line "
-                                + ch.getLineNum() + ", which is a GEDCOM 5.5.1 feature."
-                                + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        addDiagnostic(DiagnosticCode.G551_FEATURE_IN_G55, ch.getLineNum(), "email", "for ", loadInto.getType(), " attribute");
                     }
                 } else if (Tag.ADDRESS.equalsText(ch.getTag())) {
                     Address address = new Address();
@@ -77,96 +77,107 @@ class IndividualParser extends AbstractParser<Individual> {
     void parse() {
         if (stringTree.getChildren() != null) {
             for (StringTree ch : stringTree.getChildren()) {
-                if (Tag.NAME.equalsText(ch.getTag())) {
-                    PersonalName pn = new PersonalName();
-                    loadInto.getNames(true).add(pn);
-                    new PersonalNameParser(gedcomParser, ch, pn).parse();
-                } else if (Tag.SEX.equalsText(ch.getTag())) {
-                    loadInto.setSex(parseStringWithCustomFacts(ch));
-                } else if (Tag.ADDRESS.equalsText(ch.getTag())) {
-                    Address address = new Address();
-                    loadInto.setAddress(address);
-                    new AddressParser(gedcomParser, ch, address).parse();
-                } else if (Tag.PHONE.equalsText(ch.getTag())) {
-                    loadInto.getPhoneNumbers(true).add(parseStringWithCustomFacts(ch));
-                } else if (Tag.WEB_ADDRESS.equalsText(ch.getTag())) {
-                    loadInto.getWwwUrls(true).add(parseStringWithCustomFacts(ch));
-                    if (g55()) {
-                        addWarning("GEDCOM version is 5.5 but WWW URL was specified for individual " + loadInto.getXref()
-                                + " on line " + ch.getLineNum() + ", which is a GEDCOM 5.5.1 feature."
-                                + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
-                    }
-                } else if (Tag.FAX.equalsText(ch.getTag())) {
-                    loadInto.getFaxNumbers(true).add(parseStringWithCustomFacts(ch));
-                    if (g55()) {
-                        addWarning("GEDCOM version is 5.5 but fax was specified for individual " + loadInto.getXref() + "on line "
-                                + ch.getLineNum() + ", which is a GEDCOM 5.5.1 feature."
-                                + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
-                    }
-                } else if (Tag.EMAIL.equalsText(ch.getTag())) {
-                    loadInto.getEmails(true).add(parseStringWithCustomFacts(ch));
-                    if (g55()) {
-                        addWarning("GEDCOM version is 5.5 but email was specified for individual " + loadInto.getXref()
-                                + " on line " + ch.getLineNum() + ", which is a GEDCOM 5.5.1 feature."
-                                + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
-                    }
-                } else if (IndividualEventType.isValidTag(ch.getTag())) {
-                    IndividualEvent event = new IndividualEvent();
-                    loadInto.getEvents(true).add(event);
-                    new IndividualEventParser(gedcomParser, ch, event).parse();
-                } else if (IndividualAttributeType.isValidTag(ch.getTag())) {
-                    IndividualAttribute a = new IndividualAttribute();
-                    loadInto.getAttributes(true).add(a);
-                    new IndividualAttributeParser(gedcomParser, ch, a).parse();
-                } else if (LdsIndividualOrdinanceType.isValidTag(ch.getTag())) {
-                    LdsIndividualOrdinance ord = new LdsIndividualOrdinance();
-                    loadInto.getLdsIndividualOrdinances(true).add(ord);
-                    new LdsIndividualOrdinanceParser(gedcomParser, ch, ord).parse();
-                } else if (Tag.NOTE.equalsText(ch.getTag())) {
-                    List<NoteStructure> notes = loadInto.getNoteStructures(true);
-                    new NoteStructureListParser(gedcomParser, ch, notes).parse();
-                } else if (Tag.CHANGED_DATETIME.equalsText(ch.getTag())) {
-                    ChangeDate changeDate = new ChangeDate();
-                    loadInto.setChangeDate(changeDate);
-                    new ChangeDateParser(gedcomParser, ch, changeDate).parse();
-                } else if (Tag.RECORD_ID_NUMBER.equalsText(ch.getTag())) {
-                    loadInto.setRecIdNumber(parseStringWithCustomFacts(ch));
-                } else if (Tag.REGISTRATION_FILE_NUMBER.equalsText(ch.getTag())) {
-                    loadInto.setPermanentRecFileNumber(parseStringWithCustomFacts(ch));
-                } else if (Tag.OBJECT_MULTIMEDIA.equalsText(ch.getTag())) {
-                    List<MultimediaReference> multimedia = loadInto.getMultimedia(true);
-                    new MultimediaLinkParser(gedcomParser, ch, multimedia).parse();
-                } else if (Tag.RESTRICTION.equalsText(ch.getTag())) {
-                    loadInto.setRestrictionNotice(parseStringWithCustomFacts(ch));
-                } else if (Tag.SOURCE.equalsText(ch.getTag())) {
-                    List<AbstractCitation> citations = loadInto.getCitations(true);
-                    new CitationListParser(gedcomParser, ch, citations).parse();
-                } else if (Tag.ALIAS.equalsText(ch.getTag())) {
-                    loadInto.getAliases(true).add(parseStringWithCustomFacts(ch));
-                } else if (Tag.FAMILY_WHERE_SPOUSE.equalsText(ch.getTag())) {
-                    loadFamilyWhereSpouse(ch, loadInto.getFamiliesWhereSpouse(true));
-                } else if (Tag.FAMILY_WHERE_CHILD.equalsText(ch.getTag())) {
-                    FamilyChild fc = new FamilyChild();
-                    loadInto.getFamiliesWhereChild(true).add(fc);
-                    new FamilyChildParser(gedcomParser, ch, fc).parse();
-                } else if (Tag.ASSOCIATION.equalsText(ch.getTag())) {
-                    Association a = new Association();
-                    loadInto.getAssociations(true).add(a);
-                    new AssociationParser(gedcomParser, ch, a).parse();
-                } else if (Tag.ANCESTOR_INTEREST.equalsText(ch.getTag())) {
-                    loadInto.getAncestorInterest(true).add(getSubmitter(ch.getValue()));
-                } else if (Tag.DESCENDANT_INTEREST.equalsText(ch.getTag())) {
-                    loadInto.getDescendantInterest(true).add(getSubmitter(ch.getValue()));
-                } else if (Tag.ANCESTRAL_FILE_NUMBER.equalsText(ch.getTag())) {
-                    loadInto.setAncestralFileNumber(parseStringWithCustomFacts(ch));
-                } else if (Tag.REFERENCE.equalsText(ch.getTag())) {
-                    UserReference u = new UserReference();
-                    loadInto.getUserReferences(true).add(u);
-                    new UserReferenceParser(gedcomParser, ch, u).parse();
-                } else if (Tag.SUBMITTER.equalsText(ch.getTag())) {
-                    loadInto.getSubmitters(true).add(getSubmitter(ch.getValue()));
+                Tag tag = Tag.forText(ch.getTag());
+                if (tag == null) {
+                    parseOtherChild(ch);
                 } else {
-                    unknownTag(ch, loadInto);
+                    switch (tag) {
+                        case NAME:
+                            PersonalName pn = new PersonalName();
+                            loadInto.getNames(true).add(pn);
+                            new PersonalNameParser(gedcomParser, ch, pn).parse();
+                            break;
+                        case SEX:
+                            loadInto.setSex(parseStringWithCustomFacts(ch));
+                            break;
+                        case ADDRESS:
+                            Address address = new Address();
+                            loadInto.setAddress(address);
+                            new AddressParser(gedcomParser, ch, address).parse();
+                            break;
+                        case PHONE:
+                            loadInto.getPhoneNumbers(true).add(parseStringWithCustomFacts(ch));
+                            break;
+                        case WEB_ADDRESS:
+                            loadInto.getWwwUrls(true).add(parseStringWithCustomFacts(ch));
+                            if (g55()) {
+                                addDiagnostic(DiagnosticCode.G551_FEATURE_IN_G55, ch.getLineNum(), "WWW URL", "for individual ", loadInto.getXref(), "");
+                            }
+                            break;
+                        case FAX:
+                            loadInto.getFaxNumbers(true).add(parseStringWithCustomFacts(ch));
+                            if (g55()) {
+                                addDiagnostic(DiagnosticCode.G551_FEATURE_IN_G55, ch.getLineNum(), "fax", "for individual ", loadInto.getXref(), "");
+                            }
+                            break;
+                        case EMAIL:
+                            loadInto.getEmails(true).add(parseStringWithCustomFacts(ch));
+                            if (g55()) {
+                                addDiagnostic(DiagnosticCode.G551_FEATURE_IN_G55, ch.getLineNum(), "email", "for individual ", loadInto.getXref(), "");
+                            }
+                            break;
+                        case NOTE:
+                            List<NoteStructure> notes = loadInto.getNoteStructures(true);
+                            new NoteStructureListParser(gedcomParser, ch, notes).parse();
+                            break;
+                        case CHANGED_DATETIME:
+                            ChangeDate changeDate = new ChangeDate();
+                            loadInto.setChangeDate(changeDate);
+                            new ChangeDateParser(gedcomParser, ch, changeDate).parse();
+                            break;
+                        case RECORD_ID_NUMBER:
+                            loadInto.setRecIdNumber(parseStringWithCustomFacts(ch));
+                            break;
+                        case REGISTRATION_FILE_NUMBER:
+                            loadInto.setPermanentRecFileNumber(parseStringWithCustomFacts(ch));
+                            break;
+                        case OBJECT_MULTIMEDIA:
+                            List<MultimediaReference> multimedia = loadInto.getMultimedia(true);
+                            new MultimediaLinkParser(gedcomParser, ch, multimedia).parse();
+                            break;
+                        case RESTRICTION:
+                            loadInto.setRestrictionNotice(parseStringWithCustomFacts(ch));
+                            break;
+                        case SOURCE:
+                            List<AbstractCitation> citations = loadInto.getCitations(true);
+                            new CitationListParser(gedcomParser, ch, citations).parse();
+                            break;
+                        case ALIAS:
+                            loadInto.getAliases(true).add(parseStringWithCustomFacts(ch));
+                            break;
+                        case FAMILY_WHERE_SPOUSE:
+                            loadFamilyWhereSpouse(ch, loadInto.getFamiliesWhereSpouse(true));
+                            break;
+                        case FAMILY_WHERE_CHILD:
+                            FamilyChild fc = new FamilyChild();
+                            loadInto.getFamiliesWhereChild(true).add(fc);
+                            new FamilyChildParser(gedcomParser, ch, fc).parse();
+                            break;
+                        case ASSOCIATION:
+                            Association a = new Association();
+                            loadInto.getAssociations(true).add(a);
+                            new AssociationParser(gedcomParser, ch, a).parse();
+                            break;
+                        case ANCESTOR_INTEREST:
+                            loadInto.getAncestorInterest(true).add(getSubmitter(ch.getValue()));
+                            break;
+                        case DESCENDANT_INTEREST:
+                            loadInto.getDescendantInterest(true).add(getSubmitter(ch.getValue()));
+                            break;
+                        case ANCESTRAL_FILE_NUMBER:
+                            loadInto.setAncestralFileNumber(parseStringWithCustomFacts(ch));
+                            break;
+                        case REFERENCE:
+                            UserReference u = new UserReference();
+                            loadInto.getUserReferences(true).add(u);
+                            new UserReferenceParser(gedcomParser, ch, u).parse();
+                            break;
+                        case SUBMITTER:
+                            loadInto.getSubmitters(true).add(getSubmitter(ch.getValue()));
+                            break;
+                        default:
+                            parseOtherChild(ch);
+                    }
                 }
             }
         }
@@ -197,4 +208,28 @@ class IndividualParser extends AbstractParser<Individual> {
         }
     }
 
+    /**
+     * Parse a child node whose tag is not dispatched by the switch in {@link #parse()} - the event, attribute and LDS ordinance
+     * tags, which are recognized by their enumerations, and anything unknown.
+     * 
+     * @param ch
+     *            the child node being parsed
+     */
+    private void parseOtherChild(StringTree ch) {
+        if (IndividualEventType.isValidTag(ch.getTag())) {
+            IndividualEvent event = new IndividualEvent();
+            loadInto.getEvents(true).add(event);
+            new IndividualEventParser(gedcomParser, ch, event).parse();
+        } else if (IndividualAttributeType.isValidTag(ch.getTag())) {
+            IndividualAttribute a = new IndividualAttribute();
+            loadInto.getAttributes(true).add(a);
+            new IndividualAttributeParser(gedcomParser, ch, a).parse();
+        } else if (LdsIndividualOrdinanceType.isValidTag(ch.getTag())) {
+            LdsIndividualOrdinance ord = new LdsIndividualOrdinance();
+            loadInto.getLdsIndividualOrdinances(true).add(ord);
+            new LdsIndividualOrdinanceParser(gedcomParser, ch, ord).parse();
+        } else {
+            unknownTag(ch, loadInto);
+        }
+    }
 }
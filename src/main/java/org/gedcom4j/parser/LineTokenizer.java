@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import org.gedcom4j.exception.GedcomParserException;
+
+/**
+ * <p>
+ * Breaks a line from a GEDCOM file into its level, xref, tag, and value by recording where each piece begins and ends in the line,
+ * rather than copying the line into a character array and building up new strings for each piece.
+ * </p>
+ * <p>
+ * Tags and xrefs are resolved through a {@link SymbolTable}, so they only cost an allocation the first time they are seen. Values
+ * that are pointers to other records (e.g., <code>@I123@</code>) are resolved the same way. Other values are only turned into
+ * strings when asked for.
+ * </p>
+ * <p>
+ * A single instance is meant to be reused for line after line, and is not thread-safe.
+ * </p>
+ * 
+ * @author frizbog
+ */
+class LineTokenizer {
+
+    /**
+     * The table used to resolve tags, xrefs, and pointer values to canonical strings
+     */
+    private final SymbolTable symbols;
+
+    /**
+     * The line most recently tokenized
+     */
+    private String line;
+
+    /**
+     * The level of the line
+     */
+    private int level;
+
+    /**
+     * Index of the first character of the xref, or -1 if there is no xref
+     */
+    private int xrefStart;
+
+    /**
+     * Index after the last character of the xref
+     */
+    private int xrefEnd;
+
+    /**
+     * Index of the first character of the tag
+     */
+    private int tagStart;
+
+    /**
+     * Index after the last character of the tag
+     */
+    private int tagEnd;
+
+    /**
+     * Index of the first character of the value, or -1 if there is no value
+     */
+    private int valueStart;
+
+    /**
+     * Constructor
+     * 
+     * @param symbols
+     *            the table used to resolve tags, xrefs, and pointer values to canonical strings
+     */
+    LineTokenizer(SymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * Get the level of the most recently tokenized line
+     * 
+     * @return the level of the most recently tokenized line
+     */
+    int getLevel() {
+        return level;
+    }
+
+    /**
+     * Get the tag of the most recently tokenized line
+     * 
+     * @return the canonical instance of the tag of the most recently tokenized line
+     */
+    String getTag() {
+        return symbols.get(line, tagStart, tagEnd);
+    }
+
+    /**
+     * Get the value (everything after the tag) of the most recently tokenized line
+     * 
+     * @return the value of the most recently tokenized line, or null if there was nothing after the tag. If the value is a pointer
+     *         to another record, the canonical instance of it is returned.
+     */
+    String getValue() {
+        if (valueStart < 0) {
+            return null;
+        }
+        if (isPointerValue()) {
+            return symbols.get(line, valueStart, line.length());
+        }
+        return line.substring(valueStart);
+    }
+
+    /**
+     * Get the xref of the most recently tokenized line
+     * 
+     * @return the canonical instance of the xref of the most recently tokenized line, or null if it had no xref
+     */
+    String getXref() {
+        if (xrefStart < 0) {
+            return null;
+        }
+        return symbols.get(line, xrefStart, xrefEnd);
+    }
+
+    /**
+     * Is the value of the most recently tokenized line a pointer to another record - that is, does it begin and end with an @ sign
+     * and contain no spaces?
+     * 
+     * @return true if and only if the value is a pointer to another record (which is false if there is no value)
+     */
+    boolean isPointerValue() {
+        int len = line.length();
+        if (valueStart < 0 || len - valueStart < 3 || line.charAt(valueStart) != '@' || line.charAt(len - 1) != '@') {
+            return false;
+        }
+        return line.indexOf(' ', valueStart) < 0;
+    }
+
+    /**
+     * Find the pieces of the supplied line
+     * 
+     * @param lineToParse
+     *            a single line of text from the GEDCOM file
+     * @param lineNum
+     *            which line in the file this is
+     * @throws GedcomParserException
+     *             if the line of text cannot be split into pieces
+     */
+    void tokenize(String lineToParse, int lineNum) throws GedcomParserException {
+        line = lineToParse;
+        int len = line.length();
+        if (len < 2) {
+            throw new GedcomParserException("Line " + lineNum
+                    + " does not begin with a 1 or 2 digit number for the level followed by a space: " + line);
+        }
+
+        // Level
+        int idx;
+        if (' ' == line.charAt(1)) {
+            // Second character in line is a space, so assume a 1-digit level
+            level = Character.getNumericValue(line.charAt(0));
+            idx = 2;
+        } else {
+            // Second character in line is not a space, so assume a 2-digit level
+            level = Character.getNumericValue(line.charAt(0)) * 10 + Character.getNumericValue(line.charAt(1));
+            idx = 3;
+        }
+        if (level < 0 || level > 99) {
+            throw new GedcomParserException("Line " + lineNum
+                    + " does not begin with a 1 or 2 digit number for the level followed by a space: " + line);
+        }
+
+        // Xref, if any
+        xrefStart = -1;
+        if (idx < len && '@' == line.charAt(idx)) {
+            xrefStart = idx;
+            while (idx < len && line.charAt(idx) != ' ') {
+                idx++;
+            }
+            xrefEnd = idx;
+            if (line.charAt(xrefEnd - 1) != '@') {
+                throw new GedcomParserException("XRef ID begins with @ sign but is not terminated with one on line " + lineNum);
+            }
+            idx++;
+        }
+
+        // Tag
+        tagStart = idx;
+        while (idx < len && line.charAt(idx) != ' ') {
+            idx++;
+        }
+        tagEnd = idx;
+        if (tagEnd <= tagStart) {
+            throw new GedcomParserException("All GEDCOM lines are required to have a tag value, but no tag could be found on line "
+                    + lineNum);
+        }
+
+        // Value - everything after the space following the tag
+        valueStart = idx < len ? idx + 1 : -1;
+    }
+
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.gedcom4j.parser.event.LoadMetricsListener;
+
+/**
+ * <p>
+ * Measurements of a single load by a {@link GedcomParser}: how much was read, how many lines, nodes and records were made of it,
+ * how well repeated values were shared, and how much wall and CPU time was spent in each {@link LoadPhase}.
+ * </p>
+ * <p>
+ * Metrics are only collected for loads that have a {@link LoadMetricsListener} registered when they start (see
+ * {@link GedcomParser#registerLoadMetricsObserver(LoadMetricsListener)}), because timing each phase adds to the time a load takes -
+ * noticeably for a sequential load, where decoding and tree building are timed line by line. The times for a phase are added up
+ * over all the threads that worked on it, so when the file is decoded, built or parsed on more than one thread they can add up to
+ * more than {@link #getElapsedNanos()}. Where one thread alternates between phases line by line, its CPU time is shared out among
+ * them in proportion to their wall time, so it is an estimate.
+ * </p>
+ * 
+ * @author frizbog
+ */
+public final class LoadMetrics implements Serializable {
+
+    /**
+     * Serial Version UID
+     */
+    private static final long serialVersionUID = 7353480614542297155L;
+
+    /**
+     * Used for reading the CPU time of the current thread
+     */
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /**
+     * Whether the CPU time of the current thread can be read
+     */
+    private static final boolean CPU_TIME_MEASURED = THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+
+    /**
+     * The wall time spent in each phase, in nanoseconds, indexed by ordinal
+     */
+    private final AtomicLongArray wallNanos = new AtomicLongArray(LoadPhase.values().length);
+
+    /**
+     * The CPU time spent in each phase, in nanoseconds, indexed by ordinal
+     */
+    private final AtomicLongArray cpuNanos = new AtomicLongArray(LoadPhase.values().length);
+
+    /**
+     * The number of {@link StringTree} nodes built
+     */
+    private final AtomicLong nodesBuilt = new AtomicLong();
+
+    /**
+     * The number of records parsed, keyed by tag
+     */
+    private final ConcurrentMap<String, AtomicLong> recordCounts = new ConcurrentHashMap<>();
+
+    /**
+     * The wall clock when the load started, in nanoseconds
+     */
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * The number of bytes read from the file
+     */
+    private long bytesRead;
+
+    /**
+     * The number of lines decoded from the file
+     */
+    private long linesDecoded;
+
+    /**
+     * The number of values that were looked up to be shared
+     */
+    private long canonicalizerRequests;
+
+    /**
+     * The number of values for which a shared instance was already available
+     */
+    private long canonicalizerHits;
+
+    /**
+     * The wall time the whole load took, in nanoseconds
+     */
+    private long elapsedNanos;
+
+    /**
+     * Constructor
+     */
+    LoadMetrics() {
+        // Only made by the parser
+    }
+
+    /**
+     * Get the number of bytes read from the file
+     * 
+     * @return the number of bytes read from the file
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Get the number of values for which a shared instance was already available
+     * 
+     * @return the number of values for which a shared instance was already available
+     * @see GedcomParser#getCanonicalizerHitRate()
+     */
+    public long getCanonicalizerHits() {
+        return canonicalizerHits;
+    }
+
+    /**
+     * Get the proportion of values for which a shared instance was already available
+     * 
+     * @return the proportion of values for which a shared instance was already available, between 0 and 1
+     * @see GedcomParser#getCanonicalizerHitRate()
+     */
+    public double getCanonicalizerHitRate() {
+        return canonicalizerRequests == 0 ? 0 : (double) canonicalizerHits / canonicalizerRequests;
+    }
+
+    /**
+     * Get the number of values that were looked up to be shared
+     * 
+     * @return the number of values that were looked up to be shared
+     */
+    public long getCanonicalizerRequests() {
+        return canonicalizerRequests;
+    }
+
+    /**
+     * Get the CPU time spent in a phase, added up over all the threads that worked on it
+     * 
+     * @param phase
+     *            the phase
+     * @return the CPU time spent in the phase, in nanoseconds. Always 0 if {@link #isCpuTimeMeasured()} is false.
+     */
+    public long getCpuNanos(LoadPhase phase) {
+        return cpuNanos.get(phase.ordinal());
+    }
+
+    /**
+     * Get the wall time the whole load took
+     * 
+     * @return the wall time the whole load took, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Get the number of lines decoded from the file
+     * 
+     * @return the number of lines decoded from the file
+     */
+    public long getLinesDecoded() {
+        return linesDecoded;
+    }
+
+    /**
+     * Get the number of {@link StringTree} nodes built from the lines of the file
+     * 
+     * @return the number of nodes built
+     */
+    public long getNodesBuilt() {
+        return nodesBuilt.get();
+    }
+
+    /**
+     * Get the number of root-level records with the supplied tag that were parsed
+     * 
+     * @param tag
+     *            the tag, such as INDI or FAM
+     * @return the number of records with that tag that were parsed
+     */
+    public long getRecordCount(String tag) {
+        AtomicLong count = recordCounts.get(tag);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * Get the number of root-level records of each type that were parsed
+     * 
+     * @return the number of records parsed, keyed by tag in alphabetical order
+     */
+    public Map<String, Long> getRecordCounts() {
+        Map<String, Long> result = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> e : recordCounts.entrySet()) {
+            result.put(e.getKey(), e.getValue().get());
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Get the wall time spent in a phase, added up over all the threads that worked on it
+     * 
+     * @param phase
+     *            the phase
+     * @return the wall time spent in the phase, in nanoseconds
+     */
+    public long getWallNanos(LoadPhase phase) {
+        return wallNanos.get(phase.ordinal());
+    }
+
+    /**
+     * Whether CPU time could be measured - it can't on some platforms, or if it has been turned off for the JVM
+     * 
+     * @return true if CPU time could be measured
+     */
+    public boolean isCpuTimeMeasured() {
+        return CPU_TIME_MEASURED;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("LoadMetrics [bytesRead=").append(bytesRead).append(", linesDecoded=").append(linesDecoded).append(
+                ", nodesBuilt=").append(nodesBuilt.get()).append(", recordCounts=").append(getRecordCounts()).append(
+                        ", canonicalizerHitRate=").append(String.format(Locale.ROOT, "%.3f", getCanonicalizerHitRate()));
+        for (LoadPhase phase : LoadPhase.values()) {
+            sb.append(", ").append(phase).append(String.format(Locale.ROOT, "=%.1fms wall/%.1fms cpu", getWallNanos(phase) / 1e6,
+                    getCpuNanos(phase) / 1e6));
+        }
+        sb.append(String.format(Locale.ROOT, ", elapsed=%.1fms]", elapsedNanos / 1e6));
+        return sb.toString();
+    }
+
+    /**
+     * Get the CPU time of the current thread
+     * 
+     * @return the CPU time of the current thread in nanoseconds, or 0 if it can't be read
+     */
+    static long currentThreadCpuTime() {
+        return CPU_TIME_MEASURED ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    /**
+     * Count some nodes built
+     * 
+     * @param count
+     *            the number of nodes built
+     */
+    void addNodesBuilt(int count) {
+        nodesBuilt.addAndGet(count);
+    }
+
+    /**
+     * Count a record parsed
+     * 
+     * @param tag
+     *            the record's tag
+     */
+    void addRecord(String tag) {
+        AtomicLong count = recordCounts.get(tag);
+        if (count == null) {
+            AtomicLong newCount = new AtomicLong();
+            count = recordCounts.putIfAbsent(tag, newCount);
+            if (count == null) {
+                count = newCount;
+            }
+        }
+        count.incrementAndGet();
+    }
+
+    /**
+     * Add time spent in a phase
+     * 
+     * @param phase
+     *            the phase
+     * @param wall
+     *            the wall time spent, in nanoseconds
+     * @param cpu
+     *            the CPU time spent, in nanoseconds
+     */
+    void addTime(LoadPhase phase, long wall, long cpu) {
+        wallNanos.addAndGet(phase.ordinal(), wall);
+        cpuNanos.addAndGet(phase.ordinal(), cpu);
+    }
+
+    /**
+     * Record the totals for the load once it has finished
+     * 
+     * @param bytes
+     *            the number of bytes read from the file
+     * @param lines
+     *            the number of lines decoded from the file
+     * @param requests
+     *            the number of values that were looked up to be shared
+     * @param hits
+     *            the number of values for which a shared instance was already available
+     */
+    void finish(long bytes, long lines, long requests, long hits) {
+        bytesRead = bytes;
+        linesDecoded = lines;
+        canonicalizerRequests = requests;
+        canonicalizerHits = hits;
+        elapsedNanos = System.nanoTime() - startNanos;
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+/**
+ * The phases of loading a file that {@link LoadMetrics} keeps time for, in the order each line of the file goes through them
+ * 
+ * @author frizbog
+ */
+public enum LoadPhase {
+
+    /**
+     * Reading bytes from the file and decoding them into lines of text
+     */
+    DECODE,
+
+    /**
+     * Building the lines of each root-level record into a {@link StringTree}
+     */
+    TREE_BUILDING,
+
+    /**
+     * Parsing each record's {@link StringTree} into the object model
+     */
+    RECORD_PARSING,
+
+    /**
+     * Putting the records that were parsed in parallel into the {@link org.gedcom4j.model.Gedcom}, and pointing the references
+     * between them at the records themselves. Only a phase of its own when {@link GedcomParser#isParallelParsing()} is set -
+     * otherwise references are resolved as each record is parsed.
+     */
+    XREF_RESOLUTION;
+
+}
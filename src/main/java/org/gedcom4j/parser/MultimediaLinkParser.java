@@ -104,19 +104,14 @@ class MultimediaLinkParser extends AbstractParser<List<MultimediaReference>> {
         }
         if (g55()) {
             if (fileTagCount > 1) {
-                addWarning("GEDCOM version is 5.5, but multiple files referenced in multimedia reference on line " + obje
-                        .getLineNum() + ", which is only allowed in 5.5.1. "
-                        + "Data will be loaded, but cannot be written back out unless the GEDCOM version is changed to 5.5.1");
+                addDiagnostic(DiagnosticCode.MULTIPLE_FILES_IN_G55, obje.getLineNum());
             }
             if (formTagCount == 0) {
-                addWarning("GEDCOM version is 5.5, but there is not a FORM tag in the multimedia link on line " + obje.getLineNum()
-                        + ", a scenario which is only allowed in 5.5.1. "
-                        + "Data will be loaded, but cannot be written back out unless the GEDCOM version is changed to 5.5.1");
+                addDiagnostic(DiagnosticCode.NO_FORM_IN_G55, obje.getLineNum());
             }
         }
         if (formTagCount > 1) {
-            addError("Multiple FORM tags were found for a multimedia file reference at line " + obje.getLineNum()
-                    + " - this is not compliant with any GEDCOM standard - data not loaded");
+            addDiagnostic(DiagnosticCode.MULTIPLE_FORM_TAGS, obje.getLineNum());
             return;
         }
 
@@ -183,9 +178,7 @@ class MultimediaLinkParser extends AbstractParser<List<MultimediaReference>> {
                     List<NoteStructure> notes = m.getNoteStructures(true);
                     new NoteStructureListParser(gedcomParser, ch, notes).parse();
                     if (!g55()) {
-                        addWarning("Gedcom version was 5.5.1, but a NOTE was found on a multimedia link on line " + ch.getLineNum()
-                                + ", which is no longer supported. "
-                                + "Data will be loaded, but cannot be written back out unless the GEDCOM version is changed to 5.5");
+                        addDiagnostic(DiagnosticCode.NOTE_ON_MULTIMEDIA_LINK_IN_G551, ch.getLineNum());
                     }
                 } else {
                     unknownTag(ch, m);
@@ -75,16 +75,12 @@ class MultimediaParser extends AbstractParser<Multimedia> {
         }
         if (fileTagCount > 0) {
             if (g55()) {
-                addWarning("GEDCOM version was 5.5, but a 5.5.1-style multimedia record was found at line " + stringTree
-                        .getLineNum() + ". "
-                        + "Data will be loaded, but might have problems being written until the version is for the data is changed to 5.5.1");
+                addDiagnostic(DiagnosticCode.G551_MULTIMEDIA_IN_G55, stringTree.getLineNum());
             }
             loadMultimediaRecord551(stringTree);
         } else {
             if (!g55()) {
-                addWarning("GEDCOM version is 5.5.1, but a 5.5-style multimedia record was found at line " + stringTree.getLineNum()
-                        + ". "
-                        + "Data will be loaded, but might have problems being written until the version is for the data is changed to 5.5.1");
+                addDiagnostic(DiagnosticCode.G55_MULTIMEDIA_IN_G551, stringTree.getLineNum());
             }
             loadMultimediaRecord55(stringTree);
         }
@@ -100,7 +96,7 @@ class MultimediaParser extends AbstractParser<Multimedia> {
      */
     private void loadMultimediaRecord55(StringTree obje) {
         if (obje.getChildren() == null) {
-            addError("Root level multimedia record at line " + obje.getLineNum() + " had no child records");
+            addDiagnostic(DiagnosticCode.MULTIMEDIA_WITHOUT_CHILDREN, obje.getLineNum());
         } else {
             for (StringTree ch : obje.getChildren()) {
                 if (Tag.FORM.equalsText(ch.getTag())) {
@@ -116,16 +112,14 @@ class MultimediaParser extends AbstractParser<Multimedia> {
                 } else if (Tag.BLOB.equalsText(ch.getTag())) {
                     loadMultiLinesOfText(ch, loadInto.getBlob(true), loadInto);
                     if (!g55()) {
-                        addWarning("GEDCOM version is 5.5.1, but a BLOB tag was found at line " + ch.getLineNum() + ". "
-                                + "Data will be loaded but will not be writeable unless GEDCOM version is changed to 5.5.1");
+                        addDiagnostic(DiagnosticCode.BLOB_IN_G551, ch.getLineNum());
                     }
                 } else if (Tag.OBJECT_MULTIMEDIA.equalsText(ch.getTag())) {
                     List<MultimediaReference> continuedObjects = new ArrayList<>();
                     new MultimediaLinkParser(gedcomParser, ch, continuedObjects).parse();
                     loadInto.setContinuedObject(continuedObjects.get(0));
                     if (!g55()) {
-                        addWarning("GEDCOM version is 5.5.1, but a chained OBJE tag was found at line " + ch.getLineNum() + ". "
-                                + "Data will be loaded but will not be writeable unless GEDCOM version is changed to 5.5.1");
+                        addDiagnostic(DiagnosticCode.CHAINED_OBJE_IN_G551, ch.getLineNum());
                     }
                 } else if (Tag.REFERENCE.equalsText(ch.getTag())) {
                     UserReference u = new UserReference();
@@ -58,8 +58,7 @@ class NoteRecordParser extends AbstractParser<NoteRecord> {
     @Override
     void parse() {
         if (stringTree.getXref() != null && !stringTree.getXref().isEmpty() && referencesAnotherNode(stringTree)) {
-            addWarning("NOTE line has both an XREF_ID (" + stringTree.getXref() + ") and SUBMITTER_TEXT (" + stringTree.getValue()
-                    + ") value between @ signs - " + "treating SUBMITTER_TEXT as string, not a cross-reference");
+            addDiagnostic(DiagnosticCode.NOTE_XREF_AND_TEXT, stringTree.getLineNum(), stringTree.getXref(), stringTree.getValue());
         }
         loadInto.getLines(true).add(stringTree.getValue());
         if (stringTree.getChildren() != null) {
@@ -28,7 +28,6 @@ package org.gedcom4j.parser;
 
 import java.util.List;
 
-import org.gedcom4j.model.NoteRecord;
 import org.gedcom4j.model.NoteStructure;
 import org.gedcom4j.model.StringTree;
 
@@ -61,7 +60,7 @@ class NoteStructureListParser extends AbstractParser<List<NoteStructure>> {
     void parse() {
         NoteStructure noteStructure = new NoteStructure();
         if (stringTree.getXref() == null && referencesAnotherNode(stringTree)) {
-            noteStructure.setNoteReference(getNote(stringTree.getValue()));
+            noteStructure.setNoteReference(getNoteRecord(stringTree.getValue()));
             loadInto.add(noteStructure);
             remainingChildrenAreCustomTags(stringTree, noteStructure);
             return;
@@ -91,21 +90,4 @@ class NoteStructureListParser extends AbstractParser<List<NoteStructure>> {
         }
     }
 
-    /**
-     * Get a {@link NoteRecord} by its xref, adding it to the gedcom collection of notes if needed.
-     * 
-     * @param xref
-     *            the xref of the note
-     * @return the note with the specified xref
-     */
-    private NoteRecord getNote(String xref) {
-        NoteRecord note;
-        note = gedcomParser.getGedcom().getNotes().get(xref);
-        if (note == null) {
-            note = new NoteRecord(xref);
-            gedcomParser.getGedcom().getNotes().put(xref, note);
-        }
-        return note;
-    }
-
 }
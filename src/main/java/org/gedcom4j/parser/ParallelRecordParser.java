@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.gedcom4j.Options;
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.exception.ParserCancelledException;
+import org.gedcom4j.model.StringTree;
+
+/**
+ * <p>
+ * Parses root-level records for a {@link GedcomParser} in parallel on a {@link ForkJoinPool}. Records are handed over one at a time
+ * in file order with {@link #add(StringTree)}, and each is parsed as its own task, while the caller goes on reading and building
+ * the next records.
+ * </p>
+ * <p>
+ * Individuals, families, sources, and the other cross-referenceable records only affect each other through the objects they look
+ * up by xref, so while this class is in use, the parser looks those up in a thread-safe {@link XrefRegistry} rather than the maps
+ * in the {@link org.gedcom4j.model.Gedcom}. The registry is resolved into the {@link org.gedcom4j.model.Gedcom} by
+ * {@link #finish()}.
+ * </p>
+ * <p>
+ * The parser's line count belongs to the thread reading the file, and is never read or written by the tasks on the pool. Anything
+ * a task reports about a line gets the line number from the record's own {@link StringTree}.
+ * </p>
+ * <p>
+ * A few things have to be done in file order to get the same results as a sequential load, so they act as barriers - all the
+ * records before them are finished before they are parsed on the calling thread, and the records after them are not started until
+ * they're done:
+ * </p>
+ * <ul>
+ * <li>The header, submission and trailer records, which change the {@link org.gedcom4j.model.Gedcom} directly, and which the other
+ * parsers consult (for example, for the GEDCOM version)</li>
+ * <li>Unrecognized root-level records, whose custom facts are added to the {@link org.gedcom4j.model.Gedcom} in order</li>
+ * <li>A record with the same tag and xref as one already in flight, since both load into the same object</li>
+ * </ul>
+ * 
+ * @author frizbog
+ */
+final class ParallelRecordParser {
+
+    /**
+     * The most records that can be waiting to be parsed or in the middle of being parsed. When there are this many, the caller
+     * waits for them all to finish before handing over any more, so the trees don't pile up in memory.
+     */
+    private static final int MAX_IN_FLIGHT = 4096;
+
+    /**
+     * The parser we're parsing records for
+     */
+    private final GedcomParser parser;
+
+    /**
+     * The pool to parse records on
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The registry of records by xref
+     */
+    private final XrefRegistry registry = new XrefRegistry();
+
+    /**
+     * The tasks for the records handed over since the last barrier
+     */
+    private final List<Future<Void>> inFlight = new ArrayList<>();
+
+    /**
+     * The tags and xrefs of the records handed over since the last barrier
+     */
+    private final Set<String> inFlightKeys = new HashSet<>();
+
+    /**
+     * Set when the load has failed, so any records still waiting to be parsed are skipped
+     */
+    private volatile boolean abandoned = false;
+
+    /**
+     * Constructor
+     * 
+     * @param parser
+     *            the parser we're parsing records for
+     * @param pool
+     *            the pool to parse records on
+     */
+    ParallelRecordParser(GedcomParser parser, ForkJoinPool pool) {
+        this.parser = parser;
+        this.pool = pool;
+    }
+
+    /**
+     * Skip any records that haven't been parsed yet, and wait for the ones being parsed right now to finish, so nothing is still
+     * changing the object model after the load has failed
+     */
+    void abandon() {
+        abandoned = true;
+        for (Future<Void> f : inFlight) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) { // NOPMD - the load has already failed for another reason
+                // Ignore
+            }
+        }
+        inFlight.clear();
+        inFlightKeys.clear();
+    }
+
+    /**
+     * Hand over the next root-level record to be parsed
+     * 
+     * @param rootLevelItem
+     *            the root-level record
+     * @throws GedcomParserException
+     *             if this record, or any record handed over before it, can't be parsed
+     */
+    void add(final StringTree rootLevelItem) throws GedcomParserException {
+        String tag = rootLevelItem.getTag();
+        if (!isIndependentRecord(tag)) {
+            awaitInFlight();
+            parser.loadRootItem(rootLevelItem);
+            return;
+        }
+        if (inFlight.size() >= MAX_IN_FLIGHT || !inFlightKeys.add(tag + " " + rootLevelItem.getXref())) {
+            awaitInFlight();
+            inFlightKeys.add(tag + " " + rootLevelItem.getXref());
+        }
+        inFlight.add(pool.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws GedcomParserException {
+                if (!abandoned && !parser.isCancelled()) {
+                    Boolean previous = parser.bindCollectionInitialization();
+                    try {
+                        parser.loadRootItem(rootLevelItem);
+                    } finally {
+                        Options.setThreadCollectionInitializationEnabled(previous);
+                    }
+                }
+                return null;
+            }
+        }));
+    }
+
+    /**
+     * Wait for all the records handed over to be parsed, and put them all into the {@link org.gedcom4j.model.Gedcom}
+     * 
+     * @throws GedcomParserException
+     *             if any record can't be parsed
+     */
+    void finish() throws GedcomParserException {
+        awaitInFlight();
+        PhaseTimer timer = parser.createPhaseTimer();
+        timer.start();
+        registry.resolveInto(parser.getGedcom());
+        timer.stop(LoadPhase.XREF_RESOLUTION);
+        timer.flush();
+    }
+
+    /**
+     * Get the registry of records by xref
+     * 
+     * @return the registry of records by xref
+     */
+    XrefRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Wait for all the records in flight to be parsed
+     * 
+     * @throws GedcomParserException
+     *             if any of those records can't be parsed, or the load was cancelled
+     */
+    private void awaitInFlight() throws GedcomParserException {
+        try {
+            for (Future<Void> f : inFlight) {
+                f.get();
+            }
+            inFlight.clear();
+            inFlightKeys.clear();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ParserCancelledException("File load/parse was interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof GedcomParserException) {
+                throw (GedcomParserException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new GedcomParserException(cause);
+        }
+        if (parser.isCancelled()) {
+            throw new ParserCancelledException("File load/parse is cancelled");
+        }
+    }
+
+    /**
+     * Can a root-level record with the supplied tag be parsed independently of the others (apart from xref lookups)?
+     * 
+     * @param tag
+     *            the tag of the root-level record
+     * @return true if the record can be parsed independently of the others
+     */
+    private boolean isIndependentRecord(String tag) {
+        return Tag.INDIVIDUAL.equalsText(tag) || Tag.FAMILY.equalsText(tag) || Tag.SOURCE.equalsText(tag) || Tag.NOTE.equalsText(
+                tag) || Tag.REPOSITORY.equalsText(tag) || Tag.OBJECT_MULTIMEDIA.equalsText(tag) || Tag.SUBMITTER.equalsText(tag);
+    }
+
+}
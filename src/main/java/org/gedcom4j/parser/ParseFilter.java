@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * <p>
+ * Says which parts of a GEDCOM file a {@link GedcomParser} should load, so that callers that only need some of the data don't pay
+ * for building objects for the rest. Set it with {@link GedcomParser#setParseFilter(ParseFilter)}.
+ * </p>
+ * <p>
+ * A filter can restrict which root-level records are loaded (for example, only individuals and families - see
+ * {@link #keepRecords(String...)}), and can drop substructures with given tags wherever they appear inside a record (for example,
+ * all source citations and notes - see {@link #dropSubstructures(String...)}), along with custom tags (see
+ * {@link #setDropCustomTags(boolean)}). Lines that are filtered out are skipped as they are read, along with every line beneath
+ * them, so no objects are created for them at all - not even the intermediate {@link org.gedcom4j.model.StringTree} nodes.
+ * </p>
+ * <p>
+ * The header and trailer are always loaded in full, since the header says what version of GEDCOM the rest of the file is in. Note
+ * that references to records that are not loaded still produce objects for those records, with nothing but their xrefs filled in;
+ * to avoid that, drop the substructures that make the references too (for example, drop <code>SOUR</code> substructures when not
+ * keeping <code>SOUR</code> records).
+ * </p>
+ * <p>
+ * A filter should not be changed while a load that uses it is in progress.
+ * </p>
+ * 
+ * @author frizbog
+ */
+public class ParseFilter {
+
+    /**
+     * The tags of the root-level records to load, or null to load all of them
+     */
+    private Set<String> keptRecordTags;
+
+    /**
+     * The tags of the substructures to drop
+     */
+    private final Set<String> droppedSubstructureTags = new HashSet<>();
+
+    /**
+     * Should custom tags (those beginning with an underscore) be dropped, along with everything beneath them?
+     */
+    private boolean dropCustomTags;
+
+    /**
+     * Drop the substructures with the supplied tags, along with everything beneath them, wherever they appear inside a record
+     * (other than the header). May be called more than once to drop more.
+     * 
+     * @param tags
+     *            the tags of the substructures to drop - for example, <code>"SOUR"</code>, <code>"NOTE"</code>,
+     *            <code>"OBJE"</code>
+     */
+    public void dropSubstructures(String... tags) {
+        Collections.addAll(droppedSubstructureTags, tags);
+    }
+
+    /**
+     * Get the tags of the substructures being dropped
+     * 
+     * @return the tags of the substructures being dropped. Not modifiable.
+     */
+    public Set<String> getDroppedSubstructureTags() {
+        return Collections.unmodifiableSet(droppedSubstructureTags);
+    }
+
+    /**
+     * Get the tags of the root-level records being loaded
+     * 
+     * @return the tags of the root-level records being loaded (not counting the header and trailer, which always are), or null if
+     *         all records are being loaded. Not modifiable.
+     */
+    public Set<String> getKeptRecordTags() {
+        return keptRecordTags == null ? null : Collections.unmodifiableSet(keptRecordTags);
+    }
+
+    /**
+     * Are custom tags (those beginning with an underscore) being dropped, along with everything beneath them?
+     * 
+     * @return true if custom tags are being dropped
+     */
+    public boolean isDropCustomTags() {
+        return dropCustomTags;
+    }
+
+    /**
+     * Load only the root-level records with the supplied tags, plus the header and trailer. May be called more than once to keep
+     * more.
+     * 
+     * @param tags
+     *            the tags of the root-level records to keep - for example, <code>"INDI"</code>, <code>"FAM"</code>
+     */
+    public void keepRecords(String... tags) {
+        if (keptRecordTags == null) {
+            keptRecordTags = new HashSet<>();
+        }
+        Collections.addAll(keptRecordTags, tags);
+    }
+
+    /**
+     * Set whether custom tags (those beginning with an underscore) should be dropped, along with everything beneath them. Unlike
+     * {@link GedcomParser#setIgnoreCustomTags(boolean)}, this drops them as they are read, so their string trees are never built
+     * either.
+     * 
+     * @param dropCustomTags
+     *            true if custom tags should be dropped
+     */
+    public void setDropCustomTags(boolean dropCustomTags) {
+        this.dropCustomTags = dropCustomTags;
+    }
+
+    /**
+     * Should a line with the supplied level and tag be skipped, along with every line beneath it?
+     * 
+     * @param level
+     *            the level of the line
+     * @param tag
+     *            the tag of the line
+     * @return true if the line should be skipped
+     */
+    boolean isSkipped(int level, String tag) {
+        if (dropCustomTags && tag.length() > 0 && tag.charAt(0) == '_') {
+            return true;
+        }
+        if (level == 0) {
+            return keptRecordTags != null && !keptRecordTags.contains(tag) && !Tag.HEADER.equalsText(tag) && !Tag.TRAILER
+                    .equalsText(tag);
+        }
+        return droppedSubstructureTags.contains(tag);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+/**
+ * <p>
+ * Keeps time for the {@link LoadPhase}s worked on by one thread, and adds it to a {@link LoadMetrics} when flushed. Not
+ * thread-safe - each thread uses its own.
+ * </p>
+ * <p>
+ * Wall time is measured each time a phase is started and stopped. Reading a thread's CPU time costs several times as much as
+ * reading the wall clock - more than decoding a typical line - so it is only read at the start of the first phase after a flush and
+ * at the flush, and the CPU time in between is shared out among the phases in proportion to the wall time of each.
+ * </p>
+ * 
+ * @author frizbog
+ */
+final class PhaseTimer {
+
+    /**
+     * The metrics to add the time to, or null if no metrics are being collected and this timer does nothing
+     */
+    private final LoadMetrics metrics;
+
+    /**
+     * The wall time spent in each phase since the last flush, in nanoseconds, indexed by ordinal
+     */
+    private final long[] wallNanos = new long[LoadPhase.values().length];
+
+    /**
+     * The CPU time of this thread when the first phase since the last flush was started, or -1 if none has been
+     */
+    private long cpuStart = -1;
+
+    /**
+     * The wall time when the current phase was started
+     */
+    private long wallStart;
+
+    /**
+     * Constructor
+     * 
+     * @param metrics
+     *            the metrics to add the time to, or null if no metrics are being collected, in which case the timer does nothing
+     */
+    PhaseTimer(LoadMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Add the time kept since the last flush to the metrics, and start afresh
+     */
+    void flush() {
+        if (metrics == null || cpuStart < 0) {
+            return;
+        }
+        long cpuNanos = LoadMetrics.currentThreadCpuTime() - cpuStart;
+        long totalWallNanos = 0;
+        for (long w : wallNanos) {
+            totalWallNanos += w;
+        }
+        for (LoadPhase phase : LoadPhase.values()) {
+            long w = wallNanos[phase.ordinal()];
+            if (w > 0) {
+                metrics.addTime(phase, w, (long) ((double) cpuNanos * w / totalWallNanos));
+                wallNanos[phase.ordinal()] = 0;
+            }
+        }
+        cpuStart = -1;
+    }
+
+    /**
+     * Start timing a phase
+     */
+    void start() {
+        if (metrics == null) {
+            return;
+        }
+        if (cpuStart < 0) {
+            cpuStart = LoadMetrics.currentThreadCpuTime();
+        }
+        wallStart = System.nanoTime();
+    }
+
+    /**
+     * Count the time since {@link #start()}, or since the last time this was called if that was more recent, towards the supplied
+     * phase. Timing carries on from here, so a thread going straight from one phase to the next only needs to call this in
+     * between.
+     * 
+     * @param phase
+     *            the phase the time was spent in
+     */
+    void stop(LoadPhase phase) {
+        if (metrics != null) {
+            long now = System.nanoTime();
+            wallNanos[phase.ordinal()] += now - wallStart;
+            wallStart = now;
+        }
+    }
+
+}
@@ -0,0 +1,464 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.exception.ParserCancelledException;
+import org.gedcom4j.io.reader.GedcomFileReader;
+import org.gedcom4j.model.StringTree;
+import org.gedcom4j.parser.event.ParseProgressEvent;
+
+/**
+ * <p>
+ * Loads a file for a {@link GedcomParser} as a three-stage pipeline, with each stage on its own thread:
+ * </p>
+ * <ol>
+ * <li>Decoding - a background thread reads and decodes lines with the {@link GedcomFileReader}</li>
+ * <li>Tree building - a background thread assembles the lines into a {@link StringTree} for each root-level record with a
+ * {@link StringTreeBuilder}</li>
+ * <li>Record parsing - the thread that called {@link #load()} parses each record into the object model</li>
+ * </ol>
+ * <p>
+ * The stages hand their work to each other in batches through bounded queues, so a fast stage blocks (rather than using up memory)
+ * when the stage after it falls behind. The records are parsed in the same order as they appear in the file, so the result is the
+ * same as a sequential load. File progress events are sent from the decoding thread and parse progress events from the calling
+ * thread, with the same line counts as a sequential load.
+ * </p>
+ * <p>
+ * Besides the queues, the stages share some of the parser's state, all of which is safe to use from several threads: the cancelled
+ * flag, the diagnostics, and the list of canonicalizers whose statistics are reported in the load metrics. The symbol table is only
+ * used by the tree building stage, which creates the {@link StringTreeBuilder}. Each stage counts lines for itself - the tree
+ * building stage passes its count along with each batch of records, and the parser's line number is only updated by the calling
+ * thread.
+ * </p>
+ * <p>
+ * If any stage fails - including because the load was cancelled - the other stages stop, both background threads are finished
+ * before {@link #load()} returns, and the failure is thrown from {@link #load()}.
+ * </p>
+ * 
+ * @author frizbog
+ */
+final class PipelinedLoader {
+
+    /**
+     * A batch of root-level records, with the number of lines in the file up to the end of the last record in the batch
+     */
+    private static final class RecordBatch {
+        /**
+         * The root-level records
+         */
+        private final List<StringTree> records;
+
+        /**
+         * The number of lines in the file up to the end of the last record in the batch
+         */
+        private final int lastLineNum;
+
+        /**
+         * Constructor
+         * 
+         * @param records
+         *            the root-level records
+         * @param lastLineNum
+         *            the number of lines in the file up to the end of the last record in the batch
+         */
+        RecordBatch(List<StringTree> records, int lastLineNum) {
+            this.records = records;
+            this.lastLineNum = lastLineNum;
+        }
+    }
+
+    /**
+     * The number of batches each queue can hold before the stage putting work into it has to wait
+     */
+    private static final int QUEUE_CAPACITY = 16;
+
+    /**
+     * The number of lines the decoding stage hands over at a time
+     */
+    private static final int LINES_PER_BATCH = 1024;
+
+    /**
+     * The number of records the tree building stage hands over at a time
+     */
+    private static final int RECORDS_PER_BATCH = 128;
+
+    /**
+     * How long, in milliseconds, a stage waits on a queue before checking whether another stage has failed
+     */
+    private static final long WAIT_MILLIS = 100;
+
+    /**
+     * Marks the end of the lines in the file
+     */
+    private static final List<String> NO_MORE_LINES = Collections.unmodifiableList(new ArrayList<String>());
+
+    /**
+     * Marks the end of the records in the file
+     */
+    private static final RecordBatch NO_MORE_RECORDS = new RecordBatch(Collections.<StringTree> emptyList(), 0);
+
+    /**
+     * The parser we're loading for
+     */
+    private final GedcomParser parser;
+
+    /**
+     * The reader for the file being loaded
+     */
+    private final GedcomFileReader reader;
+
+    /**
+     * The number of lines the parser had already read when the load started
+     */
+    private final int linesBefore;
+
+    /**
+     * Lines decoded and waiting to be built into trees
+     */
+    private final BlockingQueue<List<String>> lines = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    /**
+     * Records built and waiting to be parsed
+     */
+    private final BlockingQueue<RecordBatch> records = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    /**
+     * The first thing to go wrong in any stage. Once this is set, all the stages stop.
+     */
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * Constructor
+     * 
+     * @param parser
+     *            the parser we're loading for
+     * @param reader
+     *            the reader for the file being loaded
+     */
+    PipelinedLoader(GedcomParser parser, GedcomFileReader reader) {
+        this.parser = parser;
+        this.reader = reader;
+        linesBefore = parser.getLineNum();
+    }
+
+    /**
+     * Run the pipeline to load the file, and wait for it to finish
+     * 
+     * @throws IOException
+     *             if there is a problem reading the data from the reader
+     * @throws GedcomParserException
+     *             if there is an error with parsing the data from the stream, or if the load was cancelled
+     */
+    void load() throws IOException, GedcomParserException {
+        Thread decoder = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                parser.bindCollectionInitialization();
+                try {
+                    decodeLines();
+                } catch (Throwable t) { // NOPMD - anything that goes wrong has to get back to the calling thread
+                    fail(t);
+                }
+            }
+        }, "gedcom4j-decoder");
+        Thread treeBuilder = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                parser.bindCollectionInitialization();
+                try {
+                    buildTrees();
+                } catch (Throwable t) { // NOPMD - anything that goes wrong has to get back to the calling thread
+                    fail(t);
+                }
+            }
+        }, "gedcom4j-tree-builder");
+        decoder.setDaemon(true);
+        treeBuilder.setDaemon(true);
+        decoder.start();
+        treeBuilder.start();
+        try {
+            parseRecords();
+        } catch (Throwable t) { // NOPMD - the background stages have to be stopped no matter what went wrong
+            fail(t);
+        }
+        joinQuietly(decoder);
+        joinQuietly(treeBuilder);
+        rethrowFailure();
+    }
+
+    /**
+     * The tree building stage. Builds the lines into a {@link StringTree} per root-level record, exactly as a sequential load
+     * does.
+     * 
+     * @throws GedcomParserException
+     *             if the lines can't be built into trees, or the load was cancelled
+     * @throws InterruptedException
+     *             if the thread is interrupted while waiting on a queue
+     */
+    private void buildTrees() throws GedcomParserException, InterruptedException {
+        int lineNum = linesBefore;
+        StringTreeBuilder stringTreeBuilder = new StringTreeBuilder(parser, parser.getSymbolTable(), lineNum);
+        PhaseTimer timer = parser.createPhaseTimer();
+        try {
+            List<StringTree> batch = new ArrayList<>(RECORDS_PER_BATCH);
+            List<String> lineBatch = take(lines);
+            while (lineBatch != null && lineBatch != NO_MORE_LINES) {
+                timer.start();
+                for (String line : lineBatch) {
+                    if (line.charAt(0) == '0') {
+                        // We've hit the start of the next root node
+                        StringTree rootLevelItem = parser.getRootLevelItem(stringTreeBuilder);
+                        if (rootLevelItem != null) {
+                            batch.add(rootLevelItem);
+                            stringTreeBuilder.reset();
+                        }
+                        if (batch.size() >= RECORDS_PER_BATCH) {
+                            timer.stop(LoadPhase.TREE_BUILDING);
+                            if (!put(records, new RecordBatch(batch, lineNum))) {
+                                return;
+                            }
+                            timer.start();
+                            batch = new ArrayList<>(RECORDS_PER_BATCH);
+                        }
+                    }
+                    lineNum++;
+                    stringTreeBuilder.appendLine(line);
+                }
+                timer.stop(LoadPhase.TREE_BUILDING);
+                if (parser.isCancelled()) {
+                    throw new ParserCancelledException("File load/parse is cancelled");
+                }
+                lineBatch = take(lines);
+            }
+            if (lineBatch == null) {
+                // Another stage failed
+                return;
+            }
+            timer.start();
+            StringTree rootLevelItem = parser.getRootLevelItem(stringTreeBuilder);
+            timer.stop(LoadPhase.TREE_BUILDING);
+            if (rootLevelItem != null) {
+                batch.add(rootLevelItem);
+            }
+            if (put(records, new RecordBatch(batch, lineNum))) {
+                put(records, NO_MORE_RECORDS);
+            }
+        } finally {
+            timer.flush();
+        }
+    }
+
+    /**
+     * The decoding stage. Reads the lines from the file and hands them over in batches.
+     * 
+     * @throws IOException
+     *             if there is a problem reading the data from the reader
+     * @throws GedcomParserException
+     *             if the data can't be read, or the load was cancelled
+     * @throws InterruptedException
+     *             if the thread is interrupted while waiting on a queue
+     */
+    private void decodeLines() throws IOException, GedcomParserException, InterruptedException {
+        PhaseTimer timer = parser.createPhaseTimer();
+        try {
+            List<String> batch = new ArrayList<>(LINES_PER_BATCH);
+            timer.start();
+            String line = reader.nextLine();
+            while (line != null) {
+                batch.add(line);
+                if (batch.size() >= LINES_PER_BATCH) {
+                    timer.stop(LoadPhase.DECODE);
+                    if (!put(lines, batch)) {
+                        return;
+                    }
+                    timer.start();
+                    batch = new ArrayList<>(LINES_PER_BATCH);
+                }
+                line = reader.nextLine();
+            }
+            timer.stop(LoadPhase.DECODE);
+            if (!batch.isEmpty() && !put(lines, batch)) {
+                return;
+            }
+            put(lines, NO_MORE_LINES);
+        } finally {
+            timer.flush();
+        }
+    }
+
+    /**
+     * Record a failure in one of the stages, which tells all the other stages to stop. Only the first failure is kept.
+     * 
+     * @param t
+     *            the failure
+     */
+    private void fail(Throwable t) {
+        failure.compareAndSet(null, t);
+    }
+
+    /**
+     * Wait for a background stage to finish
+     * 
+     * @param t
+     *            the thread running the stage
+     */
+    private void joinQuietly(Thread t) {
+        boolean interrupted = false;
+        while (t.isAlive()) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+                fail(new ParserCancelledException("File load/parse was interrupted", e));
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The record parsing stage. Parses each record into the object model, and sends parse progress events for the same line
+     * numbers as a sequential load would.
+     * 
+     * @throws GedcomParserException
+     *             if a record can't be parsed, or the load was cancelled
+     * @throws InterruptedException
+     *             if the thread is interrupted while waiting on a queue
+     */
+    private void parseRecords() throws GedcomParserException, InterruptedException {
+        int notificationRate = parser.getParseNotificationRate();
+        int lastNotifiedLineNum = 0;
+        PhaseTimer timer = parser.createPhaseTimer();
+        parser.setThreadPhaseTimer(timer);
+        try {
+            RecordBatch batch = take(records);
+            while (batch != null && batch != NO_MORE_RECORDS) {
+                for (StringTree rootLevelItem : batch.records) {
+                    parser.handleRootItem(rootLevelItem);
+                    if (parser.isCancelled()) {
+                        throw new ParserCancelledException("File load/parse is cancelled");
+                    }
+                }
+                parser.setLineNum(batch.lastLineNum);
+                while (lastNotifiedLineNum + notificationRate <= batch.lastLineNum) {
+                    lastNotifiedLineNum += notificationRate;
+                    parser.notifyParseObservers(new ParseProgressEvent(parser, parser.getGedcom(), false, lastNotifiedLineNum));
+                }
+                batch = take(records);
+            }
+        } finally {
+            parser.setThreadPhaseTimer(null);
+            timer.flush();
+        }
+    }
+
+    /**
+     * Put a batch of work on a queue, waiting for room if need be
+     * 
+     * @param queue
+     *            the queue
+     * @param batch
+     *            the batch of work
+     * @return true if the batch was put on the queue, or false if another stage failed and this stage should stop
+     * @throws InterruptedException
+     *             if the thread is interrupted while waiting
+     * @param <T>
+     *            the type of batch
+     */
+    private <T> boolean put(BlockingQueue<T> queue, T batch) throws InterruptedException {
+        while (failure.get() == null) {
+            if (queue.offer(batch, WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Throw whatever went wrong in whichever stage failed first, if anything did
+     * 
+     * @throws IOException
+     *             if reading the file failed
+     * @throws GedcomParserException
+     *             if parsing the file failed or was cancelled
+     */
+    private void rethrowFailure() throws IOException, GedcomParserException {
+        Throwable t = failure.get();
+        if (t == null) {
+            return;
+        }
+        if (t instanceof IOException) {
+            throw (IOException) t;
+        }
+        if (t instanceof GedcomParserException) {
+            throw (GedcomParserException) t;
+        }
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        if (t instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+            throw new ParserCancelledException("File load/parse was interrupted", t);
+        }
+        throw new GedcomParserException(t);
+    }
+
+    /**
+     * Take the next batch of work from a queue, waiting for one if need be
+     * 
+     * @param queue
+     *            the queue
+     * @return the next batch of work, or null if another stage failed and this stage should stop
+     * @throws InterruptedException
+     *             if the thread is interrupted while waiting
+     * @param <T>
+     *            the type of batch
+     */
+    private <T> T take(BlockingQueue<T> queue) throws InterruptedException {
+        while (failure.get() == null) {
+            T batch = queue.poll(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            if (batch != null) {
+                return batch;
+            }
+        }
+        return null;
+    }
+}
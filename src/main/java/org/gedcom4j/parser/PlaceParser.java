@@ -75,9 +75,7 @@ class PlaceParser extends AbstractParser<Place> {
                     loadInto.setPlaceName(loadInto.getPlaceName() + "\n" + (ch.getValue() == null ? "" : ch.getValue()));
                 } else if (Tag.ROMANIZED.equalsText(ch.getTag())) {
                     if (g55()) {
-                        addWarning("GEDCOM version is 5.5 but a romanized variation was specified on a place on line " + ch
-                                .getLineNum() + ", which is a GEDCOM 5.5.1 feature."
-                                + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        addDiagnostic(DiagnosticCode.G551_FEATURE_IN_G55, ch.getLineNum(), "a romanized variation", "on a place", "", "");
                     }
                     AbstractNameVariation nv = new PlaceNameVariation();
                     loadInto.getRomanized(true).add(nv);
@@ -93,9 +91,7 @@ class PlaceParser extends AbstractParser<Place> {
                     }
                 } else if (Tag.PHONETIC.equalsText(ch.getTag())) {
                     if (g55()) {
-                        addWarning("GEDCOM version is 5.5 but a phonetic variation was specified on a place on line " + ch
-                                .getLineNum() + ", which is a GEDCOM 5.5.1 feature."
-                                + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        addDiagnostic(DiagnosticCode.G551_FEATURE_IN_G55, ch.getLineNum(), "a phonetic variation", "on a place", "", "");
                     }
                     AbstractNameVariation nv = new PlaceNameVariation();
                     loadInto.getPhonetic(true).add(nv);
@@ -111,9 +107,7 @@ class PlaceParser extends AbstractParser<Place> {
                     }
                 } else if (Tag.MAP.equalsText(ch.getTag())) {
                     if (g55()) {
-                        addWarning("GEDCOM version is 5.5 but a map coordinate was specified on a place on line " + ch.getLineNum()
-                                + ", which is a GEDCOM 5.5.1 feature."
-                                + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        addDiagnostic(DiagnosticCode.G551_FEATURE_IN_G55, ch.getLineNum(), "a map coordinate", "on a place", "", "");
                     }
                     if (ch.getChildren() != null) {
                         for (StringTree gch : ch.getChildren()) {
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import org.gedcom4j.model.ModelElement;
+
+/**
+ * <p>
+ * Interface for receiving the records in a GEDCOM file one at a time, as {@link GedcomParser#stream(String, RecordHandler)} parses
+ * them, instead of having them all loaded into a {@link org.gedcom4j.model.Gedcom}.
+ * </p>
+ * <p>
+ * Each record is one of {@link org.gedcom4j.model.Header}, {@link org.gedcom4j.model.Submitter},
+ * {@link org.gedcom4j.model.Submission}, {@link org.gedcom4j.model.Individual}, {@link org.gedcom4j.model.Family},
+ * {@link org.gedcom4j.model.Source}, {@link org.gedcom4j.model.Repository}, {@link org.gedcom4j.model.Multimedia},
+ * {@link org.gedcom4j.model.NoteRecord}, {@link org.gedcom4j.model.Trailer}, or a {@link org.gedcom4j.model.CustomFact} for a
+ * custom root-level tag. Records are fully parsed, but the other records they refer to are not resolved - a reference to another
+ * record (a family's husband, an individual's sources, and so on) is an object with nothing but the xref filled in. The parser
+ * keeps no reference to a record once it has been handed over, so records the handler doesn't keep can be garbage collected.
+ * </p>
+ * 
+ * @author frizbog
+ */
+public interface RecordHandler {
+    /**
+     * A record has been parsed
+     * 
+     * @param record
+     *            the record
+     */
+    void handleRecord(ModelElement record);
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.zip.CRC32;
+
+/**
+ * <p>
+ * A hash of the raw bytes of each root-level record in a GEDCOM file, used by {@link IncrementalLoader} to work out which records
+ * have changed since the file was last loaded. The hashes are found by scanning the bytes of the file (see {@link RecordIndex}),
+ * without decoding or parsing anything, so they can be computed for a large file in a small fraction of the time it takes to parse
+ * it.
+ * </p>
+ * <p>
+ * Individuals, families, multimedia, notes, repositories, sources and submitters with xrefs are hashed one by one. Everything else -
+ * the header, the submission, the trailer and any custom root-level records - is hashed together, since a change to any of them
+ * means the whole file has to be reloaded. Each hash is the CRC-32 of the record's bytes combined with its length.
+ * </p>
+ * <p>
+ * This class is serializable, so the hashes for a file can be kept between runs alongside a cached copy of its {@link
+ * org.gedcom4j.model.Gedcom}.
+ * </p>
+ * 
+ * @author frizbog
+ */
+public final class RecordHashes implements Serializable {
+
+    /**
+     * Serial Version UID
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The size of the buffer the file is read through
+     */
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * The hash of each record that is hashed individually, keyed by its tag and xref
+     */
+    private final Map<String, Long> hashes = new HashMap<>();
+
+    /**
+     * The combined hash of all the other records
+     */
+    private long otherHash;
+
+    /**
+     * Whether any xref is used by more than one record, in which case changes can't be attributed to a single record
+     */
+    private boolean duplicateXrefs;
+
+    /**
+     * Constructor
+     */
+    private RecordHashes() {
+        // Only built by compute()
+    }
+
+    /**
+     * Compute the hashes for the records in a file. Only UTF-8 and ASCII files can be loaded incrementally, but the hashes can be
+     * computed for any file.
+     * 
+     * @param filename
+     *            the name of the file
+     * @return the hashes of the records in the file
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    public static RecordHashes compute(String filename) throws IOException {
+        try (FileInputStream fis = new FileInputStream(filename); FileChannel channel = fis.getChannel()) {
+            return compute(channel, RecordIndex.scan(channel));
+        }
+    }
+
+    /**
+     * Compute the hashes for the records in a file that has already been indexed
+     * 
+     * @param channel
+     *            the channel to read the file through
+     * @param index
+     *            the index of the file
+     * @return the hashes of the records in the file
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    static RecordHashes compute(FileChannel channel, RecordIndex index) throws IOException {
+        RecordHashes result = new RecordHashes();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        byte[] bytes = buffer.array();
+        long bufferStart = 0;
+        int bufferLength = 0;
+        CRC32 crc = new CRC32();
+        for (int r = 0; r < index.size(); r++) {
+            long start = index.getStart(r);
+            long end = index.getEnd(r);
+            crc.reset();
+            long pos = start;
+            while (pos < end) {
+                if (pos < bufferStart || pos >= bufferStart + bufferLength) {
+                    buffer.clear();
+                    bufferLength = channel.read(buffer, pos);
+                    if (bufferLength <= 0) {
+                        throw new IOException("File changed while it was being read");
+                    }
+                    bufferStart = pos;
+                }
+                int offset = (int) (pos - bufferStart);
+                int n = (int) Math.min(end - pos, bufferLength - offset);
+                crc.update(bytes, offset, n);
+                pos += n;
+            }
+            long hash = (end - start) << 32 | crc.getValue();
+
+            String key = key(index.getTag(r), index.getXref(r));
+            if (key == null) {
+                result.otherHash = result.otherHash * 31 + hash;
+            } else if (result.hashes.put(key, Long.valueOf(hash)) != null) {
+                result.duplicateXrefs = true;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the key a record is hashed under
+     * 
+     * @param tag
+     *            the tag of the record
+     * @param xref
+     *            the xref of the record
+     * @return the key, or null if the record is not hashed on its own
+     */
+    private static String key(String tag, String xref) {
+        if (xref == null) {
+            return null;
+        }
+        Tag t = Tag.forText(tag);
+        if (t == null) {
+            return null;
+        }
+        switch (t) {
+            case FAMILY:
+            case INDIVIDUAL:
+            case NOTE:
+            case OBJECT_MULTIMEDIA:
+            case REPOSITORY:
+            case SOURCE:
+            case SUBMITTER:
+                return tag + " " + xref;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Get the number of records that are hashed individually
+     * 
+     * @return the number of records that are hashed individually
+     */
+    public int size() {
+        return hashes.size();
+    }
+
+    /**
+     * Get the xrefs of the records that have been added or changed since an earlier version of the file
+     * 
+     * @param previous
+     *            the hashes of the earlier version of the file
+     * @return the xrefs of the records that have been added or changed, or null if the changes can't be applied record by record
+     *         - because a record has been removed or has changed type, a record other than an individual, family, multimedia,
+     *         note, repository, source or submitter has changed, or an xref is used by more than one record
+     */
+    List<String> changedSince(RecordHashes previous) {
+        if (duplicateXrefs || previous.duplicateXrefs || otherHash != previous.otherHash) {
+            return null;
+        }
+        for (String key : previous.hashes.keySet()) {
+            if (!hashes.containsKey(key)) {
+                return null;
+            }
+        }
+        List<String> result = new ArrayList<>();
+        for (Entry<String, Long> e : hashes.entrySet()) {
+            if (!e.getValue().equals(previous.hashes.get(e.getKey()))) {
+                result.add(e.getKey().substring(e.getKey().indexOf(' ') + 1));
+            }
+        }
+        return result;
+    }
+}
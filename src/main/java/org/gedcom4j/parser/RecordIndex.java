@@ -0,0 +1,514 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * <p>
+ * An index of where each root-level record in a UTF-8 or ASCII file begins, found by scanning the raw bytes of the file for lines
+ * that start with <code>0 </code> without decoding or parsing anything else (as {@link org.gedcom4j.io.reader.ChunkedFileReader}
+ * does when it splits a file). For each record it keeps the byte offset where it begins, the number of lines before it (so line
+ * numbers in messages come out the same as for a full load), and the xref and tag from its first line.
+ * </p>
+ * <p>
+ * Record <i>n</i> runs from its start to the start of record <i>n+1</i>, or to the end of the file for the last record.
+ * </p>
+ * <p>
+ * An index can be saved in a sidecar file next to the file it indexes (see {@link #forFile(File, FileChannel)}), so reopening a
+ * file that hasn't changed doesn't need to scan it again. The sidecar records the size, last-modified time and a checksum of the
+ * file it was built from, and is only used if all three still match. The checksum only covers the first and last
+ * {@value #CHECKSUM_REGION_SIZE} bytes of the file, so checking it costs next to nothing however big the file is; an edit that
+ * changes neither the size nor the modification time nor either end of the file would go unnoticed.
+ * </p>
+ * 
+ * @author frizbog
+ */
+final class RecordIndex {
+
+    /**
+     * How many bytes to read at a time while scanning
+     */
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * How many bytes at each end of the file are covered by the checksum
+     */
+    static final int CHECKSUM_REGION_SIZE = 64 * 1024;
+
+    /**
+     * Identifies a sidecar index file, and the version of its format
+     */
+    private static final String SIDECAR_MAGIC = "gedcom4j record index 1";
+
+    /**
+     * Scanner state: at the beginning of a line, possibly after some leading whitespace
+     */
+    private static final int LINE_START = 0;
+
+    /**
+     * Scanner state: seen a <code>0</code> at the beginning of a line
+     */
+    private static final int ZERO = 1;
+
+    /**
+     * Scanner state: reading the first line of a record
+     */
+    private static final int FIRST_LINE = 2;
+
+    /**
+     * Scanner state: somewhere in the middle of a line that isn't the first line of a record
+     */
+    private static final int MID_LINE = 3;
+
+    /**
+     * Work out the checksum of a file that is saved with its index, to tell whether the file has changed since
+     * 
+     * @param channel
+     *            the channel for the file
+     * @return the checksum of the first and last {@value #CHECKSUM_REGION_SIZE} bytes of the file
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    static long checksum(FileChannel channel) throws IOException {
+        CRC32 crc = new CRC32();
+        long size = channel.size();
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(CHECKSUM_REGION_SIZE, size));
+        channel.read(buffer, 0);
+        crc.update(buffer.array(), 0, buffer.position());
+        if (size > CHECKSUM_REGION_SIZE) {
+            buffer.clear();
+            channel.read(buffer, Math.max(CHECKSUM_REGION_SIZE, size - CHECKSUM_REGION_SIZE));
+            crc.update(buffer.array(), 0, buffer.position());
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Get the index for a file from its sidecar file if there is one and it is up to date, or else scan the file and save the
+     * index in a new sidecar file. Failing to save the sidecar file (because the directory is read-only, for example) is not an
+     * error - the file just gets scanned again next time.
+     * 
+     * @param file
+     *            the file
+     * @param channel
+     *            the channel for the file. Not closed by this method.
+     * @return the index
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    static RecordIndex forFile(File file, FileChannel channel) throws IOException {
+        long lastModified = file.lastModified();
+        long checksum = checksum(channel);
+        File sidecar = new File(file.getPath() + IndexedGedcomFile.INDEX_FILE_SUFFIX);
+        RecordIndex result = read(sidecar, channel.size(), lastModified, checksum);
+        if (result == null) {
+            result = scan(channel);
+            result.write(sidecar, lastModified, checksum);
+        }
+        return result;
+    }
+
+    /**
+     * Read an index from a sidecar file, if it is for a file with the supplied size, last-modified time and checksum
+     * 
+     * @param sidecar
+     *            the sidecar file
+     * @param fileSize
+     *            the size of the file the index must be for
+     * @param lastModified
+     *            the last-modified time of the file the index must be for
+     * @param checksum
+     *            the checksum of the file the index must be for
+     * @return the index, or null if the sidecar file doesn't exist, can't be read, or is for a different version of the file
+     */
+    static RecordIndex read(File sidecar, long fileSize, long lastModified, long checksum) {
+        if (!sidecar.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(sidecar)))) {
+            if (!SIDECAR_MAGIC.equals(in.readUTF()) || in.readLong() != fileSize || in.readLong() != lastModified || in
+                    .readLong() != checksum) {
+                return null;
+            }
+            RecordIndex result = new RecordIndex(fileSize);
+            int size = in.readInt();
+            Map<String, String> canonicalTags = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                long start = in.readLong();
+                int lineNum = in.readInt();
+                String tag = canonical(in.readUTF(), canonicalTags);
+                String xref = in.readBoolean() ? in.readUTF() : null;
+                result.add(start, lineNum, tag, xref);
+            }
+            result.trim();
+            return result;
+        } catch (IOException e) {
+            // Unreadable or truncated, so it will be rebuilt
+            return null;
+        }
+    }
+
+    /**
+     * Scan a file and build an index of its records
+     * 
+     * @param channel
+     *            the channel for the file. Not closed by this method.
+     * @return the index
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    static RecordIndex scan(FileChannel channel) throws IOException {
+        RecordIndex result = new RecordIndex(channel.size());
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        ByteArrayOutputStream firstLine = new ByteArrayOutputStream(64);
+        Map<String, String> tags = new HashMap<>();
+        int state = LINE_START;
+        long candidate = -1;
+        int lines = 0;
+        long pos = 0;
+        while (pos < result.fileSize) {
+            buffer.clear();
+            int n = channel.read(buffer, pos);
+            if (n < 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                byte b = buffer.get(i);
+                boolean lineBreak = b == '\n' || b == '\r';
+                switch (state) {
+                    case LINE_START:
+                        if (b == '0') {
+                            candidate = pos + i;
+                            state = ZERO;
+                            lines++;
+                        } else if (!lineBreak && b != ' ' && b != '\t' && !(pos + i < 3 && (b & 0x80) != 0)) {
+                            // Something other than whitespace or a byte order mark, so a line that isn't blank
+                            state = MID_LINE;
+                            lines++;
+                        }
+                        break;
+                    case ZERO:
+                        if (b == ' ') {
+                            firstLine.reset();
+                            state = FIRST_LINE;
+                        } else {
+                            state = lineBreak ? LINE_START : MID_LINE;
+                        }
+                        break;
+                    case FIRST_LINE:
+                        if (lineBreak) {
+                            result.addFirstLine(candidate, lines - 1, firstLine, tags);
+                            state = LINE_START;
+                        } else {
+                            firstLine.write(b);
+                        }
+                        break;
+                    default:
+                        if (lineBreak) {
+                            state = LINE_START;
+                        }
+                        break;
+                }
+            }
+            pos += n;
+        }
+        if (state == FIRST_LINE) {
+            result.addFirstLine(candidate, lines - 1, firstLine, tags);
+        }
+        result.trim();
+        return result;
+    }
+
+    /**
+     * Get the canonical instance of a tag
+     * 
+     * @param tag
+     *            the tag
+     * @param canonicalTags
+     *            canonical instances of the tags seen so far
+     * @return the canonical instance of the tag
+     */
+    private static String canonical(String tag, Map<String, String> canonicalTags) {
+        String result = canonicalTags.get(tag);
+        if (result == null) {
+            canonicalTags.put(tag, tag);
+            result = tag;
+        }
+        return result;
+    }
+
+    /**
+     * The size of the file, in bytes
+     */
+    private final long fileSize;
+
+    /**
+     * The number of records
+     */
+    private int size;
+
+    /**
+     * The offset in the file where each record begins
+     */
+    private long[] starts = new long[1024];
+
+    /**
+     * The number of lines in the file before each record
+     */
+    private int[] lineNums = new int[1024];
+
+    /**
+     * The tag of each record
+     */
+    private String[] tags = new String[1024];
+
+    /**
+     * The xref of each record, or null if it doesn't have one
+     */
+    private String[] xrefs = new String[1024];
+
+    /**
+     * The record number for each xref
+     */
+    private final Map<String, Integer> byXref = new HashMap<>();
+
+    /**
+     * Constructor
+     * 
+     * @param fileSize
+     *            the size of the file, in bytes
+     */
+    private RecordIndex(long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    /**
+     * Find the record with the supplied xref
+     * 
+     * @param xref
+     *            the xref
+     * @return the number of the record with that xref, or -1 if there isn't one
+     */
+    int find(String xref) {
+        Integer result = byXref.get(xref);
+        return result == null ? -1 : result;
+    }
+
+    /**
+     * Get the offset in the file where a record ends
+     * 
+     * @param record
+     *            the number of the record
+     * @return the offset in the file just past the end of the record
+     */
+    long getEnd(int record) {
+        return record + 1 < size ? starts[record + 1] : fileSize;
+    }
+
+    /**
+     * Get the size of the file that was scanned
+     * 
+     * @return the size of the file, in bytes
+     */
+    long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * Get the number of lines in the file before a record
+     * 
+     * @param record
+     *            the number of the record
+     * @return the number of lines before the record, not counting blank lines
+     */
+    int getLineNum(int record) {
+        return lineNums[record];
+    }
+
+    /**
+     * Get the offset in the file where a record begins
+     * 
+     * @param record
+     *            the number of the record
+     * @return the offset in the file where the record begins
+     */
+    long getStart(int record) {
+        return starts[record];
+    }
+
+    /**
+     * Get the tag of a record
+     * 
+     * @param record
+     *            the number of the record
+     * @return the tag of the record
+     */
+    String getTag(int record) {
+        return tags[record];
+    }
+
+    /**
+     * Get the xref of a record
+     * 
+     * @param record
+     *            the number of the record
+     * @return the xref of the record, or null if it doesn't have one
+     */
+    String getXref(int record) {
+        return xrefs[record];
+    }
+
+    /**
+     * Get the number of records
+     * 
+     * @return the number of records
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Add a record to the index
+     * 
+     * @param start
+     *            the offset in the file where the record begins
+     * @param lineNum
+     *            the number of lines before the record
+     * @param tag
+     *            the tag of the record
+     * @param xref
+     *            the xref of the record, or null if it doesn't have one
+     */
+    private void add(long start, int lineNum, String tag, String xref) {
+        if (size == starts.length) {
+            int newLength = size * 2;
+            starts = Arrays.copyOf(starts, newLength);
+            lineNums = Arrays.copyOf(lineNums, newLength);
+            tags = Arrays.copyOf(tags, newLength);
+            xrefs = Arrays.copyOf(xrefs, newLength);
+        }
+        starts[size] = start;
+        lineNums[size] = lineNum;
+        tags[size] = tag;
+        xrefs[size] = xref;
+        if (xref != null && !byXref.containsKey(xref)) {
+            byXref.put(xref, size);
+        }
+        size++;
+    }
+
+    /**
+     * Add a record to the index, taking its xref and tag from its first line
+     * 
+     * @param start
+     *            the offset in the file where the record begins
+     * @param lineNum
+     *            the number of lines before the record
+     * @param firstLine
+     *            the bytes of the first line of the record, after the <code>0 </code>
+     * @param canonicalTags
+     *            canonical instances of the tags seen so far
+     */
+    private void addFirstLine(long start, int lineNum, ByteArrayOutputStream firstLine, Map<String, String> canonicalTags) {
+        String line = new String(firstLine.toByteArray(), StandardCharsets.UTF_8).trim();
+        String xref = null;
+        if (line.startsWith("@")) {
+            int space = line.indexOf(' ');
+            xref = space < 0 ? line : line.substring(0, space);
+            line = space < 0 ? "" : line.substring(space + 1).trim();
+        }
+        int space = line.indexOf(' ');
+        add(start, lineNum, canonical(space < 0 ? line : line.substring(0, space), canonicalTags), xref);
+    }
+
+    /**
+     * Shrink the arrays to fit the records
+     */
+    private void trim() {
+        starts = Arrays.copyOf(starts, size);
+        lineNums = Arrays.copyOf(lineNums, size);
+        tags = Arrays.copyOf(tags, size);
+        xrefs = Arrays.copyOf(xrefs, size);
+    }
+
+    /**
+     * Save the index in a sidecar file. The index is written to a temporary file first and then moved into place, so a reader never
+     * sees a half-written sidecar file. Failing to save it is not an error.
+     * 
+     * @param sidecar
+     *            the sidecar file
+     * @param lastModified
+     *            the last-modified time of the file the index is for
+     * @param checksum
+     *            the checksum of the file the index is for
+     */
+    private void write(File sidecar, long lastModified, long checksum) {
+        File temp = new File(sidecar.getPath() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeUTF(SIDECAR_MAGIC);
+                out.writeLong(fileSize);
+                out.writeLong(lastModified);
+                out.writeLong(checksum);
+                out.writeInt(size);
+                for (int i = 0; i < size; i++) {
+                    out.writeLong(starts[i]);
+                    out.writeInt(lineNums[i]);
+                    out.writeUTF(tags[i]);
+                    out.writeBoolean(xrefs[i] != null);
+                    if (xrefs[i] != null) {
+                        out.writeUTF(xrefs[i]);
+                    }
+                }
+            }
+            Files.move(temp.toPath(), sidecar.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Couldn't save it, so the file will just be scanned again next time
+            if (!temp.delete()) {
+                temp.deleteOnExit();
+            }
+        }
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.exception.ParserCancelledException;
+import org.gedcom4j.exception.RecordIteratorException;
+import org.gedcom4j.io.reader.GedcomFileReader;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.model.StringTree;
+import org.gedcom4j.parser.event.ParseProgressEvent;
+
+/**
+ * <p>
+ * Reads the records in a GEDCOM file one at a time, parsing each record as it is asked for with {@link #next()} rather than loading
+ * the whole file into a {@link org.gedcom4j.model.Gedcom}. Only the lines of the record being read are held in memory, so memory use
+ * is bounded by the size of the largest record rather than the size of the file.
+ * </p>
+ * <p>
+ * The records are the same as those given to a {@link RecordHandler} by {@link GedcomParser#stream(String, RecordHandler)} - fully
+ * parsed, but with the records they refer to left unresolved. The {@link GedcomParser} supplied provides the settings (custom tag
+ * handling, notification rates and so on), collects the errors and warnings, notifies its parse observers, and keeps the header,
+ * submission and trailer, just as for a load; it should not be used for anything else until the iterator is finished with. Reading
+ * is always done on the calling thread, whatever the parser's multi-threading settings are.
+ * </p>
+ * <p>
+ * Since {@link Iterator} methods cannot throw checked exceptions, problems reading or parsing the next record are thrown from
+ * {@link #hasNext()} and {@link #next()} as a {@link RecordIteratorException} wrapping the {@link IOException},
+ * {@link GedcomParserException}, or unexpected runtime exception. Cancelling the parser stops the iteration the same way.
+ * </p>
+ * <p>
+ * Instances are not thread-safe, and should be closed when no longer needed.
+ * </p>
+ * 
+ * @author frizbog
+ */
+public class RecordIterator implements Iterator<ModelElement>, Closeable {
+
+    /**
+     * The parser whose settings are used, and which collects the errors and warnings
+     */
+    private final GedcomParser parser;
+
+    /**
+     * The reader the lines of the file come from
+     */
+    private final GedcomFileReader reader;
+
+    /**
+     * The stream the file is being read from, to be closed when the iterator is closed
+     */
+    private final Closeable source;
+
+    /**
+     * The builder that builds the string tree for each record, and is reset after each one
+     */
+    private final StringTreeBuilder builder;
+
+    /**
+     * The line that has been read from the file but not yet added to the builder - the first line of the next record - or null at
+     * the end of the file
+     */
+    private String pendingLine;
+
+    /**
+     * The record that has been read ahead by {@link #hasNext()} but not yet returned by {@link #next()}
+     */
+    private ModelElement nextRecord;
+
+    /**
+     * Has the iterator been closed?
+     */
+    private boolean closed;
+
+    /**
+     * Constructor for reading records from a stream
+     * 
+     * @param parser
+     *            the parser whose settings are used, and which collects the errors and warnings. Required.
+     * @param bytes
+     *            the input stream over the bytes of the file. Closed when the iterator is closed.
+     * @throws IOException
+     *             if the start of the file cannot be read
+     * @throws GedcomParserException
+     *             if the start of the file cannot be parsed
+     */
+    public RecordIterator(GedcomParser parser, BufferedInputStream bytes) throws IOException, GedcomParserException {
+        this(parser, bytes, null);
+    }
+
+    /**
+     * Constructor for reading records from the file with the supplied name. The file is read through its
+     * {@link java.nio.channels.FileChannel}, so UTF-8 and ASCII files are memory-mapped rather than streamed.
+     * 
+     * @param parser
+     *            the parser whose settings are used, and which collects the errors and warnings. Required.
+     * @param filename
+     *            the name of the file to read
+     * @throws IOException
+     *             if the file cannot be read
+     * @throws GedcomParserException
+     *             if the start of the file cannot be parsed
+     */
+    public RecordIterator(GedcomParser parser, String filename) throws IOException, GedcomParserException {
+        this(parser, null, new FileInputStream(filename));
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param parser
+     *            the parser whose settings are used
+     * @param bytes
+     *            the input stream over the bytes of the file, or null if reading from a file
+     * @param file
+     *            the file to read, or null if reading from a stream
+     * @throws IOException
+     *             if the file cannot be read
+     * @throws GedcomParserException
+     *             if the start of the file cannot be parsed
+     */
+    private RecordIterator(GedcomParser parser, BufferedInputStream bytes, FileInputStream file) throws IOException,
+            GedcomParserException {
+        if (parser == null) {
+            if (file != null) {
+                file.close();
+            }
+            throw new IllegalArgumentException("A parser is required");
+        }
+        this.parser = parser;
+        boolean ok = false;
+        try {
+            parser.resetForLoad();
+            if (file == null) {
+                source = bytes;
+                reader = new GedcomFileReader(parser, bytes);
+            } else {
+                source = file;
+                reader = new GedcomFileReader(parser, file.getChannel());
+            }
+            // Only one record is held at a time, so the symbol table mustn't grow with the file
+            builder = new StringTreeBuilder(parser, new SymbolTable(SymbolTable.DEFAULT_MAXIMUM_SIZE), parser.getLineNum());
+            pendingLine = reader.nextLine();
+            ok = true;
+        } finally {
+            if (!ok && file != null) {
+                file.close();
+            }
+        }
+    }
+
+    /**
+     * Close the file or stream being read. After this, there are no more records.
+     * 
+     * @throws IOException
+     *             if the file or stream cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        nextRecord = null;
+        pendingLine = null;
+        try {
+            reader.cleanUp();
+        } finally {
+            source.close();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @throws RecordIteratorException
+     *             if the next record cannot be read or parsed, or the parser has been cancelled
+     */
+    @Override
+    public boolean hasNext() {
+        if (nextRecord == null && !closed) {
+            try {
+                nextRecord = readRecord();
+            } catch (IOException | GedcomParserException | RuntimeException e) {
+                throw new RecordIteratorException("Unable to read the record ending at line " + parser.getLineNum(), e);
+            }
+        }
+        return nextRecord != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @throws RecordIteratorException
+     *             if the next record cannot be read or parsed, or the parser has been cancelled
+     */
+    @Override
+    public ModelElement next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ModelElement result = nextRecord;
+        nextRecord = null;
+        return result;
+    }
+
+    /**
+     * Not supported - records cannot be removed from the file
+     * 
+     * @throws UnsupportedOperationException
+     *             always
+     */
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Records cannot be removed");
+    }
+
+    /**
+     * Parse the record that the builder has built, if it has one, and reset the builder
+     * 
+     * @return the record, or null if the builder has not built a record or the record it built was not loaded
+     * @throws GedcomParserException
+     *             if the record cannot be parsed
+     */
+    private ModelElement parseBuiltRecord() throws GedcomParserException {
+        StringTree rootLevelItem = parser.getRootLevelItem(builder);
+        if (rootLevelItem == null) {
+            return null;
+        }
+        ModelElement result = parser.parseRecord(rootLevelItem);
+        builder.reset();
+        return result;
+    }
+
+    /**
+     * Read lines until the next record is complete, and parse it
+     * 
+     * @return the next record, or null if there are no more
+     * @throws IOException
+     *             if the file cannot be read
+     * @throws GedcomParserException
+     *             if the record cannot be parsed, or the parser has been cancelled
+     */
+    private ModelElement readRecord() throws IOException, GedcomParserException {
+        while (pendingLine != null) {
+            ModelElement result = null;
+            if (pendingLine.charAt(0) == '0') {
+                // The start of the next record, so the one that's been built is complete
+                result = parseBuiltRecord();
+            }
+            int lineNum = parser.getLineNum() + 1;
+            parser.setLineNum(lineNum);
+            builder.appendLine(pendingLine);
+            if (parser.isCancelled()) {
+                throw new ParserCancelledException("File load/parse is cancelled");
+            }
+            if (lineNum % parser.getParseNotificationRate() == 0) {
+                parser.notifyParseObservers(new ParseProgressEvent(parser, parser.getGedcom(), false, lineNum));
+            }
+            pendingLine = reader.nextLine();
+            if (result != null) {
+                return result;
+            }
+        }
+        return parseBuiltRecord();
+    }
+}
@@ -71,23 +71,17 @@ class RepositoryParser extends AbstractParser<Repository> {
                 } else if (Tag.WEB_ADDRESS.equalsText(ch.getTag())) {
                     loadInto.getWwwUrls(true).add(parseStringWithCustomFacts(ch));
                     if (g55()) {
-                        addWarning("GEDCOM version is 5.5 but WWW URL was specified on repository " + loadInto.getXref()
-                                + " on line " + ch.getLineNum() + ", which is a GEDCOM 5.5.1 feature."
-                                + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        addDiagnostic(DiagnosticCode.G551_FEATURE_IN_G55, ch.getLineNum(), "WWW URL", "on repository ", loadInto.getXref(), "");
                     }
                 } else if (Tag.FAX.equalsText(ch.getTag())) {
                     loadInto.getFaxNumbers(true).add(parseStringWithCustomFacts(ch));
                     if (g55()) {
-                        addWarning("GEDCOM version is 5.5 but fax was specified on repository " + loadInto.getXref() + " on line "
-                                + ch.getLineNum() + ", which is a GEDCOM 5.5.1 feature."
-                                + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        addDiagnostic(DiagnosticCode.G551_FEATURE_IN_G55, ch.getLineNum(), "fax", "on repository ", loadInto.getXref(), "");
                     }
                 } else if (Tag.EMAIL.equalsText(ch.getTag())) {
                     loadInto.getEmails(true).add(parseStringWithCustomFacts(ch));
                     if (g55()) {
-                        addWarning("GEDCOM version is 5.5 but email was specified on repository " + loadInto.getXref() + " on line "
-                                + ch.getLineNum() + ", which is a GEDCOM 5.5.1 feature."
-                                + "  Data loaded but cannot be re-written unless GEDCOM version changes.");
+                        addDiagnostic(DiagnosticCode.G551_FEATURE_IN_G55, ch.getLineNum(), "email", "on repository ", loadInto.getXref(), "");
                     }
                 } else if (Tag.NOTE.equalsText(ch.getTag())) {
                     List<NoteStructure> notes = loadInto.getNoteStructures(true);
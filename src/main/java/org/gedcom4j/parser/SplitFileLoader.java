@@ -0,0 +1,383 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.gedcom4j.Options;
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.exception.ParserCancelledException;
+import org.gedcom4j.io.event.FileProgressEvent;
+import org.gedcom4j.io.reader.ChunkedFileReader;
+import org.gedcom4j.model.StringTree;
+import org.gedcom4j.parser.event.ParseProgressEvent;
+
+/**
+ * <p>
+ * Loads a UTF-8 or ASCII file for a {@link GedcomParser} by cutting it into chunks at root-level record boundaries (see
+ * {@link ChunkedFileReader}), and decoding and building the trees for several chunks at once on a pool of worker threads. The
+ * calling thread takes the finished chunks in file order and hands their records to the parser, so records are parsed in the same
+ * order as a sequential load, while the workers carry on with the chunks after them.
+ * </p>
+ * <p>
+ * Each chunk's line numbers have to carry on from where the previous chunk's left off. So once a worker has decoded its chunk, it
+ * waits until the worker for the previous chunk has decoded that chunk (and so knows how many lines came before it), passes the
+ * total on to the worker for the next chunk, and only then builds its trees. Chunks are started in file order, so a worker never
+ * waits on a chunk that hasn't been started.
+ * </p>
+ * <p>
+ * File and parse progress events are sent from the calling thread as each chunk's records are handed over, for the same line
+ * counts as a sequential load.
+ * </p>
+ * 
+ * @author frizbog
+ */
+final class SplitFileLoader {
+
+    /**
+     * One chunk of the file, and what the worker made of it
+     */
+    private static final class Chunk {
+        /**
+         * The offset in the file where the chunk begins
+         */
+        private final long start;
+
+        /**
+         * The offset in the file where the chunk ends
+         */
+        private final long end;
+
+        /**
+         * Released once the number of lines before this chunk is known (or it never will be, because an earlier chunk failed)
+         */
+        private final CountDownLatch linesBeforeKnown = new CountDownLatch(1);
+
+        /**
+         * The number of lines in the file before this chunk, or -1 if an earlier chunk failed. Written before
+         * {@link #linesBeforeKnown} is released, and only read after.
+         */
+        private int linesBefore;
+
+        /**
+         * The number of lines in this chunk
+         */
+        private int lineCount;
+
+        /**
+         * The root-level records in this chunk
+         */
+        private final List<StringTree> records = new ArrayList<>();
+
+        /**
+         * Constructor
+         * 
+         * @param start
+         *            the offset in the file where the chunk begins
+         * @param end
+         *            the offset in the file where the chunk ends
+         */
+        Chunk(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Set the number of lines in the file before this chunk, and let the worker for this chunk carry on
+         * 
+         * @param n
+         *            the number of lines in the file before this chunk, or -1 if an earlier chunk failed
+         */
+        void setLinesBefore(int n) {
+            linesBefore = n;
+            linesBeforeKnown.countDown();
+        }
+    }
+
+    /**
+     * The size to aim for each chunk to be, in bytes
+     */
+    static final long TARGET_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * The parser we're loading for
+     */
+    private final GedcomParser parser;
+
+    /**
+     * The reader for the chunks of the file
+     */
+    private final ChunkedFileReader reader;
+
+    /**
+     * The size to aim for each chunk to be, in bytes
+     */
+    private final long targetChunkSize;
+
+    /**
+     * The number of worker threads
+     */
+    private final int threads;
+
+    /**
+     * Constructor
+     * 
+     * @param parser
+     *            the parser we're loading for
+     * @param reader
+     *            the reader for the chunks of the file
+     * @param targetChunkSize
+     *            the size to aim for each chunk to be, in bytes
+     * @param threads
+     *            the number of worker threads
+     */
+    SplitFileLoader(GedcomParser parser, ChunkedFileReader reader, long targetChunkSize, int threads) {
+        this.parser = parser;
+        this.reader = reader;
+        this.targetChunkSize = targetChunkSize;
+        this.threads = threads;
+    }
+
+    /**
+     * Load the file, and wait for it to finish
+     * 
+     * @throws IOException
+     *             if there is a problem reading the file
+     * @throws GedcomParserException
+     *             if the file can't be parsed, or the load was cancelled
+     */
+    void load() throws IOException, GedcomParserException {
+        long[] boundaries = reader.findChunkBoundaries(targetChunkSize);
+        final Chunk[] chunks = new Chunk[boundaries.length - 1];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = new Chunk(boundaries[i], boundaries[i + 1]);
+        }
+        if (chunks.length > 0) {
+            chunks[0].setLinesBefore(parser.getLineNum());
+        }
+
+        final List<Thread> workerThreads = Collections.synchronizedList(new ArrayList<Thread>());
+        ExecutorService workers = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "gedcom4j-chunk-decoder");
+                t.setDaemon(true);
+                workerThreads.add(t);
+                return t;
+            }
+        });
+        PhaseTimer timer = parser.createPhaseTimer();
+        parser.setThreadPhaseTimer(timer);
+        try {
+            // Keep a couple of chunks queued up per worker, but no more, so finished trees don't pile up in memory
+            int maxInFlight = threads * 2;
+            List<Future<Chunk>> inFlight = new ArrayList<>();
+            int nextToSubmit = 0;
+            int lastFileNotification = 0;
+            int lastParseNotification = 0;
+            for (int i = 0; i < chunks.length; i++) {
+                while (nextToSubmit < chunks.length && nextToSubmit - i < maxInFlight) {
+                    final int n = nextToSubmit++;
+                    inFlight.add(workers.submit(new Callable<Chunk>() {
+                        @Override
+                        public Chunk call() throws Exception {
+                            Boolean previous = parser.bindCollectionInitialization();
+                            try {
+                                return buildChunk(chunks[n], n + 1 < chunks.length ? chunks[n + 1] : null);
+                            } finally {
+                                Options.setThreadCollectionInitializationEnabled(previous);
+                            }
+                        }
+                    }));
+                }
+                Chunk chunk = getResult(inFlight.get(i));
+                inFlight.set(i, null);
+                int lines = chunk.linesBefore + chunk.lineCount;
+
+                int rate = parser.getReadNotificationRate();
+                while (lastFileNotification + rate <= lines) {
+                    lastFileNotification += rate;
+                    parser.notifyFileObservers(new FileProgressEvent(reader, lastFileNotification, chunk.end, false));
+                }
+                for (StringTree rootLevelItem : chunk.records) {
+                    parser.handleRootItem(rootLevelItem);
+                    if (parser.isCancelled()) {
+                        throw new ParserCancelledException("File load/parse is cancelled");
+                    }
+                }
+                parser.setLineNum(lines);
+                rate = parser.getParseNotificationRate();
+                while (lastParseNotification + rate <= lines) {
+                    lastParseNotification += rate;
+                    parser.notifyParseObservers(new ParseProgressEvent(parser, parser.getGedcom(), false, lastParseNotification));
+                }
+            }
+            // Like GedcomFileReader, count the final attempt to read a line that found the end of the file
+            parser.notifyFileObservers(new FileProgressEvent(reader, parser.getLineNum() + 1L, reader.getFileSize(), true));
+        } finally {
+            for (Chunk c : chunks) {
+                // Make sure no worker is left waiting for an earlier chunk that will never finish
+                if (c.linesBeforeKnown.getCount() > 0) {
+                    c.setLinesBefore(-1);
+                }
+            }
+            workers.shutdownNow();
+            join(workerThreads);
+            parser.setThreadPhaseTimer(null);
+            timer.flush();
+        }
+    }
+
+    /**
+     * Decode a chunk and build its trees. Runs on a worker thread.
+     * 
+     * @param chunk
+     *            the chunk
+     * @param nextChunk
+     *            the chunk after it, or null if it's the last chunk
+     * @return the chunk, with its records built
+     * @throws IOException
+     *             if the chunk can't be read
+     * @throws GedcomParserException
+     *             if the chunk's trees can't be built, or the load was cancelled
+     * @throws InterruptedException
+     *             if interrupted while waiting for the previous chunk
+     */
+    private Chunk buildChunk(Chunk chunk, Chunk nextChunk) throws IOException, GedcomParserException, InterruptedException {
+        List<String> lines = null;
+        int linesBefore = -1;
+        PhaseTimer timer = parser.createPhaseTimer();
+        try {
+            timer.start();
+            lines = reader.readLines(chunk.start, chunk.end);
+            timer.stop(LoadPhase.DECODE);
+            timer.flush();
+            chunk.linesBeforeKnown.await();
+            linesBefore = chunk.linesBefore;
+        } finally {
+            if (nextChunk != null) {
+                nextChunk.setLinesBefore(linesBefore < 0 ? -1 : linesBefore + lines.size());
+            }
+        }
+        if (linesBefore < 0) {
+            throw new ParserCancelledException("File load/parse was abandoned because an earlier part of the file failed");
+        }
+        chunk.lineCount = lines.size();
+
+        StringTreeBuilder stringTreeBuilder = new StringTreeBuilder(parser, new SymbolTable(), linesBefore);
+        timer.start();
+        for (String line : lines) {
+            if (line.charAt(0) == '0') {
+                // We've hit the start of the next root node
+                StringTree rootLevelItem = parser.getRootLevelItem(stringTreeBuilder);
+                if (rootLevelItem != null) {
+                    chunk.records.add(rootLevelItem);
+                    stringTreeBuilder.reset();
+                }
+            }
+            stringTreeBuilder.appendLine(line);
+            if (parser.isCancelled()) {
+                throw new ParserCancelledException("File load/parse is cancelled");
+            }
+        }
+        StringTree rootLevelItem = parser.getRootLevelItem(stringTreeBuilder);
+        if (rootLevelItem != null) {
+            chunk.records.add(rootLevelItem);
+        }
+        timer.stop(LoadPhase.TREE_BUILDING);
+        timer.flush();
+        return chunk;
+    }
+
+    /**
+     * Get the result of a worker's task, unwrapping whatever went wrong if it failed
+     * 
+     * @param future
+     *            the worker's task
+     * @return the chunk the worker built
+     * @throws IOException
+     *             if the worker couldn't read the file
+     * @throws GedcomParserException
+     *             if the worker couldn't build the trees, or the load was cancelled
+     */
+    private Chunk getResult(Future<Chunk> future) throws IOException, GedcomParserException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ParserCancelledException("File load/parse was interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof GedcomParserException) {
+                throw (GedcomParserException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new GedcomParserException(cause);
+        }
+    }
+
+    /**
+     * Wait for the worker threads to finish
+     * 
+     * @param workerThreads
+     *            the worker threads
+     * @throws ParserCancelledException
+     *             if interrupted while waiting
+     */
+    private void join(List<Thread> workerThreads) throws ParserCancelledException {
+        try {
+            synchronized (workerThreads) {
+                for (Thread t : workerThreads) {
+                    // Workers only ever block on the latches, which have all been released, so this won't take long
+                    t.join();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ParserCancelledException("File load/parse was interrupted", e);
+        }
+    }
+
+}
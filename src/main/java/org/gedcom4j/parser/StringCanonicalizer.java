@@ -26,13 +26,28 @@
  */
 package org.gedcom4j.parser;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
- * A class to handle canonical strings, to reduce memory consumption by repeated instances of frequently used string values. Unlike
- * string.intern(), this implementation does not put things in permgen (or does it)? It also has a max size, only canonicalizes
- * strings repeated more than a certain number of times.
+ * <p>
+ * A class to handle canonical strings, to reduce memory consumption by repeated instances of frequently used string values (place
+ * names, source titles, dates, and so on). Unlike string.intern(), the pool has a maximum size, and only keeps the strings that
+ * are worth keeping.
+ * </p>
+ * <p>
+ * Which strings are worth keeping is decided TinyLFU-style. Every string asked about is counted in a count-min sketch - a small,
+ * fixed-size table of approximate counts, which are halved every so often so that strings that were popular a long time ago
+ * don't hang around forever. Once the pool is full, a new string is only let in if the sketch says it has been seen more often
+ * than the string it would push out. The pool itself is a segmented LRU: strings come in on probation, are promoted to a protected
+ * segment when they're used again, and are demoted back to probation when the protected segment gets full, so a burst of strings
+ * that are only seen once or twice can't flush out the ones that are used all the time.
+ * </p>
+ * <p>
+ * Keeps counts of how many strings it was asked about, how many it already had a canonical instance for, and roughly how many
+ * bytes were saved by handing back a canonical instance instead of keeping another copy. Not thread-safe.
+ * </p>
  * 
  * @author frizbog
  *
@@ -40,144 +55,171 @@ import java.util.concurrent.ConcurrentMap;
 class StringCanonicalizer {
 
     /**
-     * A canonicalized string
+     * The default maximum number of strings in the pool
+     */
+    static final int DEFAULT_MAXIMUM_SIZE = 4096;
+
+    /**
+     * The number of rows (independent hash functions) in the frequency sketch
+     */
+    private static final int SKETCH_DEPTH = 4;
+
+    /**
+     * The largest count the frequency sketch will hold for a string
+     */
+    private static final byte MAX_FREQUENCY = 15;
+
+    /**
+     * The seeds for the hash functions of each row of the sketch
+     */
+    private static final int[] SEEDS = { 0x97CB3127, 0xB3C3C583, 0xC2B2AE35, 0x27D4EB2F };
+
+    /**
+     * Roughly how many bytes a string takes up, apart from its characters (object header and fields, plus the header of its
+     * character array)
+     */
+    private static final int STRING_OVERHEAD_BYTES = 40;
+
+    /**
+     * Get the power of two at least as big as the supplied number
      * 
-     * @author frizbog
-     */
-    static class CanonicalizedString {
-        /**
-         * The number of times this entry is used
-         */
-        long count;
-
-        /**
-         * The value of this entry
-         */
-        final String value;
-
-        /**
-         * Constructor
-         * 
-         * @param str
-         *            the string value
-         */
-        CanonicalizedString(String str) {
-            value = str;
-            count = 0;
+     * @param n
+     *            the number
+     * @return the power of two at least as big as the supplied number
+     */
+    private static int powerOfTwoAtLeast(int n) {
+        int result = 1;
+        while (result < n) {
+            result <<= 1;
         }
+        return result;
+    }
 
-        /**
-         * {@inheritDoc}
-         */
-        @Override
-        public String toString() {
-            StringBuilder builder = new StringBuilder(30);
-            builder.append("CanonicalizedString [count=");
-            builder.append(count);
-            builder.append(", ");
-            if (value != null) {
-                builder.append("value=");
-                builder.append(value);
-            }
-            builder.append("]");
-            return builder.toString();
-        }
+    /**
+     * The maximum number of strings in the pool
+     */
+    private final int maximumSize;
 
-    }
+    /**
+     * The maximum number of strings in the protected segment of the pool
+     */
+    private final int maximumProtectedSize;
+
+    /**
+     * The strings on probation - admitted to the pool but not used since. Iterates from least to most recently used.
+     */
+    private final LinkedHashMap<String, String> probation = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The strings that have been used again since they were admitted. Iterates from least to most recently used.
+     */
+    private final LinkedHashMap<String, String> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The frequency sketch: {@link #SKETCH_DEPTH} rows of counts, one after the other
+     */
+    private final byte[] sketch;
 
     /**
-     * The string pool
+     * Mask to turn a hash into a column of the sketch
      */
-    final ConcurrentMap<String, CanonicalizedString> stringPool = new ConcurrentHashMap<>(100);
+    private final int sketchMask;
 
     /**
-     * The minimum number of usages that a canonicalized string has to have to remain in the pool during cleanup
+     * The number of times a count in the sketch can go up before they are all halved
      */
-    private int poolUsageThreshold = 25;
+    private final int sampleSize;
 
     /**
-     * The max size of the string pool
+     * The number of times a count in the sketch has gone up since they were last halved
      */
-    private int maxPoolSize = 1000;
+    private int additions;
 
     /**
-     * The number of eviction events that occurred
+     * The number of strings asked for
      */
-    int numEvictions = 0;
+    private long requestCount;
 
     /**
-     * The number of items evicted
+     * The number of strings asked for that were already in the pool
      */
-    private int numEvictedCumulative = 0;
+    private long hitCount;
 
     /**
-     * A flag to indicate whether we've maxed out the pool to keep from thrashing
+     * The approximate number of bytes saved by returning strings from the pool
      */
-    private boolean maxedOut = false;
+    private long bytesSaved;
 
     /**
      * Default constructor
      */
     StringCanonicalizer() {
-        this(500, 25);
+        this(DEFAULT_MAXIMUM_SIZE);
     }
 
     /**
-     * Constructor that lets you specify the pool size and usage threshold
+     * Constructor that lets you specify the pool size
      * 
-     * @param maxPoolSize
-     *            the maximum number of items in the pool
-     * @param poolUsageThreshold
-     *            the minimum number of uses to remain in the pool during an eviction
+     * @param maximumSize
+     *            the maximum number of strings in the pool. Must be at least 1.
      */
-    private StringCanonicalizer(int maxPoolSize, int poolUsageThreshold) {
-        this.maxPoolSize = maxPoolSize;
-        this.poolUsageThreshold = poolUsageThreshold;
+    StringCanonicalizer(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be at least 1");
+        }
+        this.maximumSize = maximumSize;
+        maximumProtectedSize = maximumSize * 4 / 5;
+        int width = powerOfTwoAtLeast(Math.max(16, maximumSize * 2));
+        sketch = new byte[width * SKETCH_DEPTH];
+        sketchMask = width - 1;
+        sampleSize = maximumSize * 10;
     }
 
     /**
-     * Get the maximum number of items in the pool
+     * Get the approximate number of bytes saved by returning strings from the pool instead of keeping the copies that were passed
+     * in
      * 
-     * @return the maximum number of items in the pool
+     * @return the approximate number of bytes saved
      */
-    public int getMaxPoolSize() {
-        return maxPoolSize;
+    public long getBytesSaved() {
+        return bytesSaved;
     }
 
     /**
-     * Get the cumulative total count of items that have been evicted from the pool
+     * Get the number of strings asked for that were already in the pool
      * 
-     * @return the cumulative total count of items that have been evicted from the pool
+     * @return the number of strings asked for that were already in the pool
      */
-    public int getNumEvictedCumulative() {
-        return numEvictedCumulative;
+    public long getHitCount() {
+        return hitCount;
     }
 
     /**
-     * Get the number of times the pool has been evicted
+     * Get the proportion of strings asked for that were already in the pool
      * 
-     * @return the number of times the pool has been evicted
+     * @return the proportion of strings asked for that were already in the pool, between 0 and 1 (0 if nothing has been asked
+     *         for)
      */
-    public int getNumEvictions() {
-        return numEvictions;
+    public double getHitRate() {
+        return requestCount == 0 ? 0 : (double) hitCount / requestCount;
     }
 
     /**
-     * Get the minimum usage to remain in the pool after eviction
+     * Get the maximum number of strings in the pool
      * 
-     * @return the minimum usage to remain in the pool after eviction
+     * @return the maximum number of strings in the pool
      */
-    public int getPoolUsageThreshold() {
-        return poolUsageThreshold;
+    public int getMaximumSize() {
+        return maximumSize;
     }
 
     /**
-     * Is the pool maxed out? Meaning - is it full, and evictions aren't helping?
+     * Get the number of strings asked for
      * 
-     * @return is the pool maxed out?
+     * @return the number of strings asked for
      */
-    public boolean isMaxedOut() {
-        return maxedOut;
+    public long getRequestCount() {
+        return requestCount;
     }
 
     /**
@@ -192,60 +234,158 @@ class StringCanonicalizer {
             return str;
         }
         if (str.length() == 0) {
-            return "".intern();
+            return "";
+        }
+        requestCount++;
+        int hash = spread(str.hashCode());
+        recordAccess(hash);
+
+        String canon = protectedSegment.get(str);
+        if (canon == null) {
+            canon = probation.remove(str);
+            if (canon != null) {
+                // Used again while on probation, so it's earned a place in the protected segment
+                protect(canon);
+            }
         }
-        CanonicalizedString canon;
-        canon = stringPool.get(str);
         if (canon != null) {
-            canon.count++;
-            return canon.value;
+            hitCount++;
+            if (canon != str) {
+                bytesSaved += STRING_OVERHEAD_BYTES + 2L * str.length();
+            }
+            return canon;
         }
 
-        // Pool is too big - try and evict the lowest used entries
-        if (stringPool.size() > maxPoolSize) {
-            evictLowValueEntries();
-            // If evicting didn't help, return the original string and mark the pool as maxed out to prevent thrashing
-            if (stringPool.size() > maxPoolSize) {
-                maxedOut = true;
+        if (probation.size() + protectedSegment.size() >= maximumSize) {
+            String victim = getVictim();
+            if (frequency(hash) <= frequency(spread(victim.hashCode()))) {
+                // Not seen often enough to be worth more than what we already have
                 return str;
             }
+            if (probation.remove(victim) == null) {
+                protectedSegment.remove(victim);
+            }
         }
-        canon = new CanonicalizedString(str);
-        stringPool.put(str, canon);
-        return canon.value;
+        probation.put(str, str);
+        return str;
     }
 
     /**
-     * Clear the string pool entirely
+     * Clear the string pool, the frequency sketch, and the statistics entirely
      */
     void reset() {
-        stringPool.clear();
-        numEvictedCumulative = 0;
-        numEvictions = 0;
-        maxedOut = false;
+        probation.clear();
+        protectedSegment.clear();
+        for (int i = 0; i < sketch.length; i++) {
+            sketch[i] = 0;
+        }
+        additions = 0;
+        requestCount = 0;
+        hitCount = 0;
+        bytesSaved = 0;
+    }
+
+    /**
+     * Get the number of strings in the pool
+     * 
+     * @return the number of strings in the pool
+     */
+    int size() {
+        return probation.size() + protectedSegment.size();
+    }
+
+    /**
+     * Get the estimated number of times a string has been seen recently
+     * 
+     * @param hash
+     *            the spread hash of the string
+     * @return the estimated number of times the string has been seen recently
+     */
+    private int frequency(int hash) {
+        int result = MAX_FREQUENCY;
+        for (int row = 0; row < SKETCH_DEPTH; row++) {
+            result = Math.min(result, sketch[indexOf(hash, row)]);
+        }
+        return result;
+    }
+
+    /**
+     * Get the string that would have to make way for a new one - the least recently used one on probation, or in the protected
+     * segment if nothing is on probation
+     * 
+     * @return the string that would have to make way for a new one
+     */
+    private String getVictim() {
+        Iterator<String> it = probation.isEmpty() ? protectedSegment.keySet().iterator() : probation.keySet().iterator();
+        return it.next();
     }
 
     /**
-     * Evict all items that have fewer than uses
+     * Get the index in the sketch of the count for a string in a row
+     * 
+     * @param hash
+     *            the spread hash of the string
+     * @param row
+     *            the row
+     * @return the index in the sketch
      */
-    private void evictLowValueEntries() {
-        if (maxedOut) {
-            return;
+    private int indexOf(int hash, int row) {
+        int h = (hash ^ SEEDS[row]) * 0x9E3779B9;
+        h ^= h >>> 16;
+        return row * (sketchMask + 1) + (h & sketchMask);
+    }
+
+    /**
+     * Move a string into the protected segment, demoting the least recently used protected string back to probation if the
+     * segment is full
+     * 
+     * @param canon
+     *            the string
+     */
+    private void protect(String canon) {
+        protectedSegment.put(canon, canon);
+        if (protectedSegment.size() > maximumProtectedSize) {
+            Iterator<Map.Entry<String, String>> it = protectedSegment.entrySet().iterator();
+            Map.Entry<String, String> demoted = it.next();
+            it.remove();
+            probation.put(demoted.getKey(), demoted.getValue());
         }
-        numEvictions++;
-        int before = stringPool.size();
-        for (CanonicalizedString canon : stringPool.values()) {
-            if (canon.count < poolUsageThreshold) {
-                stringPool.remove(canon.value);
+    }
+
+    /**
+     * Count a use of a string in the frequency sketch, halving all the counts every {@link #sampleSize} uses so that old
+     * popularity fades
+     * 
+     * @param hash
+     *            the spread hash of the string
+     */
+    private void recordAccess(int hash) {
+        boolean added = false;
+        for (int row = 0; row < SKETCH_DEPTH; row++) {
+            int i = indexOf(hash, row);
+            if (sketch[i] < MAX_FREQUENCY) {
+                sketch[i]++;
+                added = true;
             }
         }
-        int after = stringPool.size();
-        numEvictedCumulative += before - after;
-        if (before - after < 2) {
-            maxedOut = true;
+        if (added && ++additions >= sampleSize) {
+            for (int i = 0; i < sketch.length; i++) {
+                sketch[i] >>= 1;
+            }
+            additions /= 2;
         }
-        // System.out.println((before - after) + " item(s) evicted from string pool - was " + before + ", now " +
-        // after);
+    }
+
+    /**
+     * Mix the bits of a hash code, so that strings with similar hash codes end up in different places in the sketch
+     * 
+     * @param hashCode
+     *            the hash code
+     * @return the mixed-up hash
+     */
+    private int spread(int hashCode) {
+        int h = hashCode * 0x85EBCA6B;
+        return h ^ (h >>> 13);
     }
 
 }
@@ -34,7 +34,7 @@ import org.gedcom4j.model.StringTree;
 /**
  * Class for building {@link StringTree} objects for each root-level node in the input file. This class used to build a big
  * StringTree for the entire file, but since v3.0.0 it only builds a root-level node (plus a wrapper/container node) at a time
- * before it's discarded.
+ * before it's discarded. Once that node has been handed off, the builder can be {@link #reset()} and reused for the next one.
  * 
  * @author frizbog
  */
@@ -86,13 +86,23 @@ class StringTreeBuilder {
     /**
      * A base {@link StringTree} to hold a single root-level node
      */
-    private final StringTree wrapperNode = new StringTree();
+    private StringTree wrapperNode;
 
     /**
      * The most recently added node
      */
     private StringTree mostRecentlyAdded;
 
+    /**
+     * Was the most recent line skipped because the {@link ParseFilter} filtered it (or a line above it) out?
+     */
+    private boolean mostRecentlySkipped;
+
+    /**
+     * The number of nodes added to the tree since it was last reset
+     */
+    private int nodeCount;
+
     /**
      * The {@link GedcomParser} instance this object is building {@link StringTree} instances for
      */
@@ -111,7 +121,27 @@ class StringTreeBuilder {
     /**
      * A canonicalizing string pool to reduce the number of repeated instances of strings, without using String.intern()
      */
-    private final StringCanonicalizer canonizer = new StringCanonicalizer();
+    private final StringCanonicalizer canonizer;
+
+    /**
+     * Breaks each line into its pieces without copying it
+     */
+    private final LineTokenizer tokenizer;
+
+    /**
+     * The filter saying which lines to skip, or null if none are to be skipped
+     */
+    private final ParseFilter filter;
+
+    /**
+     * The level of the line that was filtered out, while the lines beneath it are being skipped - otherwise -1
+     */
+    private int skippingBelowLevel = -1;
+
+    /**
+     * Is the root-level node being built the header, which is never filtered?
+     */
+    private boolean inHeader;
 
     /**
      * Constructor
@@ -121,10 +151,27 @@ class StringTreeBuilder {
      * 
      */
     StringTreeBuilder(GedcomParser parser) {
+        this(parser, parser.getSymbolTable(), parser.getLineNum());
+    }
+
+    /**
+     * Constructor for building trees somewhere other than the parser's own thread, where the parser's symbol table and line number
+     * can't be used, or with a symbol table other than the parser's
+     * 
+     * @param parser
+     *            the {@link GedcomParser} this object will be assisting with making a {@link StringTree} for
+     * @param symbolTable
+     *            the table of canonical tags and xrefs to use
+     * @param lineNum
+     *            the number of lines in the file before the first line that will be appended
+     */
+    StringTreeBuilder(GedcomParser parser, SymbolTable symbolTable, int lineNum) {
         this.parser = parser;
-        getTree().setLevel(-1);
-        mostRecentlyAdded = null;
-        lineNum = parser.getLineNum();
+        tokenizer = new LineTokenizer(symbolTable);
+        canonizer = parser.createStringCanonicalizer();
+        filter = parser.getParseFilter();
+        this.lineNum = lineNum;
+        reset();
     }
 
     /**
@@ -156,41 +203,107 @@ class StringTreeBuilder {
 
         if (beginsWithLevelAndSpace) {
             addNewNode();
-            mostRecentlyAdded = treeForCurrentLine;
         } else {
             makeConcatenationOfPreviousNode();
         }
     }
 
+    /**
+     * Get the number of the line most recently appended
+     * 
+     * @return the number of the line most recently appended (1-based), or the number of lines before this builder's first line if
+     *         none have been appended yet
+     */
+    int getLineNum() {
+        return lineNum;
+    }
+
+    /**
+     * Get the number of nodes in the tree built so far
+     * 
+     * @return the number of nodes added to the tree since it was last reset, not counting the wrapper node
+     */
+    int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Discard everything built so far, to start building the next root-level node. Line numbers carry on from the last line
+     * appended.
+     */
+    void reset() {
+        wrapperNode = new StringTree();
+        wrapperNode.setLevel(-1);
+        Arrays.fill(lastNodeAtLevel, null);
+        mostRecentlyAdded = null;
+        mostRecentlySkipped = false;
+        nodeCount = 0;
+        skippingBelowLevel = -1;
+    }
+
+    /**
+     * Set the line number to carry on from
+     * 
+     * @param lineNum
+     *            the number of lines in the file before the next line that will be appended
+     */
+    void setLineNum(int lineNum) {
+        this.lineNum = lineNum;
+    }
+
     /**
      * Add a new node to the correct parent node in the StringTree
      * 
      * @throws GedcomParserException
-     *             if there are file lines that are not well formed - see {@link LinePieces#LinePieces(String, int)}
+     *             if there are file lines that are not well formed - see {@link LineTokenizer#tokenize(String, int)}
      */
     private void addNewNode() throws GedcomParserException {
-        LinePieces lp = new LinePieces(line, lineNum);
-        treeForCurrentLine.setLevel(lp.level);
-        treeForCurrentLine.setXref(lp.id);
-        treeForCurrentLine.setTag(lp.tag.intern());
-        treeForCurrentLine.setValue(canonizer.getCanonicalVersion(lp.remainder));
-        lp = null;
+        tokenizer.tokenize(line, lineNum);
+        int level = tokenizer.getLevel();
+        String tag = tokenizer.getTag();
+
+        mostRecentlySkipped = false;
+        if (skippingBelowLevel >= 0) {
+            if (level > skippingBelowLevel) {
+                mostRecentlySkipped = true;
+                return;
+            }
+            skippingBelowLevel = -1;
+        }
+        if (level == 0) {
+            inHeader = Tag.HEADER.equalsText(tag);
+        }
+        if (filter != null && (level == 0 || !inHeader) && filter.isSkipped(level, tag)) {
+            // Skip this line and everything beneath it, and make sure nothing that follows is added to anything before it
+            skippingBelowLevel = level;
+            mostRecentlySkipped = true;
+            Arrays.fill(lastNodeAtLevel, level, 100, null);
+            return;
+        }
+
+        treeForCurrentLine.setLevel(level);
+        treeForCurrentLine.setXref(tokenizer.getXref());
+        treeForCurrentLine.setTag(tag);
+        // Pointers are already canonical instances from the symbol table
+        treeForCurrentLine.setValue(tokenizer.isPointerValue() ? tokenizer.getValue() : canonizer.getCanonicalVersion(tokenizer
+                .getValue()));
 
         StringTree addTo = null;
-        if (treeForCurrentLine.getLevel() == 0) {
-            addTo = getTree();
+        if (level == 0) {
+            addTo = wrapperNode;
         } else {
-            addTo = lastNodeAtLevel[treeForCurrentLine.getLevel() - 1];
+            addTo = lastNodeAtLevel[level - 1];
         }
         if (addTo == null) {
-            parser.getErrors().add(treeForCurrentLine.getTag() + " tag at line " + treeForCurrentLine.getLineNum()
-                    + ": Unable to find suitable parent node at level " + (treeForCurrentLine.getLevel() - 1));
+            parser.getDiagnostics().add(DiagnosticCode.ORPHANED_LINE, lineNum, tag, Integer.valueOf(level - 1));
         } else {
             addTo.getChildren(true).add(treeForCurrentLine);
             treeForCurrentLine.setParent(addTo);
-            lastNodeAtLevel[treeForCurrentLine.getLevel()] = treeForCurrentLine;
+            lastNodeAtLevel[level] = treeForCurrentLine;
+            nodeCount++;
         }
-        Arrays.fill(lastNodeAtLevel, treeForCurrentLine.getLevel() + 1, 100, null);
+        mostRecentlyAdded = treeForCurrentLine;
+        Arrays.fill(lastNodeAtLevel, level + 1, 100, null);
     }
 
     /**
@@ -218,8 +331,12 @@ class StringTreeBuilder {
     private void makeConcatenationOfPreviousNode() {
         // Doesn't begin with a level number followed by a space, and we don't have strictLineBreaks
         // required, so it's probably meant to be a continuation of the previous text value.
+        if (mostRecentlySkipped) {
+            // Part of a line that was filtered out, so it goes too
+            return;
+        }
         if (mostRecentlyAdded == null) {
-            parser.getWarnings().add("Line " + lineNum + " did not begin with a level and tag, so it was discarded.");
+            parser.getDiagnostics().add(DiagnosticCode.LINE_WITHOUT_TAG_DISCARDED, lineNum);
         } else {
             // Try to add as a CONT line to previous node, as if the file had been properly escaped
             treeForCurrentLine.setLevel(mostRecentlyAdded.getLevel() + 1);
@@ -227,8 +344,11 @@ class StringTreeBuilder {
             treeForCurrentLine.setValue(line);
             treeForCurrentLine.setParent(mostRecentlyAdded);
             mostRecentlyAdded.getChildren(true).add(treeForCurrentLine);
-            parser.getWarnings().add("Line " + lineNum + " did not begin with a level and tag, so it was treated as a "
-                    + "non-standard continuation of the previous line.");
+            if (mostRecentlyAdded.getParent() != null) {
+                // Not beneath an orphaned line that was left out of the tree
+                nodeCount++;
+            }
+            parser.getDiagnostics().add(DiagnosticCode.LINE_WITHOUT_TAG_CONTINUED, lineNum);
         }
     }
 
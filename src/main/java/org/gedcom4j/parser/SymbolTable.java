@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import org.gedcom4j.model.enumerations.FamilyEventType;
+import org.gedcom4j.model.enumerations.IndividualAttributeType;
+import org.gedcom4j.model.enumerations.IndividualEventType;
+import org.gedcom4j.model.enumerations.LdsIndividualOrdinanceType;
+
+/**
+ * <p>
+ * A lookup table of canonical strings for tags and xrefs. A run of characters in a line can be looked up without first making a
+ * String out of it, so a tag or xref that has been seen before costs no allocation at all, and every occurrence of the same tag or
+ * xref shares a single String instance.
+ * </p>
+ * <p>
+ * The table is pre-loaded with the text of all the {@link Tag}s and the tags of the event, attribute, and ordinance type
+ * enumerations, so the canonical instances of those tags are the very same instances the parsers compare against.
+ * </p>
+ * <p>
+ * A table belongs to a single parser and load, and is simply discarded with it, so unlike String.intern() it never leaves
+ * anything behind in a JVM-wide table, and there is no contention between threads loading different files. This class is not
+ * thread-safe.
+ * </p>
+ * <p>
+ * A table used for a whole file grows with every distinct xref in it. That's no loss when the whole file is loaded into memory
+ * anyway, but when records are only held one at a time (streaming, iterating, or reading records by index) the table can be given
+ * a maximum size instead. Once it is full, it forgets everything but the pre-loaded tags and starts filling up again. Strings
+ * handed out before then stay perfectly usable - they just aren't shared with the ones handed out after.
+ * </p>
+ * 
+ * @author frizbog
+ */
+class SymbolTable {
+
+    /**
+     * The initial capacity of the table. Must be a power of two.
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * The default maximum size for a table that is only used for one record at a time
+     */
+    static final int DEFAULT_MAXIMUM_SIZE = 8192;
+
+    /**
+     * A table holding only the pre-loaded tags, which {@link #clear()} copies. Nothing is ever added to it.
+     */
+    private static final SymbolTable TAGS_ONLY = new SymbolTable();
+
+    /**
+     * Spread the bits of a hash code so that the low-order bits used to pick a slot depend on the whole hash
+     * 
+     * @param h
+     *            the hash code
+     * @return the spread hash code
+     */
+    private static int spread(int h) {
+        return h ^ h >>> 16;
+    }
+
+    /**
+     * The canonical strings, in an open-addressed hash table. Null entries are empty slots.
+     */
+    private String[] entries = new String[INITIAL_CAPACITY];
+
+    /**
+     * The hash codes of the strings in {@link #entries}, so they need not be recomputed when probing or growing
+     */
+    private int[] hashes = new int[INITIAL_CAPACITY];
+
+    /**
+     * The number of strings in the table
+     */
+    private int size;
+
+    /**
+     * The most strings the table will hold before it forgets everything but the pre-loaded tags
+     */
+    private final int maximumSize;
+
+    /**
+     * Constructor for a table that grows without limit
+     */
+    SymbolTable() {
+        maximumSize = Integer.MAX_VALUE;
+        for (Tag t : Tag.values()) {
+            get(t.tagText);
+        }
+        for (IndividualEventType t : IndividualEventType.values()) {
+            get(t.getTag());
+        }
+        for (IndividualAttributeType t : IndividualAttributeType.values()) {
+            get(t.getTag());
+        }
+        for (FamilyEventType t : FamilyEventType.values()) {
+            get(t.getTag());
+        }
+        for (LdsIndividualOrdinanceType t : LdsIndividualOrdinanceType.values()) {
+            get(t.getTag());
+        }
+    }
+
+    /**
+     * Constructor for a table with a maximum size
+     * 
+     * @param maximumSize
+     *            the most strings the table will hold, including the pre-loaded tags, before it forgets everything but those tags.
+     *            Must be more than the number of pre-loaded tags.
+     */
+    SymbolTable(int maximumSize) {
+        if (maximumSize <= TAGS_ONLY.size) {
+            throw new IllegalArgumentException("Maximum size must be more than the " + TAGS_ONLY.size + " pre-loaded tags");
+        }
+        this.maximumSize = maximumSize;
+        clear();
+    }
+
+    /**
+     * Get the canonical instance of a string, adding it to the table if it isn't already there
+     * 
+     * @param s
+     *            the string
+     * @return the canonical instance of the string
+     */
+    String get(String s) {
+        return get(s, 0, s.length());
+    }
+
+    /**
+     * Get the canonical instance of a run of characters within a string, adding it to the table if it isn't already there. No
+     * String is created unless the run of characters has not been seen before.
+     * 
+     * @param s
+     *            the string containing the characters
+     * @param start
+     *            the index of the first character
+     * @param end
+     *            the index after the last character
+     * @return the canonical instance of the characters from <code>start</code> (inclusive) to <code>end</code> (exclusive)
+     */
+    String get(String s, int start, int end) {
+        // Find first - it might grow the table and replace the array
+        int slot = find(s, start, end);
+        return entries[slot];
+    }
+
+    /**
+     * Get the number of strings in the table
+     * 
+     * @return the number of strings in the table
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Forget everything but the pre-loaded tags
+     */
+    private void clear() {
+        entries = TAGS_ONLY.entries.clone();
+        hashes = TAGS_ONLY.hashes.clone();
+        size = TAGS_ONLY.size;
+    }
+
+    /**
+     * Find the slot for a run of characters within a string, adding it to the table if it isn't already there. No String is
+     * created unless the run of characters has not been seen before.
+     * 
+     * @param s
+     *            the string containing the characters
+     * @param start
+     *            the index of the first character
+     * @param end
+     *            the index after the last character
+     * @return the slot in {@link #entries} where the characters are
+     */
+    private int find(String s, int start, int end) {
+        int len = end - start;
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + s.charAt(i);
+        }
+        int mask = entries.length - 1;
+        int slot = spread(h) & mask;
+        String e = entries[slot];
+        while (e != null) {
+            if (hashes[slot] == h && e.length() == len && s.regionMatches(start, e, 0, len)) {
+                return slot;
+            }
+            slot = slot + 1 & mask;
+            e = entries[slot];
+        }
+        if (size >= maximumSize) {
+            clear();
+            return find(s, start, end);
+        }
+        entries[slot] = start == 0 && end == s.length() ? s : s.substring(start, end);
+        hashes[slot] = h;
+        size++;
+        if (size * 4 > entries.length * 3) {
+            grow();
+            return find(s, start, end);
+        }
+        return slot;
+    }
+
+    /**
+     * Double the capacity of the table, rehashing everything in it
+     */
+    private void grow() {
+        String[] oldEntries = entries;
+        int[] oldHashes = hashes;
+        entries = new String[oldEntries.length * 2];
+        hashes = new int[oldEntries.length * 2];
+        int mask = entries.length - 1;
+        for (int i = 0; i < oldEntries.length; i++) {
+            if (oldEntries[i] != null) {
+                int slot = spread(oldHashes[i]) & mask;
+                while (entries[slot] != null) {
+                    slot = slot + 1 & mask;
+                }
+                entries[slot] = oldEntries[i];
+                hashes[slot] = oldHashes[i];
+            }
+        }
+    }
+}
@@ -26,6 +26,9 @@
  */
 package org.gedcom4j.parser;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * <p>
  * An enumeration of many - not all - of the tags supported by GEDCOM 5.5 and 5.5.1. Some noted omissions include Individual Event
@@ -33,7 +36,9 @@ package org.gedcom4j.parser;
  * </p>
  * <p>
  * <b>Note:</b> There are multiple tags that have the same tag text. This represents the different uses of the same
- * three-to-five-character tag string in different contexts. As such, there is no function for deriving a tag from its text.
+ * three-to-five-character tag string in different contexts. As such, {@link #forText(String)} can only give the first tag with a
+ * given text, and parsers that dispatch on its result have to allow for that.
+ * </p>
  * 
  * @author frizbog
  */
@@ -225,6 +230,34 @@ enum Tag {
     /** Wife */
     WIFE("WIFE");
 
+    /**
+     * The tags, by their text, for dispatching on the tag of a line without comparing it to every tag in turn. Where more than
+     * one tag has the same text, only the first is in the map.
+     */
+    private static final Map<String, Tag> BY_TEXT = new HashMap<>();
+
+    static {
+        for (Tag t : values()) {
+            if (!BY_TEXT.containsKey(t.tagText)) {
+                BY_TEXT.put(t.tagText, t);
+            }
+        }
+    }
+
+    /**
+     * Get the tag with the supplied text, in constant time
+     * 
+     * @param text
+     *            the text of the tag
+     * @return the (first) tag with that text, or null if there is no such tag
+     */
+    static Tag forText(String text) {
+        if (text == null) {
+            return null;
+        }
+        return BY_TEXT.get(text);
+    }
+
     /**
      * The text string for the tag
      */
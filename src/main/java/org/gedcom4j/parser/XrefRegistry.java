@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.Multimedia;
+import org.gedcom4j.model.NoteRecord;
+import org.gedcom4j.model.Repository;
+import org.gedcom4j.model.Source;
+import org.gedcom4j.model.Submitter;
+
+/**
+ * <p>
+ * A thread-safe registry of the records in a file, by xref, for when records are being parsed on several threads at once (see
+ * {@link ParallelRecordParser}). It does the same job as the maps in {@link Gedcom} do for a single-threaded load: the first time
+ * an xref is looked up, whether by the record itself or by something that refers to it, an object is created for it, and every
+ * later lookup of that xref gets back the same object. So records that refer to each other end up linked together no matter which
+ * order (or which thread) they're parsed in.
+ * </p>
+ * <p>
+ * Once all the records are parsed, {@link #resolveInto(Gedcom)} puts everything in the registry into the {@link Gedcom}.
+ * </p>
+ * <p>
+ * A record with no xref (a root-level record with none, or a pointer with no value) is kept under a null xref, just as the maps in
+ * {@link Gedcom} do. Since the concurrent maps here can't hold null keys, a null xref is stored under a placeholder key instead.
+ * </p>
+ * 
+ * @author frizbog
+ */
+final class XrefRegistry {
+
+    /**
+     * The key that records with a null xref are stored under
+     */
+    private static final Object NULL_XREF = new Object();
+
+    /**
+     * The families, by xref
+     */
+    private final ConcurrentMap<Object, Family> families = new ConcurrentHashMap<>();
+
+    /**
+     * The individuals, by xref
+     */
+    private final ConcurrentMap<Object, Individual> individuals = new ConcurrentHashMap<>();
+
+    /**
+     * The multimedia records, by xref
+     */
+    private final ConcurrentMap<Object, Multimedia> multimedia = new ConcurrentHashMap<>();
+
+    /**
+     * The note records, by xref
+     */
+    private final ConcurrentMap<Object, NoteRecord> notes = new ConcurrentHashMap<>();
+
+    /**
+     * The repositories, by xref
+     */
+    private final ConcurrentMap<Object, Repository> repositories = new ConcurrentHashMap<>();
+
+    /**
+     * The sources, by xref
+     */
+    private final ConcurrentMap<Object, Source> sources = new ConcurrentHashMap<>();
+
+    /**
+     * The submitters, by xref
+     */
+    private final ConcurrentMap<Object, Submitter> submitters = new ConcurrentHashMap<>();
+
+    /**
+     * Get a family by its xref, creating it if needed
+     * 
+     * @param xref
+     *            the xref of the family
+     * @return the family with the specified xref
+     */
+    Family getFamily(String xref) {
+        Family f = families.get(key(xref));
+        if (f == null) {
+            f = new Family();
+            f.setXref(xref);
+            Family existing = families.putIfAbsent(key(xref), f);
+            if (existing != null) {
+                f = existing;
+            }
+        }
+        return f;
+    }
+
+    /**
+     * Get an individual by their xref, creating them if needed
+     * 
+     * @param xref
+     *            the xref of the individual
+     * @return the individual with the specified xref
+     */
+    Individual getIndividual(String xref) {
+        Individual i = individuals.get(key(xref));
+        if (i == null) {
+            i = new Individual();
+            i.setXref(xref);
+            Individual existing = individuals.putIfAbsent(key(xref), i);
+            if (existing != null) {
+                i = existing;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Get a multimedia item by its xref, creating it if needed
+     * 
+     * @param xref
+     *            the xref of the multimedia item
+     * @return the multimedia item with the specified xref
+     */
+    Multimedia getMultimedia(String xref) {
+        Multimedia m = multimedia.get(key(xref));
+        if (m == null) {
+            m = new Multimedia();
+            m.setXref(xref);
+            Multimedia existing = multimedia.putIfAbsent(key(xref), m);
+            if (existing != null) {
+                m = existing;
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Get a note record by its xref, creating it if needed
+     * 
+     * @param xref
+     *            the xref of the note record
+     * @return the note record with the specified xref
+     */
+    NoteRecord getNoteRecord(String xref) {
+        NoteRecord nr = notes.get(key(xref));
+        if (nr == null) {
+            nr = new NoteRecord(xref);
+            NoteRecord existing = notes.putIfAbsent(key(xref), nr);
+            if (existing != null) {
+                nr = existing;
+            }
+        }
+        return nr;
+    }
+
+    /**
+     * Get a repository by its xref, creating it if needed
+     * 
+     * @param xref
+     *            the xref of the repository
+     * @return the repository with the specified xref
+     */
+    Repository getRepository(String xref) {
+        Repository r = repositories.get(key(xref));
+        if (r == null) {
+            r = new Repository();
+            r.setXref(xref);
+            Repository existing = repositories.putIfAbsent(key(xref), r);
+            if (existing != null) {
+                r = existing;
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Get a source by its xref, creating it if needed
+     * 
+     * @param xref
+     *            the xref of the source
+     * @return the source with the specified xref
+     */
+    Source getSource(String xref) {
+        Source src = sources.get(key(xref));
+        if (src == null) {
+            src = new Source(xref);
+            Source existing = sources.putIfAbsent(key(xref), src);
+            if (existing != null) {
+                src = existing;
+            }
+        }
+        return src;
+    }
+
+    /**
+     * Get a submitter by their xref, creating them if needed
+     * 
+     * @param xref
+     *            the xref of the submitter
+     * @return the submitter with the specified xref
+     */
+    Submitter getSubmitter(String xref) {
+        Submitter s = submitters.get(key(xref));
+        if (s == null) {
+            s = new Submitter();
+            s.setName("UNSPECIFIED");
+            s.setXref(xref);
+            Submitter existing = submitters.putIfAbsent(key(xref), s);
+            if (existing != null) {
+                s = existing;
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Put everything in this registry into the maps in a {@link Gedcom}. Records already in the {@link Gedcom} with the same xref
+     * are replaced.
+     * 
+     * @param gedcom
+     *            the {@link Gedcom} to put the records into
+     */
+    void resolveInto(Gedcom gedcom) {
+        resolve(families, gedcom.getFamilies());
+        resolve(individuals, gedcom.getIndividuals());
+        resolve(multimedia, gedcom.getMultimedia());
+        resolve(notes, gedcom.getNotes());
+        resolve(repositories, gedcom.getRepositories());
+        resolve(sources, gedcom.getSources());
+        resolve(submitters, gedcom.getSubmitters());
+    }
+
+    /**
+     * Get the key a record is stored under in this registry
+     * 
+     * @param xref
+     *            the xref of the record, which may be null
+     * @return the key for the record
+     */
+    private Object key(String xref) {
+        return xref == null ? NULL_XREF : xref;
+    }
+
+    /**
+     * Put all the records from one of the maps in this registry into the corresponding map in a {@link Gedcom}
+     * 
+     * @param from
+     *            the map in this registry
+     * @param into
+     *            the map in the {@link Gedcom}
+     * @param <T>
+     *            the type of record
+     */
+    private <T> void resolve(ConcurrentMap<Object, T> from, Map<String, T> into) {
+        for (Entry<Object, T> e : from.entrySet()) {
+            Object k = e.getKey();
+            into.put(k == NULL_XREF ? null : (String) k, e.getValue());
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser.event;
+
+import java.util.EventObject;
+
+import org.gedcom4j.parser.LoadMetrics;
+
+/**
+ * An event to hold the metrics for a load that has finished.
+ * 
+ * @author frizbog
+ */
+public class LoadMetricsEvent extends EventObject {
+
+    /**
+     * Serial version uid
+     */
+    private static final long serialVersionUID = -2718052457730264871L;
+
+    /**
+     * The metrics for the load
+     */
+    private final LoadMetrics metrics;
+
+    /**
+     * Constructor
+     * 
+     * @param source
+     *            the parser that did the load
+     * @param metrics
+     *            the metrics for the load
+     */
+    public LoadMetricsEvent(Object source, LoadMetrics metrics) {
+        super(source);
+        this.metrics = metrics;
+    }
+
+    /**
+     * Get the metrics for the load
+     * 
+     * @return the metrics for the load
+     */
+    public LoadMetrics getMetrics() {
+        return metrics;
+    }
+
+}
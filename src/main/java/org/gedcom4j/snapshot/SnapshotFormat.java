@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.snapshot;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.ModelElement;
+
+/**
+ * Constants and class descriptions shared by the {@link SnapshotWriter} and {@link SnapshotReader}.
+ * <p>
+ * A snapshot starts with {@link #MAGIC} and {@link #VERSION}, followed by a table of all the records in the {@link Gedcom}'s maps
+ * (map key and class of each), the fields of the {@link Gedcom} itself, and then the fields of each record in table order. Every
+ * value is a varint tag followed by its payload. Strings are written out the first time they are seen and by their index in the
+ * string table after that; records are written by their index in the record table; other objects seen more than once are written
+ * by their index in the object table. The first time a class is seen, its name and the names of its fields (or enum constants) are
+ * written, so a snapshot written by a different version of the model is detected rather than misread.
+ * 
+ * @author frizbog
+ */
+final class SnapshotFormat {
+
+    /**
+     * The bytes every snapshot starts with
+     */
+    static final byte[] MAGIC = { 'G', '4', 'J', 'S' };
+
+    /**
+     * The version of the snapshot format
+     */
+    static final int VERSION = 1;
+
+    /** Tag for a null value */
+    static final int NULL = 0;
+
+    /** Tag for a string seen for the first time, followed by its length in UTF-8 bytes and the bytes */
+    static final int STRING = 1;
+
+    /** Tag for a string seen before, followed by its index in the string table */
+    static final int STRING_REF = 2;
+
+    /** Tag for an object seen for the first time, followed by its class and its fields */
+    static final int OBJECT = 3;
+
+    /** Tag for an object seen before, followed by its index in the object table */
+    static final int OBJECT_REF = 4;
+
+    /** Tag for a reference to a record, followed by its index in the record table */
+    static final int RECORD_REF = 5;
+
+    /** Tag for a list, followed by its size and its elements */
+    static final int LIST = 6;
+
+    /** Tag for an enum constant, followed by its class and ordinal */
+    static final int ENUM = 7;
+
+    /** Tag for an integer, followed by its zigzag-encoded value */
+    static final int INT = 8;
+
+    /** Tag for {@link Boolean#TRUE} */
+    static final int TRUE = 9;
+
+    /** Tag for {@link Boolean#FALSE} */
+    static final int FALSE = 10;
+
+    /**
+     * The package (and subpackages) that classes in a snapshot must belong to
+     */
+    private static final String MODEL_PACKAGE = "org.gedcom4j.model.";
+
+    /**
+     * Descriptions of the classes seen so far, keyed by class
+     */
+    private static final Map<Class<?>, ClassDescription> DESCRIPTIONS = new ConcurrentHashMap<>();
+
+    /**
+     * Describes a class that can appear in a snapshot
+     */
+    static final class ClassDescription {
+        /**
+         * The constructor used to create instances when reading, or null for enums
+         */
+        final Constructor<?> constructor;
+
+        /**
+         * The fields written for instances of the class, in order. Empty for enums.
+         */
+        final Field[] fields;
+
+        /**
+         * The names of the fields, or of the constants if the class is an enum. Written with the class name so that changes to the
+         * model are detected.
+         */
+        final String[] memberNames;
+
+        /**
+         * Constructor
+         * 
+         * @param c
+         *            the class to describe
+         */
+        ClassDescription(Class<?> c) {
+            if (c.isEnum()) {
+                constructor = null;
+                fields = new Field[0];
+                Object[] constants = c.getEnumConstants();
+                memberNames = new String[constants.length];
+                for (int i = 0; i < constants.length; i++) {
+                    memberNames[i] = ((Enum<?>) constants[i]).name();
+                }
+                return;
+            }
+            constructor = findConstructor(c);
+            List<Field> result = new ArrayList<>();
+            List<Class<?>> hierarchy = new ArrayList<>();
+            for (Class<?> k = c; k != null && k != Object.class; k = k.getSuperclass()) {
+                hierarchy.add(k);
+            }
+            Collections.reverse(hierarchy);
+            for (Class<?> k : hierarchy) {
+                List<Field> declared = new ArrayList<>(Arrays.asList(k.getDeclaredFields()));
+                Collections.sort(declared, new Comparator<Field>() {
+                    @Override
+                    public int compare(Field f1, Field f2) {
+                        return f1.getName().compareTo(f2.getName());
+                    }
+                });
+                for (Field f : declared) {
+                    int modifiers = f.getModifiers();
+                    if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || f.isSynthetic()) {
+                        continue;
+                    }
+                    if (k == Gedcom.class && Map.class.isAssignableFrom(f.getType())) {
+                        // The record maps are written as the record table
+                        continue;
+                    }
+                    f.setAccessible(true);
+                    result.add(f);
+                }
+            }
+            fields = result.toArray(new Field[result.size()]);
+            memberNames = new String[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                memberNames[i] = fields[i].getName();
+            }
+        }
+
+        /**
+         * Find the constructor to use when reading instances of the class: the no-arg constructor if there is one, otherwise the
+         * one taking a single string (which will be passed null, since all the fields are set afterwards anyway)
+         * 
+         * @param c
+         *            the class
+         * @return the constructor
+         * @throws IllegalArgumentException
+         *             if the class has neither constructor
+         */
+        private static Constructor<?> findConstructor(Class<?> c) {
+            Constructor<?> result;
+            try {
+                result = c.getDeclaredConstructor();
+            } catch (NoSuchMethodException e) {
+                try {
+                    result = c.getDeclaredConstructor(String.class);
+                } catch (NoSuchMethodException e2) {
+                    throw new IllegalArgumentException(c.getName() + " has no constructor usable for snapshots", e2);
+                }
+            }
+            result.setAccessible(true);
+            return result;
+        }
+    }
+
+    /**
+     * Private constructor prevents instantiation
+     */
+    private SnapshotFormat() {
+        super();
+    }
+
+    /**
+     * Get the description of a class
+     * 
+     * @param c
+     *            the class
+     * @return the description of the class
+     * @throws IllegalArgumentException
+     *             if the class cannot appear in a snapshot
+     */
+    static ClassDescription describe(Class<?> c) {
+        ClassDescription result = DESCRIPTIONS.get(c);
+        if (result == null) {
+            if (!isSupported(c)) {
+                throw new IllegalArgumentException(c.getName() + " cannot be written to a snapshot");
+            }
+            result = new ClassDescription(c);
+            DESCRIPTIONS.put(c, result);
+        }
+        return result;
+    }
+
+    /**
+     * Is the named class one that can appear in a snapshot? Checked before the class is loaded, so that a corrupted or malicious
+     * snapshot cannot cause arbitrary classes to be initialized.
+     * 
+     * @param className
+     *            the name of the class
+     * @return true if the class is in the model package
+     */
+    static boolean isModelClassName(String className) {
+        return className != null && className.startsWith(MODEL_PACKAGE);
+    }
+
+    /**
+     * Is the class one that can appear in a snapshot?
+     * 
+     * @param c
+     *            the class
+     * @return true if the class is a concrete model element or an enumeration in the model package
+     */
+    static boolean isSupported(Class<?> c) {
+        if (!isModelClassName(c.getName())) {
+            return false;
+        }
+        if (c.isEnum()) {
+            return true;
+        }
+        return ModelElement.class.isAssignableFrom(c) && !c.isInterface() && !Modifier.isAbstract(c.getModifiers());
+    }
+
+    /**
+     * Get the record maps of a {@link Gedcom}, in the order they are written to the record table
+     * 
+     * @param gedcom
+     *            the gedcom
+     * @return the record maps
+     */
+    static List<Map<String, ? extends ModelElement>> recordMaps(Gedcom gedcom) {
+        List<Map<String, ? extends ModelElement>> result = new ArrayList<>();
+        result.add(gedcom.getFamilies());
+        result.add(gedcom.getIndividuals());
+        result.add(gedcom.getMultimedia());
+        result.add(gedcom.getNotes());
+        result.add(gedcom.getRepositories());
+        result.add(gedcom.getSources());
+        result.add(gedcom.getSubmitters());
+        return result;
+    }
+}
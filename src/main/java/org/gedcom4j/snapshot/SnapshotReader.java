@@ -0,0 +1,391 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.snapshot.SnapshotFormat.ClassDescription;
+
+/**
+ * <p>
+ * Reads a snapshot written by {@link SnapshotWriter} back into a {@link Gedcom}. The result is equal to the {@link Gedcom} that was
+ * written, including references between records, which point at the same objects as the {@link Gedcom}'s maps.
+ * </p>
+ * <p>
+ * Usage:
+ * </p>
+ * 
+ * <pre>
+ * Gedcom g = new SnapshotReader().read(&quot;mytree.g4js&quot;);
+ * </pre>
+ * <p>
+ * A snapshot that is not a snapshot at all, is truncated, or was written by a version of gedcom4j whose object model differs from
+ * this one is rejected with a {@link StreamCorruptedException} or {@link EOFException}; callers caching parsed files can treat
+ * either as a cache miss and reparse the original file.
+ * </p>
+ * 
+ * @author frizbog
+ */
+public class SnapshotReader {
+
+    /**
+     * The stream being read
+     */
+    private DataInputStream in;
+
+    /**
+     * The strings read so far, in order
+     */
+    private final List<String> strings = new ArrayList<>();
+
+    /**
+     * The classes read so far, in order
+     */
+    private final List<Class<?>> classes = new ArrayList<>();
+
+    /**
+     * The non-record objects read so far, in order
+     */
+    private final List<Object> objects = new ArrayList<>();
+
+    /**
+     * The records, in record table order
+     */
+    private final List<ModelElement> records = new ArrayList<>();
+
+    /**
+     * Read a snapshot from a file
+     * 
+     * @param file
+     *            the file to read
+     * @return the gedcom that was written to the snapshot
+     * @throws IOException
+     *             if the file cannot be read or is not a valid snapshot
+     */
+    public Gedcom read(File file) throws IOException {
+        try (InputStream i = new FileInputStream(file)) {
+            return read(i);
+        }
+    }
+
+    /**
+     * Read a snapshot from a stream. The stream is not closed.
+     * 
+     * @param inputStream
+     *            the stream to read
+     * @return the gedcom that was written to the snapshot
+     * @throws IOException
+     *             if the stream cannot be read or is not a valid snapshot
+     */
+    public Gedcom read(InputStream inputStream) throws IOException {
+        in = new DataInputStream(inputStream instanceof BufferedInputStream ? inputStream : new BufferedInputStream(inputStream));
+        strings.clear();
+        classes.clear();
+        objects.clear();
+        records.clear();
+        try {
+            byte[] magic = new byte[SnapshotFormat.MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, SnapshotFormat.MAGIC)) {
+                throw new StreamCorruptedException("Not a gedcom4j snapshot");
+            }
+            int version = readVarint();
+            if (version != SnapshotFormat.VERSION) {
+                throw new StreamCorruptedException("Unsupported snapshot version " + version);
+            }
+
+            Gedcom result = new Gedcom();
+            for (Map<String, ? extends ModelElement> m : SnapshotFormat.recordMaps(result)) {
+                @SuppressWarnings("unchecked")
+                Map<String, ModelElement> map = (Map<String, ModelElement>) m;
+                int count = readLength();
+                for (int i = 0; i < count; i++) {
+                    String key = readString();
+                    ModelElement r = (ModelElement) newInstance(readClass());
+                    map.put(key, r);
+                    records.add(r);
+                }
+            }
+
+            if (readClass() != Gedcom.class) {
+                throw new StreamCorruptedException("Snapshot does not contain a Gedcom");
+            }
+            readFields(result);
+            for (ModelElement r : records) {
+                readFields(r);
+            }
+            return result;
+        } finally {
+            in = null;
+        }
+    }
+
+    /**
+     * Read a snapshot from a file
+     * 
+     * @param filename
+     *            the name of the file to read
+     * @return the gedcom that was written to the snapshot
+     * @throws IOException
+     *             if the file cannot be read or is not a valid snapshot
+     */
+    public Gedcom read(String filename) throws IOException {
+        return read(new File(filename));
+    }
+
+    /**
+     * Get an entry from one of the tables, checking the index
+     * 
+     * @param table
+     *            the table
+     * @param index
+     *            the index
+     * @param <T>
+     *            the type of the entries in the table
+     * @return the entry
+     * @throws StreamCorruptedException
+     *             if the index is out of range
+     */
+    private <T> T lookup(List<T> table, int index) throws StreamCorruptedException {
+        if (index < 0 || index >= table.size()) {
+            throw new StreamCorruptedException("Snapshot refers to entry " + index + " of a table with " + table.size() + " entries");
+        }
+        return table.get(index);
+    }
+
+    /**
+     * Create an instance of a class, whose fields are about to be read
+     * 
+     * @param c
+     *            the class
+     * @return the new instance
+     * @throws StreamCorruptedException
+     *             if the class is an enum or cannot be instantiated
+     */
+    private Object newInstance(Class<?> c) throws StreamCorruptedException {
+        ClassDescription d = SnapshotFormat.describe(c);
+        if (d.constructor == null) {
+            throw new StreamCorruptedException("Snapshot contains an instance of enum " + c.getName());
+        }
+        try {
+            if (d.constructor.getParameterTypes().length == 0) {
+                return d.constructor.newInstance();
+            }
+            return d.constructor.newInstance((Object) null);
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            StreamCorruptedException sce = new StreamCorruptedException("Unable to create " + c.getName());
+            sce.initCause(e);
+            throw sce;
+        }
+    }
+
+    /**
+     * Read a class: its index if it has been read before, otherwise its name and member names, which must match the class as it
+     * is now
+     * 
+     * @return the class
+     * @throws IOException
+     *             if the stream cannot be read, or the class is not one that can appear in a snapshot or has changed since the
+     *             snapshot was written
+     */
+    private Class<?> readClass() throws IOException {
+        int index = readVarint();
+        if (index != 0) {
+            return lookup(classes, index - 1);
+        }
+        String className = readString();
+        if (!SnapshotFormat.isModelClassName(className)) {
+            throw new StreamCorruptedException("Snapshot contains unsupported class " + className);
+        }
+        Class<?> c;
+        try {
+            c = Class.forName(className, false, SnapshotReader.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            StreamCorruptedException sce = new StreamCorruptedException("Snapshot was written by an incompatible version; class "
+                    + className + " does not exist");
+            sce.initCause(e);
+            throw sce;
+        }
+        if (!SnapshotFormat.isSupported(c)) {
+            throw new StreamCorruptedException("Snapshot contains unsupported class " + className);
+        }
+        String[] expected = SnapshotFormat.describe(c).memberNames;
+        int count = readLength();
+        boolean matches = count == expected.length;
+        for (int i = 0; i < count; i++) {
+            String name = readString();
+            matches = matches && expected[i].equals(name);
+        }
+        if (!matches) {
+            throw new StreamCorruptedException("Snapshot was written by an incompatible version; class " + className + " has changed");
+        }
+        classes.add(c);
+        return c;
+    }
+
+    /**
+     * Read the fields of an object, in the order given by its class description
+     * 
+     * @param o
+     *            the object
+     * @throws IOException
+     *             if the stream cannot be read or a value does not fit its field
+     */
+    private void readFields(Object o) throws IOException {
+        for (Field f : SnapshotFormat.describe(o.getClass()).fields) {
+            Object v = readValue();
+            try {
+                f.set(o, v);
+            } catch (IllegalArgumentException | IllegalAccessException e) {
+                StreamCorruptedException sce = new StreamCorruptedException("Snapshot value does not fit field " + f.getName() + " of "
+                        + o.getClass().getName());
+                sce.initCause(e);
+                throw sce;
+            }
+        }
+    }
+
+    /**
+     * Read a varint giving a count or length
+     * 
+     * @return the count or length
+     * @throws IOException
+     *             if the stream cannot be read or the value is negative
+     */
+    private int readLength() throws IOException {
+        int result = readVarint();
+        if (result < 0) {
+            throw new StreamCorruptedException("Negative length in snapshot");
+        }
+        return result;
+    }
+
+    /**
+     * Read a value that must be a string (or null)
+     * 
+     * @return the string
+     * @throws IOException
+     *             if the stream cannot be read or the value is not a string
+     */
+    private String readString() throws IOException {
+        Object v = readValue();
+        if (v != null && !(v instanceof String)) {
+            throw new StreamCorruptedException("Expected a string in snapshot");
+        }
+        return (String) v;
+    }
+
+    /**
+     * Read a tagged value
+     * 
+     * @return the value
+     * @throws IOException
+     *             if the stream cannot be read or is corrupt
+     */
+    private Object readValue() throws IOException {
+        int tag = readVarint();
+        switch (tag) {
+            case SnapshotFormat.NULL:
+                return null;
+            case SnapshotFormat.STRING:
+                byte[] bytes = new byte[readLength()];
+                in.readFully(bytes);
+                String s = new String(bytes, StandardCharsets.UTF_8);
+                strings.add(s);
+                return s;
+            case SnapshotFormat.STRING_REF:
+                return lookup(strings, readVarint());
+            case SnapshotFormat.OBJECT:
+                Class<?> c = readClass();
+                Object o = newInstance(c);
+                objects.add(o);
+                readFields(o);
+                return o;
+            case SnapshotFormat.OBJECT_REF:
+                return lookup(objects, readVarint());
+            case SnapshotFormat.RECORD_REF:
+                return lookup(records, readVarint());
+            case SnapshotFormat.LIST:
+                int size = readLength();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue());
+                }
+                return list;
+            case SnapshotFormat.ENUM:
+                Class<?> e = readClass();
+                if (!e.isEnum()) {
+                    throw new StreamCorruptedException("Snapshot contains " + e.getName() + " where an enum was expected");
+                }
+                return lookup(Arrays.asList(e.getEnumConstants()), readVarint());
+            case SnapshotFormat.INT:
+                int i = readVarint();
+                return Integer.valueOf((i >>> 1) ^ -(i & 1));
+            case SnapshotFormat.TRUE:
+                return Boolean.TRUE;
+            case SnapshotFormat.FALSE:
+                return Boolean.FALSE;
+            default:
+                throw new StreamCorruptedException("Unknown value tag " + tag + " in snapshot");
+        }
+    }
+
+    /**
+     * Read an unsigned varint
+     * 
+     * @return the value
+     * @throws IOException
+     *             if the stream cannot be read, or the varint is longer than five bytes
+     */
+    private int readVarint() throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new StreamCorruptedException("Malformed varint in snapshot");
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.snapshot.SnapshotFormat.ClassDescription;
+
+/**
+ * <p>
+ * Writes a {@link Gedcom} to a compact binary snapshot, which {@link SnapshotReader} can turn back into an equal {@link Gedcom}
+ * much faster than the original GEDCOM file could be reparsed. This is intended for caching a parsed (and validated) file on disk;
+ * it is not an interchange format, and a snapshot can only be read by a version of gedcom4j with the same object model.
+ * </p>
+ * <p>
+ * Rather than serializing the object graph, the snapshot stores each distinct string once, writes numbers as varints, and writes
+ * references between records as indexes into a table of records. See {@link SnapshotFormat} for the layout.
+ * </p>
+ * <p>
+ * Usage:
+ * </p>
+ * 
+ * <pre>
+ * new SnapshotWriter(gedcom).write(&quot;mytree.g4js&quot;);
+ * </pre>
+ * 
+ * @author frizbog
+ */
+public class SnapshotWriter {
+
+    /**
+     * The gedcom being written
+     */
+    private final Gedcom gedcom;
+
+    /**
+     * The stream being written to
+     */
+    private OutputStream out;
+
+    /**
+     * Index of each string written so far
+     */
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    /**
+     * Index of each class written so far
+     */
+    private final Map<Class<?>, Integer> classes = new HashMap<>();
+
+    /**
+     * Index of each non-record object written so far
+     */
+    private final Map<Object, Integer> objects = new IdentityHashMap<>();
+
+    /**
+     * Index of each record in the record table
+     */
+    private final Map<Object, Integer> records = new IdentityHashMap<>();
+
+    /**
+     * Constructor
+     * 
+     * @param gedcom
+     *            the gedcom to write
+     * @throws IllegalArgumentException
+     *             if gedcom is null
+     */
+    public SnapshotWriter(Gedcom gedcom) {
+        if (gedcom == null) {
+            throw new IllegalArgumentException("gedcom is required");
+        }
+        this.gedcom = gedcom;
+    }
+
+    /**
+     * Write the snapshot to a file
+     * 
+     * @param file
+     *            the file to write
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    public void write(File file) throws IOException {
+        try (OutputStream o = new FileOutputStream(file)) {
+            write(o);
+        }
+    }
+
+    /**
+     * Write the snapshot to a stream. The stream is flushed but not closed.
+     * 
+     * @param outputStream
+     *            the stream to write to
+     * @throws IOException
+     *             if the stream cannot be written
+     * @throws IllegalArgumentException
+     *             if the gedcom contains an object that cannot be written to a snapshot
+     */
+    public void write(OutputStream outputStream) throws IOException {
+        out = outputStream instanceof BufferedOutputStream ? outputStream : new BufferedOutputStream(outputStream);
+        strings.clear();
+        classes.clear();
+        objects.clear();
+        records.clear();
+        try {
+            out.write(SnapshotFormat.MAGIC);
+            writeVarint(SnapshotFormat.VERSION);
+
+            List<ModelElement> recordTable = new ArrayList<>();
+            for (Map<String, ? extends ModelElement> m : SnapshotFormat.recordMaps(gedcom)) {
+                writeVarint(m.size());
+                for (Entry<String, ? extends ModelElement> e : m.entrySet()) {
+                    ModelElement r = e.getValue();
+                    writeValue(e.getKey());
+                    writeClass(r.getClass());
+                    records.put(r, recordTable.size());
+                    recordTable.add(r);
+                }
+            }
+
+            writeClass(Gedcom.class);
+            writeFields(gedcom);
+            for (ModelElement r : recordTable) {
+                writeFields(r);
+            }
+            out.flush();
+        } finally {
+            out = null;
+        }
+    }
+
+    /**
+     * Write the snapshot to a file
+     * 
+     * @param filename
+     *            the name of the file to write
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    public void write(String filename) throws IOException {
+        write(new File(filename));
+    }
+
+    /**
+     * Write a class: its index if it has been written before, otherwise 0 followed by its name and member names
+     * 
+     * @param c
+     *            the class
+     * @throws IOException
+     *             if the stream cannot be written
+     */
+    private void writeClass(Class<?> c) throws IOException {
+        Integer index = classes.get(c);
+        if (index != null) {
+            writeVarint(index.intValue() + 1);
+            return;
+        }
+        ClassDescription d = SnapshotFormat.describe(c);
+        classes.put(c, classes.size());
+        writeVarint(0);
+        writeValue(c.getName());
+        writeVarint(d.memberNames.length);
+        for (String n : d.memberNames) {
+            writeValue(n);
+        }
+    }
+
+    /**
+     * Write the fields of an object, in the order given by its class description
+     * 
+     * @param o
+     *            the object
+     * @throws IOException
+     *             if the stream cannot be written
+     */
+    private void writeFields(Object o) throws IOException {
+        for (Field f : SnapshotFormat.describe(o.getClass()).fields) {
+            try {
+                writeValue(f.get(o));
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Unable to read field " + f.getName() + " of " + o.getClass().getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Write a string's UTF-8 bytes, preceded by their length
+     * 
+     * @param s
+     *            the string
+     * @throws IOException
+     *             if the stream cannot be written
+     */
+    private void writeUtf8(String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Write a tagged value
+     * 
+     * @param v
+     *            the value
+     * @throws IOException
+     *             if the stream cannot be written
+     */
+    private void writeValue(Object v) throws IOException {
+        if (v == null) {
+            writeVarint(SnapshotFormat.NULL);
+        } else if (v instanceof String) {
+            Integer index = strings.get(v);
+            if (index == null) {
+                strings.put((String) v, strings.size());
+                writeVarint(SnapshotFormat.STRING);
+                writeUtf8((String) v);
+            } else {
+                writeVarint(SnapshotFormat.STRING_REF);
+                writeVarint(index.intValue());
+            }
+        } else if (v instanceof Integer) {
+            int i = ((Integer) v).intValue();
+            writeVarint(SnapshotFormat.INT);
+            writeVarint((i << 1) ^ (i >> 31));
+        } else if (v instanceof Boolean) {
+            writeVarint(((Boolean) v).booleanValue() ? SnapshotFormat.TRUE : SnapshotFormat.FALSE);
+        } else if (v instanceof Enum) {
+            writeVarint(SnapshotFormat.ENUM);
+            writeClass(((Enum<?>) v).getDeclaringClass());
+            writeVarint(((Enum<?>) v).ordinal());
+        } else if (v instanceof List) {
+            List<?> list = (List<?>) v;
+            writeVarint(SnapshotFormat.LIST);
+            writeVarint(list.size());
+            for (Object e : list) {
+                writeValue(e);
+            }
+        } else {
+            Integer index = records.get(v);
+            if (index != null) {
+                writeVarint(SnapshotFormat.RECORD_REF);
+                writeVarint(index.intValue());
+                return;
+            }
+            index = objects.get(v);
+            if (index != null) {
+                writeVarint(SnapshotFormat.OBJECT_REF);
+                writeVarint(index.intValue());
+                return;
+            }
+            objects.put(v, objects.size());
+            writeVarint(SnapshotFormat.OBJECT);
+            writeClass(v.getClass());
+            writeFields(v);
+        }
+    }
+
+    /**
+     * Write an unsigned varint: seven bits per byte, low bits first, with the high bit set on all but the last byte
+     * 
+     * @param value
+     *            the value, treated as unsigned
+     * @throws IOException
+     *             if the stream cannot be written
+     */
+    private void writeVarint(int value) throws IOException {
+        int v = value;
+        while ((v & ~0x7F) != 0) {
+            out.write((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.write(v);
+    }
+}
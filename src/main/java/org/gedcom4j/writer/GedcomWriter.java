@@ -33,11 +33,18 @@ import java.io.OutputStream;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import org.gedcom4j.exception.GedcomWriterException;
 import org.gedcom4j.exception.GedcomWriterVersionDataMismatchException;
 import org.gedcom4j.exception.WriterCancelledException;
+import org.gedcom4j.io.event.CoalescingEventDispatcher;
+import org.gedcom4j.io.event.CoalescingEventDispatcher.Mailbox;
+import org.gedcom4j.io.event.CoalescingEventDispatcher.Recipient;
 import org.gedcom4j.io.event.FileProgressEvent;
 import org.gedcom4j.io.event.FileProgressListener;
 import org.gedcom4j.io.writer.GedcomFileWriter;
@@ -109,6 +116,11 @@ public class GedcomWriter extends AbstractEmitter<Gedcom> {
      */
     List<String> lines = new ArrayList<>();
 
+    /**
+     * Are construction and file progress notifications delivered on a thread of their own while writing?
+     */
+    private boolean asyncNotification = false;
+
     /**
      * The auto repair responder.
      */
@@ -117,7 +129,13 @@ public class GedcomWriter extends AbstractEmitter<Gedcom> {
     /**
      * Has this writer been cancelled?
      */
-    private boolean cancelled;
+    private volatile boolean cancelled;
+
+    /**
+     * Where construction progress events are posted while writing when {@link #asyncNotification} is on, or null if they are
+     * delivered straight away
+     */
+    private volatile Mailbox<ConstructProgressEvent> constructMailbox;
 
     /**
      * Send a notification whenever more than this many lines are constructed
@@ -139,10 +157,16 @@ public class GedcomWriter extends AbstractEmitter<Gedcom> {
      */
     final List<WeakReference<FileProgressListener>> fileObservers = new CopyOnWriteArrayList<>();
 
+    /**
+     * Where file progress events are posted while writing when {@link #asyncNotification} is on, or null if they are delivered
+     * straight away
+     */
+    private volatile Mailbox<FileProgressEvent> fileMailbox;
+
     /**
      * The number of lines constructed as last reported to the observers
      */
-    private int lastLineCountNotified = 0;
+    private long lastLineCountNotified = 0;
 
     /**
      * The line terminator to use
@@ -229,6 +253,16 @@ public class GedcomWriter extends AbstractEmitter<Gedcom> {
         return validator;
     }
 
+    /**
+     * Are construction and file progress notifications delivered on a thread of their own while writing?
+     * 
+     * @return true if construction and file progress notifications are delivered on a thread of their own while writing
+     * @see #setAsyncNotification(boolean)
+     */
+    public boolean isAsyncNotification() {
+        return asyncNotification;
+    }
+
     /**
      * Has this writer been cancelled?
      * 
@@ -263,18 +297,11 @@ public class GedcomWriter extends AbstractEmitter<Gedcom> {
      *            the change event to tell the observers
      */
     public void notifyFileObservers(FileProgressEvent e) {
-        int i = 0;
-        while (i < fileObservers.size()) {
-            WeakReference<FileProgressListener> observerRef = fileObservers.get(i);
-            if (observerRef == null) {
-                fileObservers.remove(i);
-            } else {
-                FileProgressListener l = observerRef.get();
-                if (l != null) {
-                    l.progressNotification(e);
-                }
-                i++;
-            }
+        Mailbox<FileProgressEvent> m = fileMailbox;
+        if (m != null) {
+            m.post(e);
+        } else {
+            deliverFileEvent(e);
         }
     }
 
@@ -298,6 +325,21 @@ public class GedcomWriter extends AbstractEmitter<Gedcom> {
         fileObservers.add(new WeakReference<>(observer));
     }
 
+    /**
+     * Set whether construction and file progress notifications are delivered on a thread of their own while writing with
+     * {@link #write(OutputStream)} (or the other forms of <code>write</code>), so that writing never waits for a slow listener. A
+     * newer notification replaces one of the same kind that has not been delivered yet, so listeners may not see every
+     * notification, but they always see the last one of each kind, and all have been delivered by the time <code>write</code>
+     * returns. If a listener cancels the write, it stops at the next check after the listener has run rather than straight away.
+     * Defaults to false.
+     * 
+     * @param asyncNotification
+     *            true if construction and file progress notifications should be delivered on a thread of their own while writing
+     */
+    public void setAsyncNotification(boolean asyncNotification) {
+        this.asyncNotification = asyncNotification;
+    }
+
     /**
      * Set the autoRepairResponder
      * 
@@ -441,14 +483,24 @@ public class GedcomWriter extends AbstractEmitter<Gedcom> {
      *             severity ERROR (and validation is not suppressed - see {@link GedcomWriter#validationSuppressed})
      */
     public void write(OutputStream out) throws GedcomWriterException {
-        emit();
+        CoalescingEventDispatcher dispatcher = openDispatcher();
         try {
+            emit();
             GedcomFileWriter gfw = new GedcomFileWriter(this, lines);
             gfw.setUseLittleEndianForUnicode(useLittleEndianForUnicode);
             gfw.setTerminator(getLineTerminator());
             gfw.write(out);
         } catch (IOException e) {
             throw new GedcomWriterException("Unable to write file", e);
+        } finally {
+            try {
+                if (dispatcher != null) {
+                    dispatcher.close();
+                }
+            } finally {
+                constructMailbox = null;
+                fileMailbox = null;
+            }
         }
     }
 
@@ -467,6 +519,40 @@ public class GedcomWriter extends AbstractEmitter<Gedcom> {
         write(f);
     }
 
+    /**
+     * Write the {@link Gedcom} data in GEDCOM 5.5 format to an output stream (see {@link #write(OutputStream)}) on a thread of the
+     * supplied executor, rather than on the calling thread. Cancelling the returned future cancels the write, the same as
+     * {@link #cancel()} does: if the write has started, it stops at the next check with a {@link WriterCancelledException}, which
+     * the future swallows. If the write fails, {@link Future#get()} throws an {@link java.util.concurrent.ExecutionException} whose
+     * cause is the {@link GedcomWriterException}. The stream is not closed.
+     * 
+     * @param out
+     *            the output stream to write to
+     * @param executor
+     *            the executor to write on
+     * @return a future that is done when the data has been written
+     */
+    public Future<Void> writeAsync(final OutputStream out, Executor executor) {
+        FutureTask<Void> task = new FutureTask<Void>(new Callable<Void>() {
+            @Override
+            public Void call() throws GedcomWriterException {
+                write(out);
+                return null;
+            }
+        }) {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                boolean result = super.cancel(mayInterruptIfRunning);
+                if (result) {
+                    GedcomWriter.this.cancel();
+                }
+                return result;
+            }
+        };
+        executor.execute(task);
+        return task;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -669,22 +755,13 @@ public class GedcomWriter extends AbstractEmitter<Gedcom> {
     }
 
     /**
-     * Write out the trailer record
-     */
-    private void emitTrailer() {
-        lines.add("0 TRLR");
-        notifyConstructObservers(new ConstructProgressEvent(this, lines.size(), true));
-    }
-
-    /**
-     * Notify all listeners about the line being
+     * Tell all the construction observers about a change, on the current thread
      * 
      * @param e
      *            the change event to tell the observers
      */
-    private void notifyConstructObservers(ConstructProgressEvent e) {
+    private void deliverConstructEvent(ConstructProgressEvent e) {
         int i = 0;
-        lastLineCountNotified = e.getLinesProcessed();
         while (i < constructObservers.size()) {
             WeakReference<ConstructProgressListener> observerRef = constructObservers.get(i);
             if (observerRef == null) {
@@ -699,4 +776,77 @@ public class GedcomWriter extends AbstractEmitter<Gedcom> {
         }
     }
 
+    /**
+     * Tell all the file observers about a change, on the current thread
+     * 
+     * @param e
+     *            the change event to tell the observers
+     */
+    private void deliverFileEvent(FileProgressEvent e) {
+        int i = 0;
+        while (i < fileObservers.size()) {
+            WeakReference<FileProgressListener> observerRef = fileObservers.get(i);
+            if (observerRef == null) {
+                fileObservers.remove(i);
+            } else {
+                FileProgressListener l = observerRef.get();
+                if (l != null) {
+                    l.progressNotification(e);
+                }
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Write out the trailer record
+     */
+    private void emitTrailer() {
+        lines.add("0 TRLR");
+        notifyConstructObservers(new ConstructProgressEvent(this, lines.size(), true));
+    }
+
+    /**
+     * Notify all listeners about the line being
+     * 
+     * @param e
+     *            the change event to tell the observers
+     */
+    private void notifyConstructObservers(ConstructProgressEvent e) {
+        lastLineCountNotified = e.getLinesProcessed();
+        Mailbox<ConstructProgressEvent> m = constructMailbox;
+        if (m != null) {
+            m.post(e);
+        } else {
+            deliverConstructEvent(e);
+        }
+    }
+
+    /**
+     * Start delivering construction and file progress notifications on a thread of their own for the write about to start, if
+     * {@link #asyncNotification} is on and there is anyone to deliver them to
+     * 
+     * @return the dispatcher that delivers the notifications, to be closed when the write finishes, or null if they are to be
+     *         delivered straight away
+     */
+    private CoalescingEventDispatcher openDispatcher() {
+        if (!asyncNotification || constructObservers.isEmpty() && fileObservers.isEmpty()) {
+            return null;
+        }
+        CoalescingEventDispatcher dispatcher = new CoalescingEventDispatcher("gedcom4j-writer-progress");
+        constructMailbox = dispatcher.createMailbox(new Recipient<ConstructProgressEvent>() {
+            @Override
+            public void deliver(ConstructProgressEvent e) {
+                deliverConstructEvent(e);
+            }
+        });
+        fileMailbox = dispatcher.createMailbox(new Recipient<FileProgressEvent>() {
+            @Override
+            public void deliver(FileProgressEvent e) {
+                deliverFileEvent(e);
+            }
+        });
+        return dispatcher;
+    }
+
 }
@@ -48,7 +48,7 @@ public class ConstructProgressEvent extends EventObject {
     /**
      * How many lines have been processed
      */
-    private final int linesProcessed;
+    private final long linesProcessed;
 
     /**
      * Constructor
@@ -60,7 +60,7 @@ public class ConstructProgressEvent extends EventObject {
      * @param complete
      *            is the file complete
      */
-    public ConstructProgressEvent(Object source, int linesProcessed, boolean complete) {
+    public ConstructProgressEvent(Object source, long linesProcessed, boolean complete) {
         super(source);
         this.linesProcessed = linesProcessed;
         this.complete = complete;
@@ -71,7 +71,7 @@ public class ConstructProgressEvent extends EventObject {
      * 
      * @return the number of lines processed
      */
-    public int getLinesProcessed() {
+    public long getLinesProcessed() {
         return linesProcessed;
     }
 
@@ -27,6 +27,7 @@
 package org.gedcom4j;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -75,4 +76,35 @@ public class OptionsTest {
             }
         }
     }
+
+    /**
+     * Test that the value set for the current thread overrides the global value on that thread only. Leaves the global value
+     * alone, since other tests may be relying on it.
+     * 
+     * @throws InterruptedException
+     *             if the test is interrupted
+     */
+    @Test
+    public void testThreadCollectionInitializationEnabled() throws InterruptedException {
+        boolean global = Options.isCollectionInitializationEnabled();
+        try {
+            Options.setThreadCollectionInitializationEnabled(Boolean.valueOf(!global));
+            assertEquals(!global, Options.isCollectionInitializationEnabled());
+            assertEquals(Boolean.valueOf(!global), Options.getThreadCollectionInitializationEnabled());
+            final Boolean[] otherThread = new Boolean[] { Boolean.valueOf(!global) };
+            Thread t = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    otherThread[0] = Options.getThreadCollectionInitializationEnabled();
+                }
+            });
+            t.start();
+            t.join();
+            assertNull(otherThread[0]);
+            Options.setThreadCollectionInitializationEnabled(null);
+            assertNull(Options.getThreadCollectionInitializationEnabled());
+        } finally {
+            Options.setThreadCollectionInitializationEnabled(null);
+        }
+    }
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.encoding;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link AnselDecoder}
+ * 
+ * @author frizbog
+ */
+public class AnselDecoderTest {
+
+    /**
+     * Test that the combined glyph table gives the same results as {@link AnselHandler#getCombinedGlyph(char, char, char)} for
+     * every possible combination of base character and diacritics
+     */
+    @Test
+    public void testCombinedGlyphTable() {
+        AnselHandler handler = new AnselHandler();
+        for (char d1 = 0xE0; d1 <= 0xFF; d1++) {
+            for (char d2 = 0xDF; d2 <= 0xFF; d2++) {
+                char diacritic2 = d2 == 0xDF ? 0 : d2;
+                for (char base = 0; base < 0x100; base++) {
+                    assertEquals(handler.getCombinedGlyph(base, d1, diacritic2), AnselDecoder.getCombinedGlyph(base, d1, diacritic2));
+                }
+            }
+        }
+    }
+
+    /**
+     * Test decoding a range out of the middle of a buffer into the middle of another buffer
+     */
+    @Test
+    public void testDecodeRange() {
+        char[] ansel = "xx\u00E2ecole\u00E1ayy".toCharArray();
+        char[] utf16 = new char[ansel.length + 3];
+        int len = AnselDecoder.decode(ansel, 2, ansel.length - 2, utf16, 3);
+        assertEquals(6, len);
+        assertEquals("\u00E9cole\u00E0", new String(utf16, 3, len));
+    }
+
+    /**
+     * Test that the single character table gives the same results as {@link AnselMapping#decode(int)}
+     */
+    @Test
+    public void testDecodeSingleCharacters() {
+        for (char c = 0; c < 0x200; c++) {
+            assertEquals(AnselMapping.decode(c), AnselDecoder.decode(c));
+        }
+    }
+
+    /**
+     * Test that there is no limit on how much can be decoded at once
+     */
+    @Test
+    public void testLongString() {
+        StringBuilder ansel = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            ansel.append("\u00E2e");
+            expected.append('\u00E9');
+        }
+        assertEquals(expected.toString(), new AnselHandler().toUtf16(ansel.toString()));
+    }
+
+    /**
+     * Test diacritics at the very end of the data, with no base character after them. They are kept as-is.
+     */
+    @Test
+    public void testTrailingDiacritics() {
+        char[] ansel = "ab\u00E2\u00E3".toCharArray();
+        char[] utf16 = new char[ansel.length];
+        int len = AnselDecoder.decode(ansel, 0, ansel.length, utf16, 0);
+        assertEquals("ab" + AnselMapping.decode(0xE2) + AnselMapping.decode(0xE3), new String(utf16, 0, len));
+
+        len = AnselDecoder.decode(ansel, 0, 3, utf16, 0);
+        assertEquals("ab" + AnselMapping.decode(0xE2), new String(utf16, 0, len));
+    }
+
+    /**
+     * Test two diacritics that have a pre-combined glyph with their base character
+     */
+    @Test
+    public void testTwoDiacriticsCombined() {
+        char[] broken = new AnselHandler().getBrokenDownGlyph('\u1EA4');
+        char[] ansel = new char[] { broken[1], broken[2], broken[0] };
+        char[] utf16 = new char[ansel.length];
+        int len = AnselDecoder.decode(ansel, 0, ansel.length, utf16, 0);
+        assertEquals("\u1EA4", new String(utf16, 0, len));
+    }
+
+    /**
+     * Test two diacritics with no pre-combined glyph for their base character - both diacritics should follow the base character,
+     * in their original order
+     */
+    @Test
+    public void testTwoDiacriticsNotCombined() {
+        char[] ansel = "\u00E2\u00E3q".toCharArray();
+        char[] utf16 = new char[ansel.length];
+        int len = AnselDecoder.decode(ansel, 0, ansel.length, utf16, 0);
+        assertEquals("q" + AnselMapping.decode(0xE2) + AnselMapping.decode(0xE3), new String(utf16, 0, len));
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EventObject;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import org.gedcom4j.io.event.CoalescingEventDispatcher.Mailbox;
+import org.gedcom4j.io.event.CoalescingEventDispatcher.Recipient;
+import org.junit.Test;
+
+/**
+ * Test for {@link CoalescingEventDispatcher}
+ * 
+ * @author frizbog
+ */
+public class CoalescingEventDispatcherTest {
+
+    /**
+     * A recipient that records the events it is given, and the threads it is given them on
+     */
+    private static class RecordingRecipient implements Recipient<EventObject> {
+
+        /**
+         * The events delivered
+         */
+        private final List<Integer> delivered = Collections.synchronizedList(new ArrayList<Integer>());
+
+        /**
+         * The threads the events were delivered on
+         */
+        private final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+
+        /**
+         * Counted down when the first event is delivered
+         */
+        private final CountDownLatch firstDelivered = new CountDownLatch(1);
+
+        /**
+         * Waited for before returning from the first delivery
+         */
+        private final CountDownLatch release;
+
+        /**
+         * Constructor
+         * 
+         * @param release
+         *            waited for before returning from the first delivery
+         */
+        RecordingRecipient(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void deliver(EventObject e) {
+            delivered.add((Integer) e.getSource());
+            threads.add(Thread.currentThread());
+            if (firstDelivered.getCount() > 0) {
+                firstDelivered.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Test that events posted while the recipient is busy are coalesced, and that the last one is delivered before close returns
+     * 
+     * @throws InterruptedException
+     *             if the test is interrupted
+     */
+    @Test
+    public void testCoalescing() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingRecipient r = new RecordingRecipient(release);
+        try (CoalescingEventDispatcher d = new CoalescingEventDispatcher("test-dispatcher")) {
+            Mailbox<EventObject> m = d.createMailbox(r);
+            m.post(new EventObject(Integer.valueOf(0)));
+            assertTrue(r.firstDelivered.await(10, TimeUnit.SECONDS));
+            // The recipient is stuck on the first event, but posting carries on regardless
+            for (int i = 1; i <= 1000; i++) {
+                m.post(new EventObject(Integer.valueOf(i)));
+            }
+            release.countDown();
+        }
+        assertEquals(2, r.delivered.size());
+        assertEquals(Integer.valueOf(0), r.delivered.get(0));
+        assertEquals(Integer.valueOf(1000), r.delivered.get(1));
+        for (Thread t : r.threads) {
+            assertNotSame(Thread.currentThread(), t);
+        }
+    }
+
+    /**
+     * Test that each mailbox has its last event delivered, independently of the others
+     */
+    @Test
+    public void testMailboxesAreIndependent() {
+        RecordingRecipient r1 = new RecordingRecipient(new CountDownLatch(0));
+        RecordingRecipient r2 = new RecordingRecipient(new CountDownLatch(0));
+        try (CoalescingEventDispatcher d = new CoalescingEventDispatcher("test-dispatcher")) {
+            Mailbox<EventObject> m1 = d.createMailbox(r1);
+            Mailbox<EventObject> m2 = d.createMailbox(r2);
+            for (int i = 1; i <= 100; i++) {
+                m1.post(new EventObject(Integer.valueOf(i)));
+                m2.post(new EventObject(Integer.valueOf(-i)));
+            }
+        }
+        assertEquals(Integer.valueOf(100), r1.delivered.get(r1.delivered.size() - 1));
+        assertEquals(Integer.valueOf(-100), r2.delivered.get(r2.delivered.size() - 1));
+    }
+
+    /**
+     * Test that events posted after the dispatcher has closed are delivered on the posting thread
+     */
+    @Test
+    public void testPostAfterClose() {
+        RecordingRecipient r = new RecordingRecipient(new CountDownLatch(0));
+        CoalescingEventDispatcher d = new CoalescingEventDispatcher("test-dispatcher");
+        Mailbox<EventObject> m = d.createMailbox(r);
+        d.close();
+        d.close();
+        m.post(new EventObject(Integer.valueOf(1)));
+        assertEquals(1, r.delivered.size());
+        assertSame(Thread.currentThread(), r.threads.get(0));
+    }
+
+    /**
+     * Test that an event posted at the same moment as the dispatcher closes is still delivered, whichever of them gets there first
+     * 
+     * @throws Exception
+     *             if the test is interrupted, or the thread posting the event can't be synchronized with
+     */
+    @Test
+    public void testPostDuringClose() throws Exception {
+        for (int i = 0; i < 500; i++) {
+            RecordingRecipient r = new RecordingRecipient(new CountDownLatch(0));
+            CoalescingEventDispatcher d = new CoalescingEventDispatcher("test-dispatcher");
+            final Mailbox<EventObject> m = d.createMailbox(r);
+            final CyclicBarrier start = new CyclicBarrier(2);
+            Thread poster = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException | BrokenBarrierException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    m.post(new EventObject(Integer.valueOf(1)));
+                }
+            });
+            poster.start();
+            start.await();
+            d.close();
+            poster.join();
+            assertEquals(Collections.singletonList(Integer.valueOf(1)), r.delivered);
+        }
+    }
+
+    /**
+     * Test that what a recipient throws is thrown from close, and that later events are still delivered
+     */
+    @Test
+    public void testRecipientFailure() {
+        final List<Integer> delivered = Collections.synchronizedList(new ArrayList<Integer>());
+        CoalescingEventDispatcher d = new CoalescingEventDispatcher("test-dispatcher");
+        Mailbox<EventObject> m = d.createMailbox(new Recipient<EventObject>() {
+            @Override
+            public void deliver(EventObject e) {
+                delivered.add((Integer) e.getSource());
+                if (delivered.size() == 1) {
+                    throw new IllegalStateException("Listener failed");
+                }
+            }
+        });
+        m.post(new EventObject(Integer.valueOf(1)));
+        while (delivered.isEmpty()) {
+            Thread.yield();
+        }
+        m.post(new EventObject(Integer.valueOf(2)));
+        try {
+            d.close();
+            throw new AssertionError("Expected the recipient's exception to be thrown");
+        } catch (IllegalStateException expected) {
+            assertEquals("Listener failed", expected.getMessage());
+        }
+        assertEquals(Integer.valueOf(2), delivered.get(delivered.size() - 1));
+    }
+
+}
@@ -56,6 +56,17 @@ public class FileProgressEventTest {
         assertEquals("FileProgressEvent [complete=true, linesProcessed=-1, bytesProcessed=5]", e.toString());
     }
 
+    /**
+     * Test that counts past what fits in an int are kept
+     */
+    @Test
+    public void testMoreThan4GB() {
+        FileProgressEvent e = new FileProgressEvent(this, 3000000000L, 5000000000L, false);
+        assertEquals(3000000000L, e.getLinesProcessed());
+        assertEquals(5000000000L, e.getBytesProcessed());
+        assertEquals("FileProgressEvent [complete=false, linesProcessed=3000000000, bytesProcessed=5000000000]", e.toString());
+    }
+
     /**
      * Test #2
      */
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.io.encoding.Encoding;
+import org.gedcom4j.parser.GedcomParser;
+import org.junit.Test;
+
+/**
+ * Test for {@link ChunkedFileReader}
+ * 
+ * @author frizbog
+ */
+public class ChunkedFileReaderTest {
+
+    /**
+     * Test that the chunk boundaries are all at the beginnings of root-level records, in order, and cover the whole file
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testBoundariesAreAtRootLevelRecords() throws IOException, GedcomParserException {
+        try (FileInputStream fis = new FileInputStream("sample/willis.ged"); FileChannel channel = fis.getChannel()) {
+            ChunkedFileReader r = new ChunkedFileReader(new GedcomParser(), channel, Encoding.UTF_8);
+            long[] boundaries = r.findChunkBoundaries(10000);
+            assertTrue(boundaries.length > 10);
+            assertEquals(0, boundaries[0]);
+            assertEquals(r.getFileSize(), boundaries[boundaries.length - 1]);
+            for (int i = 1; i < boundaries.length - 1; i++) {
+                assertTrue(boundaries[i] >= boundaries[i - 1] + 10000);
+                List<String> lines = r.readLines(boundaries[i], boundaries[i + 1]);
+                assertTrue(lines.get(0).startsWith("0 "));
+            }
+        }
+    }
+
+    /**
+     * Test that a file with nowhere to cut it comes back as a single chunk
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     */
+    @Test
+    public void testChunkBiggerThanFile() throws IOException {
+        try (FileInputStream fis = new FileInputStream("sample/willis.ged"); FileChannel channel = fis.getChannel()) {
+            ChunkedFileReader r = new ChunkedFileReader(new GedcomParser(), channel, Encoding.UTF_8);
+            long[] boundaries = r.findChunkBoundaries(Long.MAX_VALUE / 2);
+            assertEquals(2, boundaries.length);
+            assertEquals(0, boundaries[0]);
+            assertEquals(r.getFileSize(), boundaries[1]);
+        }
+    }
+
+    /**
+     * Test that the lines of all the chunks, one after the other, are the same as the lines of the whole file read in one go
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testChunksHaveSameLinesAsWholeFile() throws IOException, GedcomParserException {
+        String[] allFiles = new File("sample").list(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(".ged");
+            }
+        });
+        int filesChecked = 0;
+        for (String s : allFiles) {
+            GedcomParser gp = new GedcomParser();
+            gp.setStrictLineBreaks(false);
+            try (FileInputStream fis = new FileInputStream("sample/" + s); FileChannel channel = fis.getChannel()) {
+                GedcomFileReader gfr = new GedcomFileReader(gp, channel);
+                if (!ChunkedFileReader.supports(gfr.getEncoding())) {
+                    continue;
+                }
+                List<String> expected = new ArrayList<>();
+                String line = gfr.nextLine();
+                while (line != null) {
+                    expected.add(line);
+                    line = gfr.nextLine();
+                }
+
+                ChunkedFileReader r = new ChunkedFileReader(gp, channel, gfr.getEncoding());
+                List<String> actual = new ArrayList<>();
+                long[] boundaries = r.findChunkBoundaries(1000);
+                for (int i = 0; i < boundaries.length - 1; i++) {
+                    actual.addAll(r.readLines(boundaries[i], boundaries[i + 1]));
+                }
+                assertEquals(s, expected, actual);
+                filesChecked++;
+            }
+        }
+        assertTrue(filesChecked > 10);
+    }
+
+    /**
+     * Test that only UTF-8 and ASCII files can be read in chunks
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedEncoding() throws IOException {
+        assertTrue(ChunkedFileReader.supports(Encoding.ASCII));
+        assertTrue(ChunkedFileReader.supports(Encoding.UTF_8));
+        for (Encoding e : new Encoding[] { Encoding.ANSEL, Encoding.UNICODE_BIG_ENDIAN, Encoding.UNICODE_LITTLE_ENDIAN }) {
+            assertEquals(false, ChunkedFileReader.supports(e));
+        }
+        try (FileInputStream fis = new FileInputStream("sample/willis-ansel.ged"); FileChannel channel = fis.getChannel()) {
+            new ChunkedFileReader(new GedcomParser(), channel, Encoding.ANSEL);
+        }
+    }
+}
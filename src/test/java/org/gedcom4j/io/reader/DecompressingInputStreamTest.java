@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.reader;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Test;
+
+/**
+ * Test for {@link DecompressingInputStream}
+ * 
+ * @author frizbog
+ */
+public class DecompressingInputStreamTest {
+
+    /**
+     * The bytes of the sample file the tests compress
+     */
+    private final byte[] willis;
+
+    /**
+     * Constructor
+     * 
+     * @throws IOException
+     *             if the sample file can't be read
+     */
+    public DecompressingInputStreamTest() throws IOException {
+        willis = Files.readAllBytes(Paths.get("sample/willis.ged"));
+    }
+
+    /**
+     * Test that closing the stream before it has all been read stops the decompression thread, even if it is waiting for room in
+     * the queue
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     */
+    @Test
+    public void testCloseEarly() throws IOException {
+        File f = writeGzip(new byte[DecompressingInputStream.BLOCK_SIZE * (DecompressingInputStream.QUEUE_CAPACITY + 4)]);
+        DecompressingInputStream in = new DecompressingInputStream(f.toPath());
+        assertEquals(0, in.read());
+        in.close();
+        in.close();
+        try {
+            in.read();
+            throw new AssertionError("Expected an IOException reading a closed stream");
+        } catch (@SuppressWarnings("unused") IOException expected) {
+            // Good
+        }
+    }
+
+    /**
+     * Test that a corrupt gzip file surfaces as an {@link IOException} from the reading thread
+     * 
+     * @throws IOException
+     *             if the data can't be read - expected
+     */
+    @Test(expected = IOException.class)
+    public void testCorruptGzip() throws IOException {
+        byte[] gz = gzip(willis);
+        for (int i = 20; i < gz.length; i += 7) {
+            gz[i] ^= 0x55;
+        }
+        File f = writeTempFile(".ged.gz", gz);
+        try (DecompressingInputStream in = new DecompressingInputStream(f.toPath())) {
+            readAll(in);
+        }
+    }
+
+    /**
+     * Test that a gzip file decompresses to what was compressed
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     */
+    @Test
+    public void testGzip() throws IOException {
+        File f = writeGzip(willis);
+        try (FileInputStream fis = new FileInputStream(f); FileChannel channel = fis.getChannel()) {
+            assertTrue(DecompressingInputStream.isCompressed(channel));
+            assertEquals(0, channel.position());
+        }
+        try (DecompressingInputStream in = new DecompressingInputStream(f.toPath())) {
+            assertArrayEquals(willis, readAll(in));
+            assertEquals(-1, in.read());
+        }
+    }
+
+    /**
+     * Test that an uncompressed file is recognized as such, and rejected by the constructor
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     */
+    @Test
+    public void testUncompressed() throws IOException {
+        File f = new File("sample/willis.ged");
+        try (FileInputStream fis = new FileInputStream(f); FileChannel channel = fis.getChannel()) {
+            assertFalse(DecompressingInputStream.isCompressed(channel));
+        }
+        File empty = writeTempFile(".ged", new byte[0]);
+        try (FileInputStream fis = new FileInputStream(empty); FileChannel channel = fis.getChannel()) {
+            assertFalse(DecompressingInputStream.isCompressed(channel));
+        }
+        try {
+            new DecompressingInputStream(f.toPath()).close();
+            throw new AssertionError("Expected an IOException for an uncompressed file");
+        } catch (@SuppressWarnings("unused") IOException expected) {
+            // Good
+        }
+    }
+
+    /**
+     * Test that the .ged entry is the one read from a zip archive with other files in it
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     */
+    @Test
+    public void testZip() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+            zos.putNextEntry(new ZipEntry("docs/"));
+            zos.closeEntry();
+            zos.putNextEntry(new ZipEntry("docs/README.txt"));
+            zos.write("Not a gedcom file".getBytes("UTF-8"));
+            zos.closeEntry();
+            zos.putNextEntry(new ZipEntry("data/WILLIS.GED"));
+            zos.write(willis);
+            zos.closeEntry();
+        }
+        File f = writeTempFile(".zip", baos.toByteArray());
+        try (FileInputStream fis = new FileInputStream(f); FileChannel channel = fis.getChannel()) {
+            assertTrue(DecompressingInputStream.isCompressed(channel));
+        }
+        try (DecompressingInputStream in = new DecompressingInputStream(f.toPath())) {
+            assertArrayEquals(willis, readAll(in));
+        }
+    }
+
+    /**
+     * Test that a zip archive with several files but no .ged file in it is rejected
+     * 
+     * @throws IOException
+     *             if the data can't be read - expected
+     */
+    @Test(expected = IOException.class)
+    public void testZipWithoutGedcom() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ZipOutputStream zos = new ZipOutputStream(baos)) {
+            zos.putNextEntry(new ZipEntry("a.txt"));
+            zos.write(willis);
+            zos.closeEntry();
+            zos.putNextEntry(new ZipEntry("b.txt"));
+            zos.write(willis);
+            zos.closeEntry();
+        }
+        File f = writeTempFile(".zip", baos.toByteArray());
+        try (DecompressingInputStream in = new DecompressingInputStream(f.toPath())) {
+            readAll(in);
+        }
+    }
+
+    /**
+     * Gzip some bytes
+     * 
+     * @param data
+     *            the bytes
+     * @return the compressed bytes
+     * @throws IOException
+     *             if the bytes can't be compressed
+     */
+    private byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(baos)) {
+            gz.write(data);
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * Read everything left in a stream, a few bytes at a time so reads span the blocks handed over
+     * 
+     * @param in
+     *            the stream
+     * @return the bytes read
+     * @throws IOException
+     *             if the stream can't be read
+     */
+    private byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buf = new byte[4093];
+        int n = in.read(buf);
+        while (n >= 0) {
+            baos.write(buf, 0, n);
+            n = in.read(buf);
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * Write a gzip file
+     * 
+     * @param data
+     *            the bytes to compress into the file
+     * @return the file
+     * @throws IOException
+     *             if the file can't be written
+     */
+    private File writeGzip(byte[] data) throws IOException {
+        return writeTempFile(".ged.gz", gzip(data));
+    }
+
+    /**
+     * Write a temporary file, to be deleted when the tests finish
+     * 
+     * @param suffix
+     *            the suffix for the file name
+     * @param data
+     *            the contents of the file
+     * @return the file
+     * @throws IOException
+     *             if the file can't be written
+     */
+    private File writeTempFile(String suffix, byte[] data) throws IOException {
+        File f = File.createTempFile("gedcom4j", suffix);
+        f.deleteOnExit();
+        try (FileOutputStream fos = new FileOutputStream(f)) {
+            fos.write(data);
+        }
+        return f;
+    }
+}
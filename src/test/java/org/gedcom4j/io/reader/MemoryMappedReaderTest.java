@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.parser.GedcomParser;
+import org.junit.Test;
+
+/**
+ * Test for {@link MemoryMappedReader}
+ * 
+ * @author frizbog
+ */
+public class MemoryMappedReaderTest {
+
+    /**
+     * Read all the lines from a reader
+     * 
+     * @param r
+     *            the reader
+     * @return all the lines the reader returned
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data cannot be parsed
+     */
+    private static List<String> readAll(AbstractEncodingSpecificReader r) throws IOException, GedcomParserException {
+        List<String> result = new ArrayList<>();
+        String s = r.nextLine();
+        while (s != null) {
+            result.add(s);
+            s = r.nextLine();
+        }
+        return result;
+    }
+
+    /**
+     * Test that ASCII files with extended characters are rejected, the same as {@link AsciiReader} does
+     * 
+     * @throws IOException
+     *             if the data can't be read - expected
+     * @throws GedcomParserException
+     *             if the data cannot be parsed
+     */
+    @Test(expected = IOException.class)
+    public void testAsciiExtendedCharacter() throws IOException, GedcomParserException {
+        File f = writeTempFile("mmapascii", new byte[] { 0x30, 0x20, 0x48, 0x0A, 0x31, 0x20, (byte) 0xE9, 0x0A });
+        try (RandomAccessFile raf = new RandomAccessFile(f, "r"); FileChannel channel = raf.getChannel()) {
+            MemoryMappedReader r = new MemoryMappedReader(new GedcomParser(), channel, true);
+            assertEquals("0 H", r.nextLine());
+            r.nextLine();
+        }
+    }
+
+    /**
+     * Test that the lines read from the ASCII sample match those read by the {@link AsciiReader}
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data cannot be parsed
+     */
+    @Test
+    public void testAsciiSampleMatchesStreamReader() throws IOException, GedcomParserException {
+        assertSameLinesAsStreamReader("sample/willis-ascii.ged", true, MemoryMappedReader.DEFAULT_REGION_SIZE);
+    }
+
+    /**
+     * Test that byte order markers at the start of lines are stripped the same as the {@link Utf8Reader} strips them - including in
+     * a file made by joining several files that each began with one
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data cannot be parsed
+     */
+    @Test
+    public void testByteOrderMarkers() throws IOException, GedcomParserException {
+        byte[] data = "\uFEFF0 HEAD\n\uFEFF1 NOTE x\r\n\uFEFF1 NOTE y\r\uFEFF1 NOTE z\n\n\uFEFF1 NOTE after blank\n \uFEFF1 NOTE indented\n0 TRLR\n"
+                .getBytes("UTF-8");
+        File f = writeTempFile("mmapbommidfile", data);
+        List<String> expected;
+        try (BufferedInputStream bis = new BufferedInputStream(new FileInputStream(f))) {
+            expected = readAll(new Utf8Reader(new GedcomParser(), bis));
+        }
+        assertEquals(Arrays.asList("0 HEAD", "1 NOTE x", "1 NOTE y", "1 NOTE z", "\uFEFF1 NOTE after blank", "\uFEFF1 NOTE indented",
+                "0 TRLR"), expected);
+        try (RandomAccessFile raf = new RandomAccessFile(f, "r"); FileChannel channel = raf.getChannel()) {
+            assertEquals(expected, readAll(new MemoryMappedReader(new GedcomParser(), channel, false)));
+            assertEquals(expected, readAll(new MemoryMappedReader(new GedcomParser(), channel, false, 2)));
+        }
+    }
+
+    /**
+     * Test an empty file
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data cannot be parsed
+     */
+    @Test
+    public void testEmpty() throws IOException, GedcomParserException {
+        File f = writeTempFile("mmapempty", new byte[] {});
+        try (RandomAccessFile raf = new RandomAccessFile(f, "r"); FileChannel channel = raf.getChannel()) {
+            MemoryMappedReader r = new MemoryMappedReader(new GedcomParser(), channel, false);
+            assertNull(r.nextLine());
+            assertEquals(0, r.bytesRead);
+        }
+    }
+
+    /**
+     * Test leading whitespace, trailing whitespace, blank lines, mixed line terminators, and byte order markers
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data cannot be parsed
+     */
+    @Test
+    public void testWhitespaceAndTerminators() throws IOException, GedcomParserException {
+        byte[] data = "\uFEFF0 HEAD\r\n\t 1 CHAR UTF-8\r\r\n\n  \t\n1 NOTE Caf\u00e9 \t\r 0 TRLR".getBytes("UTF-8");
+        File f = writeTempFile("mmapwhitespace", data);
+        try (RandomAccessFile raf = new RandomAccessFile(f, "r"); FileChannel channel = raf.getChannel()) {
+            // Tiny regions, so lines (and the byte order marker) straddle region boundaries
+            MemoryMappedReader r = new MemoryMappedReader(new GedcomParser(), channel, false, 3);
+            assertEquals("0 HEAD", r.nextLine());
+            assertEquals("1 CHAR UTF-8", r.nextLine());
+            assertEquals("1 NOTE Caf\u00e9 \t", r.nextLine());
+            assertEquals("0 TRLR", r.nextLine());
+            assertNull(r.nextLine());
+            assertEquals(data.length, r.bytesRead);
+            assertEquals(4, r.linesRead);
+        }
+    }
+
+    /**
+     * Test that the lines read from the UTF-8 samples match those read by the {@link Utf8Reader}, using both a region big enough
+     * for the whole file and small regions that force lines to straddle region boundaries
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data cannot be parsed
+     */
+    @Test
+    public void testUtf8SamplesMatchStreamReader() throws IOException, GedcomParserException {
+        for (String fileName : new String[] { "sample/willis.ged", "sample/utf8.ged", "sample/utf8_cr_nobom.ged",
+                "sample/utf8_crlf_bom.ged", "sample/utf8_lf_nobom.ged" }) {
+            assertSameLinesAsStreamReader(fileName, false, MemoryMappedReader.DEFAULT_REGION_SIZE);
+            assertSameLinesAsStreamReader(fileName, false, 37);
+        }
+    }
+
+    /**
+     * Assert that the memory mapped reader returns the same lines as the stream-based reader for the same encoding
+     * 
+     * @param fileName
+     *            the name of the file to read
+     * @param ascii
+     *            true if the file is ASCII, false if UTF-8
+     * @param regionSize
+     *            the size of the regions to map
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data cannot be parsed
+     */
+    private void assertSameLinesAsStreamReader(String fileName, boolean ascii, int regionSize) throws IOException,
+            GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        List<String> expected;
+        try (BufferedInputStream bis = new BufferedInputStream(new FileInputStream(fileName))) {
+            expected = readAll(ascii ? new AsciiReader(gp, bis) : new Utf8Reader(gp, bis));
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(fileName, "r"); FileChannel channel = raf.getChannel()) {
+            MemoryMappedReader r = new MemoryMappedReader(gp, channel, ascii, regionSize);
+            assertEquals(fileName, expected, readAll(r));
+            assertEquals(fileName, channel.size(), r.bytesRead);
+        }
+    }
+
+    /**
+     * Write some bytes to a temporary file
+     * 
+     * @param name
+     *            the base name of the file
+     * @param data
+     *            the bytes to write
+     * @return the file written
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    private File writeTempFile(String name, byte[] data) throws IOException {
+        File tmpDir = new File("tmp");
+        tmpDir.mkdirs();
+        File f = new File(tmpDir, "gedcom4j." + name + ".ged");
+        try (FileOutputStream fos = new FileOutputStream(f)) {
+            fos.write(data);
+        }
+        return f;
+    }
+}
@@ -31,6 +31,7 @@ import static org.junit.Assert.assertEquals;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 
 import org.junit.Test;
 
@@ -80,4 +81,46 @@ public class ProgressTrackingInputStreamTest {
             }
         }
     }
+
+    /**
+     * Test that the count of bytes read carries on past 4GB
+     * 
+     * @throws IOException
+     *             if the stream can't be read
+     */
+    @Test
+    public void testMoreThan4GB() throws IOException {
+        final long size = 4L * 1024 * 1024 * 1024 + 12345;
+        // A stream of the given size that doesn't bother filling in the bytes it says it has read
+        InputStream in = new InputStream() {
+            private long remaining = size;
+
+            @Override
+            public int read() {
+                if (remaining == 0) {
+                    return -1;
+                }
+                remaining--;
+                return 0;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (remaining == 0) {
+                    return -1;
+                }
+                int n = (int) Math.min(len, remaining);
+                remaining -= n;
+                return n;
+            }
+        };
+        byte[] block = new byte[1024 * 1024];
+        try (ProgressTrackingInputStream ptis = new ProgressTrackingInputStream(in)) {
+            assertEquals(0, ptis.read());
+            while (ptis.read(block, 0, block.length) > 0) {
+                // Keep reading
+            }
+            assertEquals(size, ptis.getBytesRead());
+        }
+    }
 }
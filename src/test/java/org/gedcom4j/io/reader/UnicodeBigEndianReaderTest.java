@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.parser.GedcomParser;
+import org.junit.Test;
+
+/**
+ * Test for {@link UnicodeBigEndianReader}
+ * 
+ * @author frizbog
+ */
+public class UnicodeBigEndianReaderTest {
+
+    /**
+     * Test that a byte order marker at the beginning of the file is discarded
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data cannot be parsed
+     */
+    @Test
+    public void testByteOrderMarker() throws IOException, GedcomParserException {
+        byte[] buf = "\uFEFF0 HEAD\n0 TRLR\n".getBytes(StandardCharsets.UTF_16BE);
+        UnicodeBigEndianReader r = new UnicodeBigEndianReader(new GedcomParser(), new ByteArrayInputStream(buf));
+        assertEquals("0 HEAD", r.nextLine());
+        assertEquals("0 TRLR", r.nextLine());
+        assertNull(r.nextLine());
+        assertEquals(buf.length, r.bytesRead);
+    }
+
+    /**
+     * Test that surrogate pairs are decoded properly
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data cannot be parsed
+     */
+    @Test
+    public void testSurrogatePairs() throws IOException, GedcomParserException {
+        UnicodeBigEndianReader r = new UnicodeBigEndianReader(new GedcomParser(), new ByteArrayInputStream(
+                "1 NOTE \uD834\uDD1E\n".getBytes(StandardCharsets.UTF_16BE)));
+        assertEquals("1 NOTE \uD834\uDD1E", r.nextLine());
+        assertNull(r.nextLine());
+    }
+
+}
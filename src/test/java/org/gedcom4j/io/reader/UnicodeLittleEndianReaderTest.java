@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.io.reader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.parser.GedcomParser;
+import org.junit.Test;
+
+/**
+ * Test for {@link UnicodeLittleEndianReader}
+ * 
+ * @author frizbog
+ */
+public class UnicodeLittleEndianReaderTest {
+
+    /**
+     * Test that a byte order marker at the beginning of the file is discarded, and that the rest of the file is still read
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data cannot be parsed
+     */
+    @Test
+    public void testByteOrderMarker() throws IOException, GedcomParserException {
+        UnicodeLittleEndianReader r = new UnicodeLittleEndianReader(new GedcomParser(), new ByteArrayInputStream(
+                "\uFEFF0 HEAD\r\n1 CHAR UNICODE\r\n0 TRLR".getBytes(StandardCharsets.UTF_16LE)));
+        assertEquals("0 HEAD", r.nextLine());
+        assertEquals("1 CHAR UNICODE", r.nextLine());
+        assertEquals("0 TRLR", r.nextLine());
+        assertNull(r.nextLine());
+        assertEquals(62, r.bytesRead);
+    }
+
+    /**
+     * Test that a dangling odd byte at the end of the data is ignored, but counted
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data cannot be parsed
+     */
+    @Test
+    public void testDanglingByte() throws IOException, GedcomParserException {
+        byte[] buf = new byte[] { '0', 0, ' ', 0, 'T', 0, 'R', 0, 'L', 0, 'R', 0, '\n' };
+        UnicodeLittleEndianReader r = new UnicodeLittleEndianReader(new GedcomParser(), new ByteArrayInputStream(buf));
+        assertEquals("0 TRLR", r.nextLine());
+        assertNull(r.nextLine());
+        assertEquals(13, r.bytesRead);
+    }
+
+    /**
+     * Test an empty stream
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data cannot be parsed
+     */
+    @Test
+    public void testEmpty() throws IOException, GedcomParserException {
+        UnicodeLittleEndianReader r = new UnicodeLittleEndianReader(new GedcomParser(), new ByteArrayInputStream(new byte[] {}));
+        assertNull(r.nextLine());
+        assertNull(r.nextLine());
+    }
+
+    /**
+     * Test that surrogate pairs are decoded properly, even when the stream hands back the bytes a few at a time so the pairs are
+     * split across reads, and that unpaired surrogates are replaced
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data cannot be parsed
+     */
+    @Test
+    public void testSurrogatePairs() throws IOException, GedcomParserException {
+        String clef = "\uD834\uDD1E";
+        byte[] buf = ("1 NOTE " + clef + clef + "\n2 CONT x\uD834y").getBytes(StandardCharsets.UTF_16LE);
+        InputStream trickle = new FilterInputStream(new ByteArrayInputStream(buf)) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return super.read(b, off, Math.min(len, 3));
+            }
+        };
+        UnicodeLittleEndianReader r = new UnicodeLittleEndianReader(new GedcomParser(), trickle);
+        assertEquals("1 NOTE " + clef + clef, r.nextLine());
+        assertEquals("2 CONT x\uFFFDy", r.nextLine());
+        assertNull(r.nextLine());
+        assertEquals(buf.length, r.bytesRead);
+    }
+
+    /**
+     * Test leading whitespace and blank lines are skipped, and trailing whitespace is kept
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data cannot be parsed
+     */
+    @Test
+    public void testWhitespace() throws IOException, GedcomParserException {
+        UnicodeLittleEndianReader r = new UnicodeLittleEndianReader(new GedcomParser(), new ByteArrayInputStream(
+                "\t Foo \r\n\r\n \t \nBar\rBaz\t\n".getBytes(StandardCharsets.UTF_16LE)));
+        assertEquals("Foo ", r.nextLine());
+        assertEquals("Bar", r.nextLine());
+        assertEquals("Baz\t", r.nextLine());
+        assertNull(r.nextLine());
+    }
+
+}
@@ -34,6 +34,14 @@ import java.io.OutputStream;
  */
 public class NullOutputStream extends OutputStream {
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        // Do nothing
+    }
+
     /**
      * {@inheritDoc}
      */
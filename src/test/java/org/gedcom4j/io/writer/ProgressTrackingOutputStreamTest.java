@@ -53,6 +53,24 @@ public class ProgressTrackingOutputStreamTest {
         }
     }
 
+    /**
+     * Test that the count of bytes written carries on past 4GB
+     * 
+     * @throws IOException
+     *             if the data can't be written
+     */
+    @Test
+    public void testMoreThan4GB() throws IOException {
+        byte[] block = new byte[1024 * 1024];
+        try (ProgressTrackingOutputStream ptos = new ProgressTrackingOutputStream(new NullOutputStream())) {
+            for (int i = 0; i < 4 * 1024 + 1; i++) {
+                ptos.write(block, 0, block.length);
+            }
+            ptos.write(1);
+            assertEquals(4L * 1024 * 1024 * 1024 + block.length + 1, ptos.getBytesWritten());
+        }
+    }
+
     /**
      * Test method for {@link ProgressTrackingOutputStream#write(byte[])}.
      * 
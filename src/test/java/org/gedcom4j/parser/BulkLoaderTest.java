@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.IndividualEvent;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Test for {@link BulkLoader}
+ * 
+ * @author frizbog
+ */
+public class BulkLoaderTest {
+
+    /**
+     * A handler that keeps what it is given
+     */
+    private static class KeepingHandler implements BulkLoadHandler {
+
+        /**
+         * The data loaded from each file
+         */
+        private final Map<Path, Gedcom> loaded = new ConcurrentHashMap<>();
+
+        /**
+         * What went wrong with each file that failed
+         */
+        private final Map<Path, Exception> failed = new ConcurrentHashMap<>();
+
+        /**
+         * The canonicalizer hit rate the parser reported for each file
+         */
+        private final Map<Path, Double> hitRates = new ConcurrentHashMap<>();
+
+        /**
+         * The threads the files were handed over on
+         */
+        private final List<Thread> threads = new ArrayList<>();
+
+        @Override
+        public void fileFailed(Path file, Exception e) {
+            failed.put(file, e);
+        }
+
+        @Override
+        public void fileLoaded(Path file, GedcomParser parser) {
+            loaded.put(file, parser.getGedcom());
+            hitRates.put(file, Double.valueOf(parser.getCanonicalizerHitRate()));
+            synchronized (threads) {
+                threads.add(Thread.currentThread());
+            }
+        }
+    }
+
+    /**
+     * The sample file
+     */
+    private static final Path WILLIS = Paths.get("sample/willis.ged");
+
+    /**
+     * The sample file, loaded on its own
+     */
+    private static Gedcom expected;
+
+    /**
+     * Load the sample file to compare against
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @BeforeClass
+    public static void setUpBeforeClass() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load(WILLIS.toString());
+        expected = gp.getGedcom();
+    }
+
+    /**
+     * Test that collection initialization is as set for the loader, whatever the global value is
+     * 
+     * @throws InterruptedException
+     *             if the test is interrupted
+     */
+    @Test
+    public void testCollectionInitialization() throws InterruptedException {
+        BulkLoader loader = new BulkLoader();
+        loader.setThreads(2);
+        loader.setCollectionInitializationEnabled(true);
+        KeepingHandler handler = new KeepingHandler();
+        loader.load(Collections.singletonList(WILLIS), handler);
+        Individual i = handler.loaded.get(WILLIS).getIndividuals().get("@I5169@");
+        assertNotNull(i.getAliases());
+        assertTrue(i.getAliases().isEmpty());
+
+        loader.setCollectionInitializationEnabled(false);
+        handler = new KeepingHandler();
+        loader.load(Collections.singletonList(WILLIS), handler);
+        assertNull(handler.loaded.get(WILLIS).getIndividuals().get("@I5169@").getAliases());
+    }
+
+    /**
+     * Test loading several files, some compressed and some that can't be loaded, on fewer threads than there are files
+     * 
+     * @throws IOException
+     *             if the test files can't be written
+     * @throws InterruptedException
+     *             if the test is interrupted
+     */
+    @Test
+    public void testLoad() throws IOException, InterruptedException {
+        List<Path> files = new ArrayList<>();
+        long bytes = 0;
+        for (int i = 0; i < 5; i++) {
+            File f = File.createTempFile("gedcom4j", ".ged");
+            f.deleteOnExit();
+            Files.copy(WILLIS, f.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            files.add(f.toPath());
+            bytes += f.length();
+        }
+        File gz = File.createTempFile("gedcom4j", ".ged.gz");
+        gz.deleteOnExit();
+        try (GZIPOutputStream out = new GZIPOutputStream(new FileOutputStream(gz))) {
+            out.write(Files.readAllBytes(WILLIS));
+        }
+        files.add(gz.toPath());
+        // Bytes are counted after decompression
+        bytes += Files.size(WILLIS);
+        Path missing = Paths.get("sample/this file does not exist.ged");
+        files.add(missing);
+
+        BulkLoader loader = new BulkLoader();
+        loader.setThreads(3);
+        KeepingHandler handler = new KeepingHandler();
+        BulkLoadResult result = loader.load(files, handler);
+
+        assertEquals(6, result.getFilesLoaded());
+        assertEquals(1, result.getFilesFailed());
+        assertTrue(result.getFailures().get(missing) instanceof IOException);
+        assertSame(result.getFailures().get(missing), handler.failed.get(missing));
+        assertEquals(6, handler.loaded.size());
+        for (Gedcom g : handler.loaded.values()) {
+            assertEquals(expected, g);
+        }
+        for (Thread t : handler.threads) {
+            assertNotSame(Thread.currentThread(), t);
+        }
+        assertEquals(bytes, result.getBytesRead());
+        assertEquals(6L * 23552, result.getLinesRead());
+        assertTrue(result.getElapsedNanos() > 0);
+        assertTrue(result.getFilesPerSecond() > 0);
+        assertTrue(result.getBytesPerSecond() > 0);
+        assertTrue(result.getCanonicalizerHitRate() > 0);
+        assertTrue(result.toString().startsWith("BulkLoadResult [filesLoaded=6, filesFailed=1"));
+    }
+
+    /**
+     * Test that values repeated from one file to the next share an instance when each worker keeps its canonicalizer, and don't
+     * when it doesn't
+     * 
+     * @throws InterruptedException
+     *             if the test is interrupted
+     * @throws IOException
+     *             if the test files can't be written
+     */
+    @Test
+    public void testSharedCanonicalizer() throws InterruptedException, IOException {
+        File copy = File.createTempFile("gedcom4j", ".ged");
+        copy.deleteOnExit();
+        Files.copy(WILLIS, copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        List<Path> files = new ArrayList<>();
+        files.add(WILLIS);
+        files.add(copy.toPath());
+
+        BulkLoader loader = new BulkLoader();
+        loader.setThreads(1);
+        KeepingHandler handler = new KeepingHandler();
+        loader.load(files, handler);
+        String place1 = firstBirthPlace(handler.loaded.get(WILLIS));
+        String place2 = firstBirthPlace(handler.loaded.get(copy.toPath()));
+        assertEquals(place1, place2);
+        assertSame(place1, place2);
+        assertTrue(handler.hitRates.get(WILLIS).doubleValue() > 0);
+        // The second file finds the values the first file left in the canonicalizer
+        assertTrue(handler.hitRates.get(copy.toPath()).doubleValue() > handler.hitRates.get(WILLIS).doubleValue());
+
+        loader.setCanonicalizerShared(false);
+        handler = new KeepingHandler();
+        loader.load(files, handler);
+        place1 = firstBirthPlace(handler.loaded.get(WILLIS));
+        place2 = firstBirthPlace(handler.loaded.get(copy.toPath()));
+        assertEquals(place1, place2);
+        assertNotSame(place1, place2);
+    }
+
+    /**
+     * Get the place of the first birth with a place in the data
+     * 
+     * @param g
+     *            the data
+     * @return the place of the first birth with a place
+     */
+    private String firstBirthPlace(Gedcom g) {
+        for (Individual i : g.getIndividuals().values()) {
+            if (i.getEvents() != null) {
+                for (IndividualEvent e : i.getEvents()) {
+                    if (e.getPlace() != null && e.getPlace().getPlaceName() != null) {
+                        return e.getPlace().getPlaceName();
+                    }
+                }
+            }
+        }
+        throw new AssertionError("No places found");
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.io.event.FileProgressEvent;
+import org.gedcom4j.io.event.FileProgressListener;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Test for loading gzip files and zip archives with {@link GedcomParser#load(String)} and
+ * {@link GedcomParser#load(java.nio.file.Path)}
+ * 
+ * @author frizbog
+ */
+public class CompressedFileLoadTest {
+
+    /**
+     * The bytes of the sample file
+     */
+    private static byte[] willis;
+
+    /**
+     * The parser that loaded the sample file uncompressed
+     */
+    private static GedcomParser expected;
+
+    /**
+     * Load the uncompressed sample file to compare against
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @BeforeClass
+    public static void setUpBeforeClass() throws IOException, GedcomParserException {
+        willis = Files.readAllBytes(Paths.get("sample/willis.ged"));
+        expected = new GedcomParser();
+        expected.load("sample/willis.ged");
+    }
+
+    /**
+     * Test loading a gzip file by name and by path
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testGzip() throws IOException, GedcomParserException {
+        File f = File.createTempFile("gedcom4j", ".ged.gz");
+        f.deleteOnExit();
+        try (GZIPOutputStream gz = new GZIPOutputStream(new FileOutputStream(f))) {
+            gz.write(willis);
+        }
+        assertSameAsUncompressed(f);
+    }
+
+    /**
+     * Test that progress notifications count the decompressed bytes
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testProgressCountsDecompressedBytes() throws IOException, GedcomParserException {
+        File f = File.createTempFile("gedcom4j", ".ged.gz");
+        f.deleteOnExit();
+        try (GZIPOutputStream gz = new GZIPOutputStream(new FileOutputStream(f))) {
+            gz.write(willis);
+        }
+        GedcomParser gp = new GedcomParser();
+        final long[] bytes = new long[1];
+        FileProgressListener l = new FileProgressListener() {
+            @Override
+            public void progressNotification(FileProgressEvent e) {
+                bytes[0] = e.getBytesProcessed();
+            }
+        };
+        gp.registerFileObserver(l);
+        gp.load(f.toPath());
+        assertEquals(willis.length, bytes[0]);
+    }
+
+    /**
+     * Test loading the gedcom file in a zip archive by name and by path
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testZip() throws IOException, GedcomParserException {
+        File f = File.createTempFile("gedcom4j", ".zip");
+        f.deleteOnExit();
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(f))) {
+            zos.putNextEntry(new ZipEntry("readme.txt"));
+            zos.write("Family tree".getBytes("UTF-8"));
+            zos.closeEntry();
+            zos.putNextEntry(new ZipEntry("willis.ged"));
+            zos.write(willis);
+            zos.closeEntry();
+        }
+        assertSameAsUncompressed(f);
+    }
+
+    /**
+     * Assert that loading a compressed file, both by name and by path, gives the same results as loading the uncompressed sample
+     * 
+     * @param f
+     *            the compressed file
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    private void assertSameAsUncompressed(File f) throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load(f.getPath());
+        assertEquals(expected.getGedcom(), gp.getGedcom());
+        assertEquals(expected.getErrors(), gp.getErrors());
+        assertEquals(expected.getWarnings(), gp.getWarnings());
+        assertEquals(761, gp.getGedcom().getIndividuals().size());
+
+        gp = new GedcomParser();
+        gp.load(f.toPath());
+        assertEquals(expected.getGedcom(), gp.getGedcom());
+    }
+}
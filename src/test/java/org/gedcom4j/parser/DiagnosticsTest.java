@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.junit.Test;
+
+/**
+ * Test for {@link Diagnostics}
+ * 
+ * @author frizbog
+ */
+public class DiagnosticsTest {
+
+    /**
+     * Test the caps on how many diagnostics of each code are kept
+     */
+    @Test
+    public void testCaps() {
+        Diagnostics d = new Diagnostics();
+        assertEquals(Diagnostics.DEFAULT_CAP, d.getCap(DiagnosticCode.LINE_TOO_LONG));
+        d.setDefaultCap(2);
+        d.setCap(DiagnosticCode.ORPHANED_LINE, 1);
+        for (int i = 1; i <= 5; i++) {
+            assertEquals(i <= 2, d.add(DiagnosticCode.LINE_TOO_LONG, i));
+            assertEquals(i <= 1, d.add(DiagnosticCode.ORPHANED_LINE, i, "NOTE", Integer.valueOf(1)));
+        }
+        assertEquals(5, d.getCount(DiagnosticCode.LINE_TOO_LONG));
+        assertEquals(5, d.getCount(DiagnosticCode.ORPHANED_LINE));
+        assertEquals(0, d.getCount(DiagnosticCode.UNKNOWN_TAG));
+        assertEquals(2, d.getWarnings().size());
+        assertEquals(1, d.getErrors().size());
+        assertEquals(7, d.getSuppressedCount());
+        assertFalse(d.isKept(DiagnosticCode.LINE_TOO_LONG));
+        assertTrue(d.isKept(DiagnosticCode.UNKNOWN_TAG));
+
+        d.clear();
+        assertEquals(0, d.getCount(DiagnosticCode.LINE_TOO_LONG));
+        assertEquals(0, d.getSuppressedCount());
+        assertTrue(d.getWarnings().isEmpty());
+        assertEquals(2, d.getDefaultCap());
+        assertEquals(1, d.getCap(DiagnosticCode.ORPHANED_LINE));
+    }
+
+    /**
+     * Test formatting messages
+     */
+    @Test
+    public void testMessages() {
+        Diagnostics d = new Diagnostics();
+        d.add(DiagnosticCode.ORPHANED_LINE, 46, "NOTE", Integer.valueOf(2));
+        d.add(DiagnosticCode.G551_FEATURE_IN_G55, 12, "email", "for individual ", "@I1@", "");
+        d.add(DiagnosticCode.LINE_WITHOUT_TAG_CONTINUED, 26);
+        d.add(DiagnosticCode.LINE_TOO_LONG, 3000000000L);
+
+        Diagnostic e = d.getErrors().get(0);
+        assertEquals(DiagnosticCode.ORPHANED_LINE, e.getCode());
+        assertEquals(46, e.getLineNum());
+        assertEquals("NOTE tag at line 46: Unable to find suitable parent node at level 2", e.getMessage());
+        assertEquals(e.getMessage(), d.getErrorMessages().get(0));
+
+        assertEquals("GEDCOM version is 5.5 but email was specified for individual @I1@ on line 12, which is a GEDCOM 5.5.1 feature."
+                + "  Data loaded but cannot be re-written unless GEDCOM version changes.", d.getWarningMessages().get(0));
+        assertEquals("Line 26 did not begin with a level and tag, so it was treated as a non-standard continuation of the "
+                + "previous line.", d.getWarningMessages().get(1));
+        assertEquals(3000000000L, d.getWarnings().get(2).getLineNum());
+        assertEquals("Line 3000000000 exceeds max length - introducing synthetic CONC tag to split line", d.getWarningMessages().get(
+                2));
+    }
+
+    /**
+     * Test that without a cap, every diagnostic is kept
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     */
+    @Test
+    public void testNoCapByDefault() throws IOException, GedcomParserException {
+        StringBuilder sb = new StringBuilder("0 HEAD\n1 GEDC\n2 VERS 5.5.1\n1 CHAR UTF-8\n0 @N1@ NOTE First line\n");
+        for (int i = 0; i < 3000; i++) {
+            sb.append("a note line that should have been a CONT\n");
+        }
+        sb.append("0 TRLR\n");
+
+        GedcomParser gp = new GedcomParser();
+        gp.setStrictLineBreaks(false);
+        gp.load(new BufferedInputStream(new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8))));
+        assertEquals(3000, gp.getWarnings().size());
+        assertEquals(0, gp.getDiagnostics().getSuppressedCount());
+        assertTrue(gp.getDiagnostics().isKept(DiagnosticCode.LINE_WITHOUT_TAG_CONTINUED));
+    }
+
+    /**
+     * Test that a file with a warning on nearly every line only keeps as many as the cap allows, but counts them all
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     */
+    @Test
+    public void testParserCaps() throws IOException, GedcomParserException {
+        StringBuilder sb = new StringBuilder("0 HEAD\n1 GEDC\n2 VERS 5.5.1\n1 CHAR UTF-8\n0 @N1@ NOTE First line\n");
+        for (int i = 0; i < 3000; i++) {
+            sb.append("a note line that should have been a CONT\n");
+        }
+        sb.append("0 TRLR\n");
+
+        GedcomParser gp = new GedcomParser();
+        gp.setStrictLineBreaks(false);
+        gp.getDiagnostics().setCap(DiagnosticCode.LINE_WITHOUT_TAG_CONTINUED, 10);
+        gp.load(new BufferedInputStream(new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8))));
+        assertEquals(10, gp.getWarnings().size());
+        assertEquals(3000, gp.getDiagnostics().getCount(DiagnosticCode.LINE_WITHOUT_TAG_CONTINUED));
+        assertEquals(2990, gp.getDiagnostics().getSuppressedCount());
+        assertEquals("Line 6 did not begin with a level and tag, so it was treated as a non-standard continuation of the "
+                + "previous line.", gp.getWarnings().get(0));
+
+        // Everything was still loaded
+        assertEquals(3001, gp.getGedcom().getNotes().get("@N1@").getLines().size());
+    }
+
+    /**
+     * Test adding messages to, and clearing, the views of the errors and warnings
+     */
+    @Test
+    public void testViews() {
+        GedcomParser gp = new GedcomParser();
+        gp.getWarnings().add("Something odd");
+        gp.getErrors().add("Something wrong");
+        assertEquals("Something odd", gp.getWarnings().get(0));
+        assertEquals(DiagnosticCode.OTHER_WARNING, gp.getDiagnostics().getWarnings().get(0).getCode());
+        assertEquals(DiagnosticCode.OTHER_ERROR, gp.getDiagnostics().getErrors().get(0).getCode());
+
+        gp.getWarnings().clear();
+        assertTrue(gp.getWarnings().isEmpty());
+        assertEquals(0, gp.getDiagnostics().getCount(DiagnosticCode.OTHER_WARNING));
+        assertEquals(1, gp.getErrors().size());
+    }
+
+    /**
+     * Test that the views of the errors and warnings can be changed like any other list, and that adding a message past the cap
+     * says so
+     */
+    @Test
+    public void testViewsModifiable() {
+        GedcomParser gp = new GedcomParser();
+        List<String> warnings = gp.getWarnings();
+        assertTrue(warnings.add("B"));
+        warnings.add(0, "A");
+        warnings.add(2, "C");
+        assertEquals(Arrays.asList("A", "B", "C"), warnings);
+
+        assertEquals("B", warnings.set(1, "X"));
+        assertEquals(DiagnosticCode.OTHER_WARNING, gp.getDiagnostics().getWarnings().get(1).getCode());
+        assertEquals("A", warnings.remove(0));
+        Iterator<String> it = warnings.iterator();
+        it.next();
+        it.remove();
+        assertEquals(Arrays.asList("C"), warnings);
+        assertEquals(1, gp.getDiagnostics().getWarnings().size());
+
+        gp.getDiagnostics().setCap(DiagnosticCode.OTHER_ERROR, 0);
+        assertFalse(gp.getErrors().add("Dropped"));
+        gp.getErrors().add(0, "Also dropped");
+        assertTrue(gp.getErrors().isEmpty());
+        assertEquals(2, gp.getDiagnostics().getCount(DiagnosticCode.OTHER_ERROR));
+    }
+}
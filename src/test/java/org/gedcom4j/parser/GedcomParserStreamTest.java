@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.CustomFact;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.FamilySpouse;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Header;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.model.NoteRecord;
+import org.gedcom4j.model.Repository;
+import org.gedcom4j.model.Source;
+import org.gedcom4j.model.Submitter;
+import org.gedcom4j.model.Trailer;
+import org.junit.Test;
+
+/**
+ * Test for streaming records to a {@link RecordHandler} with {@link GedcomParser#stream(String, RecordHandler)}
+ * 
+ * @author frizbog
+ */
+public class GedcomParserStreamTest implements RecordHandler {
+
+    /**
+     * The records handed over, in the order they were handed over
+     */
+    private final List<ModelElement> records = new ArrayList<>();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void handleRecord(ModelElement record) {
+        records.add(record);
+    }
+
+    /**
+     * Test that a custom root-level tag is handed over as a {@link CustomFact}, and that an unrecognized root-level tag that is
+     * not loaded is not handed over at all
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     */
+    @Test
+    public void testCustomRootTag() throws IOException, GedcomParserException {
+        String gedcom = "0 HEAD\n1 GEDC\n2 VERS 5.5.1\n1 CHAR ASCII\n0 @X1@ _CUSTOM Stuff\n1 _MORE More stuff\n0 @X2@ BOGUS\n0 TRLR\n";
+        GedcomParser gp = new GedcomParser();
+        gp.stream(new BufferedInputStream(new ByteArrayInputStream(gedcom.getBytes(StandardCharsets.US_ASCII))), this);
+
+        assertEquals(3, records.size());
+        assertTrue(records.get(0) instanceof Header);
+        CustomFact cf = (CustomFact) records.get(1);
+        assertEquals("_CUSTOM", cf.getTag());
+        assertEquals("@X1@", cf.getXref());
+        assertEquals("Stuff", cf.getDescription().getValue());
+        assertEquals(1, cf.getCustomFacts().size());
+        assertTrue(records.get(2) instanceof Trailer);
+        assertNull(gp.getGedcom().getCustomFacts());
+        assertEquals(1, gp.getErrors().size());
+    }
+
+    /**
+     * Test that a handler is required
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoHandler() throws IOException, GedcomParserException {
+        new GedcomParser().stream("sample/willis.ged", null);
+    }
+
+    /**
+     * Test that a record with no xref, and a pointer with no value, are handed over rather than failing, as a load would keep them
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     */
+    @Test
+    public void testNullXrefs() throws IOException, GedcomParserException {
+        String gedcom = "0 HEAD\n1 GEDC\n2 VERS 5.5.1\n1 CHAR ASCII\n0 INDI\n1 NAME John /Doe/\n1 FAMS\n0 @I2@ INDI\n0 TRLR\n";
+        GedcomParser gp = new GedcomParser();
+        gp.stream(new BufferedInputStream(new ByteArrayInputStream(gedcom.getBytes(StandardCharsets.US_ASCII))), this);
+
+        assertEquals(4, records.size());
+        Individual i = (Individual) records.get(1);
+        assertNull(i.getXref());
+        assertEquals("John /Doe/", i.getNames().get(0).getBasic());
+        assertEquals(1, i.getFamiliesWhereSpouse().size());
+        assertNull(i.getFamiliesWhereSpouse().get(0).getFamily().getXref());
+        assertEquals("@I2@", ((Individual) records.get(2)).getXref());
+    }
+
+    /**
+     * Test that streaming a file hands over the same records as loading it, in file order, with references to other records left
+     * unresolved, and that none of them are kept in the gedcom
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testSameRecordsAsLoad() throws IOException, GedcomParserException {
+        GedcomParser loader = new GedcomParser();
+        loader.load("sample/willis.ged");
+        Gedcom loaded = loader.getGedcom();
+
+        GedcomParser gp = new GedcomParser();
+        gp.stream("sample/willis.ged", this);
+
+        assertEquals(1267, records.size());
+        assertTrue(records.get(0) instanceof Header);
+        assertTrue(records.get(records.size() - 1) instanceof Trailer);
+        int individuals = 0;
+        int families = 0;
+        int notes = 0;
+        int sources = 0;
+        int repositories = 0;
+        int submitters = 0;
+        for (ModelElement record : records) {
+            if (record instanceof Individual) {
+                individuals++;
+                Individual i = (Individual) record;
+                Individual li = loaded.getIndividuals().get(i.getXref());
+                assertNotNull(li);
+                assertEquals(li.getNames().size(), i.getNames().size());
+                assertEquals(li.getNames().get(0).getBasic(), i.getNames().get(0).getBasic());
+                assertEquals(li.getEvents(true).size(), i.getEvents(true).size());
+                if (i.getFamiliesWhereSpouse() != null) {
+                    for (FamilySpouse fs : i.getFamiliesWhereSpouse()) {
+                        // Unresolved - nothing but the xref
+                        assertNotNull(fs.getFamily().getXref());
+                        assertNull(fs.getFamily().getHusband());
+                        assertNull(fs.getFamily().getWife());
+                        assertNull(fs.getFamily().getChildren());
+                    }
+                }
+            } else if (record instanceof Family) {
+                families++;
+                Family f = (Family) record;
+                Family lf = loaded.getFamilies().get(f.getXref());
+                assertNotNull(lf);
+                assertEquals(lf.getEvents(true).size(), f.getEvents(true).size());
+                if (f.getHusband() != null) {
+                    assertEquals(lf.getHusband().getIndividual().getXref(), f.getHusband().getIndividual().getXref());
+                    assertNull(f.getHusband().getIndividual().getNames());
+                }
+            } else if (record instanceof NoteRecord) {
+                notes++;
+                assertEquals(loaded.getNotes().get(((NoteRecord) record).getXref()), record);
+            } else if (record instanceof Source) {
+                sources++;
+            } else if (record instanceof Repository) {
+                repositories++;
+                assertEquals(loaded.getRepositories().get(((Repository) record).getXref()), record);
+            } else if (record instanceof Submitter) {
+                submitters++;
+            }
+        }
+        assertEquals(loaded.getIndividuals().size(), individuals);
+        assertEquals(loaded.getFamilies().size(), families);
+        assertEquals(loaded.getNotes().size(), notes);
+        assertEquals(loaded.getSources().size(), sources);
+        assertEquals(loaded.getRepositories().size(), repositories);
+        assertEquals(loaded.getSubmitters().size(), submitters);
+
+        Gedcom g = gp.getGedcom();
+        assertSame(records.get(0), g.getHeader());
+        assertTrue(g.getIndividuals().isEmpty());
+        assertTrue(g.getFamilies().isEmpty());
+        assertTrue(g.getNotes().isEmpty());
+        assertTrue(g.getSources().isEmpty());
+        assertEquals(loader.getErrors(), gp.getErrors());
+        assertEquals(loader.getWarnings(), gp.getWarnings());
+    }
+
+    /**
+     * Test that streaming with the multi-threaded load options turned on still hands over the records one at a time, in file order
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testWithMultiThreadedOptions() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.stream("sample/willis.ged", this);
+        List<ModelElement> sequential = new ArrayList<>(records);
+
+        GedcomParser[] parsers = { new GedcomParser(), new GedcomParser(), new GedcomParser() };
+        parsers[0].setParallelParsing(true);
+        parsers[1].setPipelined(true);
+        parsers[2].setParallelDecoding(true);
+        for (GedcomParser p : parsers) {
+            records.clear();
+            p.stream("sample/willis.ged", this);
+            assertEquals(sequential.size(), records.size());
+            for (int i = 0; i < records.size(); i++) {
+                assertEquals(sequential.get(i).getClass(), records.get(i).getClass());
+                assertEquals(sequential.get(i).toString(), records.get(i).toString());
+            }
+            assertTrue(p.getGedcom().getIndividuals().isEmpty());
+        }
+    }
+}
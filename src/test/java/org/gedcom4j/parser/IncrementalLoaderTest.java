@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.IndividualReference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for {@link IncrementalLoader} and {@link RecordHashes}
+ * 
+ * @author frizbog
+ */
+public class IncrementalLoaderTest {
+
+    /**
+     * A copy of a sample file, which is edited by the tests
+     */
+    private File file;
+
+    /**
+     * The parser the loader uses
+     */
+    private GedcomParser gp;
+
+    /**
+     * The loader being tested
+     */
+    private IncrementalLoader loader;
+
+    /**
+     * The gedcom from the initial load
+     */
+    private Gedcom previous;
+
+    /**
+     * The hashes from the initial load
+     */
+    private RecordHashes previousHashes;
+
+    /**
+     * Copy a sample file to work with, and load it
+     * 
+     * @throws IOException
+     *             if the file can't be copied or read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Before
+    public void setUp() throws IOException, GedcomParserException {
+        file = File.createTempFile("gedcom4j", ".ged");
+        Files.write(file.toPath(), Files.readAllBytes(new File("sample/willis.ged").toPath()));
+        gp = new GedcomParser();
+        loader = new IncrementalLoader(gp);
+        previousHashes = loader.load(file.getPath(), null, null);
+        previous = gp.getGedcom();
+        assertNull(loader.getReparsedXrefs());
+        assertEquals(1265, previousHashes.size());
+    }
+
+    /**
+     * Clean up the file
+     */
+    @After
+    public void tearDown() {
+        assertTrue(file.delete());
+    }
+
+    /**
+     * Test adding a record
+     * 
+     * @throws IOException
+     *             if the file can't be read or written
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testAddedRecord() throws IOException, GedcomParserException {
+        edit("0 TRLR", "0 @I99999@ INDI" + lineTerminator() + "1 NAME New /Person/" + lineTerminator() + "0 TRLR");
+        loader.load(file.getPath(), previous, previousHashes);
+        assertEquals(Collections.singletonList("@I99999@"), loader.getReparsedXrefs());
+        assertSame(previous, gp.getGedcom());
+        assertEquals("New /Person/", previous.getIndividuals().get("@I99999@").getNames().get(0).getBasic());
+        assertEquals(fullLoad(), previous);
+    }
+
+    /**
+     * Test changing a record, which should be reparsed in place
+     * 
+     * @throws IOException
+     *             if the file can't be read or written
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testChangedRecord() throws IOException, GedcomParserException {
+        Individual ella = previous.getIndividuals().get("@I8894@");
+        Individual george = previous.getIndividuals().get("@I5169@");
+        Family parents = ella.getFamiliesWhereChild().get(0).getFamily();
+
+        edit("1 NAME Ella /Willis/", "1 NAME Ella Mae /Willis/");
+        RecordHashes hashes = loader.load(file.getPath(), previous, previousHashes);
+        assertEquals(Collections.singletonList("@I8894@"), loader.getReparsedXrefs());
+        assertEquals(previousHashes.size(), hashes.size());
+
+        // Updated in place, so references to and from the changed record still work
+        assertSame(previous, gp.getGedcom());
+        assertSame(ella, previous.getIndividuals().get("@I8894@"));
+        assertSame(george, previous.getIndividuals().get("@I5169@"));
+        assertEquals("Ella Mae /Willis/", ella.getNames().get(0).getBasic());
+        assertSame(parents, ella.getFamiliesWhereChild().get(0).getFamily());
+        boolean found = false;
+        for (IndividualReference child : parents.getChildren()) {
+            found |= child.getIndividual() == ella;
+        }
+        assertTrue(found);
+        assertEquals(fullLoad(), previous);
+
+        // And again, with the hashes from the incremental load
+        edit("1 NAME Ella Mae /Willis/", "1 NAME Ella /Willis/");
+        loader.load(file.getPath(), previous, hashes);
+        assertEquals(Collections.singletonList("@I8894@"), loader.getReparsedXrefs());
+        assertEquals("Ella /Willis/", ella.getNames().get(0).getBasic());
+        assertEquals(1, ella.getNames().size());
+    }
+
+    /**
+     * Test changing the header, which needs the whole file reloaded
+     * 
+     * @throws IOException
+     *             if the file can't be read or written
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testChangedHeader() throws IOException, GedcomParserException {
+        edit("1 DATE 21 MAY 2016", "1 DATE 22 MAY 2016");
+        loader.load(file.getPath(), previous, previousHashes);
+        assertNull(loader.getReparsedXrefs());
+        assertNotSame(previous, gp.getGedcom());
+        assertEquals("22 MAY 2016", gp.getGedcom().getHeader().getDate().getValue());
+    }
+
+    /**
+     * Test that the hashes can be kept between runs
+     * 
+     * @throws IOException
+     *             if the file can't be read or written
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws ClassNotFoundException
+     *             if the hashes can't be deserialized
+     */
+    @Test
+    public void testHashesSerializable() throws IOException, GedcomParserException, ClassNotFoundException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+            oos.writeObject(previousHashes);
+        }
+        RecordHashes restored;
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+            restored = (RecordHashes) ois.readObject();
+        }
+        edit("1 NAME George Stanley /Carey/", "1 NAME George /Carey/");
+        loader.load(file.getPath(), previous, restored);
+        assertEquals(Arrays.asList("@I5169@"), loader.getReparsedXrefs());
+        assertEquals(fullLoad(), previous);
+    }
+
+    /**
+     * Test reloading a file that hasn't changed
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testNoChanges() throws IOException, GedcomParserException {
+        RecordHashes hashes = loader.load(file.getPath(), previous, previousHashes);
+        assertNotNull(loader.getReparsedXrefs());
+        assertTrue(loader.getReparsedXrefs().isEmpty());
+        assertSame(previous, gp.getGedcom());
+        assertTrue(hashes.changedSince(RecordHashes.compute(file.getPath())).isEmpty());
+    }
+
+    /**
+     * Test removing a record, which needs the whole file reloaded
+     * 
+     * @throws IOException
+     *             if the file can't be read or written
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testRemovedRecord() throws IOException, GedcomParserException {
+        String contents = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        int start = contents.indexOf("0 @I5169@ INDI");
+        int end = contents.indexOf("0 @I8894@ INDI");
+        Files.write(file.toPath(), (contents.substring(0, start) + contents.substring(end)).getBytes(StandardCharsets.UTF_8));
+
+        loader.load(file.getPath(), previous, previousHashes);
+        assertNull(loader.getReparsedXrefs());
+        assertNotSame(previous, gp.getGedcom());
+        assertEquals(fullLoad(), gp.getGedcom());
+    }
+
+    /**
+     * Replace the first occurrence of some text in the file
+     * 
+     * @param from
+     *            the text to replace, which must be in the file
+     * @param to
+     *            the text to replace it with
+     * @throws IOException
+     *             if the file can't be read or written
+     */
+    private void edit(String from, String to) throws IOException {
+        String contents = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        int i = contents.indexOf(from);
+        assertTrue(from, i >= 0);
+        Files.write(file.toPath(), (contents.substring(0, i) + to + contents.substring(i + from.length())).getBytes(
+                StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Load the file from scratch, to compare with the result of an incremental load
+     * 
+     * @return the gedcom from loading the whole file
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    private Gedcom fullLoad() throws IOException, GedcomParserException {
+        GedcomParser p = new GedcomParser();
+        p.load(file.getPath());
+        return p.getGedcom();
+    }
+
+    /**
+     * Get the line terminator used in the file
+     * 
+     * @return the line terminator used in the file
+     * @throws IOException
+     *             if the file can't be read
+     */
+    private String lineTerminator() throws IOException {
+        String contents = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        return contents.contains("\r\n") ? "\r\n" : "\n";
+    }
+}
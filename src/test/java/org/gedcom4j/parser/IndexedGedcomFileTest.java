@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.exception.UnsupportedGedcomCharsetException;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.HasXref;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.model.Source;
+import org.junit.Test;
+
+/**
+ * Test for {@link IndexedGedcomFile}
+ * 
+ * @author frizbog
+ */
+public class IndexedGedcomFileTest implements RecordHandler {
+
+    /**
+     * The records handed over by streaming
+     */
+    private final List<ModelElement> streamed = new ArrayList<>();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void handleRecord(ModelElement record) {
+        streamed.add(record);
+    }
+
+    /**
+     * Test that records are cached, and evicted once there are too many
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testCache() throws IOException, GedcomParserException {
+        try (IndexedGedcomFile f = new IndexedGedcomFile(new GedcomParser(), "sample/willis.ged", 2)) {
+            assertEquals(2, f.getCacheSize());
+            List<String> xrefs = f.getXrefs("INDI");
+            Individual first = f.getIndividual(xrefs.get(0));
+            assertSame(first, f.getIndividual(xrefs.get(0)));
+            f.getIndividual(xrefs.get(1));
+            assertSame(first, f.getIndividual(xrefs.get(0)));
+            f.getIndividual(xrefs.get(1));
+            f.getIndividual(xrefs.get(2));
+            Individual again = f.getIndividual(xrefs.get(0));
+            assertNotSame(first, again);
+            assertEquals(first.toString(), again.toString());
+        }
+    }
+
+    /**
+     * Test that the cache size must be positive
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testCacheSizeTooSmall() throws IOException, GedcomParserException {
+        try (IndexedGedcomFile f = new IndexedGedcomFile(new GedcomParser(), "sample/willis.ged", 0)) {
+            assertNotNull(f);
+        }
+    }
+
+    /**
+     * Test looking up records in a file
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testLookups() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        try (IndexedGedcomFile f = new IndexedGedcomFile(gp, "sample/willis.ged")) {
+            assertEquals(1267, f.getRecordCount());
+            assertEquals(761, f.getXrefs("INDI").size());
+            assertEquals(293, f.getXrefs("FAM").size());
+            assertEquals(66, f.getXrefs("SOUR").size());
+            assertTrue(f.getXrefs("TRLR").isEmpty());
+            assertNotNull(f.getHeader());
+            assertSame(gp.getGedcom().getHeader(), f.getHeader());
+
+            String individualXref = f.getXrefs("INDI").get(0);
+            Individual i = f.getIndividual(individualXref);
+            assertEquals(individualXref, i.getXref());
+            assertNull(f.getFamily(individualXref));
+            assertNull(f.getSource(individualXref));
+
+            Family fam = f.getFamily(f.getXrefs("FAM").get(0));
+            assertNotNull(fam);
+            // References are unresolved, so look them up in turn
+            Individual husband = f.getIndividual(fam.getHusband().getIndividual().getXref());
+            assertNotNull(husband.getNames());
+
+            Source s = f.getSource(f.getXrefs("SOUR").get(0));
+            assertNotNull(s.getTitle());
+
+            assertNull(f.getRecord("@NOT_THERE@"));
+            assertTrue(gp.getGedcom().getIndividuals().isEmpty());
+        }
+    }
+
+    /**
+     * Test that every record read by xref is the same as streaming the file gives, with the same errors and warnings (and so the
+     * same line numbers), for files in each of the supported encodings and line break styles
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testSameAsStreaming() throws IOException, GedcomParserException {
+        String[] files = { "sample/willis.ged", "sample/willis-ascii.ged", "sample/utf8_crlf_bom.ged", "sample/utf8_cr_nobom.ged",
+                "sample/utf8_lf_nobom.ged", "sample/Harry_Potter.ged", "sample/legacycustomtags.ged", "sample/allged.ged" };
+        for (String filename : files) {
+            streamed.clear();
+            GedcomParser streamer = new GedcomParser();
+            streamer.stream(filename, this);
+
+            GedcomParser gp = new GedcomParser();
+            try (IndexedGedcomFile f = new IndexedGedcomFile(gp, filename)) {
+                assertEquals(filename, streamer.getGedcom().getHeader(), f.getHeader());
+                for (ModelElement record : streamed) {
+                    if (record instanceof HasXref && ((HasXref) record).getXref() != null) {
+                        ModelElement r = f.getRecord(((HasXref) record).getXref());
+                        assertEquals(filename, record.getClass(), r.getClass());
+                        assertEquals(filename, record.toString(), r.toString());
+                    }
+                }
+            }
+            assertEquals(filename, streamer.getErrors(), gp.getErrors());
+            assertEquals(filename, streamer.getWarnings(), gp.getWarnings());
+        }
+    }
+
+    /**
+     * Test that files that aren't UTF-8 or ASCII are rejected
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test(expected = UnsupportedGedcomCharsetException.class)
+    public void testUnsupportedEncoding() throws IOException, GedcomParserException {
+        try (IndexedGedcomFile f = new IndexedGedcomFile(new GedcomParser(), "sample/willis-ansel.ged")) {
+            assertNotNull(f);
+        }
+    }
+}
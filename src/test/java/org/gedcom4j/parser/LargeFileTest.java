@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.io.event.FileProgressEvent;
+import org.gedcom4j.io.event.FileProgressListener;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.parser.event.ParseProgressEvent;
+import org.gedcom4j.parser.event.ParseProgressListener;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * Test for streaming files too big to hold in memory, with byte and line counts too big for an int. The files are made up as they
+ * are read (see {@link SyntheticGedcomInputStream}), so nothing needs to be on disk. A small file is always streamed; the file of
+ * more than 4GB takes half a minute or so, so it is only streamed when the <code>gedcom4j.largeFileTests</code> system property is
+ * set to true (for example, <code>mvn test -Dgedcom4j.largeFileTests=true -Dtest=LargeFileTest</code>).
+ * 
+ * @author frizbog
+ */
+public class LargeFileTest implements FileProgressListener, ParseProgressListener {
+
+    /**
+     * The system property to set to true to stream the file of more than 4GB
+     */
+    private static final String LARGE_FILE_TESTS = "gedcom4j.largeFileTests";
+
+    /**
+     * The last file progress notification received
+     */
+    private FileProgressEvent lastFileEvent;
+
+    /**
+     * The last parse progress notification received
+     */
+    private ParseProgressEvent lastParseEvent;
+
+    /**
+     * The number of individuals handed over by the parser
+     */
+    private int individualsStreamed;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void progressNotification(FileProgressEvent e) {
+        lastFileEvent = e;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void progressNotification(ParseProgressEvent e) {
+        lastParseEvent = e;
+    }
+
+    /**
+     * Stream a file of more than 4GB
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testMoreThan4GB() throws IOException, GedcomParserException {
+        Assume.assumeTrue(Boolean.getBoolean(LARGE_FILE_TESTS));
+        long size = 4L * 1024 * 1024 * 1024 + 256L * 1024 * 1024;
+        stream(size);
+        assertTrue(lastFileEvent.getBytesProcessed() > 4L * 1024 * 1024 * 1024);
+    }
+
+    /**
+     * Stream a small file, to make sure the made-up file and the counts are right
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testSmall() throws IOException, GedcomParserException {
+        stream(8L * 1024 * 1024);
+    }
+
+    /**
+     * Stream a made-up file of the supplied size, and check that the right number of records, lines and bytes were reported
+     * 
+     * @param size
+     *            the size of the file, at least
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    private void stream(long size) throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.registerFileObserver(this);
+        gp.registerParseObserver(this);
+        SyntheticGedcomInputStream in = new SyntheticGedcomInputStream(size);
+        try (BufferedInputStream bis = new BufferedInputStream(in)) {
+            gp.stream(bis, new RecordHandler() {
+                @Override
+                public void handleRecord(ModelElement record) {
+                    if (record instanceof Individual) {
+                        individualsStreamed++;
+                    }
+                }
+            });
+        }
+        assertTrue(gp.getErrors().isEmpty());
+        assertTrue(gp.getWarnings().isEmpty());
+        assertEquals(in.getIndividuals(), individualsStreamed);
+        assertTrue(in.getBytes() >= size);
+
+        assertTrue(lastFileEvent.isComplete());
+        assertEquals(in.getBytes(), lastFileEvent.getBytesProcessed());
+        // The final attempt to read a line, which found the end of the file, is counted too
+        assertEquals(in.getLines() + 1, lastFileEvent.getLinesProcessed());
+        assertEquals(in.getLines() / gp.getParseNotificationRate() * gp.getParseNotificationRate(), lastParseEvent.getLinesParsed());
+    }
+
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * Test for {@link LineTokenizer}
+ * 
+ * @author frizbog
+ */
+public class LineTokenizerTest {
+
+    /**
+     * A rule that can be used to check exceptions
+     */
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    /**
+     * The class under test
+     */
+    private final LineTokenizer classUnderTest = new LineTokenizer(new SymbolTable());
+
+    /**
+     * Test that tags, xrefs, and pointer values come back as canonical instances, and that known tags are the same instances as the
+     * {@link Tag} text
+     * 
+     * @throws GedcomParserException
+     *             if anything goes wrong
+     */
+    @Test
+    public void testCanonicalInstances() throws GedcomParserException {
+        classUnderTest.tokenize("0 @I1@ INDI", 1);
+        String xref = classUnderTest.getXref();
+        assertSame(Tag.INDIVIDUAL.tagText, classUnderTest.getTag());
+
+        classUnderTest.tokenize("1 FAMS @F1@", 2);
+        String pointer = classUnderTest.getValue();
+        assertEquals("@F1@", pointer);
+        assertSame(Tag.FAMILY_WHERE_SPOUSE.tagText, classUnderTest.getTag());
+
+        classUnderTest.tokenize("0 @F1@ FAM", 3);
+        assertSame(pointer, classUnderTest.getXref());
+
+        classUnderTest.tokenize("1 HUSB @I1@", 4);
+        assertSame(xref, classUnderTest.getValue());
+
+        classUnderTest.tokenize("1 NOTE @ is not a pointer@", 5);
+        assertEquals("@ is not a pointer@", classUnderTest.getValue());
+    }
+
+    /**
+     * Negative test case when the level is non-numeric
+     * 
+     * @throws GedcomParserException
+     *             if anything goes wrong
+     */
+    @Test
+    public void testNegativeBadLevel() throws GedcomParserException {
+        thrown.expect(GedcomParserException.class);
+        thrown.expectMessage("Line 5 does not begin with a 1 or 2 digit number for the level followed by a space:");
+        classUnderTest.tokenize("BAD TAGG additional stuff", 5);
+    }
+
+    /**
+     * Negative test case when the xref is not terminated
+     * 
+     * @throws GedcomParserException
+     *             if anything goes wrong
+     */
+    @Test
+    public void testNegativeBadXref() throws GedcomParserException {
+        thrown.expect(GedcomParserException.class);
+        thrown.expectMessage("XRef ID begins with @ sign but is not terminated with one on line 5");
+        classUnderTest.tokenize("4 @XREF TAGG additional stuff", 5);
+    }
+
+    /**
+     * Negative test case when there is nothing after the level
+     * 
+     * @throws GedcomParserException
+     *             if anything goes wrong
+     */
+    @Test
+    public void testNegativeNothingAfterLevel() throws GedcomParserException {
+        thrown.expect(GedcomParserException.class);
+        thrown.expectMessage("All GEDCOM lines are required to have a tag value, but no tag could be found on line 5");
+        classUnderTest.tokenize("4 ", 5);
+    }
+
+    /**
+     * Negative test case when there is no tag
+     * 
+     * @throws GedcomParserException
+     *             if anything goes wrong
+     */
+    @Test
+    public void testNegativeNothingAfterXref() throws GedcomParserException {
+        thrown.expect(GedcomParserException.class);
+        thrown.expectMessage("All GEDCOM lines are required to have a tag value, but no tag could be found on line 5");
+        classUnderTest.tokenize("4 @XREF@", 5);
+    }
+
+    /**
+     * Happy-path positive test with all the pieces present
+     * 
+     * @throws GedcomParserException
+     *             if anything goes wrong
+     */
+    @Test
+    public void testPositive() throws GedcomParserException {
+        classUnderTest.tokenize("4 @XREF@ TAGG additional stuff", 5);
+        assertEquals(4, classUnderTest.getLevel());
+        assertEquals("@XREF@", classUnderTest.getXref());
+        assertEquals("TAGG", classUnderTest.getTag());
+        assertEquals("additional stuff", classUnderTest.getValue());
+    }
+
+    /**
+     * Positive test with nothing after the tag, and with just a space after the tag
+     * 
+     * @throws GedcomParserException
+     *             if anything goes wrong
+     */
+    @Test
+    public void testPositiveNothingAfterTag() throws GedcomParserException {
+        classUnderTest.tokenize("4 TAGG", 5);
+        assertEquals(4, classUnderTest.getLevel());
+        assertNull(classUnderTest.getXref());
+        assertEquals("TAGG", classUnderTest.getTag());
+        assertNull(classUnderTest.getValue());
+
+        classUnderTest.tokenize("4 TAGG ", 5);
+        assertEquals("", classUnderTest.getValue());
+    }
+
+    /**
+     * Positive test with a two-digit level and no xref
+     * 
+     * @throws GedcomParserException
+     *             if anything goes wrong
+     */
+    @Test
+    public void testPositiveTwoDigitLevelNoXref() throws GedcomParserException {
+        classUnderTest.tokenize("14 TAGG additional stuff", 5);
+        assertEquals(14, classUnderTest.getLevel());
+        assertNull(classUnderTest.getXref());
+        assertEquals("TAGG", classUnderTest.getTag());
+        assertEquals("additional stuff", classUnderTest.getValue());
+    }
+
+    /**
+     * Test that an xref already in the symbol table comes back as the instance in the table
+     * 
+     * @throws GedcomParserException
+     *             if anything goes wrong
+     */
+    @Test
+    public void testXrefFromSymbolTable() throws GedcomParserException {
+        SymbolTable symbols = new SymbolTable();
+        String xref = symbols.get(new String("@XREF@"));
+        LineTokenizer t = new LineTokenizer(symbols);
+        t.tokenize("4 @XREF@ NOTE additional stuff", 5);
+        assertSame(xref, t.getXref());
+        assertSame(Tag.NOTE.tagText, t.getTag());
+        assertEquals("additional stuff", t.getValue());
+    }
+
+}
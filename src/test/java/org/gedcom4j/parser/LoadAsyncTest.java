@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.gedcom4j.Options;
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.parser.event.ParseProgressEvent;
+import org.gedcom4j.parser.event.ParseProgressListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for {@link GedcomParser#loadAsync(java.nio.file.Path, java.util.concurrent.Executor)}
+ * 
+ * @author frizbog
+ */
+public class LoadAsyncTest {
+
+    /**
+     * The executor the loads run on
+     */
+    private ExecutorService executor;
+
+    /**
+     * Set up the executor
+     */
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    /**
+     * Shut down the executor
+     * 
+     * @throws InterruptedException
+     *             if interrupted while waiting for the executor to finish
+     */
+    @After
+    public void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Test cancelling a load right after it is submitted, while the executor thread has started it but not yet reset the parser for
+     * it
+     * 
+     * @throws InterruptedException
+     *             if the test is interrupted
+     */
+    @Test
+    public void testCancelBeforeReset() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        final GedcomParser gp = new GedcomParser() {
+            @Override
+            void resetForLoad(Gedcom loadInto) {
+                started.countDown();
+                try {
+                    cancelled.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                super.resetForLoad(loadInto);
+            }
+        };
+        Future<Gedcom> f = gp.loadAsync(Paths.get("sample/willis.ged"), executor);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertTrue(f.cancel(false));
+        cancelled.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(gp.isCancelled());
+        assertTrue(gp.getGedcom().getIndividuals().isEmpty());
+    }
+
+    /**
+     * Test cancelling a load while it is running
+     * 
+     * @throws InterruptedException
+     *             if the test is interrupted
+     * @throws ExecutionException
+     *             if the load fails
+     */
+    @Test
+    public void testCancelWhileRunning() throws InterruptedException, ExecutionException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        final GedcomParser gp = new GedcomParser();
+        ParseProgressListener l = new ParseProgressListener() {
+            @Override
+            public void progressNotification(ParseProgressEvent e) {
+                started.countDown();
+                try {
+                    cancelled.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        gp.registerParseObserver(l);
+        Future<Gedcom> f = gp.loadAsync(Paths.get("sample/willis.ged"), executor);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertTrue(f.cancel(false));
+        cancelled.countDown();
+        assertTrue(f.isCancelled());
+        assertTrue(gp.isCancelled());
+        try {
+            f.get();
+            throw new AssertionError("Expected a CancellationException");
+        } catch (@SuppressWarnings("unused") CancellationException expected) {
+            // Good
+        }
+    }
+
+    /**
+     * Test that the load pre-initializes collections, or not, as the thread that called loadAsync would - not as the executor's
+     * thread would
+     * 
+     * @throws InterruptedException
+     *             if the test is interrupted
+     * @throws ExecutionException
+     *             if the load fails
+     */
+    @Test
+    public void testCollectionInitialization() throws InterruptedException, ExecutionException {
+        Boolean previous = Options.getThreadCollectionInitializationEnabled();
+        Options.setThreadCollectionInitializationEnabled(Boolean.valueOf(!Options.isCollectionInitializationEnabled()));
+        try {
+            Gedcom g = new GedcomParser().loadAsync(Paths.get("sample/willis.ged"), executor).get();
+            Individual i = g.getIndividuals().get("@I5169@");
+            assertNotNull(i);
+            assertEquals(Options.isCollectionInitializationEnabled(), i.getAliases() != null);
+        } finally {
+            Options.setThreadCollectionInitializationEnabled(previous);
+        }
+    }
+
+    /**
+     * Test that a load that fails makes the future fail with the cause
+     * 
+     * @throws InterruptedException
+     *             if the test is interrupted
+     */
+    @Test
+    public void testFailure() throws InterruptedException {
+        Future<Gedcom> f = new GedcomParser().loadAsync(Paths.get("sample/this file does not exist.ged"), executor);
+        try {
+            f.get();
+            throw new AssertionError("Expected an ExecutionException");
+        } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof FileNotFoundException);
+        }
+    }
+
+    /**
+     * Test running several loads at once on a pool with fewer threads than there are loads
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws InterruptedException
+     *             if the test is interrupted
+     * @throws ExecutionException
+     *             if a load fails
+     */
+    @Test
+    public void testSeveralLoads() throws IOException, GedcomParserException, InterruptedException, ExecutionException {
+        GedcomParser expected = new GedcomParser();
+        expected.load("sample/willis.ged");
+        List<Future<Gedcom>> futures = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            futures.add(new GedcomParser().loadAsync(Paths.get("sample/willis.ged"), executor));
+        }
+        for (Future<Gedcom> f : futures) {
+            assertEquals(expected.getGedcom(), f.get());
+        }
+    }
+
+}
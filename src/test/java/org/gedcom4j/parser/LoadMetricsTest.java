@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.parser.event.LoadMetricsEvent;
+import org.gedcom4j.parser.event.LoadMetricsListener;
+import org.junit.Test;
+
+/**
+ * Test for {@link LoadMetrics} and {@link GedcomParser#registerLoadMetricsObserver(LoadMetricsListener)}
+ * 
+ * @author frizbog
+ */
+public class LoadMetricsTest implements LoadMetricsListener {
+
+    /**
+     * The sample file loaded by most of the tests
+     */
+    private static final String WILLIS = "sample/willis.ged";
+
+    /**
+     * The number of lines in the sample file
+     */
+    private static final int WILLIS_LINES = 23552;
+
+    /**
+     * The metrics notifications received
+     */
+    private final List<LoadMetricsEvent> events = new ArrayList<>();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void loadMetricsNotification(LoadMetricsEvent e) {
+        events.add(e);
+    }
+
+    /**
+     * Test that the metrics are the same whichever way the file is split up between threads, apart from the times
+     * 
+     * @throws Exception
+     *             if the file can't be loaded
+     */
+    @Test
+    public void testMultiThreaded() throws Exception {
+        GedcomParser gp = new GedcomParser();
+        gp.setParallelDecoding(true);
+        gp.setParallelParsing(true);
+        assertWillis(load(gp), true);
+
+        gp = new GedcomParser();
+        gp.setPipelined(true);
+        assertWillis(load(gp), false);
+    }
+
+    /**
+     * Test that no metrics are collected when there are no observers, or the only one has been unregistered
+     * 
+     * @throws Exception
+     *             if the file can't be loaded
+     */
+    @Test
+    public void testNoObservers() throws Exception {
+        GedcomParser gp = new GedcomParser();
+        gp.load(WILLIS);
+        assertNull(gp.getLoadMetrics());
+
+        gp.registerLoadMetricsObserver(this);
+        gp.unregisterLoadMetricsObserver(this);
+        assertTrue(gp.getLoadMetricsObservers().isEmpty());
+        gp.load(WILLIS);
+        assertNull(gp.getLoadMetrics());
+        assertTrue(events.isEmpty());
+    }
+
+    /**
+     * Test the metrics for a sequential load of a file
+     * 
+     * @throws Exception
+     *             if the file can't be loaded
+     */
+    @Test
+    public void testSequential() throws Exception {
+        GedcomParser gp = new GedcomParser();
+        LoadMetrics metrics = load(gp);
+        assertWillis(metrics, false);
+        assertEquals(gp.getCanonicalizerHitRate(), metrics.getCanonicalizerHitRate(), 0);
+        assertTrue(metrics.getCanonicalizerHits() > 0);
+        assertTrue(metrics.toString().contains("RECORD_PARSING="));
+        if (metrics.isCpuTimeMeasured()) {
+            assertTrue(metrics.getCpuNanos(LoadPhase.RECORD_PARSING) > 0);
+        }
+
+        // A second load starts afresh
+        gp.load(WILLIS);
+        assertEquals(2, events.size());
+        assertEquals(761, gp.getLoadMetrics().getRecordCount("INDI"));
+    }
+
+    /**
+     * Test that streamed records and the bytes of an input stream are counted
+     * 
+     * @throws Exception
+     *             if the file can't be streamed
+     */
+    @Test
+    public void testStream() throws Exception {
+        GedcomParser gp = new GedcomParser();
+        gp.registerLoadMetricsObserver(this);
+        try (BufferedInputStream in = new BufferedInputStream(new FileInputStream(WILLIS))) {
+            gp.stream(in, new RecordHandler() {
+                @Override
+                public void handleRecord(ModelElement record) {
+                    // Nothing to do with it
+                }
+            });
+        }
+        assertEquals(1, events.size());
+        LoadMetrics metrics = events.get(0).getMetrics();
+        assertSame(gp.getLoadMetrics(), metrics);
+        assertEquals(new File(WILLIS).length(), metrics.getBytesRead());
+        assertEquals(WILLIS_LINES, metrics.getLinesDecoded());
+        assertEquals(761, metrics.getRecordCount("INDI"));
+        assertEquals(293, metrics.getRecordCount("FAM"));
+    }
+
+    /**
+     * Assert that the metrics are right for the willis sample file
+     * 
+     * @param metrics
+     *            the metrics
+     * @param parallelParsing
+     *            whether the records were parsed in parallel, so there's a separate phase for resolving references between them
+     */
+    private void assertWillis(LoadMetrics metrics, boolean parallelParsing) {
+        assertNotNull(metrics);
+        assertEquals(new File(WILLIS).length(), metrics.getBytesRead());
+        assertEquals(WILLIS_LINES, metrics.getLinesDecoded());
+        assertEquals(WILLIS_LINES, metrics.getNodesBuilt());
+        assertEquals(761, metrics.getRecordCount("INDI"));
+        assertEquals(293, metrics.getRecordCount("FAM"));
+        assertEquals(66, metrics.getRecordCount("SOUR"));
+        assertEquals(141, metrics.getRecordCount("NOTE"));
+        assertEquals(3, metrics.getRecordCount("REPO"));
+        assertEquals(1, metrics.getRecordCount("SUBM"));
+        assertEquals(1, metrics.getRecordCount("HEAD"));
+        assertEquals(1, metrics.getRecordCount("TRLR"));
+        assertEquals(0, metrics.getRecordCount("OBJE"));
+        assertEquals(8, metrics.getRecordCounts().size());
+        assertTrue(metrics.getCanonicalizerRequests() > 0);
+
+        assertTrue(metrics.getWallNanos(LoadPhase.DECODE) > 0);
+        assertTrue(metrics.getWallNanos(LoadPhase.TREE_BUILDING) > 0);
+        assertTrue(metrics.getWallNanos(LoadPhase.RECORD_PARSING) > 0);
+        assertEquals(parallelParsing, metrics.getWallNanos(LoadPhase.XREF_RESOLUTION) > 0);
+        assertTrue(metrics.getElapsedNanos() > 0);
+        for (LoadPhase phase : LoadPhase.values()) {
+            assertTrue(metrics.getCpuNanos(phase) >= 0);
+            if (!metrics.isCpuTimeMeasured()) {
+                assertEquals(0, metrics.getCpuNanos(phase));
+            }
+        }
+    }
+
+    /**
+     * Load the willis sample file with a metrics observer registered
+     * 
+     * @param gp
+     *            the parser to load it with
+     * @return the metrics the observer was given
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    private LoadMetrics load(GedcomParser gp) throws IOException, GedcomParserException {
+        events.clear();
+        gp.registerLoadMetricsObserver(this);
+        gp.load(WILLIS);
+        assertEquals(1, events.size());
+        assertSame(gp, events.get(0).getSource());
+        assertSame(gp.getLoadMetrics(), events.get(0).getMetrics());
+        return events.get(0).getMetrics();
+    }
+
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.exception.ParserCancelledException;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.FamilyChild;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.IndividualReference;
+import org.gedcom4j.parser.event.ParseProgressEvent;
+import org.gedcom4j.parser.event.ParseProgressListener;
+import org.junit.Test;
+
+/**
+ * Test for {@link ParallelRecordParser}, via {@link GedcomParser#setParallelParsing(boolean)}
+ * 
+ * @author frizbog
+ */
+public class ParallelRecordParserTest implements ParseProgressListener {
+
+    /**
+     * The parser to cancel on the first parse progress notification, if any
+     */
+    private GedcomParser parserToCancel;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void progressNotification(ParseProgressEvent e) {
+        if (parserToCancel != null) {
+            parserToCancel.cancel();
+        }
+    }
+
+    /**
+     * Test cancelling a load that parses records in parallel
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testCancellation() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.setParallelParsing(true);
+        gp.registerParseObserver(this);
+        parserToCancel = gp;
+        try {
+            gp.load("sample/willis.ged");
+            fail("Load should have been cancelled");
+        } catch (ParserCancelledException expected) {
+            assertTrue(gp.isCancelled());
+        }
+    }
+
+    /**
+     * Test that two records with the same xref are loaded into the same object, in file order, as they are in a sequential load
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     */
+    @Test
+    public void testDuplicateXrefs() throws IOException, GedcomParserException {
+        String data = "0 HEAD\n1 GEDC\n2 VERS 5.5.1\n0 @I1@ INDI\n1 NAME John /Doe/\n0 @I2@ INDI\n1 NAME Jane /Doe/\n"
+                + "0 @I1@ INDI\n1 NAME Johnny /Doe/\n0 TRLR\n";
+        Gedcom sequential = load(data, false);
+        Gedcom parallel = load(data, true);
+        assertEquals(sequential, parallel);
+        Individual i1 = parallel.getIndividuals().get("@I1@");
+        assertEquals(2, i1.getNames().size());
+        assertEquals("John /Doe/", i1.getNames().get(0).getBasic());
+        assertEquals("Johnny /Doe/", i1.getNames().get(1).getBasic());
+    }
+
+    /**
+     * Test that a failure parsing a record is thrown from the load
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     */
+    @Test
+    public void testFailure() throws IOException {
+        GedcomParser gp = new GedcomParser();
+        gp.setParallelParsing(true);
+        byte[] data = "0 HEAD\n0 @I1@ INDI\n1 NAME John /Doe/\nnot a gedcom line\n0 TRLR\n".getBytes(StandardCharsets.US_ASCII);
+        try {
+            gp.load(new BufferedInputStream(new ByteArrayInputStream(data)));
+            fail("Expected an exception for the line that doesn't begin with a level");
+        } catch (GedcomParserException expected) {
+            assertTrue(expected.getMessage().startsWith("Line 4 does not begin with a 1 or 2 digit number"));
+        }
+    }
+
+    /**
+     * Test that cross-references between records parsed in parallel point to the same objects as the records themselves
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testLinksResolved() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.setParallelParsing(true);
+        gp.load("sample/willis.ged");
+        Gedcom g = gp.getGedcom();
+        assertTrue(g.getFamilies().size() > 0);
+        for (Family f : g.getFamilies().values()) {
+            if (f.getHusband() != null) {
+                assertSame(g.getIndividuals().get(f.getHusband().getIndividual().getXref()), f.getHusband().getIndividual());
+            }
+            if (f.getChildren() != null) {
+                for (IndividualReference c : f.getChildren()) {
+                    assertSame(g.getIndividuals().get(c.getIndividual().getXref()), c.getIndividual());
+                }
+            }
+        }
+        for (Individual i : g.getIndividuals().values()) {
+            assertNotNull(i.getXref());
+            if (i.getFamiliesWhereChild() != null) {
+                for (FamilyChild fc : i.getFamiliesWhereChild()) {
+                    assertSame(g.getFamilies().get(fc.getFamily().getXref()), fc.getFamily());
+                }
+            }
+        }
+    }
+
+    /**
+     * Test that loading every sample file with records parsed in parallel - with and without the pipeline - gives the same results
+     * as loading it sequentially
+     * 
+     * @throws IOException
+     *             if a file can't be read
+     * @throws GedcomParserException
+     *             if a file can't be parsed
+     */
+    @Test
+    public void testSameResultsAsSequential() throws IOException, GedcomParserException {
+        String[] allFiles = new File("sample").list(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(".ged");
+            }
+        });
+        assertTrue(allFiles.length > 0);
+        for (String s : allFiles) {
+            GedcomParser sequential = new GedcomParser();
+            sequential.setStrictCustomTags(false);
+            sequential.setStrictLineBreaks(false);
+            sequential.load("sample/" + s);
+
+            for (boolean pipelined : new boolean[] { false, true }) {
+                GedcomParser parallel = new GedcomParser();
+                parallel.setStrictCustomTags(false);
+                parallel.setStrictLineBreaks(false);
+                parallel.setParallelParsing(true);
+                parallel.setPipelined(pipelined);
+                parallel.load("sample/" + s);
+
+                assertEquals(s, sequential.getGedcom(), parallel.getGedcom());
+                assertEquals(s, sorted(sequential.getErrors()), sorted(parallel.getErrors()));
+                assertEquals(s, sorted(sequential.getWarnings()), sorted(parallel.getWarnings()));
+            }
+        }
+    }
+
+    /**
+     * Test that records and pointers with no xref are loaded under a null xref, as they are in a sequential load, rather than
+     * failing
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     */
+    @Test
+    public void testNullXrefs() throws IOException, GedcomParserException {
+        String data = "0 HEAD\n1 GEDC\n2 VERS 5.5.1\n0 INDI\n1 NAME John /Doe/\n1 FAMS\n0 @I2@ INDI\n1 NAME Jane /Doe/\n0 TRLR\n";
+        Gedcom sequential = load(data, false);
+        Gedcom parallel = load(data, true);
+        assertEquals(sequential, parallel);
+        assertEquals(2, parallel.getIndividuals().size());
+        assertTrue(parallel.getIndividuals().containsKey(null));
+        assertTrue(parallel.getIndividuals().containsKey("@I2@"));
+        assertEquals("John /Doe/", parallel.getIndividuals().get(null).getNames().get(0).getBasic());
+        assertEquals(1, parallel.getFamilies().size());
+        assertTrue(parallel.getFamilies().containsKey(null));
+    }
+
+    /**
+     * Load some GEDCOM data
+     * 
+     * @param data
+     *            the data
+     * @param parallel
+     *            whether to parse the records in parallel
+     * @return the loaded data
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     */
+    private Gedcom load(String data, boolean parallel) throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.setParallelParsing(parallel);
+        gp.load(new BufferedInputStream(new ByteArrayInputStream(data.getBytes(StandardCharsets.US_ASCII))));
+        return gp.getGedcom();
+    }
+
+    /**
+     * Get a sorted copy of a list of messages
+     * 
+     * @param messages
+     *            the messages
+     * @return a sorted copy of the messages
+     */
+    private List<String> sorted(List<String> messages) {
+        List<String> result = new ArrayList<>(messages);
+        Collections.sort(result);
+        return result;
+    }
+
+}
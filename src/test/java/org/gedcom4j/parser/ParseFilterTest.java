@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Family;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.IndividualEvent;
+import org.gedcom4j.model.enumerations.IndividualEventType;
+import org.junit.Test;
+
+/**
+ * Test for {@link ParseFilter}
+ * 
+ * @author frizbog
+ */
+public class ParseFilterTest {
+
+    /**
+     * A small file with a bit of everything
+     */
+    private static final String GEDCOM = "0 HEAD\n1 SOUR Test\n1 GEDC\n2 VERS 5.5.1\n1 CHAR ASCII\n1 NOTE Header note\n1 _HDR Custom\n"
+            + "0 @I1@ INDI\n1 NAME Joe /Bloggs/\n1 SEX M\n1 BIRT\n2 SOUR @S1@\n3 PAGE 5\n3 NOTE Citation note\n2 DATE 1 JAN 1900\n"
+            + "1 NOTE A long note\n2 CONT that goes on\n2 CONC and on\n1 _CUSTOM Stuff\n2 _MORE More stuff\n1 FAMS @F1@\n"
+            + "0 @F1@ FAM\n1 HUSB @I1@\n1 OBJE @M1@\n0 @S1@ SOUR\n1 TITL A source\n0 @M1@ OBJE\n1 FILE foo.jpg\n2 FORM jpg\n"
+            + "0 @N1@ NOTE A note record\n0 _ROOT Custom root\n0 TRLR\n";
+
+    /**
+     * Test dropping custom tags
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     */
+    @Test
+    public void testDropCustomTags() throws IOException, GedcomParserException {
+        ParseFilter filter = new ParseFilter();
+        filter.setDropCustomTags(true);
+        assertTrue(filter.isDropCustomTags());
+        Gedcom g = load(filter, GEDCOM);
+
+        Individual i = g.getIndividuals().get("@I1@");
+        assertNull(i.getCustomFacts());
+        assertNull(g.getCustomFacts());
+        // The header is never filtered
+        assertNotNull(g.getHeader().getCustomFacts());
+        assertEquals(1, g.getSources().size());
+        assertEquals(1, g.getMultimedia().size());
+    }
+
+    /**
+     * Test dropping substructures, including ones nested inside others, and the lines beneath them
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     */
+    @Test
+    public void testDropSubstructures() throws IOException, GedcomParserException {
+        ParseFilter filter = new ParseFilter();
+        filter.dropSubstructures("SOUR", "NOTE");
+        filter.dropSubstructures("OBJE");
+        assertEquals(3, filter.getDroppedSubstructureTags().size());
+        Gedcom g = load(filter, GEDCOM);
+
+        Individual i = g.getIndividuals().get("@I1@");
+        assertEquals("Joe /Bloggs/", i.getNames().get(0).getBasic());
+        IndividualEvent birth = i.getEventsOfType(IndividualEventType.BIRTH).get(0);
+        assertEquals("1 JAN 1900", birth.getDate().getValue());
+        assertNull(birth.getCitations());
+        assertNull(i.getNoteStructures());
+        assertEquals(1, i.getCustomFacts().size());
+        assertNull(g.getFamilies().get("@F1@").getMultimedia());
+
+        // Root-level records with those tags aren't substructures, so they're still loaded
+        assertEquals(1, g.getSources().size());
+        assertEquals(1, g.getNotes().size());
+        assertEquals(1, g.getMultimedia().size());
+
+        // The header is never filtered
+        assertEquals("Test", g.getHeader().getSourceSystem().getSystemId());
+        assertNotNull(g.getHeader().getNoteStructures());
+    }
+
+    /**
+     * Test keeping only some root-level records
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     */
+    @Test
+    public void testKeepRecords() throws IOException, GedcomParserException {
+        ParseFilter filter = new ParseFilter();
+        assertNull(filter.getKeptRecordTags());
+        filter.keepRecords("INDI", "FAM");
+        filter.dropSubstructures("SOUR", "OBJE");
+        assertEquals(2, filter.getKeptRecordTags().size());
+        Gedcom g = load(filter, GEDCOM);
+
+        assertNotNull(g.getHeader());
+        assertNotNull(g.getTrailer());
+        assertEquals(1, g.getIndividuals().size());
+        assertEquals(1, g.getFamilies().size());
+        Family f = g.getFamilies().get("@F1@");
+        assertEquals(g.getIndividuals().get("@I1@"), f.getHusband().getIndividual());
+        assertTrue(g.getSources().isEmpty());
+        assertTrue(g.getMultimedia().isEmpty());
+        assertTrue(g.getNotes().isEmpty());
+        assertNull(g.getCustomFacts());
+    }
+
+    /**
+     * Test that filtering a real file with all the load options gives the same results as filtering it sequentially, and that line
+     * numbers in messages are still right after lines have been skipped
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testLoadOptions() throws IOException, GedcomParserException {
+        ParseFilter filter = new ParseFilter();
+        filter.keepRecords("INDI", "FAM");
+        filter.dropSubstructures("SOUR", "NOTE", "OBJE");
+        GedcomParser full = new GedcomParser();
+        full.load("sample/willis.ged");
+
+        GedcomParser gp = new GedcomParser();
+        gp.setParseFilter(filter);
+        gp.load("sample/willis.ged");
+        Gedcom g = gp.getGedcom();
+        assertEquals(full.getGedcom().getIndividuals().size(), g.getIndividuals().size());
+        assertEquals(full.getGedcom().getFamilies().size(), g.getFamilies().size());
+        assertTrue(g.getSources().isEmpty());
+        assertTrue(g.getNotes().isEmpty());
+        for (Individual i : g.getIndividuals().values()) {
+            assertNull(i.getCitations());
+            assertNull(i.getNoteStructures());
+        }
+
+        GedcomParser[] parsers = { new GedcomParser(), new GedcomParser(), new GedcomParser() };
+        parsers[0].setParallelParsing(true);
+        parsers[1].setPipelined(true);
+        parsers[2].setParallelDecoding(true);
+        for (GedcomParser p : parsers) {
+            p.setParseFilter(filter);
+            p.load("sample/willis.ged");
+            assertEquals(g, p.getGedcom());
+            assertEquals(gp.getErrors(), p.getErrors());
+            assertEquals(gp.getWarnings(), p.getWarnings());
+        }
+    }
+
+    /**
+     * Test that lines skipped by the filter still count towards the line numbers in messages, and that non-standard continuation
+     * lines of a skipped line are skipped along with it
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     */
+    @Test
+    public void testSkippedLinesAndLineNumbers() throws IOException, GedcomParserException {
+        String gedcom = "0 HEAD\n1 GEDC\n2 VERS 5.5.1\n1 CHAR ASCII\n0 @I1@ INDI\n1 NOTE A note\nthat has a line break\n"
+                + "1 NAME Joe /Bloggs/\n1 BOGUS x\n0 TRLR\n";
+        ParseFilter filter = new ParseFilter();
+        filter.dropSubstructures("NOTE");
+        GedcomParser gp = new GedcomParser();
+        gp.setStrictLineBreaks(false);
+        gp.setParseFilter(filter);
+        gp.load(new BufferedInputStream(new ByteArrayInputStream(gedcom.getBytes(StandardCharsets.US_ASCII))));
+
+        assertEquals("Joe /Bloggs/", gp.getGedcom().getIndividuals().get("@I1@").getNames().get(0).getBasic());
+        assertTrue(gp.getWarnings().isEmpty());
+        assertEquals(1, gp.getErrors().size());
+        assertTrue(gp.getErrors().get(0), gp.getErrors().get(0).startsWith("Line 9:"));
+        assertFalse(filter.getDroppedSubstructureTags().isEmpty());
+    }
+
+    /**
+     * Load the supplied GEDCOM data with the supplied filter
+     * 
+     * @param filter
+     *            the filter
+     * @param gedcom
+     *            the GEDCOM data
+     * @return the loaded gedcom
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     */
+    private Gedcom load(ParseFilter filter, String gedcom) throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.setParseFilter(filter);
+        gp.load(new BufferedInputStream(new ByteArrayInputStream(gedcom.getBytes(StandardCharsets.US_ASCII))));
+        return gp.getGedcom();
+    }
+}
@@ -27,8 +27,15 @@
 package org.gedcom4j.parser;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import org.gedcom4j.exception.GedcomParserException;
 import org.gedcom4j.exception.ParserCancelledException;
@@ -69,6 +76,63 @@ public class ParserProgressAndCancellationTest implements ParseProgressListener
         }
     }
 
+    /**
+     * Test cancelling a load from a listener given its notifications asynchronously
+     * 
+     * @throws IOException
+     *             if the data cannot be read
+     * @throws GedcomParserException
+     *             if the data cannot be parsed - expected
+     */
+    @Test(expected = ParserCancelledException.class)
+    public void testAsyncCancellation() throws IOException, GedcomParserException {
+        gp = new GedcomParser();
+        gp.setAsyncNotification(true);
+        cancelAfter = 1;
+        gp.registerParseObserver(this);
+        try (BufferedInputStream bis = new BufferedInputStream(new SyntheticGedcomInputStream(256L * 1024 * 1024))) {
+            gp.load(bis);
+        }
+    }
+
+    /**
+     * Test that with asynchronous notification a slow listener is given notifications on another thread, without holding up the
+     * load, and is given the last one before the load returns
+     * 
+     * @throws IOException
+     *             if the data cannot be read
+     * @throws GedcomParserException
+     *             if the data cannot be parsed
+     */
+    @Test
+    public void testAsyncNotification() throws IOException, GedcomParserException {
+        gp = new GedcomParser();
+        gp.setAsyncNotification(true);
+        gp.setParseNotificationRate(1);
+        final List<Thread> threads = new ArrayList<>();
+        final List<Long> linesParsed = new ArrayList<>();
+        ParseProgressListener slow = new ParseProgressListener() {
+            @Override
+            public void progressNotification(ParseProgressEvent e) {
+                threads.add(Thread.currentThread());
+                linesParsed.add(e.getLinesParsed());
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        gp.registerParseObserver(slow);
+        gp.load("sample/willis-ascii.ged");
+        assertEquals(761, gp.getGedcom().getIndividuals().size());
+        assertFalse(threads.isEmpty());
+        // Delivered one at a time, 5ms apart, every line's notification would take nearly two minutes
+        assertTrue(threads.size() < 10000);
+        assertNotSame(Thread.currentThread(), threads.get(0));
+        assertEquals(Collections.max(linesParsed), linesParsed.get(linesParsed.size() - 1));
+    }
+
     /**
      * Test getting notifications and cancelling the parsing of an ascii file
      * 
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.exception.ParserCancelledException;
+import org.gedcom4j.io.event.FileProgressEvent;
+import org.gedcom4j.io.event.FileProgressListener;
+import org.gedcom4j.parser.event.ParseProgressEvent;
+import org.gedcom4j.parser.event.ParseProgressListener;
+import org.junit.Test;
+
+/**
+ * Test for {@link PipelinedLoader}, via {@link GedcomParser#setPipelined(boolean)}
+ * 
+ * @author frizbog
+ */
+public class PipelinedLoaderTest implements FileProgressListener, ParseProgressListener {
+
+    /**
+     * The number of file progress notifications received
+     */
+    private int fileNotificationCount;
+
+    /**
+     * The last file progress notification received
+     */
+    private FileProgressEvent lastFileEvent;
+
+    /**
+     * The number of parse progress notifications received
+     */
+    private int parseNotificationCount;
+
+    /**
+     * The last parse progress notification received
+     */
+    private ParseProgressEvent lastParseEvent;
+
+    /**
+     * The parser to cancel after a couple of parse notifications, if any
+     */
+    private GedcomParser parserToCancel;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void progressNotification(FileProgressEvent e) {
+        fileNotificationCount++;
+        lastFileEvent = e;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void progressNotification(ParseProgressEvent e) {
+        parseNotificationCount++;
+        lastParseEvent = e;
+        if (parserToCancel != null && parseNotificationCount >= 2) {
+            parserToCancel.cancel();
+        }
+    }
+
+    /**
+     * Test that cancelling a pipelined load stops it, and that the background threads are finished by the time the load returns
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testCancellation() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.setPipelined(true);
+        gp.setParseNotificationRate(100);
+        gp.registerParseObserver(this);
+        parserToCancel = gp;
+        try {
+            gp.load("sample/willis.ged");
+            fail("Load should have been cancelled");
+        } catch (ParserCancelledException expected) {
+            assertTrue(gp.isCancelled());
+        }
+        assertFalse(pipelineThreadsAlive());
+    }
+
+    /**
+     * Test that a failure in one of the background stages is thrown from the load
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     */
+    @Test
+    public void testFailureInBackgroundStage() throws IOException {
+        GedcomParser gp = new GedcomParser();
+        gp.setPipelined(true);
+        gp.setStrictLineBreaks(true);
+        byte[] data = "0 HEAD\n1 NOTE Line one\nline two\n0 TRLR\n".getBytes(StandardCharsets.US_ASCII);
+        try {
+            gp.load(new BufferedInputStream(new ByteArrayInputStream(data)));
+            fail("Expected an exception for the line that doesn't begin with a level");
+        } catch (GedcomParserException expected) {
+            assertTrue(expected.getMessage().startsWith("Line 3 does not begin with a 1 or 2 digit number"));
+        }
+        assertFalse(pipelineThreadsAlive());
+    }
+
+    /**
+     * Test that the progress notifications from a pipelined load are the same as from a sequential load
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testProgressNotifications() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.registerFileObserver(this);
+        gp.registerParseObserver(this);
+        gp.load("sample/willis-unicode-bigendian.ged");
+        int sequentialFileNotifications = fileNotificationCount;
+        int sequentialParseNotifications = parseNotificationCount;
+        long sequentialLastLinesParsed = lastParseEvent.getLinesParsed();
+
+        fileNotificationCount = 0;
+        parseNotificationCount = 0;
+        lastFileEvent = null;
+        lastParseEvent = null;
+        gp.setPipelined(true);
+        gp.load("sample/willis-unicode-bigendian.ged");
+        assertEquals(sequentialFileNotifications, fileNotificationCount);
+        assertEquals(20036, lastFileEvent.getLinesProcessed());
+        assertEquals(1174850, lastFileEvent.getBytesProcessed());
+        assertTrue(lastFileEvent.isComplete());
+        assertEquals(sequentialParseNotifications, parseNotificationCount);
+        assertEquals(sequentialLastLinesParsed, lastParseEvent.getLinesParsed());
+    }
+
+    /**
+     * Test that loading every sample file with the pipeline gives the same results as loading it sequentially
+     * 
+     * @throws IOException
+     *             if a file can't be read
+     * @throws GedcomParserException
+     *             if a file can't be parsed
+     */
+    @Test
+    public void testSameResultsAsSequential() throws IOException, GedcomParserException {
+        String[] allFiles = new File("sample").list(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(".ged");
+            }
+        });
+        assertTrue(allFiles.length > 0);
+        for (String s : allFiles) {
+            GedcomParser sequential = new GedcomParser();
+            sequential.setStrictCustomTags(false);
+            sequential.setStrictLineBreaks(false);
+            sequential.load("sample/" + s);
+
+            GedcomParser pipelined = new GedcomParser();
+            pipelined.setStrictCustomTags(false);
+            pipelined.setStrictLineBreaks(false);
+            pipelined.setPipelined(true);
+            pipelined.load("sample/" + s);
+
+            assertEquals(s, sequential.getGedcom(), pipelined.getGedcom());
+            assertEquals(s, sorted(sequential.getErrors()), sorted(pipelined.getErrors()));
+            assertEquals(s, sorted(sequential.getWarnings()), sorted(pipelined.getWarnings()));
+        }
+        assertFalse(pipelineThreadsAlive());
+    }
+
+    /**
+     * Are any of the pipeline's background threads still running?
+     * 
+     * @return true if any of the pipeline's background threads are still running
+     */
+    private boolean pipelineThreadsAlive() {
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t.getName().startsWith("gedcom4j-") && t.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get a sorted copy of a list of messages
+     * 
+     * @param messages
+     *            the messages
+     * @return a sorted copy of the messages
+     */
+    private List<String> sorted(List<String> messages) {
+        List<String> result = new ArrayList<>(messages);
+        Collections.sort(result);
+        return result;
+    }
+
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Individual;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for {@link RecordIndex}, including saving it in a sidecar file
+ * 
+ * @author frizbog
+ */
+public class RecordIndexTest {
+
+    /**
+     * A copy of a sample file, which can be changed
+     */
+    private File file;
+
+    /**
+     * The sidecar file for {@link #file}
+     */
+    private File sidecar;
+
+    /**
+     * Copy a sample file to work with
+     * 
+     * @throws IOException
+     *             if the file can't be copied
+     */
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("gedcom4j", ".ged");
+        Files.copy(new File("sample/willis.ged").toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        sidecar = new File(file.getPath() + IndexedGedcomFile.INDEX_FILE_SUFFIX);
+    }
+
+    /**
+     * Clean up the files
+     */
+    @After
+    public void tearDown() {
+        assertTrue(file.delete());
+        if (sidecar.exists()) {
+            assertTrue(sidecar.delete());
+        }
+    }
+
+    /**
+     * Test that a changed file doesn't use the sidecar file saved for the earlier version of it
+     * 
+     * @throws IOException
+     *             if the file can't be read or written
+     */
+    @Test
+    public void testChangedFile() throws IOException {
+        RecordIndex original = forFile();
+        long lastModified = file.lastModified();
+        long checksum;
+        try (FileInputStream fis = new FileInputStream(file)) {
+            checksum = RecordIndex.checksum(fis.getChannel());
+        }
+
+        // Same size and time, different content at the end
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length() - 3);
+            raf.write('X');
+        }
+        assertTrue(file.setLastModified(lastModified));
+        long changedChecksum;
+        try (FileInputStream fis = new FileInputStream(file)) {
+            changedChecksum = RecordIndex.checksum(fis.getChannel());
+        }
+        assertNotEquals(checksum, changedChecksum);
+        assertNull(RecordIndex.read(sidecar, original.getFileSize(), lastModified, changedChecksum));
+
+        // Different time
+        assertNull(RecordIndex.read(sidecar, original.getFileSize(), lastModified + 1000, checksum));
+
+        // Different size
+        try (FileOutputStream fos = new FileOutputStream(file, true)) {
+            fos.write("0 @I999@ INDI\n".getBytes(StandardCharsets.US_ASCII));
+        }
+        RecordIndex rebuilt = forFile();
+        assertEquals(original.size() + 1, rebuilt.size());
+        assertEquals("@I999@", rebuilt.getXref(rebuilt.size() - 1));
+        assertEquals(rebuilt.size(), forFile().size());
+    }
+
+    /**
+     * Test that a sidecar file that can't be read is ignored and replaced
+     * 
+     * @throws IOException
+     *             if the file can't be read or written
+     */
+    @Test
+    public void testCorruptSidecar() throws IOException {
+        RecordIndex original = forFile();
+        try (RandomAccessFile raf = new RandomAccessFile(sidecar, "rw")) {
+            raf.setLength(raf.length() / 2);
+        }
+        long lastModified = file.lastModified();
+        try (FileInputStream fis = new FileInputStream(file)) {
+            assertNull(RecordIndex.read(sidecar, original.getFileSize(), lastModified, RecordIndex.checksum(fis.getChannel())));
+        }
+        assertSameIndex(original, forFile());
+        try (FileInputStream fis = new FileInputStream(file)) {
+            assertNotNull(RecordIndex.read(sidecar, original.getFileSize(), lastModified, RecordIndex.checksum(fis.getChannel())));
+        }
+    }
+
+    /**
+     * Test scanning a file
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     */
+    @Test
+    public void testScan() throws IOException {
+        RecordIndex index;
+        try (FileInputStream fis = new FileInputStream(file)) {
+            index = RecordIndex.scan(fis.getChannel());
+        }
+        assertEquals(1267, index.size());
+        assertEquals(file.length(), index.getFileSize());
+        assertEquals("HEAD", index.getTag(0));
+        assertNull(index.getXref(0));
+        assertEquals(0, index.getStart(0));
+        assertEquals(0, index.getLineNum(0));
+        assertEquals("TRLR", index.getTag(index.size() - 1));
+        assertEquals(file.length(), index.getEnd(index.size() - 1));
+        for (int r = 1; r < index.size(); r++) {
+            assertEquals(index.getStart(r), index.getEnd(r - 1));
+            assertTrue(index.getLineNum(r) > index.getLineNum(r - 1));
+            if (index.getXref(r) != null) {
+                assertEquals(r, index.find(index.getXref(r)));
+            }
+        }
+        assertEquals(-1, index.find("@NOT_THERE@"));
+    }
+
+    /**
+     * Test that the index is saved in a sidecar file and read back from it while the file is unchanged, and that an
+     * {@link IndexedGedcomFile} opened with the sidecar file gives the same results as one that scans
+     * 
+     * @throws IOException
+     *             if the file can't be read or written
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testSidecar() throws IOException, GedcomParserException {
+        assertFalse(sidecar.exists());
+        RecordIndex scanned = forFile();
+        assertTrue(sidecar.exists());
+        long sidecarModified = sidecar.lastModified();
+
+        long checksum;
+        try (FileInputStream fis = new FileInputStream(file)) {
+            checksum = RecordIndex.checksum(fis.getChannel());
+        }
+        RecordIndex read = RecordIndex.read(sidecar, file.length(), file.lastModified(), checksum);
+        assertNotNull(read);
+        assertSameIndex(scanned, read);
+        assertSameIndex(scanned, forFile());
+        assertEquals(sidecarModified, sidecar.lastModified());
+
+        try (IndexedGedcomFile scanning = new IndexedGedcomFile(new GedcomParser(), file.getPath());
+                IndexedGedcomFile withSidecar = new IndexedGedcomFile(new GedcomParser(), file.getPath(), 10, true)) {
+            assertEquals(scanning.getRecordCount(), withSidecar.getRecordCount());
+            assertEquals(scanning.getHeader(), withSidecar.getHeader());
+            for (String xref : scanning.getXrefs("INDI")) {
+                Individual i = withSidecar.getIndividual(xref);
+                assertEquals(scanning.getIndividual(xref).toString(), i.toString());
+            }
+        }
+    }
+
+    /**
+     * Assert that two indexes are the same
+     * 
+     * @param expected
+     *            the expected index
+     * @param actual
+     *            the actual index
+     */
+    private void assertSameIndex(RecordIndex expected, RecordIndex actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.getFileSize(), actual.getFileSize());
+        for (int r = 0; r < expected.size(); r++) {
+            assertEquals(expected.getStart(r), actual.getStart(r));
+            assertEquals(expected.getEnd(r), actual.getEnd(r));
+            assertEquals(expected.getLineNum(r), actual.getLineNum(r));
+            assertEquals(expected.getTag(r), actual.getTag(r));
+            assertEquals(expected.getXref(r), actual.getXref(r));
+        }
+    }
+
+    /**
+     * Get the index for the file, from its sidecar file or by scanning it
+     * 
+     * @return the index
+     * @throws IOException
+     *             if the file can't be read
+     */
+    private RecordIndex forFile() throws IOException {
+        try (FileInputStream fis = new FileInputStream(file); FileChannel channel = fis.getChannel()) {
+            return RecordIndex.forFile(file, channel);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.exception.ParserCancelledException;
+import org.gedcom4j.exception.RecordIteratorException;
+import org.gedcom4j.model.Header;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.ModelElement;
+import org.gedcom4j.model.Trailer;
+import org.gedcom4j.parser.event.ParseProgressEvent;
+import org.gedcom4j.parser.event.ParseProgressListener;
+import org.junit.Test;
+
+/**
+ * Test for {@link RecordIterator}
+ * 
+ * @author frizbog
+ */
+public class RecordIteratorTest implements RecordHandler, ParseProgressListener {
+
+    /**
+     * The records handed over by streaming
+     */
+    private final List<ModelElement> streamed = new ArrayList<>();
+
+    /**
+     * The number of parse progress notifications received
+     */
+    private int parseNotificationCount;
+
+    /**
+     * The parser to cancel after a couple of parse notifications, if any
+     */
+    private GedcomParser parserToCancel;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void handleRecord(ModelElement record) {
+        streamed.add(record);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void progressNotification(ParseProgressEvent e) {
+        parseNotificationCount++;
+        if (parserToCancel != null && parseNotificationCount >= 2) {
+            parserToCancel.cancel();
+        }
+    }
+
+    /**
+     * Test that cancelling the parser stops the iteration with an exception
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testCancellation() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.setParseNotificationRate(100);
+        gp.registerParseObserver(this);
+        parserToCancel = gp;
+        try (RecordIterator it = new RecordIterator(gp, "sample/willis.ged")) {
+            while (it.hasNext()) {
+                it.next();
+            }
+            fail("Expected the iteration to be cancelled");
+        } catch (RecordIteratorException expected) {
+            assertTrue(expected.getCause() instanceof ParserCancelledException);
+        }
+        assertEquals(2, parseNotificationCount);
+    }
+
+    /**
+     * Test that closing the iterator ends the iteration
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testClose() throws IOException, GedcomParserException {
+        RecordIterator it = new RecordIterator(new GedcomParser(), "sample/willis.ged");
+        assertTrue(it.next() instanceof Header);
+        assertTrue(it.hasNext());
+        it.close();
+        assertFalse(it.hasNext());
+        try {
+            it.next();
+            fail("Expected NoSuchElementException");
+        } catch (NoSuchElementException expected) {
+            assertNotNull(expected);
+        }
+    }
+
+    /**
+     * Test that a record with no xref, and a pointer with no value, are returned rather than failing
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     */
+    @Test
+    public void testNullXrefs() throws IOException, GedcomParserException {
+        String gedcom = "0 HEAD\n1 GEDC\n2 VERS 5.5.1\n1 CHAR ASCII\n0 INDI\n1 NAME John /Doe/\n1 FAMS\n0 @I2@ INDI\n0 TRLR\n";
+        try (RecordIterator it = new RecordIterator(new GedcomParser(), new BufferedInputStream(new ByteArrayInputStream(gedcom
+                .getBytes(StandardCharsets.US_ASCII))))) {
+            assertTrue(it.next() instanceof Header);
+            Individual i = (Individual) it.next();
+            assertNull(i.getXref());
+            assertNull(i.getFamiliesWhereSpouse().get(0).getFamily().getXref());
+            assertEquals("@I2@", ((Individual) it.next()).getXref());
+            assertTrue(it.next() instanceof Trailer);
+            assertFalse(it.hasNext());
+        }
+    }
+
+    /**
+     * Test that a problem parsing a record is thrown wrapped in a {@link RecordIteratorException}, after the records before it
+     * have been returned
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     */
+    @Test
+    public void testParseError() throws IOException, GedcomParserException {
+        String gedcom = "0 HEAD\n1 GEDC\n2 VERS 5.5.1\n1 CHAR ASCII\n0 @I1@ INDI\n1 NAME Joe /Bloggs/\n0 @I2@ INDI\n1 NAME Fred\n"
+                + "This line is bogus\n0 TRLR\n";
+        GedcomParser gp = new GedcomParser();
+        try (RecordIterator it = new RecordIterator(gp, new BufferedInputStream(new ByteArrayInputStream(gedcom.getBytes(
+                StandardCharsets.US_ASCII))))) {
+            assertTrue(it.next() instanceof Header);
+            Individual i = (Individual) it.next();
+            assertEquals("@I1@", i.getXref());
+            assertEquals("Joe /Bloggs/", i.getNames().get(0).getBasic());
+            it.next();
+            fail("Expected a RecordIteratorException");
+        } catch (RecordIteratorException expected) {
+            assertTrue(expected.getCause() instanceof GedcomParserException);
+        }
+    }
+
+    /**
+     * Test that an unexpected runtime exception while reading a record is thrown wrapped in a {@link RecordIteratorException}, like
+     * any other problem reading the record
+     * 
+     * @throws IOException
+     *             if the data can't be read
+     * @throws GedcomParserException
+     *             if the data can't be parsed
+     */
+    @Test
+    public void testRuntimeError() throws IOException, GedcomParserException {
+        String gedcom = "0 HEAD\n1 GEDC\n2 VERS 5.5.1\n1 CHAR ASCII\n0 @I1@ INDI\n1 NAME Joe /Bloggs/\n0 TRLR\n";
+        final IllegalStateException failure = new IllegalStateException("Filter failed");
+        GedcomParser gp = new GedcomParser();
+        gp.setParseFilter(new ParseFilter() {
+            @Override
+            boolean isSkipped(int level, String tag) {
+                if (Tag.NAME.equalsText(tag)) {
+                    throw failure;
+                }
+                return super.isSkipped(level, tag);
+            }
+        });
+        try (RecordIterator it = new RecordIterator(gp, new BufferedInputStream(new ByteArrayInputStream(gedcom.getBytes(
+                StandardCharsets.US_ASCII))))) {
+            assertTrue(it.next() instanceof Header);
+            it.next();
+            fail("Expected a RecordIteratorException");
+        } catch (RecordIteratorException expected) {
+            assertSame(failure, expected.getCause());
+        }
+    }
+
+    /**
+     * Test that the iterator returns the same records, in the same order, as streaming to a {@link RecordHandler} does, and leaves
+     * the parser in the same state
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testSameRecordsAsStream() throws IOException, GedcomParserException {
+        GedcomParser streamer = new GedcomParser();
+        streamer.stream("sample/willis.ged", this);
+
+        GedcomParser gp = new GedcomParser();
+        gp.setParseNotificationRate(100);
+        gp.registerParseObserver(this);
+        List<ModelElement> iterated = new ArrayList<>();
+        try (RecordIterator it = new RecordIterator(gp, "sample/willis.ged")) {
+            while (it.hasNext()) {
+                iterated.add(it.next());
+            }
+            assertFalse(it.hasNext());
+        }
+
+        assertEquals(streamed.size(), iterated.size());
+        for (int i = 0; i < iterated.size(); i++) {
+            assertEquals(streamed.get(i).getClass(), iterated.get(i).getClass());
+            assertEquals(streamed.get(i).toString(), iterated.get(i).toString());
+        }
+        assertTrue(iterated.get(iterated.size() - 1) instanceof Trailer);
+        assertEquals(streamer.getGedcom().getHeader(), gp.getGedcom().getHeader());
+        assertTrue(gp.getGedcom().getIndividuals().isEmpty());
+        assertEquals(streamer.getErrors(), gp.getErrors());
+        assertEquals(streamer.getWarnings(), gp.getWarnings());
+        assertEquals(235, parseNotificationCount);
+    }
+
+    /**
+     * Test that records can't be removed
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testRemove() throws IOException, GedcomParserException {
+        try (RecordIterator it = new RecordIterator(new GedcomParser(), "sample/willis.ged")) {
+            it.next();
+            it.remove();
+        }
+    }
+}
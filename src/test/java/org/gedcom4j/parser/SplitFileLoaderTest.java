@@ -0,0 +1,322 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.exception.ParserCancelledException;
+import org.gedcom4j.io.event.FileProgressEvent;
+import org.gedcom4j.io.event.FileProgressListener;
+import org.gedcom4j.io.reader.ChunkedFileReader;
+import org.gedcom4j.io.reader.GedcomFileReader;
+import org.gedcom4j.parser.event.ParseProgressEvent;
+import org.gedcom4j.parser.event.ParseProgressListener;
+import org.junit.Test;
+
+/**
+ * Test for {@link SplitFileLoader}, both directly with small chunks and via {@link GedcomParser#setParallelDecoding(boolean)}
+ * 
+ * @author frizbog
+ */
+public class SplitFileLoaderTest implements FileProgressListener, ParseProgressListener {
+
+    /**
+     * The number of file progress notifications received
+     */
+    private int fileNotificationCount;
+
+    /**
+     * The last file progress notification received
+     */
+    private FileProgressEvent lastFileEvent;
+
+    /**
+     * The number of parse progress notifications received
+     */
+    private int parseNotificationCount;
+
+    /**
+     * The last parse progress notification received
+     */
+    private ParseProgressEvent lastParseEvent;
+
+    /**
+     * The parser to cancel after a couple of parse notifications, if any
+     */
+    private GedcomParser parserToCancel;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void progressNotification(FileProgressEvent e) {
+        fileNotificationCount++;
+        lastFileEvent = e;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void progressNotification(ParseProgressEvent e) {
+        parseNotificationCount++;
+        lastParseEvent = e;
+        if (parserToCancel != null && parseNotificationCount >= 2) {
+            parserToCancel.cancel();
+        }
+    }
+
+    /**
+     * Test that cancelling a split load stops it, and that the worker threads are finished by the time the load returns
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testCancellation() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.setParseNotificationRate(100);
+        gp.registerParseObserver(this);
+        parserToCancel = gp;
+        try {
+            splitLoad(gp, "sample/willis.ged", 5000);
+            fail("Load should have been cancelled");
+        } catch (ParserCancelledException expected) {
+            assertTrue(gp.isCancelled());
+        }
+        assertFalse(workerThreadsAlive());
+    }
+
+    /**
+     * Test that errors in chunks after the first report the line number in the file as a whole
+     * 
+     * @throws IOException
+     *             if the file can't be written or read
+     */
+    @Test
+    public void testLineNumbersCarryOverBetweenChunks() throws IOException {
+        StringBuilder sb = new StringBuilder("0 HEAD\n1 CHAR UTF-8\n");
+        for (int i = 1; i <= 500; i++) {
+            sb.append("0 @I").append(i).append("@ INDI\n1 NAME Person /Number").append(i).append("/\n");
+        }
+        sb.append("0 @I501@ INDI\n1 NOTE Line one\nline two\n0 TRLR\n");
+        File f = File.createTempFile("gedcom4j", ".ged");
+        f.deleteOnExit();
+        try (FileOutputStream fos = new FileOutputStream(f)) {
+            fos.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        String expectedMessage = null;
+        try {
+            new GedcomParser().load(f.getPath());
+            fail("Expected an exception for the line that doesn't begin with a level");
+        } catch (GedcomParserException expected) {
+            expectedMessage = expected.getMessage();
+        }
+        assertTrue(expectedMessage.startsWith("Line 1005 does not begin with a 1 or 2 digit number"));
+
+        try {
+            splitLoad(new GedcomParser(), f.getPath(), 500);
+            fail("Expected an exception for the line that doesn't begin with a level");
+        } catch (GedcomParserException expected) {
+            assertEquals(expectedMessage, expected.getMessage());
+        }
+        assertFalse(workerThreadsAlive());
+    }
+
+    /**
+     * Test that the progress notifications from a split load are the same as from a sequential load
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testProgressNotifications() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.registerFileObserver(this);
+        gp.registerParseObserver(this);
+        gp.load("sample/willis.ged");
+        int sequentialFileNotifications = fileNotificationCount;
+        long sequentialLastLinesProcessed = lastFileEvent.getLinesProcessed();
+        int sequentialParseNotifications = parseNotificationCount;
+        long sequentialLastLinesParsed = lastParseEvent.getLinesParsed();
+
+        fileNotificationCount = 0;
+        parseNotificationCount = 0;
+        lastFileEvent = null;
+        lastParseEvent = null;
+        gp = new GedcomParser();
+        gp.registerFileObserver(this);
+        gp.registerParseObserver(this);
+        splitLoad(gp, "sample/willis.ged", 10000);
+        assertEquals(sequentialFileNotifications, fileNotificationCount);
+        assertEquals(sequentialLastLinesProcessed, lastFileEvent.getLinesProcessed());
+        assertEquals(686101, lastFileEvent.getBytesProcessed());
+        assertTrue(lastFileEvent.isComplete());
+        assertEquals(sequentialParseNotifications, parseNotificationCount);
+        assertEquals(sequentialLastLinesParsed, lastParseEvent.getLinesParsed());
+    }
+
+    /**
+     * Test that loading every UTF-8 and ASCII sample file in small chunks gives the same results as loading it sequentially
+     * 
+     * @throws IOException
+     *             if a file can't be read
+     * @throws GedcomParserException
+     *             if a file can't be parsed
+     */
+    @Test
+    public void testSameResultsAsSequential() throws IOException, GedcomParserException {
+        String[] allFiles = new File("sample").list(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(".ged");
+            }
+        });
+        int filesChecked = 0;
+        for (String s : allFiles) {
+            GedcomParser sequential = new GedcomParser();
+            sequential.setStrictCustomTags(false);
+            sequential.setStrictLineBreaks(false);
+            sequential.load("sample/" + s);
+
+            GedcomParser split = new GedcomParser();
+            split.setStrictCustomTags(false);
+            split.setStrictLineBreaks(false);
+            if (!splitLoad(split, "sample/" + s, 1000)) {
+                continue;
+            }
+            filesChecked++;
+
+            assertEquals(s, sequential.getGedcom(), split.getGedcom());
+            assertEquals(s, sorted(sequential.getErrors()), sorted(split.getErrors()));
+            assertEquals(s, sorted(sequential.getWarnings()), sorted(split.getWarnings()));
+        }
+        assertTrue(filesChecked > 10);
+        assertFalse(workerThreadsAlive());
+    }
+
+    /**
+     * Test that a file loaded with {@link GedcomParser#setParallelDecoding(boolean)}, also parsing the records in parallel, gives
+     * the same results as loading it sequentially
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testWithParallelParsing() throws IOException, GedcomParserException {
+        GedcomParser sequential = new GedcomParser();
+        sequential.load("sample/willis.ged");
+
+        GedcomParser parallel = new GedcomParser();
+        parallel.setParallelDecoding(true);
+        parallel.setParallelParsing(true);
+        assertTrue(parallel.isParallelDecoding());
+        parallel.load("sample/willis.ged");
+        assertNotNull(parallel.getGedcom().getHeader());
+        assertEquals(sequential.getGedcom(), parallel.getGedcom());
+        assertEquals(sorted(sequential.getErrors()), sorted(parallel.getErrors()));
+        assertEquals(sorted(sequential.getWarnings()), sorted(parallel.getWarnings()));
+        assertFalse(workerThreadsAlive());
+    }
+
+    /**
+     * Get a sorted copy of a list of messages
+     * 
+     * @param messages
+     *            the messages
+     * @return a sorted copy of the messages
+     */
+    private List<String> sorted(List<String> messages) {
+        List<String> result = new ArrayList<>(messages);
+        Collections.sort(result);
+        return result;
+    }
+
+    /**
+     * Load a file with a {@link SplitFileLoader}, using small chunks and several threads
+     * 
+     * @param gp
+     *            the parser to load the file for. Must not have loaded anything yet.
+     * @param fileName
+     *            the name of the file
+     * @param chunkSize
+     *            the size to aim for each chunk to be, in bytes
+     * @return true if the file was loaded, or false if it isn't in an encoding that can be split
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    private boolean splitLoad(GedcomParser gp, String fileName, long chunkSize) throws IOException, GedcomParserException {
+        try (FileInputStream fis = new FileInputStream(fileName); FileChannel channel = fis.getChannel()) {
+            GedcomFileReader gfr = new GedcomFileReader(gp, channel);
+            if (!ChunkedFileReader.supports(gfr.getEncoding())) {
+                return false;
+            }
+            new SplitFileLoader(gp, new ChunkedFileReader(gp, channel, gfr.getEncoding()), chunkSize, 4).load();
+            return true;
+        }
+    }
+
+    /**
+     * Are any of the split loader's worker threads still running?
+     * 
+     * @return true if any of the split loader's worker threads are still running
+     */
+    private boolean workerThreadsAlive() {
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t.getName().startsWith("gedcom4j-chunk-decoder") && t.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
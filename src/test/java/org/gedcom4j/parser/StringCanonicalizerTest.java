@@ -27,13 +27,15 @@
 package org.gedcom4j.parser;
 
 import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertNotNull;
-import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.IOException;
 import java.util.Random;
 
-import org.gedcom4j.parser.StringCanonicalizer.CanonicalizedString;
+import org.gedcom4j.exception.GedcomParserException;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -63,39 +65,28 @@ public class StringCanonicalizerTest {
     }
 
     /**
-     * Test with a larger population that should exceed the pool size, but some of the entries should be below the usage threshold,
-     * which means eviction should get triggered
+     * Test that a long run of strings that are only seen once doesn't push the frequently used strings out of the pool
      */
     @Test
-    public void testLargerPopulation() {
-        // Load the string pool
-        final int numValues = classUnderTest.getMaxPoolSize() + 100;
-        for (int values = 0; values < numValues; values++) {
-            for (int uses = 0; uses < 20 + random.nextInt(20); uses++) {
-                String s = Integer.toString(values);
-                String c = classUnderTest.getCanonicalVersion(s);
-                assertEquals(s, c);
+    public void testFrequentStringsSurviveScan() {
+        int numHot = classUnderTest.getMaximumSize() / 2;
+        String[] canons = new String[numHot];
+        for (int uses = 0; uses < 10; uses++) {
+            for (int values = 0; values < numHot; values++) {
+                canons[values] = classUnderTest.getCanonicalVersion(new String("hot" + values));
             }
         }
 
-        assertEquals(1, classUnderTest.numEvictions);
-        assertNull(classUnderTest.stringPool.get("499"));
-        CanonicalizedString c = classUnderTest.stringPool.get("498");
-        assertNotNull(c);
-        assertEquals("498", c.value);
-        assertEquals(25, c.count);
-
-        // Make sure we get canonical versions
-        for (int values = 0; values < numValues; values++) {
-            String s = Integer.toString(values);
-            String c2 = classUnderTest.getCanonicalVersion(s);
-            assertEquals(s, c2);
-            StringCanonicalizer.CanonicalizedString cv = classUnderTest.stringPool.get(s);
-            if (cv != null) {
-                assertSame(cv.value, c2);
-            }
+        // Lots of strings that are only seen once
+        for (int values = 0; values < classUnderTest.getMaximumSize() * 10; values++) {
+            String s = "cold" + values;
+            assertEquals(s, classUnderTest.getCanonicalVersion(s));
+            assertTrue(classUnderTest.size() <= classUnderTest.getMaximumSize());
         }
 
+        for (int values = 0; values < numHot; values++) {
+            assertSame(canons[values], classUnderTest.getCanonicalVersion(new String("hot" + values)));
+        }
     }
 
     /**
@@ -104,7 +95,7 @@ public class StringCanonicalizerTest {
     @Test
     public void testMediumPopulation() {
         // Load the string pool
-        final int numValues = classUnderTest.getMaxPoolSize() - 1;
+        final int numValues = classUnderTest.getMaximumSize() - 1;
         String[] canons = new String[numValues];
         for (int values = 0; values < numValues; values++) {
             for (int uses = 0; uses < 25 + random.nextInt(25); uses++) {
@@ -123,6 +114,96 @@ public class StringCanonicalizerTest {
         }
     }
 
+    /**
+     * Test that once the pool is full of strings that were popular earlier in a file, strings that become popular later still get
+     * canonicalized, rather than the pool giving up
+     */
+    @Test
+    public void testPoolAdaptsToNewPopularStrings() {
+        classUnderTest = new StringCanonicalizer(100);
+        for (int uses = 0; uses < 20; uses++) {
+            for (int values = 0; values < 300; values++) {
+                classUnderTest.getCanonicalVersion(new String("early" + values));
+            }
+        }
+        assertEquals(100, classUnderTest.size());
+
+        String[] canons = new String[50];
+        for (int uses = 0; uses < 200; uses++) {
+            for (int values = 0; values < canons.length; values++) {
+                canons[values] = classUnderTest.getCanonicalVersion(new String("late" + values));
+            }
+        }
+        for (int values = 0; values < canons.length; values++) {
+            String s = new String("late" + values);
+            String c = classUnderTest.getCanonicalVersion(s);
+            assertNotSame(s, c);
+            assertSame(canons[values], c);
+        }
+        assertEquals(100, classUnderTest.size());
+    }
+
+    /**
+     * Test the statistics for a load of a sample file, and that the size is configurable through the parser
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testParserStatistics() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        assertEquals(StringCanonicalizer.DEFAULT_MAXIMUM_SIZE, gp.getCanonicalizerSize());
+        assertEquals(0, gp.getCanonicalizerHitRate(), 0);
+        gp.load("sample/willis.ged");
+        double defaultHitRate = gp.getCanonicalizerHitRate();
+        long defaultBytesSaved = gp.getCanonicalizerBytesSaved();
+        assertTrue(defaultHitRate > 0.2 && defaultHitRate < 1);
+        assertTrue(defaultBytesSaved > 0);
+
+        gp.setCanonicalizerSize(4);
+        assertEquals(4, gp.getCanonicalizerSize());
+        gp.load("sample/willis.ged");
+        assertTrue(gp.getCanonicalizerHitRate() < defaultHitRate);
+        assertTrue(gp.getCanonicalizerBytesSaved() < defaultBytesSaved);
+
+        try {
+            gp.setCanonicalizerSize(0);
+            fail("Expected an exception for a size of zero");
+        } catch (IllegalArgumentException expected) {
+            assertEquals(4, gp.getCanonicalizerSize());
+        }
+    }
+
+    /**
+     * Test that a parser given a shared canonicalizer reports what the canonicalizer did during each load, and nothing from before
+     * it
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testSharedParserStatistics() throws IOException, GedcomParserException {
+        StringCanonicalizer shared = new StringCanonicalizer(StringCanonicalizer.DEFAULT_MAXIMUM_SIZE);
+        GedcomParser gp = new GedcomParser();
+        gp.setSharedCanonicalizer(shared);
+        gp.load("sample/willis.ged");
+        assertTrue(gp.getCanonicalizerBytesSaved() > 0);
+        assertEquals(shared.getBytesSaved(), gp.getCanonicalizerBytesSaved());
+        assertEquals(shared.getHitRate(), gp.getCanonicalizerHitRate(), 0);
+
+        long requests = shared.getRequestCount();
+        long hits = shared.getHitCount();
+        long bytesSaved = shared.getBytesSaved();
+        gp.load("sample/willis.ged");
+        assertEquals(shared.getBytesSaved() - bytesSaved, gp.getCanonicalizerBytesSaved());
+        assertEquals((double) (shared.getHitCount() - hits) / (shared.getRequestCount() - requests), gp.getCanonicalizerHitRate(),
+                0);
+    }
+
     /**
      * Test with a small population
      */
@@ -150,43 +231,27 @@ public class StringCanonicalizerTest {
     }
 
     /**
-     * Test with a larger population that should exceed the pool size, but some of the entries should be below the usage threshold,
-     * which means eviction should get triggered
+     * Test the hit count, hit rate, and bytes saved
      */
     @Test
-    public void testVeryLargePopulation() {
-        // Load the string pool
-        final int numValues = classUnderTest.getMaxPoolSize() * 3;
-        for (int values = 0; values < numValues; values++) {
-            for (int uses = 0; uses < 20 + random.nextInt(20); uses++) {
-                String s = Integer.toString(values);
-                String c = classUnderTest.getCanonicalVersion(s);
-                assertEquals(s, c);
-            }
-        }
+    public void testStatistics() {
+        assertEquals(0, classUnderTest.getHitRate(), 0);
+        String first = classUnderTest.getCanonicalVersion(new String("Springfield"));
+        assertEquals(0, classUnderTest.getHitCount());
+        assertEquals(0, classUnderTest.getBytesSaved());
 
-        assertEquals(8, classUnderTest.numEvictions);
-        /*
-         * Because we used a java.util.Random with a fixed seed, which items remain in the pool should be predictable, so these
-         * asserts should be safe
-         */
-        assertNull(classUnderTest.stringPool.get("499"));
-        CanonicalizedString c = classUnderTest.stringPool.get("498");
-        assertNotNull(c);
-        assertEquals("498", c.value);
-        assertEquals(25, c.count);
-
-        // Make sure we get canonical versions
-        for (int values = 0; values < numValues; values++) {
-            String s = Integer.toString(values);
-            StringCanonicalizer.CanonicalizedString cv = classUnderTest.stringPool.get(s);
-            if (cv != null) {
-                String c2 = classUnderTest.getCanonicalVersion(s);
-                assertEquals(s, c2);
-                assertSame(cv.value, c2);
-            }
-        }
+        assertSame(first, classUnderTest.getCanonicalVersion(new String("Springfield")));
+        assertSame(first, classUnderTest.getCanonicalVersion(first));
+        classUnderTest.getCanonicalVersion("Shelbyville");
+        assertEquals(4, classUnderTest.getRequestCount());
+        assertEquals(2, classUnderTest.getHitCount());
+        assertEquals(0.5, classUnderTest.getHitRate(), 0.0001);
+        // Only the copy that was passed in was saved - handing back the canonical instance itself saves nothing
+        assertEquals(40 + 2 * "Springfield".length(), classUnderTest.getBytesSaved());
 
+        classUnderTest.reset();
+        assertEquals(0, classUnderTest.getRequestCount());
+        assertEquals(0, classUnderTest.size());
     }
 
 }
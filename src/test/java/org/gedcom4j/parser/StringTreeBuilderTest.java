@@ -27,8 +27,12 @@
 package org.gedcom4j.parser;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.StringTree;
 import org.junit.Test;
 
 /**
@@ -54,4 +58,60 @@ public class StringTreeBuilderTest {
         assertEquals("This is a test", StringTreeBuilder.leftTrim(" \t\n  \u000B\f\n\r  This is a test"));
     }
 
+    /**
+     * Test the tree built from some lines, including the wrapper node, parents, line numbers, canonical pointers, and non-standard
+     * continuation lines, and that the builder can be reset and reused for the next root-level node
+     * 
+     * @throws GedcomParserException
+     *             if the lines can't be built into a tree
+     */
+    @Test
+    public void testTreeAndReset() throws GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.setStrictLineBreaks(false);
+        StringTreeBuilder b = new StringTreeBuilder(gp);
+        b.appendLine("0 @N1@ NOTE First line");
+        b.appendLine("1 CONT Second line");
+        b.appendLine("an unescaped third line");
+        b.appendLine("1 SOUR @S1@");
+        b.appendLine("2 DATE 1 JAN 2000");
+
+        StringTree wrapper = b.getTree();
+        assertEquals(-1, wrapper.getLevel());
+        assertEquals(1, wrapper.getChildren().size());
+        StringTree note = wrapper.getChildren().get(0);
+        assertSame(wrapper, note.getParent());
+        assertEquals("@N1@", note.getXref());
+        assertEquals("First line", note.getValue());
+        assertEquals(1, note.getLineNum());
+        assertEquals(2, note.getChildren().size());
+
+        StringTree cont = note.getChildren().get(0);
+        assertSame(note, cont.getParent());
+        assertEquals("Second line", cont.getValue());
+        assertEquals(1, cont.getChildren().size());
+        StringTree unescaped = cont.getChildren().get(0);
+        assertEquals(2, unescaped.getLevel());
+        assertEquals("CONT", unescaped.getTag());
+        assertEquals("an unescaped third line", unescaped.getValue());
+        assertEquals(3, unescaped.getLineNum());
+        assertEquals(1, gp.getWarnings().size());
+
+        StringTree sour = note.getChildren().get(1);
+        assertSame(gp.getSymbolTable().get("@S1@"), sour.getValue());
+        StringTree date = sour.getChildren().get(0);
+        assertEquals("1 JAN 2000", date.getValue());
+        assertEquals(5, date.getLineNum());
+        assertEquals(5, b.getNodeCount());
+
+        b.reset();
+        assertNotSame(wrapper, b.getTree());
+        assertNull(b.getTree().getChildren());
+        assertEquals(0, b.getNodeCount());
+        b.appendLine("0 TRLR");
+        assertEquals(6, b.getTree().getChildren().get(0).getLineNum());
+        assertEquals("TRLR", b.getTree().getChildren().get(0).getTag());
+        assertEquals(2, note.getChildren().size());
+    }
+
 }
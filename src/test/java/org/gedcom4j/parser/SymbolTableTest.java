@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.gedcom4j.model.enumerations.IndividualEventType;
+import org.junit.Test;
+
+/**
+ * Test for {@link SymbolTable}
+ * 
+ * @author frizbog
+ */
+public class SymbolTableTest {
+
+    /**
+     * Test that runs of characters resolve to the same instance as the whole string, and that the table keeps working as it grows
+     */
+    @Test
+    public void testGrowth() {
+        SymbolTable classUnderTest = new SymbolTable();
+        int before = classUnderTest.size();
+        String[] canon = new String[10000];
+        for (int i = 0; i < canon.length; i++) {
+            canon[i] = classUnderTest.get("1 HUSB @I" + i + "@", 7, 7 + Integer.toString(i).length() + 3);
+            assertEquals("@I" + i + "@", canon[i]);
+        }
+        assertEquals(before + canon.length, classUnderTest.size());
+        for (int i = 0; i < canon.length; i++) {
+            assertSame(canon[i], classUnderTest.get(new String("@I" + i + "@")));
+        }
+        assertEquals(before + canon.length, classUnderTest.size());
+    }
+
+    /**
+     * Test that a table with a maximum size forgets everything but the pre-loaded tags once it's full
+     */
+    @Test
+    public void testMaximumSize() {
+        int tags = new SymbolTable().size();
+        SymbolTable classUnderTest = new SymbolTable(tags + 10);
+        assertEquals(tags, classUnderTest.size());
+        String first = classUnderTest.get(new String("@I0@"));
+        for (int i = 1; i < 10; i++) {
+            classUnderTest.get("@I" + i + "@");
+        }
+        assertEquals(tags + 10, classUnderTest.size());
+        assertSame(first, classUnderTest.get(new String("@I0@")));
+
+        String eleventh = classUnderTest.get("@I10@");
+        assertEquals(tags + 1, classUnderTest.size());
+        assertSame(eleventh, classUnderTest.get(new String("@I10@")));
+        assertNotSame(first, classUnderTest.get(new String("@I0@")));
+        assertSame(Tag.CONCATENATION.tagText, classUnderTest.get(new String("CONC")));
+        assertEquals(tags + 2, classUnderTest.size());
+    }
+
+    /**
+     * Test that a maximum size too small for the pre-loaded tags is rejected
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaximumSizeTooSmall() {
+        new SymbolTable(new SymbolTable().size());
+    }
+
+    /**
+     * Test that a string that's already in the table comes back as the first instance added, rather than being added again
+     */
+    @Test
+    public void testNoDuplicates() {
+        SymbolTable classUnderTest = new SymbolTable();
+        int before = classUnderTest.size();
+        String first = classUnderTest.get(new String("@F1@"));
+        assertSame(first, classUnderTest.get("1 FAMS @F1@", 7, 11));
+        assertSame(first, classUnderTest.get(new String("@F1@")));
+        assertEquals(before + 1, classUnderTest.size());
+        assertSame(Tag.CONCATENATION.tagText, classUnderTest.get(new String("CONC")));
+        assertEquals(before + 1, classUnderTest.size());
+    }
+
+    /**
+     * Test that the table is pre-loaded with the known tags
+     */
+    @Test
+    public void testPreloaded() {
+        SymbolTable classUnderTest = new SymbolTable();
+        String birt = new String("BIRT");
+        assertNotSame(birt, IndividualEventType.BIRTH.getTag());
+        assertSame(IndividualEventType.BIRTH.getTag(), classUnderTest.get(birt));
+        assertSame(Tag.CONCATENATION.tagText, classUnderTest.get("2 CONC", 2, 6));
+    }
+}
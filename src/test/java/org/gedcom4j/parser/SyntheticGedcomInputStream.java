@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.parser;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A stream of a made-up GEDCOM file of any size, generated a record at a time as it is read, so that files far bigger than the
+ * heap (or the disk) can be fed to the parser. The file has a header, a submitter, as many individuals as it takes to reach the
+ * requested size, and a trailer. Each individual has a long note, so that the file reaches a given size with fewer records (and
+ * fewer xrefs for the parser to keep track of) than a typical file would.
+ * 
+ * @author frizbog
+ */
+final class SyntheticGedcomInputStream extends InputStream {
+
+    /**
+     * The number of continuation lines in each individual's note
+     */
+    private static final int NOTE_LINES = 40;
+
+    /**
+     * The number of lines in each individual, apart from the continuation lines of its note
+     */
+    private static final int OTHER_LINES_PER_INDIVIDUAL = 7;
+
+    /**
+     * The lines at the start of the file
+     */
+    private static final String HEADER = "0 HEAD\n1 SOUR gedcom4j\n1 SUBM @SUBM1@\n1 GEDC\n2 VERS 5.5.1\n2 FORM LINEAGE-LINKED\n"
+            + "1 CHAR UTF-8\n0 @SUBM1@ SUBM\n1 NAME Synthetic Submitter\n";
+
+    /**
+     * The number of lines in {@link #HEADER}
+     */
+    private static final int HEADER_LINES = 9;
+
+    /**
+     * The line at the end of the file
+     */
+    private static final String TRAILER = "0 TRLR\n";
+
+    /**
+     * The continuation lines of each individual's note
+     */
+    private static final String NOTE;
+
+    static {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < NOTE_LINES; i++) {
+            sb.append("2 CONT Line ").append(i).append(" of a note that is only here to take up space in a file that is very big\n");
+        }
+        NOTE = sb.toString();
+    }
+
+    /**
+     * The size the file is to be, at least
+     */
+    private final long minimumSize;
+
+    /**
+     * The bytes of the record being read
+     */
+    private byte[] buffer = HEADER.getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * How far through {@link #buffer} has been read
+     */
+    private int pos;
+
+    /**
+     * The number of bytes generated so far
+     */
+    private long bytes = buffer.length;
+
+    /**
+     * The number of lines generated so far
+     */
+    private long lines = HEADER_LINES;
+
+    /**
+     * The number of individuals generated so far
+     */
+    private int individuals;
+
+    /**
+     * Whether the trailer has been generated
+     */
+    private boolean trailerGenerated;
+
+    /**
+     * Constructor
+     * 
+     * @param minimumSize
+     *            the size the file is to be, at least. It will be a few kilobytes bigger at most.
+     */
+    SyntheticGedcomInputStream(long minimumSize) {
+        this.minimumSize = minimumSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read() {
+        if (!fill()) {
+            return -1;
+        }
+        return buffer[pos++] & 0xFF;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+        int n = 0;
+        while (n < len && fill()) {
+            int count = Math.min(len - n, buffer.length - pos);
+            System.arraycopy(buffer, pos, b, off + n, count);
+            pos += count;
+            n += count;
+        }
+        return n == 0 ? -1 : n;
+    }
+
+    /**
+     * Get the number of bytes in the file. Only complete once the stream has been read to the end.
+     * 
+     * @return the number of bytes generated so far
+     */
+    long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Get the number of individuals in the file. Only complete once the stream has been read to the end.
+     * 
+     * @return the number of individuals generated so far
+     */
+    int getIndividuals() {
+        return individuals;
+    }
+
+    /**
+     * Get the number of lines in the file. Only complete once the stream has been read to the end.
+     * 
+     * @return the number of lines generated so far
+     */
+    long getLines() {
+        return lines;
+    }
+
+    /**
+     * Make sure there's something left in the buffer to read, generating the next record if need be
+     * 
+     * @return true if there's something left to read, false if the end of the file has been reached
+     */
+    private boolean fill() {
+        if (pos < buffer.length) {
+            return true;
+        }
+        String next;
+        if (bytes < minimumSize) {
+            individuals++;
+            int n = individuals;
+            next = "0 @I" + n + "@ INDI\n1 NAME Person " + n + " /Synthetic/\n1 SEX " + (n % 2 == 0 ? "F" : "M")
+                    + "\n1 BIRT\n2 DATE " + (n % 28 + 1) + " JAN " + (1700 + n % 300) + "\n2 PLAC Springfield, Illinois, USA\n"
+                    + "1 NOTE Note for person " + n + "\n" + NOTE;
+            lines += OTHER_LINES_PER_INDIVIDUAL + NOTE_LINES;
+        } else if (trailerGenerated) {
+            return false;
+        } else {
+            next = TRAILER;
+            lines++;
+            trailerGenerated = true;
+        }
+        buffer = next.getBytes(StandardCharsets.UTF_8);
+        pos = 0;
+        bytes += buffer.length;
+        return true;
+    }
+
+}
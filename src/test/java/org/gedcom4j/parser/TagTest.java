@@ -29,6 +29,7 @@ package org.gedcom4j.parser;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
@@ -57,6 +58,21 @@ public class TagTest {
         assertFalse(Tag.HEADER.equalsText(null));
     }
 
+    /**
+     * Test for {@link Tag#forText(String)}
+     */
+    @Test
+    public void testForText() {
+        for (Tag t : Tag.values()) {
+            assertTrue(Tag.forText(t.tagText).equalsText(t.tagText));
+        }
+        assertEquals(Tag.INDIVIDUAL, Tag.forText("INDI"));
+        assertEquals(Tag.DATA_FOR_CITATION, Tag.forText("DATA"));
+        assertNull(Tag.forText("FRYINGPAN"));
+        assertNull(Tag.forText("indi"));
+        assertNull(Tag.forText(null));
+    }
+
     /**
      * Test of tag count
      */
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.snapshot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.FamilySpouse;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.model.SubmissionReference;
+import org.gedcom4j.parser.GedcomParser;
+import org.junit.Test;
+
+/**
+ * Test for {@link SnapshotReader}, reading back snapshots written by {@link SnapshotWriter}
+ * 
+ * @author frizbog
+ */
+public class SnapshotReaderTest {
+
+    /**
+     * Test that a snapshot of a model element other than a record or enum is rejected, rather than the class being loaded
+     * 
+     * @throws IOException
+     *             if the snapshot can't be read, which is expected
+     */
+    @Test(expected = StreamCorruptedException.class)
+    public void testBadClass() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write(SnapshotFormat.MAGIC);
+        baos.write(SnapshotFormat.VERSION);
+        baos.write(1); // One family...
+        writeString(baos, "@F1@"); // ...keyed @F1@...
+        baos.write(0); // ...whose class is new...
+        writeString(baos, "java.util.ArrayList"); // ...and not in the model
+        new SnapshotReader().read(new ByteArrayInputStream(baos.toByteArray()));
+    }
+
+    /**
+     * Test that a snapshot written by a version of the model where a class had different fields is rejected
+     * 
+     * @throws IOException
+     *             if the snapshot can't be read, which is expected
+     */
+    @Test(expected = StreamCorruptedException.class)
+    public void testChangedClass() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write(SnapshotFormat.MAGIC);
+        baos.write(SnapshotFormat.VERSION);
+        for (int i = 0; i < 7; i++) {
+            baos.write(0); // No records of any type
+        }
+        baos.write(0); // New class...
+        writeString(baos, Gedcom.class.getName()); // ...for the Gedcom...
+        baos.write(1); // ...with a single field...
+        writeString(baos, "bogus"); // ...that doesn't exist
+        new SnapshotReader().read(new ByteArrayInputStream(baos.toByteArray()));
+    }
+
+    /**
+     * Test that something other than a snapshot is rejected
+     * 
+     * @throws IOException
+     *             if the snapshot can't be read, which is expected
+     */
+    @Test(expected = StreamCorruptedException.class)
+    public void testNotASnapshot() throws IOException {
+        new SnapshotReader().read("sample/willis.ged");
+    }
+
+    /**
+     * Test that references between records point at the same objects as the maps in the restored gedcom
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testRecordReferences() throws IOException, GedcomParserException {
+        Gedcom restored = roundTrip("sample/willis.ged");
+        int spouses = 0;
+        for (Individual i : restored.getIndividuals().values()) {
+            if (i.getFamiliesWhereSpouse() == null) {
+                continue;
+            }
+            for (FamilySpouse fs : i.getFamiliesWhereSpouse()) {
+                assertSame(restored.getFamilies().get(fs.getFamily().getXref()), fs.getFamily());
+                spouses++;
+            }
+        }
+        assertEquals(552, spouses);
+
+        // The submission is not a record in a map, but is still shared between the gedcom and its header
+        Gedcom g = new Gedcom();
+        g.getHeader().setSubmissionReference(new SubmissionReference(g.getSubmission()));
+        restored = roundTrip(g);
+        assertSame(restored.getSubmission(), restored.getHeader().getSubmissionReference().getSubmission());
+    }
+
+    /**
+     * Test that reading back a snapshot gives a gedcom equal to the one written, for a variety of sample files
+     * 
+     * @throws IOException
+     *             if a file can't be read
+     * @throws GedcomParserException
+     *             if a file can't be parsed
+     */
+    @Test
+    public void testRoundTrip() throws IOException, GedcomParserException {
+        for (String s : Arrays.asList("sample/willis.ged", "sample/willis-ansel.ged", "sample/allged.ged", "sample/Harry_Potter.ged",
+                "sample/legacycustomtags.ged", "sample/TGC551LF.ged")) {
+            GedcomParser gp = new GedcomParser();
+            gp.load(s);
+            Gedcom restored = roundTrip(gp.getGedcom());
+            assertNotNull(s, restored);
+            assertEquals(s, gp.getGedcom(), restored);
+        }
+    }
+
+    /**
+     * Test that a truncated snapshot is rejected
+     * 
+     * @throws IOException
+     *             if the snapshot can't be read, which is expected
+     * @throws GedcomParserException
+     *             if the sample file can't be parsed
+     */
+    @Test(expected = EOFException.class)
+    public void testTruncated() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load("sample/willis.ged");
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new SnapshotWriter(gp.getGedcom()).write(baos);
+        byte[] bytes = baos.toByteArray();
+        new SnapshotReader().read(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length / 2)));
+    }
+
+    /**
+     * Write a gedcom to a snapshot in memory and read it back
+     * 
+     * @param gedcom
+     *            the gedcom
+     * @return the gedcom read back from the snapshot
+     * @throws IOException
+     *             if the snapshot can't be written or read
+     */
+    private Gedcom roundTrip(Gedcom gedcom) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new SnapshotWriter(gedcom).write(baos);
+        return new SnapshotReader().read(new ByteArrayInputStream(baos.toByteArray()));
+    }
+
+    /**
+     * Parse a file, write it to a snapshot in memory and read it back
+     * 
+     * @param filename
+     *            the file to parse
+     * @return the gedcom read back from the snapshot
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    private Gedcom roundTrip(String filename) throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load(filename);
+        return roundTrip(gp.getGedcom());
+    }
+
+    /**
+     * Write a short string value the way {@link SnapshotWriter} does
+     * 
+     * @param baos
+     *            the stream to write to
+     * @param s
+     *            the string, which must be shorter than 128 bytes
+     */
+    private void writeString(ByteArrayOutputStream baos, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        baos.write(SnapshotFormat.STRING);
+        baos.write(bytes.length);
+        baos.write(bytes, 0, bytes.length);
+    }
+}
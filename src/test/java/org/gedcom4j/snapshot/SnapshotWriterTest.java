@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.snapshot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.model.Individual;
+import org.gedcom4j.parser.GedcomParser;
+import org.junit.Test;
+
+/**
+ * Test for {@link SnapshotWriter}
+ * 
+ * @author frizbog
+ */
+public class SnapshotWriterTest {
+
+    /**
+     * Test that a gedcom built in code (rather than parsed) can be written to a file and read back
+     * 
+     * @throws IOException
+     *             if the file can't be written or read
+     */
+    @Test
+    public void testBuiltInCode() throws IOException {
+        Gedcom g = new Gedcom();
+        Individual i = new Individual();
+        i.setXref("@I1@");
+        g.getIndividuals().put(i.getXref(), i);
+        File f = File.createTempFile("gedcom4j", ".g4js");
+        try {
+            new SnapshotWriter(g).write(f);
+            assertEquals(g, new SnapshotReader().read(f));
+        } finally {
+            assertTrue(f.delete());
+        }
+    }
+
+    /**
+     * Test that a gedcom is required
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullGedcom() {
+        new SnapshotWriter(null);
+    }
+
+    /**
+     * Test that the snapshot of a parsed file is smaller than the file itself
+     * 
+     * @throws IOException
+     *             if the file can't be read or written
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Test
+    public void testSnapshotSize() throws IOException, GedcomParserException {
+        GedcomParser gp = new GedcomParser();
+        gp.load("sample/willis.ged");
+        File f = File.createTempFile("gedcom4j", ".g4js");
+        try {
+            new SnapshotWriter(gp.getGedcom()).write(f.getPath());
+            assertTrue("Snapshot is " + f.length() + " bytes", f.length() < new File("sample/willis.ged").length());
+            assertEquals(gp.getGedcom(), new SnapshotReader().read(f.getPath()));
+        } finally {
+            assertTrue(f.delete());
+        }
+    }
+}
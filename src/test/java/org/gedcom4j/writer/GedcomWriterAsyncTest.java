@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2009-2016 Matthew R. Harrah
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.gedcom4j.writer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.gedcom4j.exception.GedcomParserException;
+import org.gedcom4j.exception.GedcomWriterException;
+import org.gedcom4j.io.writer.NullOutputStream;
+import org.gedcom4j.model.Gedcom;
+import org.gedcom4j.parser.GedcomParser;
+import org.gedcom4j.writer.event.ConstructProgressEvent;
+import org.gedcom4j.writer.event.ConstructProgressListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for {@link GedcomWriter#writeAsync(java.io.OutputStream, java.util.concurrent.Executor)}
+ * 
+ * @author frizbog
+ */
+public class GedcomWriterAsyncTest {
+
+    /**
+     * The executor the writes run on
+     */
+    private ExecutorService executor;
+
+    /**
+     * The data to write
+     */
+    private Gedcom gedcom;
+
+    /**
+     * Set up the executor and load the data to write
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     */
+    @Before
+    public void setUp() throws IOException, GedcomParserException {
+        executor = Executors.newSingleThreadExecutor();
+        GedcomParser gp = new GedcomParser();
+        gp.load("sample/willis-ascii.ged");
+        gedcom = gp.getGedcom();
+    }
+
+    /**
+     * Shut down the executor
+     * 
+     * @throws InterruptedException
+     *             if interrupted while waiting for the executor to finish
+     */
+    @After
+    public void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Test cancelling a write while it is running
+     * 
+     * @throws InterruptedException
+     *             if the test is interrupted
+     * @throws GedcomWriterException
+     *             if the writer can't be created
+     */
+    @SuppressWarnings("resource")
+    @Test
+    public void testCancelWhileRunning() throws InterruptedException, GedcomWriterException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        GedcomWriter gw = new GedcomWriter(gedcom);
+        gw.setValidationSuppressed(true);
+        ConstructProgressListener l = new ConstructProgressListener() {
+            @Override
+            public void progressNotification(ConstructProgressEvent e) {
+                started.countDown();
+                try {
+                    cancelled.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        gw.registerConstructObserver(l);
+        Future<Void> f = gw.writeAsync(new NullOutputStream(), executor);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertTrue(f.cancel(false));
+        cancelled.countDown();
+        assertTrue(f.isCancelled());
+        assertTrue(gw.isCancelled());
+    }
+
+    /**
+     * Test that writing asynchronously writes the same as writing synchronously
+     * 
+     * @throws GedcomWriterException
+     *             if the data can't be written
+     * @throws InterruptedException
+     *             if the test is interrupted
+     * @throws ExecutionException
+     *             if the asynchronous write fails
+     */
+    @Test
+    public void testWriteAsync() throws GedcomWriterException, InterruptedException, ExecutionException {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        GedcomWriter gw = new GedcomWriter(gedcom);
+        gw.setValidationSuppressed(true);
+        gw.write(expected);
+
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        gw = new GedcomWriter(gedcom);
+        gw.setValidationSuppressed(true);
+        Future<Void> f = gw.writeAsync(actual, executor);
+        assertNull(f.get());
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    }
+
+}
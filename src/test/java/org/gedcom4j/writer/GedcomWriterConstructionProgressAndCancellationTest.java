@@ -29,6 +29,8 @@ package org.gedcom4j.writer;
 import static org.junit.Assert.assertEquals;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.gedcom4j.exception.GedcomParserException;
 import org.gedcom4j.exception.GedcomWriterException;
@@ -86,6 +88,50 @@ public class GedcomWriterConstructionProgressAndCancellationTest implements Cons
         constructionNotificationCount = 0;
     }
 
+    /**
+     * Test that with asynchronous notification a slow listener is given notifications on another thread, without holding up the
+     * write, and is given the last one before the write returns
+     * 
+     * @throws IOException
+     *             if the file can't be read
+     * @throws GedcomParserException
+     *             if the file can't be parsed
+     * @throws GedcomWriterException
+     *             if the file can't be written
+     */
+    @SuppressWarnings("resource")
+    @Test
+    public void testAsyncNotification() throws IOException, GedcomParserException, GedcomWriterException {
+        GedcomParser gp = new GedcomParser();
+        gp.load("sample/willis-ascii.ged");
+        Gedcom g = gp.getGedcom();
+        gw = new GedcomWriter(g);
+        gw.setValidationSuppressed(true);
+        gw.setAsyncNotification(true);
+        gw.setConstructionNotificationRate(1);
+        final List<Thread> threads = new ArrayList<>();
+        final List<Long> linesProcessed = new ArrayList<>();
+        ConstructProgressListener slow = new ConstructProgressListener() {
+            @Override
+            public void progressNotification(ConstructProgressEvent e) {
+                threads.add(Thread.currentThread());
+                linesProcessed.add(e.getLinesProcessed());
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        gw.registerConstructObserver(slow);
+        gw.write(new NullOutputStream());
+        Assert.assertFalse(threads.isEmpty());
+        // Delivered one at a time, 5ms apart, every line's notification would take nearly two minutes
+        Assert.assertTrue(threads.size() < 10000);
+        Assert.assertNotSame(Thread.currentThread(), threads.get(0));
+        assertEquals(Long.valueOf(gw.lines.size()), linesProcessed.get(linesProcessed.size() - 1));
+    }
+
     /**
      * Test with cancelling after getting a couple notifications
      * 
@@ -81,12 +81,12 @@ public class GedcomWriterFileProgressAndCancellationTest implements ConstructPro
     /**
      * How many lines were constructed
      */
-    private int linesConstructed = 0;
+    private long linesConstructed = 0;
 
     /**
      * How many bytes were written
      */
-    private int bytesWritten = 0;
+    private long bytesWritten = 0;
 
     /**
      * The GedcomWriter we're testing with